@@ -0,0 +1,109 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Calendar;
+import java.util.Locale;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.LocaleUtil;
+
+/**
+ * Test data of the benchmarks, either read from the test-data directory or generated.
+ * <p>
+ * The test-data directory is taken from the system property {@code POI.testdata.path},
+ * like in the unit tests.
+ */
+final class BenchmarkData {
+    /** the cell formats of the generated sheets, one per column */
+    static final String[] FORMATS = {
+        "General", "0", "#,##0.00", "0.0%", "0.00E+00", "# ?/?", "yyyy-mm-dd", "[h]:mm:ss", "@"
+    };
+
+    private BenchmarkData() {}
+
+    /**
+     * @param path the path relative to the test-data directory, e.g. {@code spreadsheet/SampleSS.xls}
+     * @return the content of the file
+     */
+    static byte[] getTestDataFile(String path) throws IOException {
+        String dataDir = System.getProperty("POI.testdata.path", "test-data");
+        File file = new File(dataDir, path);
+        if (!file.exists()) {
+            throw new IOException("Test data file " + file.getAbsolutePath() + " not found, " +
+                "set the system property POI.testdata.path to the test-data directory");
+        }
+        return Files.readAllBytes(file.toPath());
+    }
+
+    /**
+     * Fills a new sheet of the workbook with numbers, strings, dates and booleans,
+     * using one cell format per column, see {@link #FORMATS}
+     */
+    static Sheet fillSheet(Workbook wb, int rows) {
+        DataFormat dataFormat = wb.createDataFormat();
+        CellStyle[] styles = new CellStyle[FORMATS.length];
+        for (int i = 0; i < FORMATS.length; i++) {
+            styles[i] = wb.createCellStyle();
+            styles[i].setDataFormat(dataFormat.getFormat(FORMATS[i]));
+        }
+
+        Calendar cal = LocaleUtil.getLocaleCalendar(2020, 0, 1);
+        Sheet sheet = wb.createSheet();
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            for (int c = 0; c < FORMATS.length; c++) {
+                Cell cell = row.createCell(c);
+                cell.setCellStyle(styles[c]);
+                switch (c) {
+                    case 6:
+                        cell.setCellValue(cal.getTime());
+                        cal.add(Calendar.HOUR, 7);
+                        break;
+                    case 8:
+                        cell.setCellValue(String.format(Locale.ROOT, "text %d", r % 1000));
+                        break;
+                    default:
+                        cell.setCellValue((r + 1) * (c + 1) / 7.0);
+                        break;
+                }
+            }
+            row.createCell(FORMATS.length).setCellValue(r % 2 == 0);
+        }
+        return sheet;
+    }
+
+    /**
+     * @return the saved workbook
+     */
+    static byte[] toByteArray(Workbook wb) throws IOException {
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            wb.write(bos);
+            return bos.toByteArray();
+        }
+    }
+}
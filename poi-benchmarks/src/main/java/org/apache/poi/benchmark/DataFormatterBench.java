@@ -0,0 +1,93 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link DataFormatter#formatCellValue(Cell)} of generated cells with
+ * the number, date, fraction and text formats of {@link BenchmarkData#FORMATS}.
+ * <p>
+ * With {@code newFormatter = true} a new formatter is used for each invocation, which includes
+ * parsing the formats, while {@code false} reuses the formatter with its cached formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataFormatterBench {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"xls", "xlsx"})
+    private String format;
+
+    @Param({"true", "false"})
+    private boolean newFormatter;
+
+    private Workbook wb;
+    private Sheet sheet;
+    private DataFormatter formatter;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        wb = WorkbookFactory.create("xlsx".equals(format));
+        sheet = BenchmarkData.fillSheet(wb, rows);
+        formatter = new DataFormatter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void formatCellValue(Blackhole blackhole) {
+        DataFormatter df = newFormatter ? new DataFormatter() : formatter;
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                blackhole.consume(df.formatCellValue(cell));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + DataFormatterBench.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,94 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link FormulaEvaluator#evaluateAll()} of a sheet with arithmetic and aggregate formulas.
+ * <p>
+ * Run with the {@link GCProfiler}, see {@link #main(String[])}, to compare the allocation rate
+ * ({@code gc.alloc.rate.norm}) of the numeric evaluation path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormulaEvaluationBench {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"xls", "xlsx"})
+    private String format;
+
+    private Workbook wb;
+    private FormulaEvaluator evaluator;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        wb = WorkbookFactory.create("xlsx".equals(format));
+        Sheet sheet = wb.createSheet();
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            int n = r + 1;
+            row.createCell(0).setCellValue(r % 100);
+            row.createCell(1).setCellValue(r * 0.25);
+            row.createCell(2).setCellFormula("A" + n + "*B" + n + "+A" + n + "/4-1");
+            row.createCell(3).setCellFormula("-C" + n + "%+(A" + n + "-B" + n + ")*2");
+            row.createCell(4).setCellFormula("SUM(A" + n + ":D" + n + ")");
+            row.createCell(5).setCellFormula("MAX(A" + n + ":C" + n + ")-MIN(A" + n + ":C" + n + ")");
+        }
+        evaluator = wb.getCreationHelper().createFormulaEvaluator();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        wb.close();
+    }
+
+    @Benchmark
+    public void evaluateAll() {
+        evaluator.clearAllCachedResultValues();
+        evaluator.evaluateAll();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + FormulaEvaluationBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
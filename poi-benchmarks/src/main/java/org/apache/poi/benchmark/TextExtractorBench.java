@@ -0,0 +1,74 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.extractor.ExtractorFactory;
+import org.apache.poi.extractor.POITextExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the text extraction of documents from the test-data directory via {@link ExtractorFactory},
+ * i.e. the extractor detection, parsing the document and collecting the text.
+ * <p>
+ * The binary Word and PowerPoint formats require poi-scratchpad.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextExtractorBench {
+
+    @Param({
+        "spreadsheet/SampleSS.xls", "spreadsheet/SampleSS.xlsx",
+        "document/SampleDoc.doc", "document/SampleDoc.docx",
+        "slideshow/SampleShow.ppt", "slideshow/SampleShow.pptx"
+    })
+    private String file;
+
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        content = BenchmarkData.getTestDataFile(file);
+    }
+
+    @Benchmark
+    public String getText() throws IOException {
+        try (POITextExtractor extractor = ExtractorFactory.createExtractor(new ByteArrayInputStream(content))) {
+            return extractor.getText();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + TextExtractorBench.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(opt).run();
+    }
+}
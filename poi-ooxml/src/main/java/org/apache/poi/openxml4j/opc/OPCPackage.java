@@ -375,6 +375,41 @@ public abstract class OPCPackage implements RelationshipSource, Closeable {
         return pack;
     }
 
+    /**
+     * Open a package and store the zip entries and the created parts according to the strategy.
+     *
+     * @param in
+     *            The InputStream to read the package from. The stream is closed.
+     * @param strategy
+     *            The strategy, which decides where the part data is stored. The strategy can be shared
+     *            by packages, to apply the memory budget to all of them.
+     * @return A PackageBase object
+     *
+     * @throws InvalidFormatException
+     *              Throws if the specified file exist and is not valid.
+     * @throws IOException If reading the stream fails or no storage of the strategy can hold an entry
+     * @see ZipPackage#setPartStorageStrategy(PartStorageStrategy)
+     * @since POI 5.4.0
+     */
+    public static OPCPackage open(InputStream in, PartStorageStrategy strategy) throws InvalidFormatException,
+            IOException {
+        final OPCPackage pack;
+        try {
+            pack = new ZipPackage(in, PackageAccess.READ_WRITE, strategy);
+        } catch (InvalidZipException e) {
+            throw new InvalidFormatException(e.getMessage(), e);
+        }
+        try {
+            if (pack.partList == null) {
+                pack.getParts();
+            }
+        } catch (InvalidFormatException | RuntimeException e) {
+            IOUtils.closeQuietly(pack);
+            throw e;
+        }
+        return pack;
+    }
+
     /**
      * Opens a package if it exists, else it creates one.
      *
@@ -0,0 +1,241 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.poi.util.Internal;
+
+/**
+ * Decides, where the data of the package parts is stored and keeps track of the stored bytes.
+ * <p>
+ * The storages are tried in the order of {@link Storage}, i.e. a part is kept in the first used
+ * storage, which can hold its size. When a part grows beyond the maximum part size of its storage
+ * or the memory budget is exhausted, its data is moved to the next used storage.
+ * The memory budget limits the bytes, which are held by all parts in the heap and direct storages.
+ * These storages are charged with the capacity of their arrays and buffers, which can be larger
+ * than the part data.
+ * <p>
+ * The strategy applies to the parts, which are created or modified after it was set on the
+ * package, and to the entries of packages read from a stream (see
+ * {@link OPCPackage#open(java.io.InputStream, PartStorageStrategy)}). Packages can share a strategy,
+ * in which case the budget and the reported bytes cover all these packages, e.g. to limit the memory
+ * of a request in a multi-tenant server. The accounting is thread-safe.
+ * <p>
+ * Without a strategy, the part storage is determined by the static settings of
+ * {@link ZipPackage#setUseTempFilePackageParts(boolean)} and
+ * {@link org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource#setThresholdBytesForTempFiles(int)}.
+ *
+ * @since POI 5.4.0
+ */
+public final class PartStorageStrategy {
+    /** the maximum part size or memory budget is not limited */
+    public static final long UNLIMITED = -1;
+
+    private static final long NOT_USED = -2;
+
+    public enum Storage {
+        /** byte arrays on the java heap */
+        HEAP(true),
+        /** direct byte buffers outside the java heap */
+        DIRECT(true),
+        /** temp files, which are memory-mapped for reading */
+        MAPPED_TEMP_FILE(false),
+        /** temp files with encrypted data, see {@link org.apache.poi.poifs.crypt.temp.EncryptedTempData} */
+        ENCRYPTED_TEMP_FILE(false);
+
+        private final boolean inMemory;
+
+        Storage(boolean inMemory) {
+            this.inMemory = inMemory;
+        }
+
+        /**
+         * @return {@code true} if the storage counts against the memory budget
+         */
+        public boolean isInMemory() {
+            return inMemory;
+        }
+    }
+
+    private static final Storage[] STORAGES = Storage.values();
+
+    private final long[] maxPartSizes = new long[STORAGES.length];
+    private final AtomicLongArray bytesHeld = new AtomicLongArray(STORAGES.length);
+    private final AtomicLong memoryHeld = new AtomicLong();
+    private volatile long memoryBudget = UNLIMITED;
+
+    /**
+     * Creates a strategy, which keeps all parts on the heap without a memory budget
+     */
+    public PartStorageStrategy() {
+        this(Storage.HEAP, UNLIMITED);
+    }
+
+    /**
+     * Creates a strategy with a single storage
+     *
+     * @param storage the storage
+     * @param maxPartSize the maximum part size or {@link #UNLIMITED}
+     */
+    public PartStorageStrategy(Storage storage, long maxPartSize) {
+        for (Storage s : STORAGES) {
+            maxPartSizes[s.ordinal()] = NOT_USED;
+        }
+        setMaxPartSize(storage, maxPartSize);
+    }
+
+    /**
+     * Uses the storage for parts up to the given size
+     *
+     * @param storage the storage
+     * @param maxPartSize the maximum part size in bytes or {@link #UNLIMITED}
+     */
+    public void setMaxPartSize(Storage storage, long maxPartSize) {
+        if (maxPartSize < 0 && maxPartSize != UNLIMITED) {
+            throw new IllegalArgumentException("Invalid maximum part size: " + maxPartSize);
+        }
+        maxPartSizes[storage.ordinal()] = maxPartSize;
+    }
+
+    /**
+     * @return the maximum part size of the storage or {@link #UNLIMITED}
+     * @throws IllegalStateException if the storage is not used
+     */
+    public long getMaxPartSize(Storage storage) {
+        long maxPartSize = maxPartSizes[storage.ordinal()];
+        if (maxPartSize == NOT_USED) {
+            throw new IllegalStateException("The storage " + storage + " is not used");
+        }
+        return maxPartSize;
+    }
+
+    /**
+     * Stops using the storage for new part data
+     */
+    public void removeStorage(Storage storage) {
+        maxPartSizes[storage.ordinal()] = NOT_USED;
+    }
+
+    /**
+     * @return {@code true} if the storage is used for new part data
+     */
+    public boolean isUsed(Storage storage) {
+        return maxPartSizes[storage.ordinal()] != NOT_USED;
+    }
+
+    /**
+     * Sets the maximum number of bytes, which are held by the parts in the heap and direct storages
+     *
+     * @param memoryBudget the budget in bytes or {@link #UNLIMITED}
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0 && memoryBudget != UNLIMITED) {
+            throw new IllegalArgumentException("Invalid memory budget: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return the memory budget in bytes or {@link #UNLIMITED}
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return the bytes, which are currently held by the parts in the heap and direct storages
+     */
+    public long getMemoryHeld() {
+        return memoryHeld.get();
+    }
+
+    /**
+     * @return the bytes, which are currently held by the parts in the given storage
+     */
+    public long getBytesHeld(Storage storage) {
+        return bytesHeld.get(storage.ordinal());
+    }
+
+    /**
+     * @return the bytes, which are currently held by the parts in all storages
+     */
+    public long getBytesHeld() {
+        long total = 0;
+        for (int i = 0; i < STORAGES.length; i++) {
+            total += bytesHeld.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the first used storage after the given storage
+     *
+     * @param previous the previous storage or {@code null} to start with the first storage
+     * @return the next storage or {@code null} if there's none
+     */
+    @Internal
+    public Storage nextStorage(Storage previous) {
+        for (int i = (previous == null) ? 0 : previous.ordinal() + 1; i < STORAGES.length; i++) {
+            if (maxPartSizes[i] != NOT_USED) {
+                return STORAGES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserves the bytes for the growth of a part
+     *
+     * @param storage the storage of the part
+     * @param partSize the new size of the part
+     * @param bytes the bytes to reserve
+     * @return {@code true} if the storage can hold a part of the new size and the bytes fit into the budget
+     */
+    @Internal
+    public boolean reserve(Storage storage, long partSize, long bytes) {
+        long maxPartSize = maxPartSizes[storage.ordinal()];
+        if (maxPartSize == NOT_USED || (maxPartSize != UNLIMITED && partSize > maxPartSize)) {
+            return false;
+        }
+        if (storage.isInMemory()) {
+            long budget = memoryBudget;
+            long held;
+            do {
+                held = memoryHeld.get();
+                if (budget != UNLIMITED && held + bytes > budget) {
+                    return false;
+                }
+            } while (!memoryHeld.compareAndSet(held, held + bytes));
+        }
+        bytesHeld.addAndGet(storage.ordinal(), bytes);
+        return true;
+    }
+
+    /**
+     * Releases the bytes of a part, e.g. when it's truncated, moved or closed
+     */
+    @Internal
+    public void release(Storage storage, long bytes) {
+        if (storage.isInMemory()) {
+            memoryHeld.addAndGet(-bytes);
+        }
+        bytesHeld.addAndGet(storage.ordinal(), -bytes);
+    }
+}
@@ -25,11 +25,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
@@ -71,6 +74,21 @@ public final class ZipPackage extends OPCPackage {
      */
     private final ZipEntrySource zipArchive;
 
+    /**
+     * Copy the compressed data of unmodified parts on save
+     */
+    private boolean copyUnmodifiedPartsRaw;
+
+    /**
+     * Decides where the data of the created parts is stored, {@code null} for the static settings
+     */
+    private PartStorageStrategy partStorageStrategy;
+
+    /**
+     * The parts, which hold their data according to the part storage strategy
+     */
+    private final List<StoragePackagePart> storageParts = new ArrayList<>();
+
     /**
      * @param tempFilePackageParts whether to save package part data in temp files to save memory
      */
@@ -158,6 +176,29 @@ public final class ZipPackage extends OPCPackage {
         }
     }
 
+    /**
+     * Constructor. Opens a Zip based Open XML document from
+     *  an InputStream and stores the entries and the created parts
+     *  according to the strategy.
+     *
+     * @param in
+     *            Zip input stream to load.
+     * @param access
+     *            The package access mode.
+     * @param strategy
+     *            The strategy, which decides where the part data is stored.
+     * @throws IOException
+     *            if input stream cannot be opened, read, or closed
+     * @since POI 5.4.0
+     */
+    ZipPackage(InputStream in, PackageAccess access, PartStorageStrategy strategy) throws IOException {
+        super(access);
+        this.partStorageStrategy = strategy;
+        try (ZipArchiveThresholdInputStream zis = ZipHelper.openZipStream(in)) {
+            this.zipArchive = new ZipInputStreamZipEntrySource(zis, strategy);
+        }
+    }
+
     /**
      * Constructor. Opens a Zip based Open XML document from a file.
      *
@@ -411,7 +452,11 @@ public final class ZipPackage extends OPCPackage {
         }
 
         try {
-            if (useTempFilePackageParts) {
+            if (partStorageStrategy != null) {
+                StoragePackagePart part = new StoragePackagePart(this, partName, contentType, loadRelationships, partStorageStrategy);
+                storageParts.add(part);
+                return part;
+            } else if (useTempFilePackageParts) {
                 if (encryptTempFilePackageParts) {
                     return new EncryptedTempFilePackagePart(this, partName, contentType, loadRelationships);
                 } else {
@@ -494,6 +539,24 @@ public final class ZipPackage extends OPCPackage {
         }
     }
 
+    /**
+     * Delete a part from the package and release the storage of its data
+     *
+     * @throws IllegalArgumentException if partName is null.
+     */
+    @Override
+    protected void removePartImpl(PackagePartName partName) {
+        super.removePartImpl(partName);
+        for (Iterator<StoragePackagePart> it = storageParts.iterator(); it.hasNext(); ) {
+            StoragePackagePart part = it.next();
+            if (part.getPartName().equals(partName)) {
+                it.remove();
+                part.close();
+                break;
+            }
+        }
+    }
+
     /**
      * Create a unique identifier to be use as a temp file name.
      *
@@ -521,6 +584,9 @@ public final class ZipPackage extends OPCPackage {
         } catch (IOException e) {
             // Do nothing, user dont have to know
         }
+        // release the storage of the created parts
+        storageParts.forEach(StoragePackagePart::close);
+        storageParts.clear();
     }
 
     /**
@@ -539,6 +605,8 @@ public final class ZipPackage extends OPCPackage {
 
         final ZipArchiveOutputStream zos = (outputStream instanceof ZipArchiveOutputStream)
             ? (ZipArchiveOutputStream) outputStream : new ZipArchiveOutputStream(outputStream);
+        // subclasses of the zip stream, e.g. for SXSSF, don't necessarily support raw entries
+        final boolean copyRaw = copyUnmodifiedPartsRaw && zos.getClass() == ZipArchiveOutputStream.class;
 
         try {
             // If the core properties part does not exist in the part list,
@@ -588,6 +656,12 @@ public final class ZipPackage extends OPCPackage {
                 LOG.atDebug().log(() -> new SimpleMessage("Save part '" + ZipHelper.getZipItemNameFromOPCName(ppn.getName()) + "'"));
                 final PartMarshaller marshaller = partMarshallers.get(part._contentType);
 
+                // parts of the source archive are read-only, i.e. they are replaced, when they are modified
+                if (copyRaw && marshaller == null && part instanceof ZipPackagePart
+                    && copyRawPart((ZipPackagePart)part, zos)) {
+                    continue;
+                }
+
                 final PartMarshaller pm = (marshaller != null) ? marshaller : defaultPartMarshaller;
                 if (!pm.marshall(part, zos)) {
                     String errMsg = "The part " + ppn.getURI() + " failed to be saved in the stream with marshaller " + pm +
@@ -607,6 +681,91 @@ public final class ZipPackage extends OPCPackage {
         }
     }
 
+    /**
+     * Copies the compressed data of a part, which wasn't modified since the package was opened.
+     *
+     * @return {@code true} if the part was copied, {@code false} if the part needs to be marshalled
+     */
+    private boolean copyRawPart(ZipPackagePart part, ZipArchiveOutputStream zos) throws IOException, InvalidFormatException {
+        final ZipArchiveEntry source = part.getZipArchive();
+        if (zipArchive == null || source.getSize() <= 0 || source.getCompressedSize() < 0 || source.getCrc() < 0 ||
+            (source.getMethod() != ZipEntry.DEFLATED && source.getMethod() != ZipEntry.STORED)) {
+            return false;
+        }
+
+        try (InputStream raw = zipArchive.getRawInputStream(source)) {
+            if (raw == null) {
+                return false;
+            }
+
+            final ZipArchiveEntry partEntry = new ZipArchiveEntry(
+                ZipHelper.getZipItemNameFromOPCName(part.getPartName().getURI().getPath()));
+            partEntry.setMethod(source.getMethod());
+            partEntry.setSize(source.getSize());
+            partEntry.setCompressedSize(source.getCompressedSize());
+            partEntry.setCrc(source.getCrc());
+            ZipHelper.adjustEntryTime(partEntry);
+            zos.addRawArchiveEntry(partEntry, raw);
+        }
+
+        if (part.hasRelationships()) {
+            PackagePartName relationshipPartName = PackagingURIHelper.getRelationshipPartName(part.getPartName());
+            if (!ZipPartMarshaller.marshallRelationshipPart(part.getRelationships(), relationshipPartName, zos)) {
+                throw new IOException("The relationships of the part " + part.getPartName().getURI() + " failed to be saved");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets, if the parts, which weren't modified since the package was opened, are saved by copying
+     * their compressed data from the source archive instead of inflating and deflating it again.
+     * Only the modified parts, i.e. parts which were written via {@link PackagePart#getOutputStream()},
+     * and new parts are marshalled.
+     * <p>
+     * This is only applicable for packages opened from a file, which is read as zip file
+     * (see {@link ZipSecureFile}) and if the package is saved to a plain {@link ZipArchiveOutputStream}
+     * or an arbitrary {@link OutputStream}. Otherwise, all parts are marshalled.
+     *
+     * @param copyUnmodifiedPartsRaw {@code true} to copy the unmodified parts,
+     *      {@code false} to marshall all parts (the default)
+     *
+     * @since POI 5.4.0
+     */
+    public void setCopyUnmodifiedPartsRaw(boolean copyUnmodifiedPartsRaw) {
+        this.copyUnmodifiedPartsRaw = copyUnmodifiedPartsRaw;
+    }
+
+    /**
+     * @return {@code true} if the unmodified parts are copied on save
+     *
+     * @since POI 5.4.0
+     */
+    public boolean isCopyUnmodifiedPartsRaw() {
+        return copyUnmodifiedPartsRaw;
+    }
+
+    /**
+     * Sets the strategy, which decides where the data of the parts is stored, which are created or
+     * modified afterwards. The storage is released, when the package is closed or reverted.
+     *
+     * @param strategy the strategy or {@code null} to use the static settings of
+     *                 {@link #setUseTempFilePackageParts(boolean)} and {@link #setEncryptTempFilePackageParts(boolean)}
+     * @since POI 5.4.0
+     */
+    public void setPartStorageStrategy(PartStorageStrategy strategy) {
+        this.partStorageStrategy = strategy;
+    }
+
+    /**
+     * @return the strategy, which decides where the data of the parts is stored, or {@code null} if
+     *         the static settings are used
+     * @since POI 5.4.0
+     */
+    public PartStorageStrategy getPartStorageStrategy() {
+        return partStorageStrategy;
+    }
+
     /**
      * Get the zip archive
      *
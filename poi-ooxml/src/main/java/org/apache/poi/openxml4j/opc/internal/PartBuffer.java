@@ -0,0 +1,565 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy.Storage;
+import org.apache.poi.poifs.crypt.temp.EncryptedTempData;
+import org.apache.poi.poifs.nio.CleanerUtil;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Holds the data of a package part or zip entry in the storages of a {@link PartStorageStrategy}.
+ * <p>
+ * The data is appended to the current storage, until it exceeds the maximum part size of the storage
+ * or the memory budget. Then it's moved to the next storage of the strategy.
+ * The in-memory storages are charged with the capacity of their arrays and buffers, the file storages
+ * with the size of the data. The expected size only presizes an in-memory storage as far as the maximum
+ * part size and the memory budget allow it, otherwise the storage grows with the written data.
+ * Input streams, which are still open when the data is discarded, keep reading the old data.
+ * The direct buffers and mappings they read are then left to the garbage collector instead of
+ * being freed explicitly, so the streams should be closed.
+ *
+ * @since POI 5.4.0
+ */
+@Internal
+public final class PartBuffer implements Closeable {
+    private static final Logger LOG = PoiLogManager.getLogger(PartBuffer.class);
+
+    /** the maximum size of byte arrays and buffers */
+    private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private static final int MIN_CAPACITY = 256;
+
+    private final PartStorageStrategy strategy;
+    private long expectedSize;
+    private Store store;
+    private long size;
+    /** the bytes reserved for the current store */
+    private long reserved;
+
+    /**
+     * @param strategy the strategy to decide the storage
+     * @param expectedSize the expected size of the data or -1 if it's unknown
+     */
+    public PartBuffer(PartStorageStrategy strategy, long expectedSize) {
+        this.strategy = strategy;
+        this.expectedSize = expectedSize;
+    }
+
+    /**
+     * @return the number of stored bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the current storage or {@code null} if no data was stored
+     */
+    public Storage getStorage() {
+        return (store == null) ? null : store.storage;
+    }
+
+    /**
+     * Replaces the data with the data of the stream
+     */
+    public void load(InputStream is) throws IOException {
+        try (OutputStream os = getOutputStream()) {
+            IOUtils.copy(is, os);
+        }
+    }
+
+    /**
+     * Replaces the data with the data of the stream
+     *
+     * @param is the stream
+     * @param maxSize the maximum number of bytes to read
+     * @throws IOException if the stream can't be read, contains more than {@code maxSize} bytes
+     *                     or none of the storages can hold the data
+     */
+    public void load(InputStream is, long maxSize) throws IOException {
+        try (OutputStream os = getOutputStream()) {
+            IOUtils.copy(is, os, maxSize);
+        }
+        if (is.read() != -1) {
+            truncate();
+            throw new IOException("The data exceeds the maximum size of " + maxSize + " bytes");
+        }
+    }
+
+    /**
+     * @return a stream of the stored data
+     */
+    public InputStream getInputStream() throws IOException {
+        return (store == null) ? new ByteArrayInputStream(new byte[0]) : store.getInputStream(size);
+    }
+
+    /**
+     * Discards the data and returns a stream to write new data
+     */
+    public OutputStream getOutputStream() {
+        truncate();
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte)b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                append(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Appends the bytes to the data
+     */
+    public void append(byte[] b, int off, int len) throws IOException {
+        if (len <= 0) {
+            return;
+        }
+        ensureCapacity(len);
+        try {
+            store.write(b, off, len);
+        } catch (IOException | RuntimeException e) {
+            // only keep the reservation of what the store actually holds
+            long actual = store.capacityFor(size);
+            strategy.release(store.storage, reserved - actual);
+            reserved = actual;
+            throw e;
+        }
+        size += len;
+    }
+
+    /**
+     * Discards the data and releases the storage
+     */
+    public void truncate() {
+        expectedSize = -1;
+        freeStore();
+    }
+
+    /**
+     * Discards the data and releases the storage, same as {@link #truncate()}
+     */
+    @Override
+    public void close() {
+        truncate();
+    }
+
+    private void ensureCapacity(int len) throws IOException {
+        final long newSize = size + len;
+        if (store != null && store.canHold(newSize)) {
+            long newReserved = store.capacityFor(newSize);
+            if (strategy.reserve(store.storage, newSize, newReserved - reserved)) {
+                reserved = newReserved;
+                return;
+            }
+        }
+
+        // the expected size only decides the first storage, otherwise the data would spill immediately
+        final long partSize = Math.max(newSize, expectedSize);
+        Storage next = (store == null) ? null : store.storage;
+        while ((next = strategy.nextStorage(next)) != null) {
+            if (!canHold(next, partSize)) {
+                continue;
+            }
+            final long maxCapacity = maxCapacity(next);
+            long presize = Math.min(expectedSize, maxCapacity);
+            if (IOUtils.getMaxByteArrayInitSize() > 0) {
+                presize = Math.min(presize, IOUtils.getMaxByteArrayInitSize());
+            }
+            long capacity = initialCapacity(next, Math.max(newSize, presize), maxCapacity);
+            if (!strategy.reserve(next, partSize, capacity)) {
+                // without presizing, the data might still fit into the budget
+                long minCapacity = initialCapacity(next, newSize, maxCapacity);
+                if (minCapacity == capacity || !strategy.reserve(next, partSize, minCapacity)) {
+                    continue;
+                }
+                capacity = minCapacity;
+            }
+            Store newStore = null;
+            try {
+                newStore = createStore(next, (int)Math.min(capacity, MAX_ARRAY_SIZE), maxCapacity);
+                if (store != null) {
+                    LOG.atDebug().log("Moving {} bytes of part data from {} to {}", size, store.storage, next);
+                    try (InputStream is = store.getInputStream(size)) {
+                        byte[] buf = new byte[(int)Math.min(size, 64*1024)];
+                        for (int readBytes; (readBytes = is.read(buf)) > 0; ) {
+                            newStore.write(buf, 0, readBytes);
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                strategy.release(next, capacity);
+                if (newStore != null) {
+                    newStore.free();
+                }
+                throw e;
+            }
+            long oldSize = size;
+            freeStore();
+            store = newStore;
+            size = oldSize;
+            // the reservation of the appended bytes is included in the reservation of the new store
+            reserved = capacity;
+            return;
+        }
+        throw new IOException("None of the part storages can hold " + partSize + " bytes");
+    }
+
+    private static boolean canHold(Storage storage, long partSize) {
+        return !storage.isInMemory() || partSize <= MAX_ARRAY_SIZE;
+    }
+
+    /**
+     * @return the maximum capacity of an in-memory store, limited by the maximum part size of the storage
+     */
+    private long maxCapacity(Storage storage) {
+        long maxPartSize = strategy.getMaxPartSize(storage);
+        return (maxPartSize == PartStorageStrategy.UNLIMITED) ? MAX_ARRAY_SIZE : Math.min(maxPartSize, MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * @return the bytes to reserve for a new store, which holds the given size
+     */
+    private static long initialCapacity(Storage storage, long size, long maxCapacity) {
+        if (!storage.isInMemory()) {
+            return size;
+        }
+        return Math.max(size, Math.min(Math.max(size, MIN_CAPACITY), maxCapacity));
+    }
+
+    private void freeStore() {
+        if (store != null) {
+            strategy.release(store.storage, reserved);
+            store.free();
+            store = null;
+        }
+        size = 0;
+        reserved = 0;
+    }
+
+    private static Store createStore(Storage storage, int capacity, long maxCapacity) throws IOException {
+        switch (storage) {
+            case HEAP:
+                return new HeapStore(capacity, maxCapacity);
+            case DIRECT:
+                return new DirectStore(capacity, maxCapacity);
+            case MAPPED_TEMP_FILE:
+                return new MappedFileStore();
+            case ENCRYPTED_TEMP_FILE:
+                return new EncryptedStore();
+            default:
+                throw new IllegalStateException("Unknown storage " + storage);
+        }
+    }
+
+    private static int grow(int capacity, long minCapacity, long maxCapacity) {
+        return (int)Math.max(minCapacity, Math.min((long)capacity << 1, maxCapacity));
+    }
+
+    private abstract static class Store {
+        final Storage storage;
+        /** the number of open streams, which read the memory of the store */
+        final AtomicInteger openStreams = new AtomicInteger();
+
+        Store(Storage storage) {
+            this.storage = storage;
+        }
+
+        boolean canHold(long newSize) {
+            return PartBuffer.canHold(storage, newSize);
+        }
+
+        /**
+         * @return the bytes, which are held by the store after writing up to the given size
+         */
+        abstract long capacityFor(long newSize);
+
+        abstract void write(byte[] b, int off, int len) throws IOException;
+
+        abstract InputStream getInputStream(long size) throws IOException;
+
+        abstract void free();
+    }
+
+    private static final class HeapStore extends Store {
+        private final long maxCapacity;
+        private byte[] data;
+        private int count;
+
+        HeapStore(int capacity, long maxCapacity) {
+            super(Storage.HEAP);
+            this.maxCapacity = maxCapacity;
+            data = new byte[capacity];
+        }
+
+        @Override
+        long capacityFor(long newSize) {
+            return (newSize <= data.length) ? data.length : grow(data.length, newSize, maxCapacity);
+        }
+
+        @Override
+        void write(byte[] b, int off, int len) {
+            if (count + len > data.length) {
+                data = Arrays.copyOf(data, (int)capacityFor((long)count + len));
+            }
+            System.arraycopy(b, off, data, count, len);
+            count += len;
+        }
+
+        @Override
+        InputStream getInputStream(long size) {
+            return new ByteArrayInputStream(data, 0, count);
+        }
+
+        @Override
+        void free() {
+            data = null;
+        }
+    }
+
+    private static final class DirectStore extends Store {
+        private final long maxCapacity;
+        private ByteBuffer buffer;
+
+        DirectStore(int capacity, long maxCapacity) {
+            super(Storage.DIRECT);
+            this.maxCapacity = maxCapacity;
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        long capacityFor(long newSize) {
+            int capacity = buffer.capacity();
+            return (newSize <= capacity) ? capacity : grow(capacity, newSize, maxCapacity);
+        }
+
+        @Override
+        void write(byte[] b, int off, int len) {
+            if (buffer.remaining() < len) {
+                // the old buffer might still be read by a stream, so it's left to the garbage collector
+                ByteBuffer newBuffer = ByteBuffer.allocateDirect((int)capacityFor((long)buffer.position() + len));
+                buffer.flip();
+                newBuffer.put(buffer);
+                buffer = newBuffer;
+            }
+            buffer.put(b, off, len);
+        }
+
+        @Override
+        InputStream getInputStream(long size) {
+            ByteBuffer bb = buffer.duplicate();
+            bb.flip();
+            return new ByteBufferInputStream(bb, openStreams);
+        }
+
+        @Override
+        void free() {
+            // a buffer, which is still read by a stream, is left to the garbage collector
+            if (openStreams.get() == 0) {
+                freeBuffer(buffer);
+            }
+            buffer = null;
+        }
+    }
+
+    private static final class MappedFileStore extends Store {
+        private final File tempFile;
+        private final FileChannel channel;
+        private ByteBuffer mapped;
+
+        MappedFileStore() throws IOException {
+            super(Storage.MAPPED_TEMP_FILE);
+            tempFile = TempFile.createTempFile("poi-package-part", ".tmp");
+            channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        long capacityFor(long newSize) {
+            return newSize;
+        }
+
+        @Override
+        void write(byte[] b, int off, int len) throws IOException {
+            // an existing mapping might still be read by a stream, so it's left to the garbage collector
+            mapped = null;
+            ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+            while (bb.hasRemaining()) {
+                channel.write(bb);
+            }
+        }
+
+        @Override
+        InputStream getInputStream(long size) throws IOException {
+            if (size > MAX_ARRAY_SIZE || !CleanerUtil.UNMAP_SUPPORTED) {
+                // without unmapping, the temp file couldn't be deleted on some platforms
+                return Channels.newInputStream(FileChannel.open(tempFile.toPath(), StandardOpenOption.READ));
+            }
+            if (mapped == null) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return new ByteBufferInputStream(mapped.duplicate(), openStreams);
+        }
+
+        @Override
+        void free() {
+            // a mapping, which is still read by a stream, is left to the garbage collector
+            if (openStreams.get() == 0) {
+                freeBuffer(mapped);
+            }
+            mapped = null;
+            IOUtils.closeQuietly(channel);
+            if (!tempFile.delete()) {
+                LOG.atInfo().log("Failed to delete temp file {}", tempFile);
+            }
+        }
+    }
+
+    private static final class EncryptedStore extends Store {
+        private EncryptedTempData data;
+        private OutputStream os;
+
+        EncryptedStore() throws IOException {
+            super(Storage.ENCRYPTED_TEMP_FILE);
+            data = new EncryptedTempData();
+            os = data.getOutputStream();
+        }
+
+        @Override
+        long capacityFor(long newSize) {
+            return newSize;
+        }
+
+        @Override
+        void write(byte[] b, int off, int len) throws IOException {
+            if (os == null) {
+                // the cipher stream was closed for reading, so the data is copied to new temp data
+                EncryptedTempData newData = new EncryptedTempData();
+                OutputStream newOs = newData.getOutputStream();
+                try (InputStream is = data.getInputStream()) {
+                    IOUtils.copy(is, newOs);
+                } catch (IOException e) {
+                    IOUtils.closeQuietly(newOs);
+                    newData.dispose();
+                    throw e;
+                }
+                data.dispose();
+                data = newData;
+                os = newOs;
+            }
+            os.write(b, off, len);
+        }
+
+        @Override
+        InputStream getInputStream(long size) throws IOException {
+            if (os != null) {
+                os.close();
+                os = null;
+            }
+            return data.getInputStream();
+        }
+
+        @Override
+        void free() {
+            IOUtils.closeQuietly(os);
+            os = null;
+            data.dispose();
+        }
+    }
+
+    private static void freeBuffer(ByteBuffer buffer) {
+        if (buffer != null && CleanerUtil.UNMAP_SUPPORTED) {
+            try {
+                CleanerUtil.getCleaner().freeBuffer(buffer);
+            } catch (IOException e) {
+                LOG.atWarn().withThrowable(e).log("Failed to free buffer");
+            }
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private final AtomicInteger openStreams;
+        private boolean closed;
+
+        ByteBufferInputStream(ByteBuffer buffer, AtomicInteger openStreams) {
+            this.buffer = buffer;
+            this.openStreams = openStreams;
+            openStreams.incrementAndGet();
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int readBytes = Math.min(len, buffer.remaining());
+            buffer.get(b, off, readBytes);
+            return readBytes;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int)Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                openStreams.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy;
+import org.apache.poi.openxml4j.opc.internal.marshallers.ZipPartMarshaller;
+
+/**
+ * Package part, which stores its data according to a {@link PartStorageStrategy}.
+ *
+ * @since POI 5.4.0
+ */
+public final class StoragePackagePart extends PackagePart {
+
+    /**
+     * Storage for the part data.
+     */
+    private final PartBuffer data;
+
+    /**
+     * Constructor.
+     *
+     * @param pack
+     *            The owner package.
+     * @param partName
+     *            The part name.
+     * @param contentType
+     *            The content type.
+     * @param loadRelationships
+     *            Specify if the relationships will be loaded.
+     * @param strategy
+     *            The strategy, which decides where the part data is stored.
+     * @throws InvalidFormatException
+     *             If the specified URI is not OPC compliant.
+     */
+    public StoragePackagePart(OPCPackage pack, PackagePartName partName, String contentType,
+                              boolean loadRelationships, PartStorageStrategy strategy)
+            throws InvalidFormatException {
+        super(pack, partName, new ContentType(contentType), loadRelationships);
+        data = new PartBuffer(strategy, -1);
+    }
+
+    /**
+     * @return the storage of the part data or {@code null} if the part is empty
+     */
+    public PartStorageStrategy.Storage getStorage() {
+        return data.getStorage();
+    }
+
+    @Override
+    protected InputStream getInputStreamImpl() throws IOException {
+        return data.getInputStream();
+    }
+
+    @Override
+    protected OutputStream getOutputStreamImpl() {
+        return data.getOutputStream();
+    }
+
+    @Override
+    public long getSize() {
+        return data.getSize();
+    }
+
+    @Override
+    public void clear() {
+        data.truncate();
+    }
+
+    @Override
+    public boolean save(OutputStream os) throws OpenXML4JException {
+        return new ZipPartMarshaller().marshall(this, os);
+    }
+
+    @Override
+    public boolean load(InputStream is) throws InvalidFormatException {
+        try {
+            data.load(is);
+        } catch (IOException e) {
+            throw new InvalidFormatException(e.getMessage(), e);
+        }
+
+        // All done
+        return true;
+    }
+
+    @Override
+    public void close() {
+        data.close();
+    }
+
+    @Override
+    public void flush() {
+        // Do nothing
+    }
+}
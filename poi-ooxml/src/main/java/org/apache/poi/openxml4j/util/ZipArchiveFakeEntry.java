@@ -24,6 +24,8 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.io.input.UnsynchronizedByteArrayInputStream;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy;
+import org.apache.poi.openxml4j.opc.internal.PartBuffer;
 import org.apache.poi.poifs.crypt.temp.EncryptedTempData;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.TempFile;
@@ -33,6 +35,7 @@ import org.apache.poi.util.TempFile;
  *  effectively work with it.
  * Holds the (decompressed!) data in memory (or since POI 5.1.0, possibly in a temp file), so
  *  close this as soon as you can!
+ * Since POI 5.4.0, the data can be stored according to a {@link PartStorageStrategy}.
  * @see ZipInputStreamZipEntrySource#setThresholdBytesForTempFiles(int)
  */
 /* package */ class ZipArchiveFakeEntry extends ZipArchiveEntry implements Closeable {
@@ -54,12 +57,34 @@ import org.apache.poi.util.TempFile;
     private byte[] data;
     private File tempFile;
     private EncryptedTempData encryptedTempData;
+    private PartBuffer buffer;
 
     ZipArchiveFakeEntry(ZipArchiveEntry entry, InputStream inp) throws IOException {
+        this(entry, inp, null);
+    }
+
+    ZipArchiveFakeEntry(ZipArchiveEntry entry, InputStream inp, PartStorageStrategy strategy) throws IOException {
         super(entry.getName());
 
         final long entrySize = entry.getSize();
 
+        if (strategy != null) {
+            if (entrySize < -1 || entrySize >= Integer.MAX_VALUE) {
+                throw new IOException("ZIP entry size is too large or invalid");
+            }
+            if (entrySize != -1) {
+                IOUtils.safelyAllocateCheck(entrySize, getMaxEntrySize());
+            }
+            buffer = new PartBuffer(strategy, entrySize);
+            try {
+                buffer.load(inp, getMaxEntrySize());
+            } catch (IOException | RuntimeException e) {
+                buffer.close();
+                throw e;
+            }
+            return;
+        }
+
         final int threshold = ZipInputStreamZipEntrySource.getThresholdBytesForTempFiles();
         if (threshold >= 0 && entrySize >= threshold) {
             if (ZipInputStreamZipEntrySource.shouldEncryptTempFiles()) {
@@ -92,7 +117,9 @@ import org.apache.poi.util.TempFile;
      * @see ZipInputStreamZipEntrySource#setThresholdBytesForTempFiles(int)
      */
     public InputStream getInputStream() throws IOException {
-        if (encryptedTempData != null) {
+        if (buffer != null) {
+            return buffer.getInputStream();
+        } else if (encryptedTempData != null) {
             try {
                 return encryptedTempData.getInputStream();
             } catch (IOException e) {
@@ -119,6 +146,10 @@ import org.apache.poi.util.TempFile;
     @Override
     public void close() throws IOException {
         data = null;
+        if (buffer != null) {
+            buffer.close();
+            buffer = null;
+        }
         if (encryptedTempData != null) {
             encryptedTempData.dispose();
         }
@@ -50,6 +50,18 @@ public interface ZipEntrySource extends Closeable {
      *  data that makes up the entry
      */
     InputStream getInputStream(ZipArchiveEntry entry) throws IOException;
+
+    /**
+     * Returns an InputStream of the compressed data of the entry, i.e. the data is
+     * neither inflated nor checked against the CRC
+     *
+     * @return the raw data or {@code null} if the source doesn't provide the compressed data
+     *
+     * @since POI 5.4.0
+     */
+    default InputStream getRawInputStream(ZipArchiveEntry entry) throws IOException {
+        return null;
+    }
     
     /**
      * Indicates we are done with reading, and 
@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy;
 import org.apache.poi.openxml4j.opc.internal.InvalidZipException;
 
 /**
@@ -96,22 +97,50 @@ public class ZipInputStreamZipEntrySource implements ZipEntrySource {
      * @see #setThresholdBytesForTempFiles
      */
     public ZipInputStreamZipEntrySource(ZipArchiveThresholdInputStream inp) throws IOException {
+        this(inp, null);
+    }
+
+    /**
+     * Reads all the entries from the ZipInputStream into the storages
+     *  of the strategy, and don't close the source stream.
+     * @param inp the zip input stream
+     * @param strategy the strategy, which decides where the entry data is stored,
+     *                 or {@code null} to use the static temp file settings
+     * @throws IOException if an error occurs while reading the zip entries
+     *                     or no storage of the strategy can hold an entry
+     * @throws InvalidZipException if the input file contains an entry with an empty name or more than 1 entry with the same name
+     * @since POI 5.4.0
+     */
+    public ZipInputStreamZipEntrySource(ZipArchiveThresholdInputStream inp, PartStorageStrategy strategy) throws IOException {
         final Set<String> filenames = new HashSet<>();
-        for (;;) {
-            final ZipArchiveEntry zipEntry = inp.getNextEntry();
-            if (zipEntry == null) {
-                break;
-            }
-            String name = zipEntry.getName();
-            if (name == null || name.isEmpty()) {
-                throw new InvalidZipException("Input file contains an entry with an empty name");
+        try {
+            for (;;) {
+                final ZipArchiveEntry zipEntry = inp.getNextEntry();
+                if (zipEntry == null) {
+                    break;
+                }
+                String name = zipEntry.getName();
+                if (name == null || name.isEmpty()) {
+                    throw new InvalidZipException("Input file contains an entry with an empty name");
+                }
+                name = name.toLowerCase(Locale.ROOT);
+                if (filenames.contains(name)) {
+                    throw new InvalidZipException("Input file contains more than 1 entry with the name " + zipEntry.getName());
+                }
+                filenames.add(name);
+                zipEntries.put(name, new ZipArchiveFakeEntry(zipEntry, inp, strategy));
             }
-            name = name.toLowerCase(Locale.ROOT);
-            if (filenames.contains(name)) {
-                throw new InvalidZipException("Input file contains more than 1 entry with the name " + zipEntry.getName());
+        } catch (IOException | RuntimeException e) {
+            // release the storage of the entries read so far, as the caller doesn't get a source to close
+            for (ZipArchiveFakeEntry entry : zipEntries.values()) {
+                try {
+                    entry.close();
+                } catch (IOException | RuntimeException closeException) {
+                    e.addSuppressed(closeException);
+                }
             }
-            filenames.add(name);
-            zipEntries.put(name, new ZipArchiveFakeEntry(zipEntry, inp));
+            zipEntries.clear();
+            throw e;
         }
 
         streamToClose = inp;
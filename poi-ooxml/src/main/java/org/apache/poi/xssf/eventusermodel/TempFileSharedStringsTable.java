@@ -0,0 +1,415 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A read-only shared strings table, which keeps the strings off-heap.
+ * <p>
+ * The sst.xml part is streamed once into two temp files: the UTF-8 encoded
+ * text of all entries and an index with the offset of each entry. Both files are
+ * memory-mapped and {@link #getItemAt(int)} decodes the requested entry from the
+ * mapping. A small LRU cache keeps the most recently decoded strings.
+ * <p>
+ * The text is extracted the same way as by {@link ReadOnlySharedStringsTable},
+ * i.e. without formatting runs. Use this instead of {@link ReadOnlySharedStringsTable}
+ * for workbooks with a huge number of unique strings, where holding all of them
+ * on the heap is not an option.
+ * <p>
+ * The temp files are created via {@link TempFile} and are removed by {@link #close()}.
+ *
+ * @see XSSFReader#setUseTempFileSharedStringsTable(boolean)
+ * @since POI 5.4.0
+ */
+public class TempFileSharedStringsTable implements SharedStrings, Closeable {
+    private static final Logger LOG = PoiLogManager.getLogger(TempFileSharedStringsTable.class);
+
+    /**
+     * The default number of decoded strings kept in the LRU cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    protected final boolean includePhoneticRuns;
+
+    /**
+     * An integer representing the total count of strings in the workbook. This count does not
+     * include any numbers, it counts only the total of text strings in the workbook.
+     */
+    protected int count;
+
+    /**
+     * An integer representing the total count of unique strings in the Shared String Table.
+     * A string is unique even if it is a copy of another string, but has different formatting applied
+     * at the character level.
+     */
+    protected int uniqueCount;
+
+    /** the number of entries actually found in the part */
+    private int size;
+
+    /** the number of bytes written to the data file while parsing */
+    private long dataWritten;
+
+    private File dataFile;
+    private File indexFile;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    /** the mapped text, {@code null} if the text is too large to be mapped at once */
+    private ByteBuffer dataBuffer;
+    /** the mapped offsets, {@code null} if the index is too large to be mapped at once */
+    private ByteBuffer indexBuffer;
+    private final ByteBuffer offsetBuf = ByteBuffer.allocate(16);
+    private byte[] scratch = new byte[256];
+
+    private final Map<Integer, String> cache;
+    private boolean closed;
+
+    /**
+     * @param pkg The {@link OPCPackage} to use as basis for the shared-strings table.
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @throws IOException If reading the data from the package or writing the temp files fails.
+     * @throws SAXException if parsing the XML data fails.
+     */
+    public TempFileSharedStringsTable(OPCPackage pkg, boolean includePhoneticRuns)
+            throws IOException, SAXException {
+        this(firstPart(pkg), includePhoneticRuns);
+    }
+
+    /**
+     * Calls {@link #TempFileSharedStringsTable(PackagePart, boolean)}, with a
+     * value of <code>true</code> to include phonetic runs.
+     */
+    public TempFileSharedStringsTable(PackagePart part) throws IOException, SAXException {
+        this(part, true);
+    }
+
+    /**
+     * @param part the shared strings part, may be {@code null} for an empty table
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     */
+    public TempFileSharedStringsTable(PackagePart part, boolean includePhoneticRuns)
+            throws IOException, SAXException {
+        this(part == null ? null : part.getInputStream(), includePhoneticRuns, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param stream the sst.xml data, the stream is closed when it is read.
+     *              May be {@code null} for an empty table
+     * @param includePhoneticRuns whether or not to concatenate phoneticRuns onto the shared string
+     * @param cacheSize the number of decoded strings to keep on the heap
+     */
+    public TempFileSharedStringsTable(InputStream stream, boolean includePhoneticRuns, int cacheSize)
+            throws IOException, SAXException {
+        this.includePhoneticRuns = includePhoneticRuns;
+        final int maxEntries = Math.max(0, cacheSize);
+        this.cache = new LinkedHashMap<Integer, String>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        boolean success = false;
+        // the stream is closed and the temp files, which were already created, are removed on every failure
+        try (InputStream is = stream) {
+            dataFile = TempFile.createTempFile("poi-sst-data", ".tmp");
+            indexFile = TempFile.createTempFile("poi-sst-index", ".tmp");
+            try (OutputStream data = new BufferedOutputStream(new FileOutputStream(dataFile));
+                 DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+                if (is != null) {
+                    readFrom(is, data, index);
+                }
+                // the end offset of the last entry
+                index.writeLong(dataWritten);
+            }
+            openMappings();
+            success = true;
+        } finally {
+            if (!success) {
+                close();
+            }
+        }
+    }
+
+    private static PackagePart firstPart(OPCPackage pkg) {
+        ArrayList<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        // Some workbooks have no shared strings table.
+        return parts.isEmpty() ? null : parts.get(0);
+    }
+
+    private void readFrom(InputStream is, OutputStream data, DataOutputStream index) throws IOException, SAXException {
+        // test if the file is empty, otherwise parse it
+        PushbackInputStream pis = new PushbackInputStream(is, 1);
+        int emptyTest = pis.read();
+        if (emptyTest > -1) {
+            pis.unread(emptyTest);
+            InputSource sheetSource = new InputSource(pis);
+            try {
+                XMLReader sheetParser = XMLHelper.newXMLReader();
+                sheetParser.setContentHandler(new SstHandler(data, index));
+                sheetParser.parse(sheetSource);
+            } catch(ParserConfigurationException e) {
+                throw new SAXException("SAX parser appears to be broken - " + e.getMessage());
+            }
+        }
+    }
+
+    private void openMappings() throws IOException {
+        dataChannel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+        indexChannel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ);
+        dataBuffer = map(dataChannel);
+        indexBuffer = map(indexChannel);
+    }
+
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        final long len = channel.size();
+        // larger files are accessed via positional reads
+        return (len > Integer.MAX_VALUE) ? null : channel.map(FileChannel.MapMode.READ_ONLY, 0, len);
+    }
+
+    /**
+     * Return an integer representing the total count of strings in the workbook. This count does not
+     * include any numbers, it counts only the total of text strings in the workbook.
+     *
+     * @return the total count of strings in the workbook
+     */
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns an integer representing the total count of unique strings in the Shared String Table.
+     * A string is unique even if it is a copy of another string, but has different formatting applied
+     * at the character level.
+     *
+     * @return the total count of unique strings in the workbook
+     */
+    @Override
+    public int getUniqueCount() {
+        return this.uniqueCount;
+    }
+
+    @Override
+    public RichTextString getItemAt(int idx) {
+        return new XSSFRichTextString(getString(idx));
+    }
+
+    /**
+     * Returns the plain text of an entry
+     *
+     * @param idx index of item to return.
+     * @return the text at the specified position in this Shared String table.
+     */
+    public synchronized String getString(int idx) {
+        if (closed) {
+            throw new IllegalStateException("The shared strings table has already been closed");
+        }
+        if (idx < 0 || idx >= size) {
+            throw new IllegalStateException("Cannot get item at " + idx + " with " + size + " strings");
+        }
+        final Integer key = idx;
+        String str = cache.get(key);
+        if (str == null) {
+            str = decode(idx);
+            cache.put(key, str);
+        }
+        return str;
+    }
+
+    private String decode(int idx) {
+        try {
+            final long start, end;
+            if (indexBuffer != null) {
+                start = indexBuffer.getLong(idx * 8);
+                end = indexBuffer.getLong(idx * 8 + 8);
+            } else {
+                offsetBuf.clear();
+                readFully(indexChannel, offsetBuf, idx * 8L);
+                start = offsetBuf.getLong(0);
+                end = offsetBuf.getLong(8);
+            }
+            final int len = Math.toIntExact(end - start);
+            if (scratch.length < len) {
+                scratch = IOUtils.safelyAllocate(len, Integer.MAX_VALUE);
+            }
+            if (dataBuffer != null) {
+                dataBuffer.position((int)start);
+                dataBuffer.get(scratch, 0, len);
+            } else {
+                readFully(dataChannel, ByteBuffer.wrap(scratch, 0, len), start);
+            }
+            return new String(scratch, 0, len, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read shared string " + idx, e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer dst, long pos) throws IOException {
+        while (dst.hasRemaining()) {
+            int read = channel.read(dst, pos);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * Releases the mappings and deletes the temp files
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        cache.clear();
+        dataBuffer = null;
+        indexBuffer = null;
+        IOUtils.closeQuietly(dataChannel);
+        IOUtils.closeQuietly(indexChannel);
+        deleteTempFile(dataFile);
+        deleteTempFile(indexFile);
+    }
+
+    private static void deleteTempFile(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            // the mapping might still be alive on some platforms until it is garbage collected
+            LOG.atDebug().log("Temp file {} could not be deleted, deleting it on exit", file);
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Writes the text of each si element to the data file and its offset to the index file
+     */
+    private final class SstHandler extends DefaultHandler {
+        private final OutputStream data;
+        private final DataOutputStream index;
+        private final StringBuilder characters = new StringBuilder(64);
+        private boolean sstIsOpen;
+        private boolean tIsOpen;
+        private boolean inRPh;
+
+        SstHandler(OutputStream data, DataOutputStream index) {
+            this.data = data;
+            this.index = index;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String name,
+                                 Attributes attributes) throws SAXException {
+            if (uri != null && ! uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("sst".equals(localName)) {
+                String count = attributes.getValue("count");
+                if(count != null) TempFileSharedStringsTable.this.count = (int) Long.parseLong(count);
+                String uniqueCount = attributes.getValue("uniqueCount");
+                if(uniqueCount != null) TempFileSharedStringsTable.this.uniqueCount = (int) Long.parseLong(uniqueCount);
+                sstIsOpen = true;
+            } else if ("si".equals(localName)) {
+                characters.setLength(0);
+            } else if ("t".equals(localName)) {
+                tIsOpen = true;
+            } else if ("rPh".equals(localName)) {
+                inRPh = true;
+                //append space...this assumes that rPh always comes after regular <t>
+                if (includePhoneticRuns && characters.length() > 0) {
+                    characters.append(" ");
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String name) throws SAXException {
+            if (uri != null && ! uri.equals(NS_SPREADSHEETML)) {
+                return;
+            }
+
+            if ("si".equals(localName)) {
+                if (sstIsOpen) {
+                    addEntry();
+                }
+            } else if ("t".equals(localName)) {
+                tIsOpen = false;
+            } else if ("rPh".equals(localName)) {
+                inRPh = false;
+            }
+        }
+
+        /**
+         * Captures characters only if a t(ext) element is open.
+         */
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (tIsOpen && (!inRPh || includePhoneticRuns)) {
+                characters.append(ch, start, length);
+            }
+        }
+
+        private void addEntry() throws SAXException {
+            try {
+                index.writeLong(dataWritten);
+                byte[] utf8 = characters.toString().getBytes(StandardCharsets.UTF_8);
+                data.write(utf8);
+                dataWritten += utf8.length;
+                size++;
+            } catch (IOException e) {
+                throw new SAXException("Failed to write shared string to temp file", e);
+            }
+        }
+    }
+}
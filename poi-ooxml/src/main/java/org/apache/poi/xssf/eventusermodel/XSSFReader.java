@@ -28,6 +28,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -43,6 +45,7 @@ import org.apache.poi.openxml4j.opc.PackageRelationship;
 import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
 import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
 import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.util.ConcurrentTasks;
 import org.apache.poi.util.XMLHelper;
 import org.apache.poi.xssf.model.*;
 import org.apache.poi.xssf.usermodel.XSSFDrawing;
@@ -75,6 +78,7 @@ public class XSSFReader {
     protected OPCPackage pkg;
     protected PackagePart workbookPart;
     protected boolean useReadOnlySharedStringsTable;
+    protected boolean useTempFileSharedStringsTable;
 
     /**
      * Creates a new XSSFReader, for the given package
@@ -142,6 +146,28 @@ public class XSSFReader {
         return useReadOnlySharedStringsTable;
     }
 
+    /**
+     * Controls whether {@link #getSharedStringsTable()} uses a {@link TempFileSharedStringsTable},
+     * which keeps the strings in memory-mapped temp files instead of on the heap.
+     * This takes precedence over {@link #setUseReadOnlySharedStringsTable(boolean)}.
+     * <p>
+     * The caller is responsible for closing the returned table to remove the temp files.
+     *
+     * @param useTempFileSharedStringsTable if true, the TempFileSharedStringsTable is used
+     * @since POI 5.4.0
+     */
+    public void setUseTempFileSharedStringsTable(boolean useTempFileSharedStringsTable) {
+        this.useTempFileSharedStringsTable = useTempFileSharedStringsTable;
+    }
+
+    /**
+     * @return whether {@link #getSharedStringsTable()} uses {@link TempFileSharedStringsTable}
+     * @since POI 5.4.0
+     */
+    public boolean useTempFileSharedStringsTable() {
+        return useTempFileSharedStringsTable;
+    }
+
     /**
      * Opens up the Shared Strings Table, parses it, and
      * returns a handy object for working with
@@ -151,11 +177,13 @@ public class XSSFReader {
      * @throws InvalidFormatException if the shared strings data format is invalid
      * @throws IOException if there is an I/O issue reading the data
      * @see #setUseReadOnlySharedStringsTable(boolean)
+     * @see #setUseTempFileSharedStringsTable(boolean)
      */
     public SharedStrings getSharedStringsTable() throws IOException, InvalidFormatException {
         ArrayList<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
         try {
             return parts.isEmpty() ? null :
+                    useTempFileSharedStringsTable ? new TempFileSharedStringsTable(parts.get(0)) :
                     useReadOnlySharedStringsTable ? new ReadOnlySharedStringsTable(parts.get(0)) :
                             new SharedStringsTable(parts.get(0));
         } catch (SAXException se) {
@@ -286,6 +314,79 @@ public class XSSFReader {
         return new SheetIterator(workbookPart);
     }
 
+    /**
+     * Processes all sheets concurrently, each one as a separate task on the given executor.
+     * <p>
+     * The sheet parts are independent of each other, so e.g. a {@link XSSFSheetXMLHandler}
+     * per sheet can run in parallel. The {@link SharedStrings} and {@link StylesTable}
+     * should be obtained beforehand and are shared by all tasks, which only read from them.
+     * The processor is called from multiple threads and needs to be thread-safe itself.
+     * <p>
+     * The sheet stream is closed after the processor returns. This method returns when all
+     * sheets have been processed. If a task fails, the other tasks are still completed and
+     * the exception of a failed task is rethrown.
+     *
+     * @param executor the executor which runs the tasks, e.g. a fixed thread pool or
+     *  on Java 21+ {@code Executors.newVirtualThreadPerTaskExecutor()}
+     * @param processor the callback which processes a single sheet
+     * @throws InvalidFormatException if the sheet data format is invalid
+     * @throws IOException if there is an I/O issue reading the data
+     * @throws SAXException if the processor failed to parse a sheet
+     * @since POI 5.4.0
+     */
+    public void processSheetsConcurrently(Executor executor, SheetProcessor processor)
+            throws IOException, InvalidFormatException, SAXException {
+        // resolve the sheets on the calling thread, only the parsing is done concurrently
+        SheetIterator iter = getSheetIterator();
+        try (ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(executor)) {
+            int sheetIndex = 0;
+            while (iter.sheetIterator.hasNext()) {
+                final XSSFSheetRef ref = iter.sheetIterator.next();
+                final PackagePart sheetPart = iter.sheetMap.get(ref.getId());
+                if (sheetPart == null) {
+                    throw new POIXMLException("Failed to find sheet package for sheetId=" + ref.getId());
+                }
+                final int index = sheetIndex++;
+                tasks.run(() -> {
+                    try (InputStream stream = sheetPart.getInputStream()) {
+                        processor.processSheet(index, ref.getName(), stream);
+                    } catch (IOException | SAXException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+            }
+            tasks.joinAll();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof SAXException) {
+                throw (SAXException)cause;
+            }
+            throw new POIXMLException(cause);
+        }
+    }
+
+    /**
+     * Callback for {@link #processSheetsConcurrently(Executor, SheetProcessor)}
+     *
+     * @since POI 5.4.0
+     */
+    @FunctionalInterface
+    public interface SheetProcessor {
+        /**
+         * Processes the data of a single sheet
+         *
+         * @param sheetIndex the index of the sheet, in the order of the workbook
+         * @param sheetName the name of the sheet
+         * @param sheetData the sheet xml, which is closed by the caller
+         * @throws IOException if there is an I/O issue reading the data
+         * @throws SAXException if the sheet xml can't be parsed
+         */
+        void processSheet(int sheetIndex, String sheetName, InputStream sheetData) throws IOException, SAXException;
+    }
+
     /**
      * Iterator over sheet data.
      */
@@ -0,0 +1,560 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.Styles;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * A pull based reader for the sheet#.xml part of a XSSF .xlsx file,
+ * as an alternative to the push based {@link XSSFSheetXMLHandler}.
+ * <p>
+ * The rows are read on demand via a StAX parser, so the caller controls
+ * the pace of the parsing and can stop at any time. The reader is an
+ * {@link Iterator} and can be turned into a {@link Stream} via {@link #stream()}.
+ * <p>
+ * To keep the allocations per row constant, {@link #next()} always returns the
+ * same {@link RowView} instance, which is updated with the content of the next row.
+ * The row and its cells are only valid until the next call of {@link #next()},
+ * so copy the values which need to be kept.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * XSSFReader reader = new XSSFReader(pkg);
+ * SharedStrings sst = reader.getSharedStringsTable();
+ * StylesTable styles = reader.getStylesTable();
+ * try (XSSFSheetRowReader rows = new XSSFSheetRowReader(reader.getSheet("rId1"), styles, sst)) {
+ *     while (rows.hasNext()) {
+ *         XSSFSheetRowReader.RowView row = rows.next();
+ *         for (int i = 0; i < row.getCellCount(); i++) {
+ *             System.out.println(row.getCell(i).getFormattedValue());
+ *         }
+ *     }
+ * }
+ * }</pre>
+ *
+ * @since POI 5.4.0
+ */
+public class XSSFSheetRowReader implements Iterator<XSSFSheetRowReader.RowView>, Closeable {
+    private final InputStream stream;
+    private final XMLStreamReader reader;
+    private final Styles styles;
+    private final SharedStrings sharedStrings;
+    private final DataFormatter formatter;
+
+    // number formats per style index, cached to avoid creating a style object for each cell
+    private short[] styleFormatIndex = new short[0];
+    private String[] styleFormatString = new String[0];
+    private boolean[] styleResolved = new boolean[0];
+
+    private final RowView row = new RowView();
+    private boolean rowAvailable;
+    private boolean finished;
+    private int nextRowNum;
+
+    /**
+     * Creates a reader which formats the values with a default {@link DataFormatter}
+     *
+     * @param sheetData the sheet xml, which is closed by {@link #close()}
+     * @param styles the styles of the workbook, may be {@code null}
+     * @param sharedStrings the shared strings of the workbook, may be {@code null} if there are no shared strings
+     */
+    public XSSFSheetRowReader(InputStream sheetData, Styles styles, SharedStrings sharedStrings) {
+        this(sheetData, styles, sharedStrings, new DataFormatter());
+    }
+
+    /**
+     * @param sheetData the sheet xml, which is closed by {@link #close()}
+     * @param styles the styles of the workbook, may be {@code null}
+     * @param sharedStrings the shared strings of the workbook, may be {@code null} if there are no shared strings
+     * @param formatter the formatter for {@link CellView#getFormattedValue()}
+     * @throws POIXMLException if the sheet xml can't be parsed
+     */
+    public XSSFSheetRowReader(InputStream sheetData, Styles styles, SharedStrings sharedStrings, DataFormatter formatter) {
+        this.stream = sheetData;
+        this.styles = styles;
+        this.sharedStrings = sharedStrings;
+        this.formatter = formatter;
+        try {
+            XMLInputFactory factory = XMLHelper.newXMLInputFactory();
+            this.reader = factory.createXMLStreamReader(sheetData);
+        } catch (XMLStreamException e) {
+            IOUtils.closeQuietly(sheetData);
+            throw new POIXMLException(e);
+        }
+    }
+
+    /**
+     * @return true, if there's another row
+     * @throws POIXMLException if the sheet xml can't be parsed
+     */
+    @Override
+    public boolean hasNext() {
+        if (!rowAvailable && !finished) {
+            try {
+                rowAvailable = readRow();
+            } catch (XMLStreamException e) {
+                throw new POIXMLException(e);
+            }
+            finished = !rowAvailable;
+        }
+        return rowAvailable;
+    }
+
+    /**
+     * Returns the next row. This is always the same instance, which is
+     * overwritten by the following call.
+     *
+     * @return the next row
+     * @throws NoSuchElementException if there are no more rows
+     * @throws POIXMLException if the sheet xml can't be parsed
+     */
+    @Override
+    public RowView next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        rowAvailable = false;
+        return row;
+    }
+
+    /**
+     * Returns a sequential stream of the rows. As the elements are reused,
+     * the stream must not be sorted or collected without copying the values first.
+     * Closing the stream closes this reader.
+     *
+     * @return the stream of the remaining rows
+     */
+    public Stream<RowView> stream() {
+        Spliterator<RowView> split = Spliterators.spliteratorUnknownSize(this,
+            Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(split, false).onClose(() -> IOUtils.closeQuietly(this));
+    }
+
+    /**
+     * Closes the parser and the sheet stream
+     */
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        rowAvailable = false;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            stream.close();
+        }
+    }
+
+    private boolean readRow() throws XMLStreamException {
+        // skip everything up to the next row start
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && isElement("row")) {
+                String r = reader.getAttributeValue(null, "r");
+                // some sheets do not have rowNums, Excel can read them so we should try to handle them correctly as well
+                row.rowNum = (r != null) ? Integer.parseInt(r) - 1 : nextRowNum;
+                row.cellCount = 0;
+                readCells();
+                nextRowNum = row.rowNum + 1;
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT && isElement("sheetData")) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void readCells() throws XMLStreamException {
+        CellView cell = null;
+        // the element whose text is collected: 'v' - value, 'f' - formula, 't' - inline string
+        StringBuilder text = null;
+        int rphDepth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (!NS_SPREADSHEETML.equals(reader.getNamespaceURI())) {
+                        break;
+                    }
+                    String name = reader.getLocalName();
+                    if ("c".equals(name)) {
+                        cell = row.addCell();
+                        startCell(cell);
+                    } else if (cell == null) {
+                        break;
+                    } else if ("v".equals(name)) {
+                        text = cell.value;
+                    } else if ("f".equals(name)) {
+                        cell.hasFormula = true;
+                        text = cell.formula;
+                    } else if ("rPh".equals(name)) {
+                        // phonetic runs aren't part of the inline string value
+                        rphDepth++;
+                    } else if ("t".equals(name) && cell.dataType == DataType.INLINE_STRING && rphDepth == 0) {
+                        text = cell.value;
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (text != null) {
+                        text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (!NS_SPREADSHEETML.equals(reader.getNamespaceURI())) {
+                        break;
+                    }
+                    String endName = reader.getLocalName();
+                    if ("row".equals(endName)) {
+                        return;
+                    } else if ("rPh".equals(endName)) {
+                        rphDepth--;
+                    } else if ("c".equals(endName)) {
+                        cell = null;
+                    }
+                    text = null;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void startCell(CellView cell) {
+        cell.reset();
+        String ref = reader.getAttributeValue(null, "r");
+        if (ref != null) {
+            cell.columnIndex = parseColumn(ref);
+        } else {
+            cell.columnIndex = (row.cellCount > 1) ? row.cells[row.cellCount-2].columnIndex + 1 : 0;
+        }
+
+        String cellType = reader.getAttributeValue(null, "t");
+        if ("b".equals(cellType)) {
+            cell.dataType = DataType.BOOLEAN;
+        } else if ("e".equals(cellType)) {
+            cell.dataType = DataType.ERROR;
+        } else if ("inlineStr".equals(cellType)) {
+            cell.dataType = DataType.INLINE_STRING;
+        } else if ("s".equals(cellType)) {
+            cell.dataType = DataType.SST_STRING;
+        } else if ("str".equals(cellType)) {
+            cell.dataType = DataType.FORMULA_STRING;
+        } else {
+            cell.dataType = DataType.NUMBER;
+        }
+
+        String styleStr = reader.getAttributeValue(null, "s");
+        int styleIndex = (styleStr != null) ? Integer.parseInt(styleStr) : 0;
+        cell.styleIndex = styleIndex;
+        if (cell.dataType == DataType.NUMBER && styles != null) {
+            resolveFormat(cell, styleIndex);
+        }
+    }
+
+    private void resolveFormat(CellView cell, int styleIndex) {
+        if (styleIndex >= styleResolved.length) {
+            int newLen = Math.max(styleIndex + 1, styleResolved.length * 2);
+            styleFormatIndex = Arrays.copyOf(styleFormatIndex, newLen);
+            styleFormatString = Arrays.copyOf(styleFormatString, newLen);
+            styleResolved = Arrays.copyOf(styleResolved, newLen);
+        }
+        if (!styleResolved[styleIndex]) {
+            short formatIndex = -1;
+            String formatString = null;
+            XSSFCellStyle style = (styleIndex < styles.getNumCellStyles()) ? styles.getStyleAt(styleIndex) : null;
+            if (style != null) {
+                formatIndex = style.getDataFormat();
+                formatString = style.getDataFormatString();
+                if (formatString == null) {
+                    formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+                }
+            }
+            styleFormatIndex[styleIndex] = formatIndex;
+            styleFormatString[styleIndex] = formatString;
+            styleResolved[styleIndex] = true;
+        }
+        cell.formatIndex = styleFormatIndex[styleIndex];
+        cell.formatString = styleFormatString[styleIndex];
+    }
+
+    /**
+     * Parses the column of a cell reference like "AB12" without creating a CellReference
+     */
+    private static int parseColumn(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch == '$') {
+                continue;
+            }
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            col = col * 26 + (ch - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    private boolean isElement(String localName) {
+        return localName.equals(reader.getLocalName()) && NS_SPREADSHEETML.equals(reader.getNamespaceURI());
+    }
+
+    private enum DataType {
+        BOOLEAN,
+        ERROR,
+        INLINE_STRING,
+        SST_STRING,
+        FORMULA_STRING,
+        NUMBER
+    }
+
+    /**
+     * A reusable view of the current row
+     */
+    public final class RowView {
+        private int rowNum;
+        private int cellCount;
+        private CellView[] cells = new CellView[16];
+
+        private RowView() {}
+
+        /**
+         * @return the 0-based row index
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * @return the number of cells defined in this row, which can be less
+         *  than the last column index, as empty cells are usually omitted
+         */
+        public int getCellCount() {
+            return cellCount;
+        }
+
+        /**
+         * @param index the position of the cell within the defined cells of this row,
+         *  between 0 and {@code getCellCount()-1} - this is not the column index
+         * @return the cell at the position
+         */
+        public CellView getCell(int index) {
+            if (index < 0 || index >= cellCount) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for cell count " + cellCount);
+            }
+            return cells[index];
+        }
+
+        private CellView addCell() {
+            if (cellCount == cells.length) {
+                cells = Arrays.copyOf(cells, cellCount * 2);
+            }
+            CellView cell = cells[cellCount];
+            if (cell == null) {
+                cell = cells[cellCount] = new CellView();
+            }
+            cellCount++;
+            return cell;
+        }
+    }
+
+    /**
+     * A reusable view of a cell of the current row
+     */
+    public final class CellView {
+        private int columnIndex;
+        private int styleIndex;
+        private DataType dataType;
+        private boolean hasFormula;
+        private short formatIndex;
+        private String formatString;
+        private final StringBuilder value = new StringBuilder(32);
+        private final StringBuilder formula = new StringBuilder(32);
+
+        private CellView() {}
+
+        private void reset() {
+            hasFormula = false;
+            formatIndex = -1;
+            formatString = null;
+            value.setLength(0);
+            formula.setLength(0);
+        }
+
+        /**
+         * @return the 0-based row index
+         */
+        public int getRowIndex() {
+            return row.rowNum;
+        }
+
+        /**
+         * @return the 0-based column index
+         */
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        /**
+         * @return the index of the cell style, 0 if the cell has no explicit style
+         */
+        public int getStyleIndex() {
+            return styleIndex;
+        }
+
+        /**
+         * Returns the type of the value. For formula cells, this is the type
+         * of the cached result, see {@link #hasFormula()}.
+         *
+         * @return the type of the value, {@link CellType#BLANK} if the cell has no value
+         */
+        public CellType getCellType() {
+            if (value.length() == 0 && dataType != DataType.INLINE_STRING && dataType != DataType.FORMULA_STRING) {
+                return CellType.BLANK;
+            }
+            switch (dataType) {
+                case BOOLEAN:
+                    return CellType.BOOLEAN;
+                case ERROR:
+                    return CellType.ERROR;
+                case NUMBER:
+                    return CellType.NUMERIC;
+                default:
+                    return CellType.STRING;
+            }
+        }
+
+        /**
+         * @return true, if the cell contains a formula
+         */
+        public boolean hasFormula() {
+            return hasFormula;
+        }
+
+        /**
+         * @return the formula text, which is empty for cells which use a shared formula
+         */
+        public CharSequence getFormula() {
+            return formula;
+        }
+
+        /**
+         * Returns the raw value as stored in the xml, i.e. the index for shared strings,
+         * "0" or "1" for booleans and the unformatted number for numeric cells
+         *
+         * @return the raw value, valid until the next row is read
+         */
+        public CharSequence getRawValue() {
+            return value;
+        }
+
+        /**
+         * @return the numeric value
+         * @throws IllegalStateException if the cell value isn't numeric
+         */
+        public double getNumericValue() {
+            if (getCellType() != CellType.NUMERIC) {
+                throw new IllegalStateException("Cell value is not numeric, but " + getCellType());
+            }
+            return Double.parseDouble(value.toString());
+        }
+
+        /**
+         * @return the boolean value
+         * @throws IllegalStateException if the cell value isn't a boolean
+         */
+        public boolean getBooleanValue() {
+            if (getCellType() != CellType.BOOLEAN) {
+                throw new IllegalStateException("Cell value is not a boolean, but " + getCellType());
+            }
+            return value.charAt(0) != '0';
+        }
+
+        /**
+         * @return the string value, with shared strings resolved, or the text of the
+         *  raw value for other cell types
+         */
+        public String getStringValue() {
+            if (dataType == DataType.SST_STRING && value.length() > 0) {
+                if (sharedStrings == null) {
+                    throw new IllegalStateException("Cell refers to a shared string, but no shared strings were provided");
+                }
+                return sharedStrings.getItemAt(Integer.parseInt(value.toString())).getString();
+            }
+            return value.toString();
+        }
+
+        /**
+         * Formats the value like {@link XSSFSheetXMLHandler}, i.e. numbers are formatted
+         * by their number format, booleans as TRUE/FALSE and errors as their error text with an {@code ERROR:} prefix
+         *
+         * @return the formatted value, an empty string if the cell has no value
+         */
+        public String getFormattedValue() {
+            switch (getCellType()) {
+                case BLANK:
+                    return "";
+                case BOOLEAN:
+                    return getBooleanValue() ? "TRUE" : "FALSE";
+                case ERROR:
+                    return "ERROR:" + value;
+                case NUMERIC:
+                    if (formatString != null) {
+                        return formatter.formatRawCellContents(getNumericValue(), formatIndex, formatString);
+                    }
+                    return value.toString();
+                default:
+                    return getStringValue();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return getFormattedValue();
+        }
+    }
+}
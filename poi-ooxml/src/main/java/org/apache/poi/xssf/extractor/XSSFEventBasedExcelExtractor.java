@@ -16,6 +16,7 @@
 ==================================================================== */
 package org.apache.poi.xssf.extractor;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -38,8 +39,10 @@ import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.ss.extractor.ExcelExtractor;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.HeaderFooter;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.XMLHelper;
 import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.TempFileSharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
@@ -75,6 +78,7 @@ public class XSSFEventBasedExcelExtractor
     protected boolean includeHeadersFooters = true;
     protected boolean formulasNotResults;
     protected boolean concatenatePhoneticRuns = true;
+    protected boolean useTempFileSharedStringsTable;
 
     private boolean doCloseFilesystem = true;
 
@@ -174,6 +178,18 @@ public class XSSFEventBasedExcelExtractor
         this.concatenatePhoneticRuns = concatenatePhoneticRuns;
     }
 
+    /**
+     * Should the shared strings be kept in memory-mapped temp files instead of on the heap?
+     * This is useful for workbooks with a huge number of unique strings.
+     * Default is false;
+     *
+     * @param useTempFileSharedStringsTable true to use a {@link TempFileSharedStringsTable}
+     * @since POI 5.4.0
+     */
+    public void setUseTempFileSharedStringsTable(boolean useTempFileSharedStringsTable) {
+        this.useTempFileSharedStringsTable = useTempFileSharedStringsTable;
+    }
+
     public void setLocale(Locale locale) {
         this.locale = locale;
     }
@@ -251,16 +267,19 @@ public class XSSFEventBasedExcelExtractor
 
     protected SharedStrings createSharedStringsTable(XSSFReader xssfReader, OPCPackage container)
             throws IOException, SAXException {
-        return new ReadOnlySharedStringsTable(container, concatenatePhoneticRuns);
+        return useTempFileSharedStringsTable
+                ? new TempFileSharedStringsTable(container, concatenatePhoneticRuns)
+                : new ReadOnlySharedStringsTable(container, concatenatePhoneticRuns);
     }
 
     /**
      * Processes the file and returns the text
      */
     public String getText() {
+        SharedStrings strings = null;
         try {
             XSSFReader xssfReader = new XSSFReader(container);
-            SharedStrings strings = createSharedStringsTable(xssfReader, container);
+            strings = createSharedStringsTable(xssfReader, container);
             StylesTable styles = xssfReader.getStylesTable();
             XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
             StringBuilder text = new StringBuilder(64);
@@ -292,6 +311,10 @@ public class XSSFEventBasedExcelExtractor
         } catch (IOException | OpenXML4JException | SAXException | NumberFormatException e) {
             LOGGER.atWarn().withThrowable(e).log("Failed to load text");
             return "";
+        } finally {
+            if (strings instanceof Closeable) {
+                IOUtils.closeQuietly((Closeable) strings);
+            }
         }
     }
 
@@ -23,9 +23,12 @@ import java.util.Iterator;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.util.Beta;
 import org.apache.poi.util.NotImplemented;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -52,7 +55,22 @@ public class DeferredSXSSFWorkbook extends SXSSFWorkbook {
     }
 
     public DeferredSXSSFWorkbook(XSSFWorkbook workbook, int rowAccessWindowSize) {
-        super(workbook, rowAccessWindowSize, false, false);
+        this(workbook, rowAccessWindowSize, false);
+    }
+
+    /**
+     * Construct a workbook, which optionally uses a shared strings table.
+     * <p>
+     * As the shared strings are only known after all rows have been generated,
+     * the shared strings table is written after the sheet data, like the styles.
+     *
+     * @param workbook the template workbook or {@code null} for a new workbook
+     * @param rowAccessWindowSize the number of rows that are kept in memory until flushed out
+     * @param useSharedStringsTable whether to use a shared strings table
+     * @since POI 5.4.0
+     */
+    public DeferredSXSSFWorkbook(XSSFWorkbook workbook, int rowAccessWindowSize, boolean useSharedStringsTable) {
+        super(workbook, rowAccessWindowSize, false, useSharedStringsTable);
     }
 
     @NotImplemented
@@ -62,7 +80,40 @@ public class DeferredSXSSFWorkbook extends SXSSFWorkbook {
     }
 
     protected StreamingSheetWriter createSheetDataWriter(OutputStream out) throws IOException {
-        return new StreamingSheetWriter(out);
+        return new StreamingSheetWriter(out, getSharedStringSource());
+    }
+
+    /**
+     * Writes the workbook directly into the given stream. The rows of each sheet are generated
+     * in sheet order and written straight into the zip entry of the sheet, without temp files.
+     * The styles and shared strings are written after the sheets, so styles and strings
+     * which are created while generating the rows are included.
+     * <p>
+     * The template, i.e. the workbook without the sheet data, is buffered in memory.
+     *
+     * @param stream the java OutputStream you wish to write to
+     * @throws IOException if anything can't be written.
+     */
+    @Override
+    public void write(OutputStream stream) throws IOException {
+        writeAvoidingTempFiles(stream);
+    }
+
+    @Override
+    protected POIXMLDocumentPart getPartToWriteLast(String entryName) {
+        SharedStringsTable sst = getSharedStringSource();
+        if (sst != null && entryName.equals(getZipEntryName(sst))) {
+            return sst;
+        }
+        StylesTable styles = _wb.getStylesSource();
+        if (styles != null && entryName.equals(getZipEntryName(styles))) {
+            return styles;
+        }
+        return null;
+    }
+
+    private static String getZipEntryName(POIXMLDocumentPart part) {
+        return (part.getPackagePart() == null) ? null : part.getPackagePart().getPartName().getName().substring(1);
     }
 
     @Override
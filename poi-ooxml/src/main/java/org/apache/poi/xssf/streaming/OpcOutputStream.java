@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.zip.*;
 
 /**
@@ -36,6 +37,7 @@ class OpcOutputStream extends DeflaterOutputStream {
     private final Zip64Impl spec;
     private final List<Entry> entries = new ArrayList<>();
     private final CRC32 crc = new CRC32();
+    private final ParallelDeflater parallelDeflater;
     private Entry current;
     private int written = 0;
     private boolean finished = false;
@@ -46,8 +48,19 @@ class OpcOutputStream extends DeflaterOutputStream {
      * @param out target stream to write compressed data to
      */
     public OpcOutputStream(OutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * Creates ZIP64 output stream, which compresses the entries in chunks on the given executor
+     *
+     * @param out target stream to write compressed data to
+     * @param executor the executor for compressing the chunks, {@code null} to compress on the calling thread
+     */
+    public OpcOutputStream(OutputStream out, Executor executor) {
         super(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
         this.spec = new Zip64Impl(out);
+        this.parallelDeflater = (executor == null) ? null : new ParallelDeflater(out, executor);
     }
 
     /**
@@ -55,6 +68,9 @@ class OpcOutputStream extends DeflaterOutputStream {
      */
     public void setLevel(int level) {
         super.def.setLevel(level);
+        if (parallelDeflater != null) {
+            parallelDeflater.setLevel(level);
+        }
     }
 
     /**
@@ -78,19 +94,28 @@ class OpcOutputStream extends DeflaterOutputStream {
         if (current == null) {
             throw new IllegalStateException("not current zip current");
         }
-        def.finish();
-        while (!def.finished()) {
-            deflate();
+        if (parallelDeflater != null) {
+            parallelDeflater.finish();
+            current.size = parallelDeflater.getBytesRead();
+            current.compressedSize = Math.toIntExact(parallelDeflater.getBytesWritten());
+        } else {
+            def.finish();
+            while (!def.finished()) {
+                deflate();
+            }
+            current.size = def.getBytesRead();
+            current.compressedSize = Math.toIntExact(def.getBytesWritten());
         }
-
-        current.size = def.getBytesRead();
-        current.compressedSize = Math.toIntExact(def.getBytesWritten());
         current.crc = crc.getValue();
 
         written += current.compressedSize;
         written += spec.writeDAT(current);
         current = null;
-        def.reset();
+        if (parallelDeflater != null) {
+            parallelDeflater.reset();
+        } else {
+            def.reset();
+        }
         crc.reset();
     }
 
@@ -124,7 +149,11 @@ class OpcOutputStream extends DeflaterOutputStream {
         } else if (len == 0) {
             return;
         }
-        super.write(b, off, len);
+        if (parallelDeflater != null) {
+            parallelDeflater.write(b, off, len);
+        } else {
+            super.write(b, off, len);
+        }
         crc.update(b, off, len);
     }
 
@@ -22,13 +22,18 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.Executor;
 
 class OpcZipArchiveOutputStream extends ZipArchiveOutputStream {
     private final OpcOutputStream out;
 
     OpcZipArchiveOutputStream(OutputStream out) {
+        this(out, null);
+    }
+
+    OpcZipArchiveOutputStream(OutputStream out, Executor compressionExecutor) {
         super(out);
-        this.out = new OpcOutputStream(out);
+        this.out = new OpcOutputStream(out, compressionExecutor);
     }
 
     @Override
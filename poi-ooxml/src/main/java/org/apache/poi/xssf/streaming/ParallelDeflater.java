@@ -0,0 +1,179 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+
+/**
+ * Compresses the data of a zip entry in chunks, which are deflated concurrently.
+ * <p>
+ * Each chunk is deflated by its own {@link Deflater} with the last 32 KiB of the
+ * previous chunk as preset dictionary, so the compression ratio is close to the one
+ * of a single deflater. All chunks but the last are terminated by a sync flush,
+ * which ends them on a byte boundary, so the concatenated chunks form a single valid
+ * raw deflate stream. The compressed chunks are written in order, only a bounded
+ * number of chunks is held in memory.
+ */
+class ParallelDeflater {
+    static final int CHUNK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final OutputStream out;
+    private final Executor executor;
+    private final int maxPendingChunks;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLen;
+    private byte[] prevChunk;
+    private int prevChunkLen;
+
+    private long bytesRead;
+    private long bytesWritten;
+
+    ParallelDeflater(OutputStream out, Executor executor) {
+        this.out = out;
+        this.executor = executor;
+        this.maxPendingChunks = 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @see Deflater#setLevel(int)
+     */
+    void setLevel(int level) {
+        this.level = level;
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        bytesRead += len;
+        while (len > 0) {
+            int n = Math.min(len, CHUNK_SIZE - chunkLen);
+            System.arraycopy(b, off, chunk, chunkLen, n);
+            chunkLen += n;
+            off += n;
+            len -= n;
+            if (chunkLen == CHUNK_SIZE) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses the remaining data, terminates the deflate stream and waits until
+     * all chunks are written
+     */
+    void finish() throws IOException {
+        submit(true);
+        while (!pending.isEmpty()) {
+            writeHead();
+        }
+    }
+
+    /**
+     * Prepares for the next entry
+     */
+    void reset() {
+        chunkLen = 0;
+        prevChunk = null;
+        prevChunkLen = 0;
+        bytesRead = 0;
+        bytesWritten = 0;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void submit(boolean last) throws IOException {
+        // the arrays are handed over to the task and not modified afterwards
+        final byte[] data = chunk;
+        final int dataLen = chunkLen;
+        final byte[] dict = prevChunk;
+        final int dictLen = prevChunkLen;
+        final int lvl = level;
+        pending.add(CompletableFuture.supplyAsync(() -> deflate(data, dataLen, dict, dictLen, lvl, last), executor));
+
+        prevChunk = data;
+        prevChunkLen = dataLen;
+        chunk = new byte[CHUNK_SIZE];
+        chunkLen = 0;
+
+        while (pending.size() > maxPendingChunks) {
+            writeHead();
+        }
+    }
+
+    private void writeHead() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = pending.remove().join();
+        } catch (CompletionException e) {
+            pending.clear();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        }
+        out.write(compressed);
+        bytesWritten += compressed.length;
+    }
+
+    private static byte[] deflate(byte[] data, int dataLen, byte[] dict, int dictLen, int level, boolean last) {
+        Deflater def = new Deflater(level, true);
+        try {
+            if (dict != null && dictLen > 0) {
+                int n = Math.min(dictLen, DICTIONARY_SIZE);
+                def.setDictionary(dict, dictLen - n, n);
+            }
+            def.setInput(data, 0, dataLen);
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder()
+                .setBufferSize(dataLen / 2 + 64).get();
+            byte[] buf = new byte[16 * 1024];
+            if (last) {
+                def.finish();
+                while (!def.finished()) {
+                    int n = def.deflate(buf);
+                    bos.write(buf, 0, n);
+                }
+            } else {
+                int n;
+                do {
+                    n = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                    bos.write(buf, 0, n);
+                } while (n == buf.length || !def.needsInput());
+            }
+            return bos.toByteArray();
+        } finally {
+            def.end();
+        }
+    }
+}
@@ -30,10 +30,12 @@ import java.nio.file.Files;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Spliterator;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.compress.archivers.zip.Zip64Mode;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
@@ -42,6 +44,7 @@ import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
 import org.apache.poi.openxml4j.util.ZipEntrySource;
@@ -70,6 +73,7 @@ import org.apache.poi.util.NotImplemented;
 import org.apache.poi.util.Removal;
 import org.apache.poi.util.TempFile;
 import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFChartSheet;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -141,6 +145,11 @@ public class SXSSFWorkbook implements Workbook {
      */
     protected Zip64Mode zip64Mode = Zip64Mode.Always;
 
+    /**
+     * if set, the entries of the output zip are compressed concurrently on this executor
+     */
+    private Executor compressionExecutor;
+
     private boolean shouldCalculateSheetDimensions = true;
 
     /**
@@ -329,6 +338,35 @@ public class SXSSFWorkbook implements Workbook {
         this.zip64Mode = zip64Mode;
     }
 
+    /**
+     * Sets an executor to compress the output of {@link #write(OutputStream)} concurrently.
+     * <p>
+     * The data of each zip entry is split into chunks of 128 KiB, which are deflated as
+     * separate tasks on the executor and written in order as a single deflate stream.
+     * For large sheets, the compression is usually the dominant cost of writing, so this
+     * scales the write time with the number of threads of the executor. The output is
+     * always written in the Excel compatible Zip64 format of {@link Zip64Mode#Always},
+     * regardless of {@link #setZip64Mode(Zip64Mode)}.
+     * <p>
+     * The executor is not shut down by this workbook.
+     *
+     * @param compressionExecutor the executor, {@code null} to compress on the writing thread (the default)
+     * @since POI 5.4.0
+     */
+    @Beta
+    public void setCompressionExecutor(Executor compressionExecutor) {
+        this.compressionExecutor = compressionExecutor;
+    }
+
+    /**
+     * @return the executor used to compress the output or {@code null} if the output is compressed on the writing thread
+     * @since POI 5.4.0
+     */
+    @Beta
+    public Executor getCompressionExecutor() {
+        return compressionExecutor;
+    }
+
     /**
      * Get whether temp files should be compressed.
      *
@@ -425,9 +463,15 @@ public class SXSSFWorkbook implements Workbook {
     protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
         ZipArchiveOutputStream zos = createArchiveOutputStream(out);
         try {
+            Map<String, POIXMLDocumentPart> partsWrittenLast = new LinkedHashMap<>();
             Enumeration<? extends ZipArchiveEntry> en = zipEntrySource.getEntries();
             while (en.hasMoreElements()) {
                 ZipArchiveEntry ze = en.nextElement();
+                POIXMLDocumentPart lastPart = getPartToWriteLast(ze.getName());
+                if (lastPart != null) {
+                    partsWrittenLast.put(ze.getName(), lastPart);
+                    continue;
+                }
                 ZipArchiveEntry zeOut = new ZipArchiveEntry(ze.getName());
                 if (ze.getSize() >= 0) zeOut.setSize(ze.getSize());
                 if (ze.getTime() >= 0) zeOut.setTime(ze.getTime());
@@ -450,14 +494,53 @@ public class SXSSFWorkbook implements Workbook {
                     zos.closeArchiveEntry();
                 }
             }
+
+            // the parts which were modified while the sheet data was written, e.g. the shared strings
+            for (Map.Entry<String, POIXMLDocumentPart> me : partsWrittenLast.entrySet()) {
+                zos.putArchiveEntry(new ZipArchiveEntry(me.getKey()));
+                try {
+                    writePart(me.getValue(), zos);
+                } finally {
+                    zos.closeArchiveEntry();
+                }
+            }
         } finally {
             zos.finish();
             zipEntrySource.close();
         }
     }
 
+    /**
+     * Returns the workbook part, which is written after all other zip entries instead of being
+     * copied from the template, because it is still modified while the sheet data is written.
+     *
+     * @param entryName the name of the zip entry in the template
+     * @return the part to write last or {@code null} if the template entry is copied in place
+     * @since POI 5.4.0
+     */
+    protected POIXMLDocumentPart getPartToWriteLast(String entryName) {
+        return null;
+    }
+
+    /**
+     * Writes the current content of a part returned by {@link #getPartToWriteLast(String)}
+     *
+     * @since POI 5.4.0
+     */
+    protected void writePart(POIXMLDocumentPart part, OutputStream out) throws IOException {
+        if (part instanceof SharedStringsTable) {
+            ((SharedStringsTable)part).writeTo(out);
+        } else if (part instanceof StylesTable) {
+            ((StylesTable)part).writeTo(out);
+        } else {
+            throw new IllegalArgumentException("Writing " + part.getClass().getSimpleName() + " after the sheet data is not supported");
+        }
+    }
+
     protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
-        if (Zip64Mode.Always.equals(zip64Mode)) {
+        if (compressionExecutor != null) {
+            return new OpcZipArchiveOutputStream(out, compressionExecutor);
+        } else if (Zip64Mode.Always.equals(zip64Mode)) {
             return new OpcZipArchiveOutputStream(out);
         } else {
             ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
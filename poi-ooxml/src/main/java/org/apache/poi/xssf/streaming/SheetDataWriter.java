@@ -76,8 +76,18 @@ public class SheetDataWriter implements Closeable {
     }
 
     public SheetDataWriter(Writer writer) throws IOException {
+        this(writer, null);
+    }
+
+    /**
+     * @param writer the writer for the sheet data
+     * @param sharedStringsTable the shared strings table or {@code null} to write inline strings
+     * @since POI 5.4.0
+     */
+    public SheetDataWriter(Writer writer, SharedStringsTable sharedStringsTable) throws IOException {
         _fd = null;
         _out = writer;
+        _sharedStringSource = sharedStringsTable;
     }
 
     public SheetDataWriter(SharedStringsTable sharedStringsTable) throws IOException {
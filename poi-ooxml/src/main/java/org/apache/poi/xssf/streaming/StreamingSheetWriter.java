@@ -29,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.util.Beta;
+import org.apache.poi.xssf.model.SharedStringsTable;
 
 /**
  * Unlike SheetDataWriter, this writer does not create a temporary file, it writes data directly
@@ -45,7 +46,16 @@ public class StreamingSheetWriter extends SheetDataWriter {
     }
 
     public StreamingSheetWriter(OutputStream out) throws IOException {
-        super(createWriter(out));
+        this(out, null);
+    }
+
+    /**
+     * @param out the output stream to write to
+     * @param sharedStringsTable the shared strings table or {@code null} to write inline strings
+     * @since POI 5.4.0
+     */
+    public StreamingSheetWriter(OutputStream out, SharedStringsTable sharedStringsTable) throws IOException {
+        super(createWriter(out), sharedStringsTable);
         LOG.atDebug().log("Preparing SXSSF sheet writer");
     }
 
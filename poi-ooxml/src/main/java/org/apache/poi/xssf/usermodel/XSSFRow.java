@@ -22,6 +22,7 @@ import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.Spliterator;
 import java.util.TreeMap;
 
@@ -38,7 +39,9 @@ import org.apache.poi.ss.usermodel.helpers.RowShifter;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellUtil;
 import org.apache.poi.util.Beta;
+import org.apache.poi.util.IntSortedMap;
 import org.apache.poi.util.Internal;
+import org.apache.poi.util.Removal;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.helpers.XSSFRowShifter;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
@@ -55,9 +58,9 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
 
     /**
      * Cells of this row keyed by their column indexes.
-     * The TreeMap ensures that the cells are ordered by columnIndex in the ascending order.
+     * The IntSortedMap ensures that the cells are ordered by columnIndex in the ascending order.
      */
-    private final TreeMap<Integer, XSSFCell> _cells;
+    private final IntSortedMap<XSSFCell> _cells;
 
     /**
      * the parent sheet
@@ -73,12 +76,11 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
     protected XSSFRow(CTRow row, XSSFSheet sheet) {
         _row = row;
         _sheet = sheet;
-        _cells = new TreeMap<>();
-        for (CTCell c : row.getCArray()) {
+        final CTCell[] cArray = row.getCArray();
+        _cells = new IntSortedMap<>(cArray.length);
+        for (CTCell c : cArray) {
             XSSFCell cell = new XSSFCell(this, c);
-            // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            final Integer colI = Integer.valueOf(cell.getColumnIndex()); // NOSONAR
-            _cells.put(colI, cell);
+            _cells.put(cell.getColumnIndex(), cell);
             sheet.onReadCell(cell);
         }
 
@@ -97,10 +99,22 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
      * 新增
      * ml
      * TODO 获取带索引的cell
-     * @return
+     * @return a copy of the cells keyed by their column index, changes to the map are not reflected in the row
+     * @deprecated the map is copied on every call, use {@link #getCellMap()} for a live view
      */
+    @Deprecated
+    @Removal(version = "7.0.0")
     public TreeMap<Integer, XSSFCell> getCellWithIndex() {
-        return _cells;
+        return new TreeMap<>(_cells.asSortedMap());
+    }
+
+    /**
+     * @return an unmodifiable view of the cells keyed by their column index,
+     *  which reflects later changes of the row
+     * @since POI 5.4.0
+     */
+    public SortedMap<Integer, XSSFCell> getCellMap() {
+        return _cells.asSortedMap();
     }
 
 
@@ -219,10 +233,8 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
      */
     @Override
     public XSSFCell createCell(int columnIndex, CellType type) {
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(columnIndex); // NOSONAR
         CTCell ctCell;
-        XSSFCell prev = _cells.get(colI);
+        XSSFCell prev = _cells.get(columnIndex);
         if (prev != null) {
             ctCell = prev.getCTCell();
             ctCell.set(CTCell.Factory.newInstance());
@@ -243,7 +255,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
             setDefaultValue(xcell, type);
         }
 
-        _cells.put(colI, xcell);
+        _cells.put(columnIndex, xcell);
         return xcell;
     }
 
@@ -289,9 +301,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
             throw new IllegalArgumentException("Cell index must be >= 0");
         }
 
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(cellnum); // NOSONAR
-        XSSFCell cell = _cells.get(colI);
+        XSSFCell cell = _cells.get(cellnum);
         switch (policy) {
             case RETURN_NULL_AND_BLANK:
                 return cell;
@@ -530,9 +540,7 @@ public class XSSFRow implements Row, Comparable<XSSFRow> {
         if (cell.getCellType() == CellType.FORMULA) {
             _sheet.getWorkbook().onDeleteFormula(xcell);
         }
-        // Performance optimization for bug 57840: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        final Integer colI = Integer.valueOf(cell.getColumnIndex()); // NOSONAR
-        XSSFCell removed = _cells.remove(colI);
+        XSSFCell removed = _cells.remove(cell.getColumnIndex());
 
         // also remove the corresponding CTCell from the _row.cArray,
         // it may not be at the same position right now
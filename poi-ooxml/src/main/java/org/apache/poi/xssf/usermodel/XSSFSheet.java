@@ -51,6 +51,7 @@ import org.apache.poi.ss.util.PaneInformation;
 import org.apache.poi.ss.util.SSCellRange;
 import org.apache.poi.ss.util.SheetUtil;
 import org.apache.poi.util.Beta;
+import org.apache.poi.util.IntSortedMap;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.Removal;
 import org.apache.poi.util.Units;
@@ -90,7 +91,12 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     protected CTSheet sheet;
     protected CTWorksheet worksheet;
 
-    private final SortedMap<Integer, XSSFRow> _rows = new TreeMap<>();
+    /**
+     * Rows of this sheet keyed by their 0-based row index, in ascending order.
+     * A primitive keyed map is used instead of a TreeMap to avoid the boxed key
+     * and the tree node per row, which matters for large sheets.
+     */
+    private final IntSortedMap<XSSFRow> _rows = new IntSortedMap<>();
     private List<XSSFHyperlink> hyperlinks;
     private ColumnHelper columnHelper;
     private Comments sheetComments;
@@ -104,6 +110,12 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
     private final XSSFDataValidationHelper dataValidationHelper;
     private XSSFVMLDrawing xssfvmlDrawing;
     private CellRangeAddress dimensionOverride;
+    /**
+     * true, if the worksheet xml has been registered for lazy loading but not been parsed yet
+     * @see XSSFWorkbook#XSSFWorkbook(OPCPackage, boolean)
+     */
+    private boolean deferredRead;
+    private boolean pivotTablesRegistered;
 
     /**
      * Creates new XSSFSheet   - called by XSSFWorkbook to create a sheet from scratch.
@@ -148,6 +160,36 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         } catch (IOException | ArithmeticException e) {
             throw new POIXMLException(e);
         }
+        // a sheet, which failed to load, stays deferred, i.e. it isn't written back half-initialized
+        deferredRead = false;
+    }
+
+    /**
+     * Registers this sheet for lazy loading instead of parsing the worksheet xml right away.
+     * Only the pivot tables are made known to the workbook, the sheet data is parsed on
+     * the first call to {@link #ensureLoaded()}.
+     */
+    void onDocumentReadDeferred() {
+        deferredRead = true;
+        registerPivotTables();
+    }
+
+    /**
+     * Parses the worksheet xml, if the sheet has been registered for lazy loading
+     * and hasn't been accessed yet
+     */
+    void ensureLoaded() {
+        if (deferredRead) {
+            onDocumentRead();
+        }
+    }
+
+    /**
+     * @return true, if the worksheet xml has been parsed or the sheet was newly created
+     * @since POI 5.4.0
+     */
+    public boolean isLoaded() {
+        return !deferredRead;
     }
 
     protected void read(InputStream is) throws IOException {
@@ -169,15 +211,26 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
             if (p instanceof XSSFTable) {
                 tables.put(rp.getRelationship().getId(), (XSSFTable) p);
             }
-            if (p instanceof XSSFPivotTable) {
-                getWorkbook().getPivotTables().add((XSSFPivotTable) p);
-            }
         }
+        registerPivotTables();
 
         // Process external hyperlinks for the sheet, if there are any
         initHyperlinks();
     }
 
+    private void registerPivotTables() {
+        if (pivotTablesRegistered) {
+            return;
+        }
+        pivotTablesRegistered = true;
+        for (RelationPart rp : getRelationParts()) {
+            POIXMLDocumentPart p = rp.getDocumentPart();
+            if (p instanceof XSSFPivotTable) {
+                getWorkbook().getPivotTables().add((XSSFPivotTable) p);
+            }
+        }
+    }
+
     /**
      * Initialize worksheet data when creating a new sheet.
      */
@@ -200,10 +253,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         arrayFormulas = new ArrayList<>();
         for (CTRow row : worksheetParam.getSheetData().getRowArray()) {
             XSSFRow r = new XSSFRow(row, this);
-            // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            //noinspection UnnecessaryBoxing
-            final Integer rownumI = Integer.valueOf(r.getRowNum()); // NOSONAR
-            _rows.put(rownumI, r);
+            _rows.put(r.getRowNum(), r);
         }
     }
 
@@ -701,11 +751,8 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public XSSFRow createRow(int rownum) {
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rownumI = Integer.valueOf(rownum); // NOSONAR
         CTRow ctRow;
-        XSSFRow prev = _rows.get(rownumI);
+        XSSFRow prev = _rows.get(rownum);
         if (prev != null) {
             // the Cells in an existing row are invalidated on-purpose, in order to clean up correctly, we
             // need to call the remove, so things like ArrayFormulas and CalculationChain updates are done
@@ -725,13 +772,13 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
             } else {
                 // get number of rows where row index < rownum
                 // --> this tells us where our row should go
-                int idx = _rows.headMap(rownumI).size();
+                int idx = _rows.headSize(rownum);
                 ctRow = worksheet.getSheetData().insertNewRow(idx);
             }
         }
         XSSFRow r = new XSSFRow(ctRow, this);
         r.setRowNum(rownum);
-        _rows.put(rownumI, r);
+        _rows.put(rownum, r);
         return r;
     }
 
@@ -1204,10 +1251,6 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
 
     @Override
     public int getLastRowNum() {
-        // _rows.getLastKey() (O(logN)) or caching last row (O(1))?
-        // A test with 1_000_000 rows shows that querying getLastRowNum with lastKey() implementation takes ~40 ms,
-        // and ~1.2 ms with cached implementation. 40 ms is negligible compared to the time of evaluation a million
-        // cells, and the lastKey implementation is much more elegant and less error prone than caching.
         return _rows.isEmpty() ? -1 : _rows.lastKey();
     }
 
@@ -1501,10 +1544,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
      */
     @Override
     public XSSFRow getRow(int rownum) {
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rownumI = Integer.valueOf(rownum); // NOSONAR
-        return _rows.get(rownumI);
+        return _rows.get(rownum);
     }
 
     /**
@@ -1533,13 +1573,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
                 rows.add(row);
             }
         } else {
-            // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-            //noinspection UnnecessaryBoxing
-            final Integer startI = Integer.valueOf(startRowNum); // NOSONAR
-            //noinspection UnnecessaryBoxing
-            final Integer endI = Integer.valueOf(endRowNum + 1); // NOSONAR
-            final Collection<XSSFRow> inclusive = _rows.subMap(startI, endI).values();
-            rows.addAll(inclusive);
+            rows.addAll(_rows.subValues(startRowNum, endRowNum + 1));
         }
         return rows;
     }
@@ -2057,12 +2091,9 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         }
 
         final int rowNum = row.getRowNum();
-        // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-        //noinspection UnnecessaryBoxing
-        final Integer rowNumI = Integer.valueOf(rowNum); // NOSONAR
         // this is not the physical row number!
-        final int idx = _rows.headMap(rowNumI).size();
-        _rows.remove(rowNumI);
+        final int idx = _rows.headSize(rowNum);
+        _rows.remove(rowNum);
         worksheet.getSheetData().removeRow(idx);
 
         // also remove any comment located in that row
@@ -3174,8 +3205,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         _rows.clear();
         for (CTRow ctRow : sheetData.getRowList()) {
             XSSFRow row = new XSSFRow(ctRow, this);
-            Integer rownumI = Math.toIntExact(row.getRowNum());
-            _rows.put(rownumI, row);
+            _rows.put(row.getRowNum(), row);
         }
     }
 
@@ -3197,10 +3227,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
                     }
                 }
                 // remove row from worksheet.getSheetData row array
-                // Performance optimization: explicit boxing is slightly faster than auto-unboxing, though may use more memory
-                //noinspection UnnecessaryBoxing
-                final Integer rownumI = Integer.valueOf(row.getRowNum()); // NOSONAR
-                int idx = _rows.headMap(rownumI).size();
+                int idx = _rows.headSize(row.getRowNum());
                 worksheet.getSheetData().removeRow(idx);
 
                 // remove row from _rows
@@ -3797,6 +3824,10 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
 
     @Override
     protected void commit() throws IOException {
+        if (deferredRead) {
+            // the sheet was never accessed, so the original part data is still valid
+            return;
+        }
         PackagePart part = getPackagePart();
         try (OutputStream out = part.getOutputStream()) {
             write(out);
@@ -3855,8 +3886,7 @@ public class XSSFSheet extends POIXMLDocumentPart implements Sheet, OoxmlSheetEx
         CellRangeAddress cellRangeAddress = dimensionOverride;
         if (cellRangeAddress == null) {
             int minCell = Integer.MAX_VALUE, maxCell = Integer.MIN_VALUE;
-            for (Map.Entry<Integer, XSSFRow> entry : _rows.entrySet()) {
-                XSSFRow row = entry.getValue();
+            for (XSSFRow row : _rows.values()) {
 
                 // first perform the normal write actions for the row
                 row.onDocumentWrite();
@@ -36,7 +36,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.regex.Pattern;
 
 import javax.xml.namespace.QName;
@@ -85,6 +88,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.ss.util.WorkbookUtil;
 import org.apache.poi.util.Beta;
+import org.apache.poi.util.ConcurrentTasks;
 import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.Internal;
 import org.apache.poi.util.NotImplemented;
@@ -210,6 +214,16 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
 
     private final XSSFFactory xssfFactory;
 
+    /**
+     * If true, worksheets are only parsed when they are accessed for the first time
+     */
+    private final boolean lazySheetLoading;
+
+    /**
+     * If not null, worksheets are parsed concurrently on this executor
+     */
+    private final Executor sheetParsingExecutor;
+
     /**
      * Create a new SpreadsheetML workbook.
      */
@@ -232,6 +246,8 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     private XSSFWorkbook(XSSFWorkbookType workbookType, XSSFFactory factory) {
         super(newPackage(workbookType));
         this.xssfFactory = (factory == null) ? XSSFFactory.getInstance() : factory;
+        this.lazySheetLoading = false;
+        this.sheetParsingExecutor = null;
         onWorkbookCreate();
     }
 
@@ -253,8 +269,66 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      * input format
      */
     public XSSFWorkbook(OPCPackage pkg) throws IOException {
+        this(pkg, false);
+    }
+
+    /**
+     * Constructs a XSSFWorkbook object given a OpenXML4J {@code Package} object,
+     *  optionally deferring the parsing of the worksheets.
+     *
+     * <p>With {@code lazySheetLoading} enabled, a worksheet is only parsed when it is
+     *  accessed for the first time, e.g. via {@link #getSheetAt(int)}, {@link #getSheet(String)}
+     *  or the sheet iterators. Worksheets which were never accessed are written back
+     *  unchanged by {@link #write(java.io.OutputStream)}. This reduces the time and memory
+     *  needed to open workbooks with many sheets, if only a few of them are used.
+     *
+     * <p>Operations which affect all sheets, e.g. renaming a sheet, which updates
+     *  the formulas referring to it, load the remaining sheets on demand.
+     *
+     * @param pkg the OpenXML4J {@code OPC Package} object.
+     * @param lazySheetLoading if true, worksheets are parsed on first access
+     * @throws IOException If reading data from the package fails
+     * @throws POIXMLException a RuntimeException that can be caused by invalid OOXML data
+     * @throws IllegalStateException a number of other runtime exceptions can be thrown, especially if there are problems with the
+     * input format
+     * @since POI 5.4.0
+     */
+    public XSSFWorkbook(OPCPackage pkg, boolean lazySheetLoading) throws IOException {
+        this(pkg, lazySheetLoading, null);
+    }
+
+    /**
+     * Constructs a XSSFWorkbook object given a OpenXML4J {@code Package} object,
+     *  parsing the worksheets concurrently.
+     *
+     * <p>The worksheet parts are independent of each other, so after the workbook,
+     *  styles and shared strings have been read, each worksheet is parsed as a separate
+     *  task on the given executor. The shared strings and styles are only read during
+     *  that phase. The constructor returns when all worksheets have been parsed, the
+     *  resulting workbook is the same as one opened via {@link #XSSFWorkbook(OPCPackage)}
+     *  and is not thread-safe.
+     *
+     * <p>Any {@link Executor} can be used, e.g. a fixed thread pool sized to the number
+     *  of cores or, on Java 21+, {@code Executors.newVirtualThreadPerTaskExecutor()}.
+     *  The executor is not shut down by the workbook.
+     *
+     * @param pkg the OpenXML4J {@code OPC Package} object.
+     * @param sheetParsingExecutor the executor which runs the worksheet parsing tasks
+     * @throws IOException If reading data from the package fails
+     * @throws POIXMLException a RuntimeException that can be caused by invalid OOXML data
+     * @throws IllegalStateException a number of other runtime exceptions can be thrown, especially if there are problems with the
+     * input format
+     * @since POI 5.4.0
+     */
+    public XSSFWorkbook(OPCPackage pkg, Executor sheetParsingExecutor) throws IOException {
+        this(pkg, false, Objects.requireNonNull(sheetParsingExecutor, "sheetParsingExecutor"));
+    }
+
+    private XSSFWorkbook(OPCPackage pkg, boolean lazySheetLoading, Executor sheetParsingExecutor) throws IOException {
         super(pkg);
         this.xssfFactory = XSSFFactory.getInstance();
+        this.lazySheetLoading = lazySheetLoading;
+        this.sheetParsingExecutor = sheetParsingExecutor;
 
         beforeDocumentRead();
 
@@ -460,6 +534,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
             for (CTSheet ctSheet : this.workbook.getSheets().getSheetArray()) {
                 parseSheet(shIdMap, ctSheet);
             }
+            if (sheetParsingExecutor != null) {
+                parseSheetsConcurrently();
+            }
 
             // Load the external links tables. Their order is defined by the order
             //  of CTExternalReference elements in the workbook
@@ -497,10 +574,30 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
             return;
         }
         sh.sheet = ctSheet;
-        sh.onDocumentRead();
+        if (lazySheetLoading || sheetParsingExecutor != null) {
+            sh.onDocumentReadDeferred();
+        } else {
+            sh.onDocumentRead();
+        }
         sheets.add(sh);
     }
 
+    /**
+     * Parses the deferred worksheets on the sheet parsing executor and waits until all are done
+     */
+    private void parseSheetsConcurrently() {
+        try (ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(sheetParsingExecutor)) {
+            for (XSSFSheet sh : sheets) {
+                if (!sh.isLoaded()) {
+                    tasks.run(sh::ensureLoaded);
+                }
+            }
+            tasks.joinAll();
+        } catch (CompletionException e) {
+            throw new POIXMLException(e.getCause());
+        }
+    }
+
     /**
      * Create a new CTWorkbook with all values set to default
      */
@@ -659,7 +756,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      */
     public XSSFSheet cloneSheet(int sheetNum, String newName) {
         validateSheetIndex(sheetNum);
-        XSSFSheet srcSheet = sheets.get(sheetNum);
+        XSSFSheet srcSheet = getSheetAt(sheetNum);
 
         if (newName == null) {
             String srcName = srcSheet.getSheetName();
@@ -1218,6 +1315,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     public XSSFSheet getSheet(String name) {
         for (XSSFSheet sheet : sheets) {
             if (name.equalsIgnoreCase(sheet.getSheetName())) {
+                sheet.ensureLoaded();
                 return sheet;
             }
         }
@@ -1235,7 +1333,37 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     @Override
     public XSSFSheet getSheetAt(int index) {
         validateSheetIndex(index);
-        return sheets.get(index);
+        XSSFSheet sheet = sheets.get(index);
+        sheet.ensureLoaded();
+        return sheet;
+    }
+
+    /**
+     * Checks if the sheet at the given index has been parsed. This is only {@code false} for
+     * sheets of a workbook opened with lazy sheet loading, which haven't been accessed yet.
+     *
+     * @param index of the sheet number (0-based physical &amp; logical)
+     * @return true, if the worksheet data is loaded
+     * @throws IllegalArgumentException if the index is out of range (index
+     *            &lt; 0 || index &gt;= getNumberOfSheets()).
+     * @see #XSSFWorkbook(OPCPackage, boolean)
+     * @since POI 5.4.0
+     */
+    public boolean isSheetLoaded(int index) {
+        validateSheetIndex(index);
+        return sheets.get(index).isLoaded();
+    }
+
+    /**
+     * Parses all sheets which haven't been accessed yet, if the workbook
+     * was opened with lazy sheet loading
+     */
+    private void loadAllSheets() {
+        if (lazySheetLoading) {
+            for (XSSFSheet sh : sheets) {
+                sh.ensureLoaded();
+            }
+        }
     }
 
     /**
@@ -1325,6 +1453,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
     @Override
     @SuppressWarnings("unchecked")
     public Spliterator<Sheet> spliterator() {
+        loadAllSheets();
         return (Spliterator<Sheet>)(Spliterator<? extends Sheet>) sheets.spliterator();
     }
 
@@ -1340,7 +1469,9 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
         }
         @Override
         public T next() throws NoSuchElementException {
-            return it.next();
+            T sheet = it.next();
+            ((XSSFSheet)sheet).ensureLoaded();
+            return sheet;
         }
         /**
          * Unexpected behavior may occur if sheets are reordered after iterator
@@ -1678,6 +1809,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      */
     @Override
     public void setSelectedTab(int index) {
+        loadAllSheets();
         int idx = 0;
         for (XSSFSheet sh : sheets) {
             sh.setSelected(idx == index);
@@ -2488,6 +2620,7 @@ public class XSSFWorkbook extends POIXMLDocument implements Workbook, Date1904Su
      */
     public XSSFTable getTable(String name) {
         if (name != null && sheets != null) {
+            loadAllSheets();
             for (XSSFSheet sheet : sheets) {
                 for (XSSFTable tbl : sheet.getTables()) {
                     if (name.equalsIgnoreCase(tbl.getName())) {
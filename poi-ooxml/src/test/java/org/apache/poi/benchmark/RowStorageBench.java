@@ -0,0 +1,192 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.util.IntSortedMap;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the memory footprint of the primitive keyed row/cell storage of
+ * {@link XSSFSheet} and {@link XSSFRow} with the former {@code TreeMap<Integer, ?>} layout.
+ * <p>
+ * The interesting figure is {@code gc.alloc.rate.norm} of the {@link GCProfiler},
+ * i.e. the bytes allocated to build a table of {@code rows} x {@code cellsPerRow} entries.
+ * {@link #retainedBytes()} additionally prints the heap retained by both layouts.
+ * <p>
+ * The {@code *InsertRemove} benchmarks cover inserting and removing keys below the highest key,
+ * which moves the following entries of a chunk of {@link IntSortedMap}. They insert
+ * {@code rows / 100} keys spread over a table of {@code rows} entries and remove them again.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class RowStorageBench {
+
+    @Param({"100000", "500000"})
+    private int rows;
+
+    @Param({"10"})
+    private int cellsPerRow;
+
+    private static final Object CELL = new Object();
+
+    private TreeMap<Integer, Object> treeTable;
+    private IntSortedMap<Object> sortedTable;
+
+    @Setup
+    public void setup() {
+        // even keys only, the benchmarks insert the odd keys in between
+        treeTable = new TreeMap<>();
+        sortedTable = new IntSortedMap<>(rows);
+        for (int r = 0; r < rows; r++) {
+            treeTable.put(2 * r, CELL);
+            sortedTable.put(2 * r, CELL);
+        }
+    }
+
+    @Benchmark
+    public void treeMapLayout(Blackhole bh) {
+        TreeMap<Integer, TreeMap<Integer, Object>> sheet = new TreeMap<>();
+        for (int r = 0; r < rows; r++) {
+            TreeMap<Integer, Object> row = new TreeMap<>();
+            for (int c = 0; c < cellsPerRow; c++) {
+                row.put(c, CELL);
+            }
+            sheet.put(r, row);
+        }
+        bh.consume(sheet);
+    }
+
+    @Benchmark
+    public void intSortedMapLayout(Blackhole bh) {
+        IntSortedMap<IntSortedMap<Object>> sheet = new IntSortedMap<>();
+        for (int r = 0; r < rows; r++) {
+            IntSortedMap<Object> row = new IntSortedMap<>(cellsPerRow);
+            for (int c = 0; c < cellsPerRow; c++) {
+                row.put(c, CELL);
+            }
+            sheet.put(r, row);
+        }
+        bh.consume(sheet);
+    }
+
+    @Benchmark
+    public void treeMapInsertRemove(Blackhole bh) {
+        final int step = 100;
+        for (int r = 0; r < rows; r += step) {
+            treeTable.put(2 * r + 1, CELL);
+        }
+        bh.consume(treeTable.size());
+        for (int r = 0; r < rows; r += step) {
+            treeTable.remove(2 * r + 1);
+        }
+    }
+
+    @Benchmark
+    public void intSortedMapInsertRemove(Blackhole bh) {
+        final int step = 100;
+        for (int r = 0; r < rows; r += step) {
+            sortedTable.put(2 * r + 1, CELL);
+        }
+        bh.consume(sortedTable.size());
+        for (int r = 0; r < rows; r += step) {
+            sortedTable.remove(2 * r + 1);
+        }
+    }
+
+    @Benchmark
+    public void xssfCreateRows(Blackhole bh) throws Exception {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFSheet sheet = wb.createSheet();
+            // the XMLBeans cost dominates, so a tenth of the rows is enough to see the effect
+            for (int r = 0; r < rows / 10; r++) {
+                XSSFRow row = sheet.createRow(r);
+                for (int c = 0; c < cellsPerRow; c++) {
+                    row.createCell(c);
+                }
+            }
+            bh.consume(sheet.getRow(rows / 20));
+        }
+    }
+
+    /**
+     * Prints the heap retained by both layouts, as measured via the used heap after a full GC
+     */
+    static void retainedBytes() {
+        final int rows = 500_000, cellsPerRow = 10;
+        long base = usedHeap();
+        TreeMap<Integer, TreeMap<Integer, Object>> tree = new TreeMap<>();
+        for (int r = 0; r < rows; r++) {
+            TreeMap<Integer, Object> row = new TreeMap<>();
+            for (int c = 0; c < cellsPerRow; c++) {
+                row.put(c, CELL);
+            }
+            tree.put(r, row);
+        }
+        long treeBytes = usedHeap() - base;
+        tree = null;
+
+        base = usedHeap();
+        IntSortedMap<IntSortedMap<Object>> sorted = new IntSortedMap<>();
+        for (int r = 0; r < rows; r++) {
+            IntSortedMap<Object> row = new IntSortedMap<>(cellsPerRow);
+            for (int c = 0; c < cellsPerRow; c++) {
+                row.put(c, CELL);
+            }
+            sorted.put(r, row);
+        }
+        long sortedBytes = usedHeap() - base;
+
+        System.out.printf("retained heap for %d x %d: TreeMap = %,d bytes, IntSortedMap = %,d bytes (%d entries)%n",
+            rows, cellsPerRow, treeBytes, sortedBytes, sorted.size());
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        retainedBytes();
+
+        Options opt = new OptionsBuilder()
+                .include(".*" + RowStorageBench.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,97 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the wall time of {@link SXSSFWorkbook#write(java.io.OutputStream)} depending on
+ * the number of compression threads, see {@link SXSSFWorkbook#setCompressionExecutor}.
+ * <p>
+ * {@code threads = 0} is the default single threaded compression on the writing thread.
+ * The workbook is filled once per trial, so only the template copy and the compression
+ * of the sheet data is measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SXSSFCompressionBench {
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"0", "1", "2", "4", "8", "16"})
+    private int threads;
+
+    private SXSSFWorkbook wb;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wb = new SXSSFWorkbook();
+        SXSSFSheet sheet = wb.createSheet();
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            row.createCell(0).setCellValue(r);
+            row.createCell(1).setCellValue("row " + r);
+            row.createCell(2).setCellValue(r * 1.5);
+            row.createCell(3).setCellValue(r % 2 == 0);
+        }
+        if (threads > 0) {
+            executor = Executors.newFixedThreadPool(threads);
+            wb.setCompressionExecutor(executor);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        wb.close();
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        wb.write(NullOutputStream.INSTANCE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(".*" + SXSSFCompressionBench.class.getSimpleName() + ".*")
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
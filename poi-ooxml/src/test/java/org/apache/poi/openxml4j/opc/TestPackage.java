@@ -23,6 +23,7 @@ import static org.apache.poi.openxml4j.OpenXML4JTestDataSamples.getSampleFileNam
 import static org.apache.poi.openxml4j.OpenXML4JTestDataSamples.openSampleStream;
 import static org.apache.poi.openxml4j.opc.PackagingURIHelper.createPartName;
 import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_WORDPROCESSINGML;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -43,6 +44,7 @@ import java.io.PushbackInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -566,6 +568,59 @@ public final class TestPackage {
         assertTrue(tempFile2.delete());
     }
 
+    @Test
+    void saveCopiesUnmodifiedPartsRaw() throws IOException, InvalidFormatException {
+        File origFile = getSampleFile("TestPackageCommon.docx");
+        File targetFile = getOutputFile("TestPackageRawCopyTMP.docx");
+        List<String> unmodified = new ArrayList<>();
+
+        try (OPCPackage p = OPCPackage.open(origFile.toString(), PackageAccess.READ_WRITE)) {
+            try {
+                ((ZipPackage)p).setCopyUnmodifiedPartsRaw(true);
+
+                PackagePart document = p.getPart(createPartName("/word/document.xml"));
+                byte[] content;
+                try (InputStream is = document.getInputStream()) {
+                    content = IOUtils.toByteArray(is);
+                }
+                try (OutputStream os = document.getOutputStream()) {
+                    os.write(content);
+                }
+
+                for (PackagePart part : p.getParts()) {
+                    if (part instanceof ZipPackagePart && !part.isRelationshipPart()) {
+                        unmodified.add(ZipHelper.getZipItemNameFromOPCName(part.getPartName().getName()));
+                    }
+                }
+                assertFalse(unmodified.isEmpty());
+                assertFalse(unmodified.contains("word/document.xml"));
+
+                p.save(targetFile);
+            } finally {
+                // use revert to not re-write the input file
+                p.revert();
+            }
+        }
+
+        // the content is unchanged and the unmodified parts weren't deflated again
+        ZipFileAssert.assertEquals(origFile, targetFile);
+        try (ZipFile orig = ZipFile.builder().setFile(origFile).get();
+             ZipFile target = ZipFile.builder().setFile(targetFile).get()) {
+            for (String name : unmodified) {
+                ZipArchiveEntry origEntry = orig.getEntry(name);
+                ZipArchiveEntry targetEntry = target.getEntry(name);
+                assertNotNull(targetEntry, name);
+                assertEquals(origEntry.getMethod(), targetEntry.getMethod(), name);
+                assertEquals(origEntry.getCrc(), targetEntry.getCrc(), name);
+                try (InputStream origRaw = orig.getRawInputStream(origEntry);
+                     InputStream targetRaw = target.getRawInputStream(targetEntry)) {
+                    assertArrayEquals(IOUtils.toByteArray(origRaw), IOUtils.toByteArray(targetRaw), name);
+                }
+            }
+        }
+        assertTrue(targetFile.delete());
+    }
+
     private static ContentTypeManager getContentTypeManager(OPCPackage pkg) {
         return POITestCase.getFieldValue(OPCPackage.class, pkg, ContentTypeManager.class, "contentTypeManager");
     }
@@ -0,0 +1,312 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.openxml4j.opc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+
+import org.apache.poi.openxml4j.OpenXML4JTestDataSamples;
+import org.apache.poi.openxml4j.opc.PartStorageStrategy.Storage;
+import org.apache.poi.openxml4j.opc.internal.InvalidZipException;
+import org.apache.poi.openxml4j.opc.internal.StoragePackagePart;
+import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipInputStreamZipEntrySource;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.RecordFormatException;
+import org.junit.jupiter.api.Test;
+
+class TestPartStorageStrategy {
+    @Test
+    void spillToNextStorage() throws Exception {
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.HEAP, 100);
+        strategy.setMaxPartSize(Storage.DIRECT, 1000);
+        strategy.setMaxPartSize(Storage.MAPPED_TEMP_FILE, PartStorageStrategy.UNLIMITED);
+
+        ZipPackage pkg = createPackage(strategy);
+        try {
+            StoragePackagePart part = (StoragePackagePart)pkg.createPart(
+                PackagingURIHelper.createPartName("/test.bin"), "application/octet-stream");
+
+            byte[] data = new byte[5000];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte)i;
+            }
+
+            try (OutputStream os = part.getOutputStream()) {
+                os.write(data, 0, 50);
+                assertEquals(Storage.HEAP, part.getStorage());
+                // the capacity of the array is charged, but limited by the maximum part size
+                assertEquals(100, strategy.getBytesHeld(Storage.HEAP));
+
+                os.write(data, 50, 450);
+                assertEquals(Storage.DIRECT, part.getStorage());
+                assertEquals(0, strategy.getBytesHeld(Storage.HEAP));
+                assertEquals(500, strategy.getBytesHeld(Storage.DIRECT));
+                assertArrayEquals(Arrays.copyOf(data, 500), read(part));
+
+                os.write(data, 500, 4500);
+                assertEquals(Storage.MAPPED_TEMP_FILE, part.getStorage());
+                assertEquals(0, strategy.getMemoryHeld());
+                assertEquals(5000, strategy.getBytesHeld(Storage.MAPPED_TEMP_FILE));
+            }
+            assertEquals(5000, part.getSize());
+            assertArrayEquals(data, read(part));
+
+            // rewriting the part starts with the first storage again
+            try (OutputStream os = part.getOutputStream()) {
+                os.write(data, 0, 10);
+            }
+            assertEquals(Storage.HEAP, part.getStorage());
+            assertEquals(100, strategy.getBytesHeld());
+        } finally {
+            pkg.revert();
+        }
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    @Test
+    void memoryBudget() throws Exception {
+        PartStorageStrategy strategy = new PartStorageStrategy();
+        strategy.setMaxPartSize(Storage.ENCRYPTED_TEMP_FILE, PartStorageStrategy.UNLIMITED);
+        strategy.setMemoryBudget(1000);
+
+        ZipPackage pkg1 = createPackage(strategy);
+        ZipPackage pkg2 = createPackage(strategy);
+        try {
+            byte[] data = new byte[800];
+            Arrays.fill(data, (byte)'x');
+
+            StoragePackagePart part1 = writePart(pkg1, data);
+            assertEquals(Storage.HEAP, part1.getStorage());
+
+            // the budget is shared by the packages
+            StoragePackagePart part2 = writePart(pkg2, data);
+            assertEquals(Storage.ENCRYPTED_TEMP_FILE, part2.getStorage());
+            assertEquals(800, strategy.getMemoryHeld());
+            assertEquals(1600, strategy.getBytesHeld());
+            assertArrayEquals(data, read(part2));
+
+            pkg1.revert();
+            assertEquals(0, strategy.getMemoryHeld());
+            assertEquals(800, strategy.getBytesHeld(Storage.ENCRYPTED_TEMP_FILE));
+        } finally {
+            pkg1.revert();
+            pkg2.revert();
+        }
+        assertEquals(0, strategy.getBytesHeld());
+
+        // without further storage, the budget can't be exceeded
+        strategy.removeStorage(Storage.ENCRYPTED_TEMP_FILE);
+        strategy.setMemoryBudget(100);
+        ZipPackage pkg3 = createPackage(strategy);
+        try {
+            assertThrows(IOException.class, () -> writePart(pkg3, new byte[101]));
+            assertEquals(0, strategy.getBytesHeld());
+        } finally {
+            pkg3.revert();
+        }
+    }
+
+    @Test
+    void openStream() throws Exception {
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.HEAP, 1000);
+        strategy.setMaxPartSize(Storage.MAPPED_TEMP_FILE, PartStorageStrategy.UNLIMITED);
+
+        OPCPackage pkg;
+        try (InputStream is = OpenXML4JTestDataSamples.openSampleStream("sample.docx")) {
+            pkg = OPCPackage.open(is, strategy);
+        }
+        try {
+            assertInstanceOf(ZipPackage.class, pkg);
+            assertEquals(strategy, ((ZipPackage)pkg).getPartStorageStrategy());
+            assertTrue(strategy.getBytesHeld(Storage.HEAP) > 0);
+            assertTrue(strategy.getBytesHeld(Storage.MAPPED_TEMP_FILE) > 0);
+
+            PackagePart document = pkg.getPart(PackagingURIHelper.createPartName("/word/document.xml"));
+            try (InputStream is = document.getInputStream()) {
+                assertTrue(new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8).contains("<w:document"));
+            }
+        } finally {
+            pkg.revert();
+        }
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    @Test
+    void removePart() throws Exception {
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.HEAP, PartStorageStrategy.UNLIMITED);
+
+        ZipPackage pkg = createPackage(strategy);
+        try {
+            StoragePackagePart part = writePart(pkg, new byte[1000]);
+            assertEquals(1000, strategy.getBytesHeld(Storage.HEAP));
+
+            pkg.removePart(part.getPartName());
+            assertEquals(0, strategy.getBytesHeld());
+
+            // a new part with the same name is charged again
+            writePart(pkg, new byte[500]);
+            assertEquals(500, strategy.getBytesHeld(Storage.HEAP));
+        } finally {
+            pkg.revert();
+        }
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    @Test
+    void declaredEntrySize() throws Exception {
+        byte[] data = new byte[5000];
+        new Random(4711).nextBytes(data);
+
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.HEAP, PartStorageStrategy.UNLIMITED);
+        strategy.setMemoryBudget(1_000_000);
+
+        // a declared size above the maximum entry size is rejected before anything is allocated
+        byte[] huge = createZip(data, 0x7FFF0000L);
+        assertThrows(RecordFormatException.class, () -> openEntrySource(huge, strategy));
+        assertEquals(0, strategy.getBytesHeld());
+
+        // a declared size above the budget doesn't presize the storage beyond the budget
+        byte[] large = createZip(data, 50_000_000L);
+        try (ZipInputStreamZipEntrySource source = openEntrySource(large, strategy)) {
+            assertTrue(strategy.getMemoryHeld() <= 1_000_000);
+            assertTrue(strategy.getBytesHeld(Storage.HEAP) >= data.length);
+            ZipArchiveEntry entry = source.getEntries().nextElement();
+            try (InputStream is = source.getInputStream(entry)) {
+                assertArrayEquals(data, IOUtils.toByteArray(is));
+            }
+        }
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    @Test
+    void failedOpenReleasesEntries() throws Exception {
+        byte[] data = new byte[600];
+        new Random(4711).nextBytes(data);
+
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.HEAP, PartStorageStrategy.UNLIMITED);
+        strategy.setMaxPartSize(Storage.DIRECT, PartStorageStrategy.UNLIMITED);
+        strategy.setMemoryBudget(1000);
+
+        // the second entry exceeds the budget
+        byte[] overBudget = createZip(data, "a.bin", "b.bin");
+        IOException ex = assertThrows(IOException.class, () -> openEntrySource(overBudget, strategy));
+        assertTrue(ex.getMessage().contains("None of the part storages"));
+        assertEquals(0, strategy.getMemoryHeld());
+        assertEquals(0, strategy.getBytesHeld());
+
+        byte[] duplicate = createZip(new byte[100], "a.bin", "b.bin", "A.bin");
+        assertThrows(InvalidZipException.class, () -> openEntrySource(duplicate, strategy));
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    @Test
+    void streamOfRewrittenPart() throws Exception {
+        PartStorageStrategy strategy = new PartStorageStrategy(Storage.DIRECT, PartStorageStrategy.UNLIMITED);
+
+        ZipPackage pkg = createPackage(strategy);
+        try {
+            byte[] data = new byte[1000];
+            Arrays.fill(data, (byte)'x');
+            StoragePackagePart part = writePart(pkg, data);
+            assertEquals(Storage.DIRECT, part.getStorage());
+
+            try (InputStream is = part.getInputStream()) {
+                // rewriting the part discards the buffer, which the open stream still reads
+                try (OutputStream os = part.getOutputStream()) {
+                    os.write(new byte[10]);
+                }
+                assertArrayEquals(data, IOUtils.toByteArray(is));
+            }
+            assertEquals(10, read(part).length);
+        } finally {
+            pkg.revert();
+        }
+        assertEquals(0, strategy.getBytesHeld());
+    }
+
+    /**
+     * @return a zip with a deflated entry of the data per name
+     */
+    private static byte[] createZip(byte[] data, String... names) throws IOException {
+        SeekableInMemoryByteChannel channel = new SeekableInMemoryByteChannel();
+        try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(channel)) {
+            for (String name : names) {
+                zos.putArchiveEntry(new ZipArchiveEntry(name));
+                zos.write(data);
+                zos.closeArchiveEntry();
+            }
+        }
+        return Arrays.copyOf(channel.array(), (int)channel.size());
+    }
+
+    /**
+     * @return a zip with a single deflated entry, whose local header declares the given uncompressed size
+     */
+    private static byte[] createZip(byte[] data, long declaredSize) throws IOException {
+        // with a seekable channel, the sizes are written to the local header instead of a data descriptor
+        byte[] zip = createZip(data, "test.bin");
+        // the uncompressed size of the local file header
+        LittleEndian.putUInt(zip, 22, declaredSize);
+        return zip;
+    }
+
+    private static ZipInputStreamZipEntrySource openEntrySource(byte[] zip, PartStorageStrategy strategy) throws IOException {
+        return new ZipInputStreamZipEntrySource(new ZipArchiveThresholdInputStream(
+            new ZipArchiveInputStream(new ByteArrayInputStream(zip))), strategy);
+    }
+
+    private static ZipPackage createPackage(PartStorageStrategy strategy) {
+        ZipPackage pkg = (ZipPackage)OPCPackage.create(new ByteArrayOutputStream());
+        pkg.setPartStorageStrategy(strategy);
+        return pkg;
+    }
+
+    private static StoragePackagePart writePart(ZipPackage pkg, byte[] data) throws Exception {
+        StoragePackagePart part = (StoragePackagePart)pkg.createPart(
+            PackagingURIHelper.createPartName("/test.bin"), "application/octet-stream");
+        try (OutputStream os = part.getOutputStream()) {
+            os.write(data);
+        }
+        return part;
+    }
+
+    private static byte[] read(PackagePart part) throws IOException {
+        try (InputStream is = part.getInputStream()) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+}
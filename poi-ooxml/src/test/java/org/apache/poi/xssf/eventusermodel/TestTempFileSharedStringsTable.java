@@ -0,0 +1,159 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.DefaultTempFileCreationStrategy;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link TempFileSharedStringsTable}
+ */
+final class TestTempFileSharedStringsTable {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @Test
+    void testParse() throws Exception {
+        for (String file : new String[]{"SampleSS.xlsx", "MalformedSSTCount.xlsx"}) {
+            try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream(file))) {
+                List<PackagePart> parts = pkg.getPartsByName(Pattern.compile("/xl/sharedStrings.xml"));
+                assertEquals(1, parts.size());
+
+                ReadOnlySharedStringsTable rtbl = new ReadOnlySharedStringsTable(parts.get(0));
+                // a tiny cache forces evictions and re-reads from the temp file
+                try (TempFileSharedStringsTable ttbl = new TempFileSharedStringsTable(
+                        parts.get(0).getInputStream(), true, 2)) {
+                    assertEquals(rtbl.getCount(), ttbl.getCount());
+                    assertEquals(rtbl.getUniqueCount(), ttbl.getUniqueCount());
+                    for (int pass = 0; pass < 2; pass++) {
+                        for (int i = 0; i < rtbl.getUniqueCount(); i++) {
+                            assertEquals(rtbl.getItemAt(i).getString(), ttbl.getItemAt(i).getString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //51519
+    @Test
+    void testPhoneticRuns() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("51519.xlsx"))) {
+            List<PackagePart> parts = pkg.getPartsByName(Pattern.compile("/xl/sharedStrings.xml"));
+            assertEquals(1, parts.size());
+
+            try (TempFileSharedStringsTable tbl = new TempFileSharedStringsTable(parts.get(0), true)) {
+                assertEquals(49, tbl.getUniqueCount());
+                assertEquals("\u30B3\u30E1\u30F3\u30C8", tbl.getItemAt(0).getString());
+                assertEquals("\u65E5\u672C\u30AA\u30E9\u30AF\u30EB \u30CB\u30DB\u30F3", tbl.getItemAt(3).getString());
+            }
+
+            try (TempFileSharedStringsTable tbl = new TempFileSharedStringsTable(parts.get(0), false)) {
+                assertEquals(49, tbl.getUniqueCount());
+                assertEquals("\u65E5\u672C\u30AA\u30E9\u30AF\u30EB", tbl.getItemAt(3).getString());
+            }
+        }
+    }
+
+    @Test
+    void testInvalidIndexAndClose() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+            "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"3\" uniqueCount=\"2\">" +
+            "<si><t>bla</t></si><si><r><t>a</t></r><r><t>b</t></r></si></sst>";
+        TempFileSharedStringsTable tbl = new TempFileSharedStringsTable(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), true, 16);
+        assertEquals(3, tbl.getCount());
+        assertEquals(2, tbl.getUniqueCount());
+        assertEquals("bla", tbl.getItemAt(0).getString());
+        assertEquals("ab", tbl.getItemAt(1).getString());
+        assertThrows(IllegalStateException.class, () -> tbl.getItemAt(2));
+        assertThrows(IllegalStateException.class, () -> tbl.getItemAt(-1));
+
+        tbl.close();
+        assertThrows(IllegalStateException.class, () -> tbl.getItemAt(0));
+        // closing twice is fine
+        tbl.close();
+    }
+
+    @Test
+    void testFailingTempFile() throws Exception {
+        List<File> created = new ArrayList<>();
+        TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy() {
+            @Override
+            public File createTempFile(String prefix, String suffix) throws IOException {
+                if (!created.isEmpty()) {
+                    throw new IOException("no space left");
+                }
+                File file = super.createTempFile(prefix, suffix);
+                created.add(file);
+                return file;
+            }
+        });
+        try {
+            AtomicBoolean streamClosed = new AtomicBoolean();
+            InputStream stream = new ByteArrayInputStream(new byte[0]) {
+                @Override
+                public void close() {
+                    streamClosed.set(true);
+                }
+            };
+            assertThrows(IOException.class, () -> new TempFileSharedStringsTable(stream, true, 16));
+            assertTrue(streamClosed.get());
+            assertEquals(1, created.size());
+            assertFalse(created.get(0).exists());
+        } finally {
+            TempFile.setTempFileCreationStrategy(new DefaultTempFileCreationStrategy());
+        }
+    }
+
+    @Test
+    void testReaderFlag() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            reader.setUseTempFileSharedStringsTable(true);
+            SharedStrings sst = reader.getSharedStringsTable();
+            try (SharedStringsTable stbl = new SharedStringsTable(pkg.getPartsByName(
+                    Pattern.compile("/xl/sharedStrings.xml")).get(0));
+                 TempFileSharedStringsTable tbl = assertInstanceOf(TempFileSharedStringsTable.class, sst)) {
+                assertEquals(stbl.getUniqueCount(), tbl.getUniqueCount());
+                assertEquals(stbl.getItemAt(0).getString(), tbl.getItemAt(0).getString());
+            }
+        }
+    }
+}
@@ -28,7 +28,11 @@ import java.util.Base64;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
@@ -171,6 +175,30 @@ public final class TestXSSFReader {
         }
     }
 
+    @Test
+    void testProcessSheetsConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("reordered_sheets.xlsx"))) {
+            XSSFReader r = new XSSFReader(pkg);
+            Map<Integer, String> names = new ConcurrentHashMap<>();
+            r.processSheetsConcurrently(executor, (index, name, data) -> {
+                assertTrue(IOUtils.toByteArray(data).length > 0);
+                names.put(index, name);
+            });
+            assertEquals("{0=Sheet4, 1=Sheet2, 2=Sheet3, 3=Sheet1}", names.toString());
+
+            IOException ex = assertThrows(IOException.class, () ->
+                r.processSheetsConcurrently(executor, (index, name, data) -> {
+                    if (index == 2) {
+                        throw new IOException("failed " + name);
+                    }
+                }));
+            assertEquals("failed Sheet3", ex.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void testComments() throws Exception {
       try (OPCPackage pkg =  XSSFTestDataSamples.openSamplePackage("comments.xlsx")) {
@@ -0,0 +1,171 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+package org.apache.poi.xssf.eventusermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import org.apache.poi.POIDataSamples;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+class TestXSSFSheetRowReader {
+    private static final POIDataSamples _ssTests = POIDataSamples.getSpreadSheetInstance();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SampleSS.xlsx", "Formatting.xlsx", "InlineStrings.xlsx", "sample.xlsx"})
+    void sameAsSheetXMLHandler(String file) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream(file))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            StylesTable styles = reader.getStylesTable();
+            SharedStrings sst = new ReadOnlySharedStringsTable(pkg);
+
+            XSSFReader.SheetIterator iter = reader.getSheetIterator();
+            while (iter.hasNext()) {
+                List<String> expected = new ArrayList<>();
+                try (InputStream stream = iter.next()) {
+                    XMLReader sheetParser = XMLHelper.newXMLReader();
+                    sheetParser.setContentHandler(new XSSFSheetXMLHandler(styles, sst, new SheetContentsHandler() {
+                        @Override
+                        public void startRow(int rowNum) {
+                        }
+
+                        @Override
+                        public void endRow(int rowNum) {
+                        }
+
+                        @Override
+                        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                            if (formattedValue != null && !formattedValue.isEmpty()) {
+                                expected.add(cellReference + "=" + formattedValue);
+                            }
+                        }
+                    }, false));
+                    sheetParser.parse(new InputSource(stream));
+                }
+
+                List<String> actual = new ArrayList<>();
+                try (XSSFSheetRowReader rows = new XSSFSheetRowReader(iter.getSheetPart().getInputStream(), styles, sst)) {
+                    while (rows.hasNext()) {
+                        XSSFSheetRowReader.RowView row = rows.next();
+                        for (int i = 0; i < row.getCellCount(); i++) {
+                            XSSFSheetRowReader.CellView cell = row.getCell(i);
+                            String value = cell.getFormattedValue();
+                            if (!value.isEmpty()) {
+                                String ref = new CellReference(cell.getRowIndex(), cell.getColumnIndex()).formatAsString(false);
+                                actual.add(ref + "=" + value);
+                            }
+                        }
+                    }
+                }
+                assertEquals(expected, actual, file + " / " + iter.getSheetName());
+            }
+        }
+    }
+
+    @Test
+    void cellTypesAndReuse() throws Exception {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+            "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>" +
+            "<row r=\"2\"><c r=\"A2\"><v>1.5</v></c><c r=\"C2\" t=\"b\"><v>1</v></c><c r=\"D2\" t=\"e\"><v>#DIV/0!</v></c>" +
+            "<c r=\"E2\" t=\"str\"><f>CONCAT(\"a\",\"b\")</f><v>ab</v></c><c r=\"F2\" s=\"0\"/></row>" +
+            "<row><c t=\"inlineStr\"><is><r><t>in</t></r><r><t>line</t></r><rPh><t>x</t></rPh></is></c><c><f>1+1</f><v>2</v></c></row>" +
+            "</sheetData></worksheet>";
+
+        XSSFSheetRowReader rows = new XSSFSheetRowReader(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null, null);
+        assertTrue(rows.hasNext());
+        XSSFSheetRowReader.RowView row = rows.next();
+        assertEquals(1, row.getRowNum());
+        assertEquals(5, row.getCellCount());
+
+        final XSSFSheetRowReader.CellView first = row.getCell(0);
+        XSSFSheetRowReader.CellView cell = first;
+        assertEquals(0, cell.getColumnIndex());
+        assertEquals(CellType.NUMERIC, cell.getCellType());
+        assertEquals(1.5, cell.getNumericValue(), 0);
+        assertThrows(IllegalStateException.class, cell::getBooleanValue);
+
+        cell = row.getCell(1);
+        assertEquals(2, cell.getColumnIndex());
+        assertEquals(CellType.BOOLEAN, cell.getCellType());
+        assertTrue(cell.getBooleanValue());
+        assertEquals("TRUE", cell.getFormattedValue());
+
+        assertEquals(CellType.ERROR, row.getCell(2).getCellType());
+        assertEquals("ERROR:#DIV/0!", row.getCell(2).getFormattedValue());
+
+        cell = row.getCell(3);
+        assertTrue(cell.hasFormula());
+        assertEquals("CONCAT(\"a\",\"b\")", cell.getFormula().toString());
+        assertEquals(CellType.STRING, cell.getCellType());
+        assertEquals("ab", cell.getStringValue());
+
+        assertEquals(CellType.BLANK, row.getCell(4).getCellType());
+        assertEquals("", row.getCell(4).getFormattedValue());
+        assertThrows(IndexOutOfBoundsException.class, () -> row.getCell(5));
+
+        // the row and cell views are reused
+        assertSame(row, rows.next());
+        assertEquals(2, row.getRowNum());
+        assertEquals(2, row.getCellCount());
+        assertSame(first, row.getCell(0));
+        assertEquals("inline", row.getCell(0).getStringValue());
+        assertEquals(1, row.getCell(1).getColumnIndex());
+        assertEquals("1+1", row.getCell(1).getFormula().toString());
+        assertEquals(2, row.getCell(1).getNumericValue(), 0);
+
+        assertFalse(rows.hasNext());
+        assertThrows(NoSuchElementException.class, rows::next);
+        rows.close();
+    }
+
+    @Test
+    void stream() throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(_ssTests.openResourceAsStream("SampleSS.xlsx"))) {
+            XSSFReader reader = new XSSFReader(pkg);
+            XSSFSheetRowReader rows = new XSSFSheetRowReader(reader.getSheet("rId1"),
+                reader.getStylesTable(), reader.getSharedStringsTable());
+            try (Stream<XSSFSheetRowReader.RowView> stream = rows.stream()) {
+                assertTrue(stream.mapToInt(XSSFSheetRowReader.RowView::getCellCount).sum() > 0);
+            }
+            assertFalse(rows.hasNext());
+        }
+    }
+}
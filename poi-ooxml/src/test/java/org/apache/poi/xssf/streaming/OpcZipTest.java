@@ -17,17 +17,27 @@
 
 package org.apache.poi.xssf.streaming;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.junit.jupiter.api.Test;
 
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
 
+import org.apache.poi.util.IOUtils;
+
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class OpcZipTest {
     @Test
@@ -59,6 +69,49 @@ class OpcZipTest {
         }
     }
 
+    @Test
+    void parallelCompression() throws Exception {
+        // empty, small, exactly one chunk and multiple chunks with a partial last chunk
+        int[] sizes = {0, 100, ParallelDeflater.CHUNK_SIZE, 5 * ParallelDeflater.CHUNK_SIZE + 1234};
+        Random rnd = new Random(4711);
+        byte[][] data = new byte[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            data[i] = new byte[sizes[i]];
+            for (int j = 0; j < sizes[i]; j++) {
+                // compressible, but not trivially repetitive content
+                data[i][j] = (byte)('a' + rnd.nextInt(8));
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            try (OpcOutputStream zip = new OpcOutputStream(bos, executor)) {
+                for (int i = 0; i < data.length; i++) {
+                    zip.putNextEntry("entry" + i);
+                    // write in odd sized pieces to cross the chunk boundaries
+                    for (int off = 0; off < data[i].length; off += 7777) {
+                        zip.write(data[i], off, Math.min(7777, data[i].length - off));
+                    }
+                    zip.closeEntry();
+                }
+            }
+
+            // the zip64 data descriptors need to be read via the central directory
+            try (ZipFile zf = ZipFile.builder().setSeekableByteChannel(
+                    new SeekableInMemoryByteChannel(bos.toByteArray())).get()) {
+                for (int i = 0; i < data.length; i++) {
+                    ZipArchiveEntry ze = zf.getEntry("entry" + i);
+                    assertEquals(data[i].length, ze.getSize());
+                    try (InputStream is = zf.getInputStream(ze)) {
+                        assertArrayEquals(data[i], IOUtils.toByteArray(is));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static Map<String, String> createContents() {
         Map<String, String> contents = new LinkedHashMap<>();
         for (int i = 0; i < 3; i++) {
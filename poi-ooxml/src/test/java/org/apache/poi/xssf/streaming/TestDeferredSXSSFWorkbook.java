@@ -27,9 +27,16 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 
 import org.apache.poi.ss.tests.usermodel.BaseTestXWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.CellReference;
@@ -355,6 +362,49 @@ public final class TestDeferredSXSSFWorkbook extends BaseTestXWorkbook {
         }
     }
 
+    @Test
+    void sharedStringsAndStylesWrittenLast() throws IOException {
+        try (DeferredSXSSFWorkbook wb = new DeferredSXSSFWorkbook(null, 10, true);
+             UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            for (int i = 0; i < 2; i++) {
+                DeferredSXSSFSheet sheet = wb.createSheet("sheet" + i);
+                sheet.setRowGenerator((sh) -> {
+                    // the style and the strings are only known when the rows are generated
+                    CellStyle style = sh.getWorkbook().createCellStyle();
+                    style.setDataFormat(sh.getWorkbook().createDataFormat().getFormat("0.000"));
+                    for (int j = 0; j < 100; j++) {
+                        Row row = sh.createRow(j);
+                        row.createCell(0).setCellValue("value " + (j % 10));
+                        Cell cell = row.createCell(1);
+                        cell.setCellValue(j);
+                        cell.setCellStyle(style);
+                    }
+                });
+            }
+            wb.write(bos);
+
+            List<String> entries = new ArrayList<>();
+            try (ZipArchiveInputStream zis = new ZipArchiveInputStream(bos.toInputStream())) {
+                for (ZipArchiveEntry ze; (ze = zis.getNextEntry()) != null; ) {
+                    entries.add(ze.getName());
+                }
+            }
+            int lastSheet = Math.max(entries.indexOf("xl/worksheets/sheet1.xml"), entries.indexOf("xl/worksheets/sheet2.xml"));
+            assertTrue(lastSheet >= 0);
+            assertTrue(entries.indexOf("xl/sharedStrings.xml") > lastSheet);
+            assertTrue(entries.indexOf("xl/styles.xml") > lastSheet);
+
+            try (XSSFWorkbook xwb = new XSSFWorkbook(bos.toInputStream())) {
+                assertEquals(10, xwb.getSharedStringSource().getUniqueCount());
+                for (int i = 0; i < 2; i++) {
+                    XSSFSheet sh = xwb.getSheetAt(i);
+                    assertEquals("value 7", sh.getRow(57).getCell(0).getStringCellValue());
+                    assertEquals("0.000", sh.getRow(57).getCell(1).getCellStyle().getDataFormatString());
+                }
+            }
+        }
+    }
+
     private static void populateData(DeferredSXSSFWorkbook wb) {
         for (int i = 0; i < 5; i++) {
             DeferredSXSSFSheet sheet = wb.createSheet("sheet" + i);
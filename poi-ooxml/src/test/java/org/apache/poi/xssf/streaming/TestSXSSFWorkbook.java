@@ -36,6 +36,8 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
@@ -747,6 +749,38 @@ public final class TestSXSSFWorkbook extends BaseTestXWorkbook {
         }
     }
 
+    @Test
+    void writeWithCompressionExecutor() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (SXSSFWorkbook wb = new SXSSFWorkbook();
+             UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            wb.setCompressionExecutor(executor);
+            assertSame(executor, wb.getCompressionExecutor());
+            for (int s = 0; s < 2; s++) {
+                Sheet sheet = wb.createSheet();
+                // large enough for multiple compression chunks
+                for (int r = 0; r < 5000; r++) {
+                    Row row = sheet.createRow(r);
+                    row.createCell(0).setCellValue(r);
+                    row.createCell(1).setCellValue("sheet " + s + " row " + r);
+                }
+            }
+            wb.write(bos);
+
+            try (XSSFWorkbook xwb = new XSSFWorkbook(bos.toInputStream())) {
+                assertEquals(2, xwb.getNumberOfSheets());
+                for (int s = 0; s < 2; s++) {
+                    XSSFSheet sheet = xwb.getSheetAt(s);
+                    assertEquals(4999, sheet.getLastRowNum());
+                    assertEquals(1234, sheet.getRow(1234).getCell(0).getNumericCellValue(), 0);
+                    assertEquals("sheet " + s + " row 4999", sheet.getRow(4999).getCell(1).getStringCellValue());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void writeBrokenFile() throws IOException {
         try (final Workbook wb = _testDataProvider.openSampleWorkbook("clusterfuzz-testcase-minimized-POIXSSFFuzzer-5185049589579776.xlsx")) {
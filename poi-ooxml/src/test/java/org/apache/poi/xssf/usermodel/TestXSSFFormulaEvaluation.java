@@ -26,10 +26,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.ss.formula.BaseFormulaEvaluator;
 import org.apache.poi.ss.usermodel.BaseTestFormulaEvaluator;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
@@ -485,4 +487,23 @@ public final class TestXSSFFormulaEvaluation extends BaseTestFormulaEvaluator {
             assertEquals("Male", value.getStringValue());
         }
     }
+
+    @Test
+    void evaluateAllConcurrently() throws IOException {
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            for (int i = 0; i < 4; i++) {
+                XSSFRow row = wb.createSheet("S" + i).createRow(0);
+                row.createCell(0).setCellValue(i + 1);
+            }
+            wb.getSheetAt(0).getRow(0).createCell(1).setCellFormula("A1*10");
+            wb.getSheetAt(1).getRow(0).createCell(1).setCellFormula("SUM(S2:S3!A1)");
+            wb.getSheetAt(3).getRow(0).createCell(1).setCellFormula("S3!A1+'S2'!A1");
+
+            BaseFormulaEvaluator.evaluateAllFormulaCellsConcurrently(wb, ForkJoinPool.commonPool());
+            assertEquals(10, wb.getSheetAt(0).getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(7, wb.getSheetAt(1).getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(7, wb.getSheetAt(3).getRow(0).getCell(1).getNumericCellValue(), 0);
+        }
+    }
 }
+
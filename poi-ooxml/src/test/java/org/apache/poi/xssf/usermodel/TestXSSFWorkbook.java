@@ -24,6 +24,7 @@ import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.ooxml.POIXMLException;
 import org.apache.poi.ooxml.POIXMLProperties;
 import org.apache.poi.ooxml.TrackingInputStream;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
@@ -89,6 +90,8 @@ import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.CRC32;
 
 import static org.apache.poi.hssf.HSSFTestDataSamples.openSampleFileStream;
@@ -1546,6 +1549,120 @@ public final class TestXSSFWorkbook extends BaseTestXWorkbook {
         }
     }
 
+    @Test
+    void lazySheetLoading() throws Exception {
+        final byte[] origSheet2;
+        try (OPCPackage pkg = OPCPackage.open(openSampleFileStream("SampleSS.xlsx"))) {
+            origSheet2 = IOUtils.toByteArray(pkg.getPart(
+                    PackagingURIHelper.createPartName("/xl/worksheets/sheet2.xml")).getInputStream());
+        }
+
+        final UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        try (XSSFWorkbook wb = new XSSFWorkbook(OPCPackage.open(openSampleFileStream("SampleSS.xlsx")), true)) {
+            assertEquals(3, wb.getNumberOfSheets());
+            for (int i = 0; i < 3; i++) {
+                assertFalse(wb.isSheetLoaded(i));
+            }
+            // sheet names and indexes don't need the worksheet data
+            assertEquals(1, wb.getSheetIndex(wb.getSheetName(1)));
+            assertFalse(wb.isSheetLoaded(1));
+
+            XSSFSheet sheet = wb.getSheetAt(0);
+            assertTrue(wb.isSheetLoaded(0));
+            assertTrue(sheet.isLoaded());
+            assertFalse(wb.isSheetLoaded(1));
+            assertFalse(wb.isSheetLoaded(2));
+            sheet.getRow(0).createCell(20).setCellValue("lazy");
+
+            assertNotNull(wb.getSheet(wb.getSheetName(2)));
+            assertTrue(wb.isSheetLoaded(2));
+            assertFalse(wb.isSheetLoaded(1));
+
+            wb.write(bos);
+            assertFalse(wb.isSheetLoaded(1));
+        }
+
+        try (OPCPackage pkg = OPCPackage.open(bos.toInputStream())) {
+            byte[] savedSheet2 = IOUtils.toByteArray(pkg.getPart(
+                    PackagingURIHelper.createPartName("/xl/worksheets/sheet2.xml")).getInputStream());
+            assertArrayEquals(origSheet2, savedSheet2);
+
+            try (XSSFWorkbook wb = new XSSFWorkbook(pkg)) {
+                assertEquals("lazy", wb.getSheetAt(0).getRow(0).getCell(20).getStringCellValue());
+            }
+        }
+
+        // iterating loads the sheets
+        try (XSSFWorkbook wb = new XSSFWorkbook(OPCPackage.open(openSampleFileStream("SampleSS.xlsx")), true)) {
+            int count = 0;
+            for (Sheet sh : wb) {
+                assertTrue(((XSSFSheet)sh).isLoaded());
+                count++;
+            }
+            assertEquals(3, count);
+        }
+    }
+
+    @Test
+    void lazySheetLoadingOfCorruptSheet() throws Exception {
+        final UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        try (ZipArchiveInputStream zis = new ZipArchiveInputStream(openSampleFileStream("SampleSS.xlsx"));
+             ZipArchiveOutputStream zos = new ZipArchiveOutputStream(bos)) {
+            ZipArchiveEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                zos.putArchiveEntry(new ZipArchiveEntry(entry.getName()));
+                if ("xl/worksheets/sheet2.xml".equals(entry.getName())) {
+                    // truncated worksheet xml
+                    zos.write("<worksheet><sheetData>".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    IOUtils.copy(zis, zos);
+                }
+                zos.closeArchiveEntry();
+            }
+        }
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(OPCPackage.open(bos.toInputStream()), true)) {
+            assertThrows(POIXMLException.class, () -> wb.getSheetAt(1));
+            assertFalse(wb.isSheetLoaded(1));
+            // the sheet isn't treated as loaded after the failure, so the next access fails again
+            assertThrows(POIXMLException.class, () -> wb.getSheetAt(1));
+            assertFalse(wb.isSheetLoaded(1));
+
+            assertNotNull(wb.getSheetAt(0).getRow(0));
+            assertTrue(wb.isSheetLoaded(0));
+        }
+    }
+
+    @Test
+    void concurrentSheetParsing() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (XSSFWorkbook expected = openSampleWorkbook("SampleSS.xlsx");
+             XSSFWorkbook wb = new XSSFWorkbook(OPCPackage.open(openSampleFileStream("SampleSS.xlsx")), executor)) {
+            assertEquals(expected.getNumberOfSheets(), wb.getNumberOfSheets());
+            DataFormatter df = new DataFormatter();
+            for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+                assertTrue(wb.isSheetLoaded(i));
+                XSSFSheet exp = expected.getSheetAt(i), act = wb.getSheetAt(i);
+                assertEquals(exp.getSheetName(), act.getSheetName());
+                assertEquals(exp.getPhysicalNumberOfRows(), act.getPhysicalNumberOfRows());
+                for (Row row : exp) {
+                    for (Cell cell : row) {
+                        Cell other = act.getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                        assertEquals(df.formatCellValue(cell), df.formatCellValue(other));
+                        assertEquals(cell.getCellStyle().getIndex(), other.getCellStyle().getIndex());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // failures while scheduling or parsing the sheets are reported to the caller
+        assertThrows(POIXMLException.class, () -> new XSSFWorkbook(
+            OPCPackage.open(openSampleFileStream("SampleSS.xlsx")),
+            command -> { throw new POIXMLException("rejected"); }));
+    }
+
     private static void expectFormattedContent(Cell cell, String value) {
         assertEquals(value, new DataFormatter().formatCellValue(cell),
                 "Cell " + ref(cell) + " has wrong formatted content.");
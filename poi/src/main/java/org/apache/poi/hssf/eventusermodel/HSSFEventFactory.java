@@ -163,7 +163,8 @@ public class HSSFEventFactory {
         short userCode = 0;
 
         // Create a new RecordStream and use that
-        RecordFactoryInputStream recordStream = new RecordFactoryInputStream(in, false);
+        short[] sids = req.isSkipUnregisteredRecords() ? req.getRegisteredSids() : null;
+        RecordFactoryInputStream recordStream = new RecordFactoryInputStream(in, false, sids);
 
         // Process each record as they come in
         while(true) {
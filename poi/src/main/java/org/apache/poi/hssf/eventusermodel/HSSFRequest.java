@@ -34,6 +34,7 @@ import org.apache.poi.hssf.record.RecordFactory;
  */
 public class HSSFRequest {
     private final Map<Short, List<HSSFListener>> _records;
+    private boolean _skipUnregisteredRecords;
 
     /** Creates a new instance of HSSFRequest */
     public HSSFRequest() {
@@ -78,6 +79,45 @@ public class HSSFRequest {
         }
     }
 
+    /**
+     * Enables the filtering mode, where the records without listeners aren't created at all.
+     * Their data (and the data of their continue records) is skipped while reading the stream,
+     * which speeds up the processing, if only a few record types are of interest.
+     * <p>
+     * The listeners receive the same records as without filtering, but records, which depend on
+     * preceding records, e.g. the continue records of drawings, are only complete if the listeners
+     * are also registered for the preceding records.
+     *
+     * @param skipUnregisteredRecords {@code true} to skip the data of records without listeners,
+     *        defaults to {@code false}
+     *
+     * @since POI 5.4.0
+     */
+    public void setSkipUnregisteredRecords(boolean skipUnregisteredRecords) {
+        _skipUnregisteredRecords = skipUnregisteredRecords;
+    }
+
+    /**
+     * @return {@code true} if the data of records without listeners is skipped
+     *
+     * @since POI 5.4.0
+     */
+    public boolean isSkipUnregisteredRecords() {
+        return _skipUnregisteredRecords;
+    }
+
+    /**
+     * @return the sids of the records with listeners
+     */
+    short[] getRegisteredSids() {
+        short[] sids = new short[_records.size()];
+        int i = 0;
+        for (Short sid : _records.keySet()) {
+            sids[i++] = sid;
+        }
+        return sids;
+    }
+
     /**
      * Called by HSSFEventFactory, passes the Record to each listener associated with
      * a record.sid.
@@ -19,6 +19,7 @@ package org.apache.poi.hssf.record;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import org.apache.poi.EncryptedDocumentException;
@@ -173,6 +174,16 @@ public final class RecordFactoryInputStream {
 
     private boolean _lastRecordWasEOFLevelZero;
 
+    /**
+     * The sids of the records to return or {@code null} if all records are returned
+     */
+    private final BitSet _sidFilter;
+
+    /**
+     * The sid of the most recent (non-continue) record, if its data was skipped, otherwise -1
+     */
+    private int _skippedSid = -1;
+
 
     /**
      * @param in the InputStream to read from
@@ -182,6 +193,37 @@ public final class RecordFactoryInputStream {
      * processing).
      */
     public RecordFactoryInputStream(InputStream in, boolean shouldIncludeContinueRecords) {
+        this(in, shouldIncludeContinueRecords, null);
+    }
+
+    /**
+     * Creates a stream, which only returns the records with the given sids.
+     * <p>
+     * The data of the other records is skipped at the header level, i.e. no record instances
+     * are created for them and their continue records are skipped as well. BOF and EOF records
+     * are always read to detect the end of the workbook stream. {@link RKRecord}s and
+     * {@link MulRKRecord}s are read, if {@link NumberRecord#sid} is requested.
+     *
+     * @param in the InputStream to read from
+     *
+     * @param shouldIncludeContinueRecords caller can pass <code>false</code> if loose
+     * {@link ContinueRecord}s should be skipped (this is sometimes useful in event based
+     * processing).
+     *
+     * @param sids the sids of the records to return or {@code null} to return all records
+     *
+     * @since POI 5.4.0
+     */
+    public RecordFactoryInputStream(InputStream in, boolean shouldIncludeContinueRecords, short[] sids) {
+        if (sids == null) {
+            _sidFilter = null;
+        } else {
+            _sidFilter = new BitSet(0x10000);
+            for (short sid : sids) {
+                _sidFilter.set(sid & 0xFFFF);
+            }
+        }
+
         RecordInputStream rs = new RecordInputStream(in);
         List<org.apache.poi.hssf.record.Record> records = new ArrayList<>();
         StreamEncryptionInfo sei = new StreamEncryptionInfo(rs, records);
@@ -226,10 +268,11 @@ public final class RecordFactoryInputStream {
      */
     public Record nextRecord() {
         Record r;
-        r = getNextUnreadRecord();
-        if (r != null) {
-            // found an unread record
-            return r;
+        while ((r = getNextUnreadRecord()) != null) {
+            if (isRequested(r.getSid())) {
+                // found an unread record
+                return r;
+            }
         }
         while (true) {
             if (!_recStream.hasNextRecord()) {
@@ -252,8 +295,19 @@ public final class RecordFactoryInputStream {
             // step underlying RecordInputStream to the next record
             _recStream.nextRecord();
 
+            int sid = _recStream.getSid() & 0xFFFF;
+            if (shouldSkipRecord(sid)) {
+                _recStream.skipRemainder();
+                _lastRecord = null;
+                if (sid != ContinueRecord.sid) {
+                    _skippedSid = sid;
+                }
+                _lastRecordWasEOFLevelZero = false;
+                continue;
+            }
+
             r = readNextRecord();
-            if (r == null) {
+            if (r == null || !isRequested(r.getSid())) {
                 // some record types may get skipped (e.g. DBCellRecord and ContinueRecord)
                 continue;
             }
@@ -261,6 +315,49 @@ public final class RecordFactoryInputStream {
         }
     }
 
+    /**
+     * @return {@code true} if records with the given sid are returned to the caller
+     */
+    private boolean isRequested(int sid) {
+        return _sidFilter == null || _sidFilter.get(sid & 0xFFFF);
+    }
+
+    /**
+     * @return {@code true} if the data of the current record can be skipped without creating a record
+     */
+    private boolean shouldSkipRecord(int sid) {
+        if (_sidFilter == null) {
+            return false;
+        }
+        switch (sid) {
+            case BOFRecord.sid:
+            case EOFRecord.sid:
+                // needed to recognise the end of the workbook stream
+                return false;
+            case ContinueRecord.sid:
+                // continue records belong to the preceding record, but some are returned on their own
+                return _skippedSid != -1
+                    && !(isRequested(ContinueRecord.sid) && isContinueReturned(_skippedSid));
+            case RKRecord.sid:
+            case MulRKRecord.sid:
+                // these are returned as NumberRecords
+                return !isRequested(NumberRecord.sid);
+            case DBCellRecord.sid:
+                // never returned
+                return true;
+            default:
+                return !isRequested(sid);
+        }
+    }
+
+    /**
+     * @return {@code true} if the continue records following a record with the given sid are
+     * returned to the caller, see {@link #readNextRecord()}
+     */
+    private static boolean isContinueReturned(int sid) {
+        return sid == DrawingRecord.sid || !HSSFRecordTypes.forSID(sid).isParseable();
+    }
+
     /**
      * @return the next {@link Record} from the multiple record group as expanded from
      * a recently read {@link MulRKRecord}. <code>null</code> if not present.
@@ -288,6 +385,7 @@ public final class RecordFactoryInputStream {
 
         Record record = RecordFactory.createSingleRecord(_recStream);
         _lastRecordWasEOFLevelZero = false;
+        _skippedSid = -1;
 
         if (record instanceof BOFRecord) {
             _bofDepth++;
@@ -348,8 +446,8 @@ public final class RecordFactoryInputStream {
 //              ((DrawingRecord) _lastRecord).appendContinueRecord(contRec.getData());
                 return contRec;
             }
-            if (_lastRecord instanceof UnknownRecord) {
-                //Gracefully handle records that we don't know about,
+            if (_lastRecord == null || _lastRecord instanceof UnknownRecord) {
+                //Gracefully handle records that we don't know about or that were skipped,
                 //that happen to be continued
                 return record;
             }
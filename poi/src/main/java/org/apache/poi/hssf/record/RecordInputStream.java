@@ -98,6 +98,10 @@ public final class RecordInputStream implements LittleEndianInput {
      * index within the data section when mark() was called
      */
     private int _markedDataOffset;
+    /**
+     * buffer for skipping the data of encrypted records, allocated on first use
+     */
+    private byte[] _skipBuffer;
 
     private static final class SimpleHeaderInput implements BiffHeaderInput {
 
@@ -441,6 +445,59 @@ public final class RecordInputStream implements LittleEndianInput {
         return result;
     }
 
+    /**
+     * Skips the remaining bytes of the current record without copying them into a new array.
+     * Following continue records are not skipped.
+     *
+     * @throws RecordFormatException if the stream ends before the end of the record
+     *
+     * @since POI 5.4.0
+     */
+    public void skipRemainder() {
+        int size = remaining();
+        if (size == 0) {
+            return;
+        }
+        if (_dataInput instanceof Biff8DecryptingStream) {
+            // the skipped bytes need to pass the cipher, to keep it in sync with the stream position
+            if (_skipBuffer == null) {
+                _skipBuffer = new byte[MAX_RECORD_DATA_SIZE];
+            }
+            if (isEncrypted()) {
+                _dataInput.readFully(_skipBuffer, 0, size);
+            } else {
+                _dataInput.readPlain(_skipBuffer, 0, size);
+            }
+        } else if (_dataInput instanceof InputStream) {
+            skipFully((InputStream)_dataInput, size);
+        } else {
+            for (int i = 0; i < size; i++) {
+                _dataInput.readByte();
+            }
+        }
+        _currentDataOffset = _currentDataLength;
+    }
+
+    private static void skipFully(InputStream is, int len) {
+        try {
+            int remaining = len;
+            while (remaining > 0) {
+                long skipped = is.skip(remaining);
+                if (skipped <= 0) {
+                    // some streams can't skip, so check for the end of stream by reading
+                    if (is.read() == -1) {
+                        throw new RecordFormatException("Can't skip the remaining " + remaining
+                                + " bytes of the requested " + len + " bytes. End of stream reached.");
+                    }
+                    skipped = 1;
+                }
+                remaining -= (int)skipped;
+            }
+        } catch (IOException e) {
+            throw new RecordFormatException(e);
+        }
+    }
+
     /**
      * Reads all byte data for the current record, including any that overlaps
      * into any following continue records.
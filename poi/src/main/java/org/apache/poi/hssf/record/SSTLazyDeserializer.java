@@ -0,0 +1,393 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.record;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.hssf.record.common.UnicodeString;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.util.IntMapper;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.LittleEndianInput;
+import org.apache.poi.util.RecordFormatException;
+
+/**
+ * Keeps the raw data of a SST record and its continue records and decodes the strings on first access.
+ * <p>
+ * On the first access, the string headers are scanned to build an index with the position of every
+ * {@value ExtSSTRecord#DEFAULT_BUCKET_SIZE}th string, similar to the buckets of the {@link ExtSSTRecord}.
+ * A string is then decoded by skipping the preceding strings of its bucket. The character data, format
+ * runs and extended data of the skipped strings is not decoded, only strings with extended (phonetic)
+ * data are fully parsed to find their end.
+ * <p>
+ * The decoding follows the same rules as {@link SSTDeserializer}, i.e. the character data of a string
+ * can be continued in the next record, which starts with a new option flags byte.
+ */
+class SSTLazyDeserializer {
+    private static final Logger LOG = PoiLogManager.getLogger(SSTLazyDeserializer.class);
+
+    private static final int BUCKET_SIZE = ExtSSTRecord.DEFAULT_BUCKET_SIZE;
+
+    /** the minimum size of an encoded string: char count and option flags */
+    private static final int MIN_STRING_SIZE = 3;
+
+    /** the data of the SST record after the string counts, followed by the data of the continue records */
+    private final byte[][] chunks;
+
+    private final int expectedStrings;
+
+    /** the positions of the first string of each bucket, chunk index in the upper and offset in the lower int */
+    private long[] bucketPositions;
+
+    private UnicodeString[] decoded;
+
+    private int stringCount = -1;
+
+    /**
+     * Reads the remaining data of the SST record and the following continue records
+     *
+     * @param in the input stream, positioned after the string counts of the SST record
+     * @param expectedStrings the number of unique strings according to the SST record
+     */
+    SSTLazyDeserializer(RecordInputStream in, int expectedStrings) {
+        List<byte[]> data = new ArrayList<>();
+        data.add(in.readRemainder());
+        while (in.hasNextRecord() && in.getNextSid() == ContinueRecord.sid) {
+            in.nextRecord();
+            data.add(in.readRemainder());
+        }
+        this.chunks = data.toArray(new byte[0][]);
+        this.expectedStrings = expectedStrings;
+    }
+
+    /**
+     * @return the number of strings
+     */
+    synchronized int countStrings() {
+        buildIndex();
+        return stringCount;
+    }
+
+    /**
+     * Returns a string and decodes it, if it wasn't accessed before
+     *
+     * @param id the index of the string
+     * @return the string
+     * @throws IndexOutOfBoundsException if there's no string with that index
+     */
+    synchronized UnicodeString getString(int id) {
+        buildIndex();
+        if (id < 0 || id >= stringCount) {
+            throw new IndexOutOfBoundsException("Index: " + id + ", Size: " + stringCount);
+        }
+        UnicodeString str = decoded[id];
+        if (str == null) {
+            long bucketPos = bucketPositions[id / BUCKET_SIZE];
+            Cursor cursor = new Cursor((int)(bucketPos >>> 32), (int)bucketPos);
+            for (int i = id % BUCKET_SIZE; i > 0; i--) {
+                cursor.skipString();
+            }
+            str = new UnicodeString(cursor.openRecordStream());
+            decoded[id] = str;
+        }
+        return str;
+    }
+
+    /**
+     * Adds all strings to the string table. Already decoded strings are added as the same instances.
+     *
+     * @param strings the string table
+     */
+    synchronized void decodeAll(IntMapper<UnicodeString> strings) {
+        buildIndex();
+        if (stringCount == 0) {
+            return;
+        }
+        RecordInputStream in = new Cursor(0, 0).openRecordStream();
+        for (int i = 0; i < stringCount; i++) {
+            UnicodeString str = new UnicodeString(in);
+            SSTDeserializer.addToStringTable(strings, (decoded[i] != null) ? decoded[i] : str);
+        }
+    }
+
+    private void buildIndex() {
+        if (stringCount != -1) {
+            return;
+        }
+
+        // the expected count might be garbage, so limit it by the available data
+        long totalSize = 0;
+        for (byte[] chunk : chunks) {
+            totalSize += chunk.length;
+        }
+        int maxStrings = (int)Math.min(expectedStrings, totalSize / MIN_STRING_SIZE + 1);
+        long[] positions = new long[(maxStrings + BUCKET_SIZE - 1) / BUCKET_SIZE];
+
+        Cursor cursor = new Cursor(0, 0);
+        int count = 0;
+        for (; count < expectedStrings; count++) {
+            if (cursor.isAtEnd()) {
+                LOG.atError().log("Ran out of data before creating all the strings! String at index {}", box(count));
+
+                // not much sense in trying to continue reading in this case, file seems to be broken
+                break;
+            }
+            if (count % BUCKET_SIZE == 0) {
+                positions[count / BUCKET_SIZE] = ((long)cursor.chunk << 32) | cursor.pos;
+            }
+            cursor.skipString();
+        }
+
+        bucketPositions = positions;
+        decoded = new UnicodeString[count];
+        stringCount = count;
+    }
+
+    /**
+     * A position within the chunks, which skips strings without decoding them
+     */
+    private final class Cursor {
+        private int chunk;
+        private int pos;
+
+        Cursor(int chunk, int pos) {
+            this.chunk = chunk;
+            this.pos = pos;
+        }
+
+        boolean isAtEnd() {
+            return pos == chunks[chunk].length && chunk == chunks.length - 1;
+        }
+
+        void skipString() {
+            final int startChunk = chunk;
+            final int startPos = pos;
+
+            int charCount = readUShort();
+            int optionFlags = readUByte();
+            int runCount = ((optionFlags & 0x8) != 0) ? (short)readUShort() : 0;
+            int extensionLength = ((optionFlags & 0x4) != 0) ? readInt() : 0;
+
+            if (extensionLength > 0) {
+                // the extended data isn't always sized as announced, so parse it like the eager deserializer
+                Cursor start = new Cursor(startChunk, startPos);
+                ChunkInput input = start.openInput();
+                RecordInputStream in = new RecordInputStream(input);
+                in.nextRecord();
+                new UnicodeString(in);
+                chunk = input.chunk;
+                pos = input.pos;
+                return;
+            }
+
+            skipChars(charCount, (optionFlags & 0x1) == 0);
+            // each format run consists of two shorts
+            for (int i = 0; i < runCount * 2; i++) {
+                readUShort();
+            }
+        }
+
+        RecordInputStream openRecordStream() {
+            RecordInputStream in = new RecordInputStream(openInput());
+            in.nextRecord();
+            return in;
+        }
+
+        private ChunkInput openInput() {
+            return new ChunkInput(chunk, pos);
+        }
+
+        private void checkPosition(int requiredByteCount) {
+            int available = chunks[chunk].length - pos;
+            if (available >= requiredByteCount) {
+                return;
+            }
+            if (available == 0 && chunk + 1 < chunks.length && chunks[chunk + 1].length >= requiredByteCount) {
+                chunk++;
+                pos = 0;
+                return;
+            }
+            throw new RecordFormatException("Not enough data (" + available
+                    + ") to read requested (" + requiredByteCount + ") bytes");
+        }
+
+        private int readUByte() {
+            checkPosition(1);
+            return chunks[chunk][pos++] & 0xFF;
+        }
+
+        private int readUShort() {
+            checkPosition(2);
+            int value = LittleEndian.getUShort(chunks[chunk], pos);
+            pos += 2;
+            return value;
+        }
+
+        private int readInt() {
+            checkPosition(4);
+            int value = LittleEndian.getInt(chunks[chunk], pos);
+            pos += 4;
+            return value;
+        }
+
+        private void skipChars(int charCount, boolean isCompressed) {
+            int remainingChars = charCount;
+            while (true) {
+                int remaining = chunks[chunk].length - pos;
+                int availableChars = isCompressed ? remaining : remaining / 2;
+                if (remainingChars <= availableChars) {
+                    pos += isCompressed ? remainingChars : remainingChars * 2;
+                    return;
+                }
+                // the string has been spilled into the next continue record
+                pos += isCompressed ? availableChars : availableChars * 2;
+                remainingChars -= availableChars;
+                if (chunk + 1 >= chunks.length) {
+                    throw new RecordFormatException("Expected to find a ContinueRecord in order to read remaining "
+                            + remainingChars + " of " + charCount + " chars");
+                }
+                if (pos != chunks[chunk].length) {
+                    throw new RecordFormatException("Odd number of bytes(" + (chunks[chunk].length - pos) + ") left behind");
+                }
+                chunk++;
+                pos = 0;
+                // note - the compressed flag may change on the fly
+                int compressFlag = readUByte();
+                if (compressFlag != 0 && compressFlag != 1) {
+                    throw new RecordFormatException("Invalid compressFlag: " + compressFlag);
+                }
+                isCompressed = (compressFlag == 0);
+            }
+        }
+    }
+
+    /**
+     * Provides the chunks from a position as a SST record followed by continue records,
+     * so they can be read by a {@link RecordInputStream}
+     */
+    private final class ChunkInput extends InputStream implements LittleEndianInput {
+        private static final int HEADER_SIZE = 4;
+
+        private int chunk;
+        private int pos;
+        private int headerPos;
+        private final byte[] header = new byte[HEADER_SIZE];
+
+        ChunkInput(int chunk, int pos) {
+            this.chunk = chunk;
+            this.pos = pos;
+            initHeader(SSTRecord.sid);
+        }
+
+        private void initHeader(int sid) {
+            LittleEndian.putUShort(header, 0, sid);
+            LittleEndian.putUShort(header, 2, chunks[chunk].length - pos);
+            headerPos = 0;
+        }
+
+        @Override
+        public int available() {
+            int available = (HEADER_SIZE - headerPos) + (chunks[chunk].length - pos);
+            return (chunk + 1 < chunks.length) ? available + HEADER_SIZE : available;
+        }
+
+        @Override
+        public int read() {
+            if (headerPos < HEADER_SIZE) {
+                return header[headerPos++] & 0xFF;
+            }
+            if (pos == chunks[chunk].length) {
+                if (chunk + 1 >= chunks.length) {
+                    return -1;
+                }
+                chunk++;
+                pos = 0;
+                initHeader(ContinueRecord.sid);
+                return read();
+            }
+            return chunks[chunk][pos++] & 0xFF;
+        }
+
+        @Override
+        public int readUByte() {
+            int value = read();
+            if (value == -1) {
+                throw new RecordFormatException("Unexpected end of SST data");
+            }
+            return value;
+        }
+
+        @Override
+        public byte readByte() {
+            return (byte)readUByte();
+        }
+
+        @Override
+        public int readUShort() {
+            int b0 = readUByte();
+            int b1 = readUByte();
+            return (b1 << 8) | b0;
+        }
+
+        @Override
+        public short readShort() {
+            return (short)readUShort();
+        }
+
+        @Override
+        public int readInt() {
+            int s0 = readUShort();
+            int s1 = readUShort();
+            return (s1 << 16) | s0;
+        }
+
+        @Override
+        public long readLong() {
+            long i0 = readInt() & 0xFFFFFFFFL;
+            long i1 = readInt() & 0xFFFFFFFFL;
+            return (i1 << 32) | i0;
+        }
+
+        @Override
+        public double readDouble() {
+            return Double.longBitsToDouble(readLong());
+        }
+
+        @Override
+        public void readFully(byte[] buf) {
+            readFully(buf, 0, buf.length);
+        }
+
+        @Override
+        public void readFully(byte[] buf, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                buf[off + i] = (byte)readUByte();
+            }
+        }
+
+        @Override
+        public void readPlain(byte[] buf, int off, int len) {
+            readFully(buf, off, len);
+        }
+    }
+}
@@ -40,6 +40,8 @@ public final class SSTRecord extends ContinuableRecord {
 
     private static final UnicodeString EMPTY_STRING = new UnicodeString("");
 
+    private static boolean lazyStringDecoding = false;
+
     /**
      * union of strings in the SST and EXTSST
      */
@@ -53,6 +55,11 @@ public final class SSTRecord extends ContinuableRecord {
 
     private final SSTDeserializer deserializer;
 
+    /**
+     * The raw strings, which are decoded on access, or {@code null} if all strings are in the string table
+     */
+    private SSTLazyDeserializer lazyStrings;
+
     /**
      * Offsets from the beginning of the SST record (even across continuations)
      */
@@ -69,8 +76,33 @@ public final class SSTRecord extends ContinuableRecord {
         deserializer = new SSTDeserializer(field_3_strings);
     }
 
+    /**
+     * Decode the strings of SST records, which are read afterwards, on first access instead of
+     * decoding all strings when the record is read. The raw data of the record is kept in memory
+     * until all strings are needed, e.g. when a string is added or the record is written.
+     * <p>
+     * This reduces the time to open and the memory of workbooks with many strings, when only
+     * some strings are accessed, e.g. via the event API. Errors in the string data are only
+     * detected on the first access.
+     *
+     * @param lazy {@code true} to decode the strings on first access, defaults to {@code false}
+     * @since POI 5.4.0
+     */
+    public static void setLazyStringDecoding(boolean lazy) {
+        lazyStringDecoding = lazy;
+    }
+
+    /**
+     * @return {@code true} if the strings are decoded on first access
+     * @since POI 5.4.0
+     */
+    public static boolean isLazyStringDecoding() {
+        return lazyStringDecoding;
+    }
+
     public SSTRecord(SSTRecord other) {
         super(other);
+        other.decodeAllStrings();
         field_1_num_strings = other.field_1_num_strings;
         field_2_num_unique_strings = other.field_2_num_unique_strings;
         field_3_strings = other.field_3_strings.copy();
@@ -88,6 +120,7 @@ public final class SSTRecord extends ContinuableRecord {
      */
     public int addString(UnicodeString string)
     {
+        decodeAllStrings();
         field_1_num_strings++;
         UnicodeString ucs = ( string == null ) ? EMPTY_STRING
                 : string;
@@ -131,7 +164,18 @@ public final class SSTRecord extends ContinuableRecord {
      * @return the desired string
      */
     public UnicodeString getString(int id ) {
-        return field_3_strings.get( id );
+        SSTLazyDeserializer lazy = lazyStrings;
+        return (lazy != null) ? lazy.getString(id) : field_3_strings.get( id );
+    }
+
+    /**
+     * Moves the lazily decoded strings into the string table
+     */
+    private void decodeAllStrings() {
+        if (lazyStrings != null) {
+            lazyStrings.decodeAll(field_3_strings);
+            lazyStrings = null;
+        }
     }
 
     @Override
@@ -231,7 +275,11 @@ public final class SSTRecord extends ContinuableRecord {
             field_2_num_unique_strings = 0;
             return;
         }
-        deserializer.manufactureStrings( field_2_num_unique_strings, in );
+        if (lazyStringDecoding) {
+            lazyStrings = new SSTLazyDeserializer(in, field_2_num_unique_strings);
+        } else {
+            deserializer.manufactureStrings( field_2_num_unique_strings, in );
+        }
     }
 
 
@@ -241,6 +289,7 @@ public final class SSTRecord extends ContinuableRecord {
      */
     Iterator<UnicodeString> getStrings()
     {
+        decodeAllStrings();
         return field_3_strings.iterator();
     }
 
@@ -248,11 +297,13 @@ public final class SSTRecord extends ContinuableRecord {
      * @return count of the strings we hold.
      */
     int countStrings() {
-        return field_3_strings.size();
+        SSTLazyDeserializer lazy = lazyStrings;
+        return (lazy != null) ? lazy.countStrings() : field_3_strings.size();
     }
 
     @Override
     protected void serialize(ContinuableRecordOutput out) {
+        decodeAllStrings();
         SSTSerializer serializer = new SSTSerializer(field_3_strings, getNumStrings(), getNumUniqueStrings() );
         serializer.serialize(out);
         bucketAbsoluteOffsets = serializer.getBucketAbsoluteOffsets();
@@ -295,7 +346,7 @@ public final class SSTRecord extends ContinuableRecord {
      * @return  The size of the ExtSST record in bytes.
      */
     public int calcExtSSTRecordSize() {
-      return ExtSSTRecord.getRecordSizeForStrings(field_3_strings.size());
+      return ExtSSTRecord.getRecordSizeForStrings(countStrings());
     }
 
     @Override
@@ -313,7 +364,10 @@ public final class SSTRecord extends ContinuableRecord {
         return GenericRecordUtil.getGenericProperties(
             "numStrings", this::getNumStrings,
             "numUniqueStrings", this::getNumUniqueStrings,
-            "strings", field_3_strings::getElements,
+            "strings", () -> {
+                decodeAllStrings();
+                return field_3_strings.getElements();
+            },
             "bucketAbsoluteOffsets", () -> bucketAbsoluteOffsets,
             "bucketRelativeOffsets", () -> bucketRelativeOffsets
         );
@@ -299,6 +299,19 @@ public final class RowRecordsAggregate extends RecordAggregate {
         _unknownRecords.forEach(rv::visitRecord);
     }
 
+    /**
+     * Visits the cell records of a single row, e.g. to serialize a row on its own
+     *
+     * @param rowIndex the zero based row index
+     * @param rv the visitor of the cell records, the row record itself isn't visited
+     * @since POI 5.4.0
+     */
+    public void visitCellsForRow(int rowIndex, RecordVisitor rv) {
+        if (_valuesAgg.rowHasCells(rowIndex)) {
+            _valuesAgg.visitCellsForRow(rowIndex, rv);
+        }
+    }
+
     private static short[] shortListToArray(List<Short> list) {
         final short[] arr = new short[list.size()];
         int idx = 0;
@@ -17,6 +17,7 @@
 
 package org.apache.poi.hssf.usermodel;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -126,6 +127,10 @@ public final class HSSFSheet implements Sheet {
     private HSSFPatriarch _patriarch;
     private int _firstrow = -1;
     private int _lastrow = -1;
+    /** writes the flushed rows of a streaming sheet, see {@link SHSSFWorkbook} */
+    private RowBlockWriter _rowBlockWriter;
+    /** the number of rows which are kept in memory by a streaming sheet, -1 for unlimited */
+    private int _rowAccessWindowSize = -1;
 
     /**
      * Creates new HSSFSheet   - called by HSSFWorkbook to create a sheet from
@@ -260,15 +265,79 @@ public final class HSSFSheet implements Sheet {
      */
     @Override
     public HSSFRow createRow(int rownum) {
+        if (isFlushed(rownum)) {
+            throw new IllegalArgumentException(
+                "Attempting to write a row[" + rownum + "] " +
+                "in the range [0," + _rowBlockWriter.getLastRowNum() + "] that is already written to disk.");
+        }
         HSSFRow row = new HSSFRow(_workbook, this, rownum);
         // new rows inherit default height from the sheet
         row.setHeight(getDefaultRowHeight());
         row.getRowRecord().setBadFontHeight(false);
 
         addRow(row, true);
+
+        if (_rowAccessWindowSize >= 0 && _rows.size() > _rowAccessWindowSize) {
+            try {
+                flushRows(_rowAccessWindowSize);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
         return row;
     }
 
+    /**
+     * Makes this a streaming sheet of a {@link SHSSFWorkbook}, which only keeps the
+     * last rows in memory and writes older rows to a temporary file.
+     *
+     * @param rowAccessWindowSize the number of rows that are kept in memory,
+     *  -1 to keep all rows until they are flushed explicitly
+     */
+    void setRowAccessWindowSize(int rowAccessWindowSize) {
+        if (_rowBlockWriter == null) {
+            _rowBlockWriter = new RowBlockWriter();
+        }
+        _rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * @return the writer of the flushed rows, or {@code null} if this is not a streaming sheet
+     */
+    RowBlockWriter getRowBlockWriter() {
+        return _rowBlockWriter;
+    }
+
+    /**
+     * @return {@code true} if the row of a streaming sheet was already written to disk
+     */
+    private boolean isFlushed(int rownum) {
+        return _rowBlockWriter != null && rownum <= _rowBlockWriter.getLastRowNum();
+    }
+
+    /**
+     * Writes the rows of a streaming sheet to the temporary file, until only the given number
+     * of rows is left in memory. The flushed rows can't be accessed anymore.
+     *
+     * @param remaining the number of rows to keep in memory
+     * @throws IllegalStateException if this is not a streaming sheet or if a row is part of an array formula
+     */
+    void flushRows(int remaining) throws IOException {
+        if (_rowBlockWriter == null) {
+            throw new IllegalStateException("Only the rows of a streaming sheet can be flushed");
+        }
+        while (_rows.size() > remaining) {
+            HSSFRow row = _rows.firstEntry().getValue();
+            for (Cell cell : row) {
+                if (((HSSFCell) cell).isPartOfArrayFormulaGroup()) {
+                    throw new IllegalStateException("Row[rownum=" + row.getRowNum() + "] contains cell(s) included in a multi-cell array formula. It can't be flushed.");
+                }
+            }
+            _rowBlockWriter.writeRow(row.getRowRecord(), _sheet.getRowsAggregate());
+            removeRowInternal(row);
+        }
+    }
+
     /**
      * Used internally to create a high level Row object from a low level row object.
      * USed when reading an existing file
@@ -288,6 +357,8 @@ public final class HSSFSheet implements Sheet {
      * Remove a row from this sheet.  All cells contained in the row are removed as well
      *
      * @param row representing a row to remove.
+     * @throws IllegalArgumentException if the row doesn't belong to this sheet or if it's a row
+     *  of a streaming sheet, which is already written to disk
      */
     @Override
     public void removeRow(Row row) {
@@ -295,25 +366,34 @@ public final class HSSFSheet implements Sheet {
         if (row.getSheet() != this) {
             throw new IllegalArgumentException("Specified row does not belong to this sheet");
         }
-        for (Cell cell : row) {
+        if (isFlushed(row.getRowNum())) {
+            throw new IllegalArgumentException(
+                "Attempting to remove a row[" + row.getRowNum() + "] " +
+                "in the range [0," + _rowBlockWriter.getLastRowNum() + "] that is already written to disk.");
+        }
+        removeRowInternal(hrow);
+    }
+
+    private void removeRowInternal(HSSFRow hrow) {
+        for (Cell cell : hrow) {
             HSSFCell xcell = (HSSFCell) cell;
             if (xcell.isPartOfArrayFormulaGroup()) {
-                String msg = "Row[rownum=" + row.getRowNum() + "] contains cell(s) included in a multi-cell array formula. You cannot change part of an array.";
+                String msg = "Row[rownum=" + hrow.getRowNum() + "] contains cell(s) included in a multi-cell array formula. You cannot change part of an array.";
                 xcell.tryToDeleteArrayFormula(msg);
             }
         }
 
         if (!_rows.isEmpty()) {
-            Integer key = Integer.valueOf(row.getRowNum());
+            Integer key = Integer.valueOf(hrow.getRowNum());
             HSSFRow removedRow = _rows.remove(key);
-            if (removedRow != row) {
+            if (removedRow != hrow) {
                 //should not happen if the input argument is valid
                 throw new IllegalArgumentException("Specified row does not belong to this sheet");
             }
-            if (hrow.getRowNum() == getLastRowNum()) {
+            if (hrow.getRowNum() == _lastrow) {
                 _lastrow = findLastRow(_lastrow);
             }
-            if (hrow.getRowNum() == getFirstRowNum()) {
+            if (hrow.getRowNum() == _firstrow) {
                 _firstrow = findFirstRow(_firstrow);
             }
             _sheet.removeRow(hrow.getRowRecord());
@@ -353,11 +433,11 @@ public final class HSSFSheet implements Sheet {
         int rownum = firstrow + 1;
         HSSFRow r = getRow(rownum);
 
-        while (r == null && rownum <= getLastRowNum()) {
+        while (r == null && rownum <= _lastrow) {
             r = getRow(++rownum);
         }
 
-        if (rownum > getLastRowNum())
+        if (rownum > _lastrow)
             return 0;
 
         return rownum;
@@ -375,10 +455,10 @@ public final class HSSFSheet implements Sheet {
             _sheet.addRow(row.getRowRecord());
         }
         boolean firstRow = _rows.size() == 1;
-        if (row.getRowNum() > getLastRowNum() || firstRow) {
+        if (row.getRowNum() > _lastrow || firstRow) {
             _lastrow = row.getRowNum();
         }
-        if (row.getRowNum() < getFirstRowNum() || firstRow) {
+        if (row.getRowNum() < _firstrow || firstRow) {
             _firstrow = row.getRowNum();
         }
     }
@@ -396,20 +476,25 @@ public final class HSSFSheet implements Sheet {
     }
 
     /**
-     * Returns the number of physically defined rows (NOT the number of rows in the sheet)
+     * Returns the number of physically defined rows (NOT the number of rows in the sheet).
+     * The rows of a streaming sheet, which are already written to disk, are included.
      */
     @Override
     public int getPhysicalNumberOfRows() {
-        return _rows.size();
+        return (_rowBlockWriter == null) ? _rows.size() : _rows.size() + _rowBlockWriter.getWrittenRowCount();
     }
 
     /**
-     * Gets the first row on the sheet
+     * Gets the first row on the sheet.
+     * The rows of a streaming sheet, which are already written to disk, are included.
      *
      * @return the number of the first logical row on the sheet, zero based
      */
     @Override
     public int getFirstRowNum() {
+        if (_rowBlockWriter != null && !_rowBlockWriter.isEmpty()) {
+            return _rowBlockWriter.getFirstRowNum();
+        }
         return _firstrow;
     }
 
@@ -424,10 +509,16 @@ public final class HSSFSheet implements Sheet {
      * tell if there is a row at position zero
      * or not.
      *
+     * The rows of a streaming sheet, which are already written to disk, are included.
+     *
      * @return the number of the last row contained in this sheet, zero based.
      */
     @Override
     public int getLastRowNum() {
+        if (_rowBlockWriter != null && _rows.isEmpty()) {
+            // the rows in memory always come after the written rows
+            return _rowBlockWriter.getLastRowNum();
+        }
         return _lastrow;
     }
 
@@ -1607,6 +1698,7 @@ public final class HSSFSheet implements Sheet {
      * @param copyRowHeight          whether to copy the row height during the shift
      * @param resetOriginalRowHeight whether to set the original row's height to the default
      * @param moveComments           whether to move comments at the same time as the cells they are attached to
+     * @throws IllegalArgumentException if the shift affects rows of a streaming sheet, which are already written to disk
      */
     public void shiftRows(int startRow, int endRow, int n,
                           boolean copyRowHeight, boolean resetOriginalRowHeight, boolean moveComments) {
@@ -1624,6 +1716,11 @@ public final class HSSFSheet implements Sheet {
             // Nothing to do
             return;
         }
+        if (isFlushed(Math.min(startRow, startRow + n))) {
+            throw new IllegalArgumentException(
+                "Attempting to shift the rows[" + startRow + "," + endRow + "] by " + n + " rows, which affects " +
+                "the range [0," + _rowBlockWriter.getLastRowNum() + "] that is already written to disk.");
+        }
 
         final RowShifter rowShifter = new HSSFRowShifter(this);
 
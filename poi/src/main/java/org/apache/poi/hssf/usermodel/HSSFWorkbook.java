@@ -1034,7 +1034,7 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
         return _sheets.size();
     }
 
-    private HSSFSheet[] getSheets() {
+    HSSFSheet[] getSheets() {
         HSSFSheet[] result = new HSSFSheet[_sheets.size()];
         _sheets.toArray(result);
         return result;
@@ -1487,6 +1487,22 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
     }
 
 
+    /**
+     * Prepares the workbook and its sheets for serialization.
+     * This has to be called before the size of the workbook records is computed.
+     */
+    void preSerialize() {
+        updateEncryptionInfo();
+
+        // before getting the workbook size we must tell the sheets that
+        // serialization is about to occur.
+        workbook.preSerialize();
+        for (HSSFSheet sheet : getSheets()) {
+            sheet.getSheet().preSerialize();
+            sheet.preSerialize();
+        }
+    }
+
     /**
      * Method getBytes - get the bytes of just the HSSF portions of the XLS file.
      * Use this to construct a POI POIFSFileSystem yourself.
@@ -1500,15 +1516,7 @@ public final class HSSFWorkbook extends POIDocument implements Workbook {
         HSSFSheet[] sheets = getSheets();
         int nSheets = sheets.length;
 
-        updateEncryptionInfo();
-
-        // before getting the workbook size we must tell the sheets that
-        // serialization is about to occur.
-        workbook.preSerialize();
-        for (HSSFSheet sheet : sheets) {
-            sheet.getSheet().preSerialize();
-            sheet.preSerialize();
-        }
+        preSerialize();
 
         int totalsize = workbook.getSize();
 
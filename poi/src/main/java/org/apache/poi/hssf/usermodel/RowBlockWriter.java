@@ -0,0 +1,233 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.usermodel;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.hssf.record.DBCellRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.aggregates.RowRecordsAggregate;
+import org.apache.poi.util.IntList;
+import org.apache.poi.util.TempFile;
+
+/**
+ * Writes the rows of a sheet, which are flushed by a {@link SHSSFWorkbook}, to a temporary file.
+ * <p>
+ * The rows are written in blocks of {@link DBCellRecord#BLOCK_SIZE} rows, like
+ * {@link RowRecordsAggregate} does: first the row records, then the cell records and
+ * finally the DBCELL record with the offsets of the cells. The offsets of the DBCELL
+ * records are kept for the INDEX record of the sheet. The rows of an incomplete block
+ * are kept in memory until the block is full, they are appended when the sheet is written.
+ */
+final class RowBlockWriter implements Closeable {
+    private File _file;
+    private OutputStream _out;
+    /** the number of bytes written to the file */
+    private int _fileSize;
+    /** the offsets of the DBCELL records in the file */
+    private final IntList _dbcellOffsets = new IntList();
+
+    /** the row records of the incomplete block */
+    private final UnsynchronizedByteArrayOutputStream _rows = UnsynchronizedByteArrayOutputStream.builder().get();
+    /** the cell records of the incomplete block */
+    private final UnsynchronizedByteArrayOutputStream _cells = UnsynchronizedByteArrayOutputStream.builder().get();
+    /** the sizes of the cell records of each row of the incomplete block */
+    private final int[] _cellSizes = new int[DBCellRecord.BLOCK_SIZE];
+    private int _rowCount;
+
+    private int _firstRowNum = -1;
+    private int _lastRowNum = -1;
+    private int _writtenRowCount;
+
+    /**
+     * Writes a row and its cells, the row must come after the previously written rows
+     *
+     * @param row the row record
+     * @param rowsAggregate the records of the sheet, which contain the cells of the row
+     */
+    void writeRow(RowRecord row, RowRecordsAggregate rowsAggregate) throws IOException {
+        int rowNum = row.getRowNumber();
+        if (rowNum <= _lastRowNum) {
+            throw new IllegalArgumentException("Row " + rowNum + " has to come after the written row " + _lastRowNum);
+        }
+        _rows.write(row.serialize());
+        int cellsStart = _cells.size();
+        rowsAggregate.visitCellsForRow(rowNum, r -> {
+            byte[] data = r.serialize();
+            _cells.write(data, 0, data.length);
+        });
+        _cellSizes[_rowCount++] = _cells.size() - cellsStart;
+
+        if (_firstRowNum == -1) {
+            _firstRowNum = rowNum;
+        }
+        _lastRowNum = rowNum;
+        _writtenRowCount++;
+
+        if (_rowCount == DBCellRecord.BLOCK_SIZE) {
+            if (_out == null) {
+                _file = TempFile.createTempFile("poi-shssf-sheet", ".tmp");
+                _out = new BufferedOutputStream(Files.newOutputStream(_file.toPath()));
+            }
+            _dbcellOffsets.add(_fileSize + _rows.size() + _cells.size());
+            _fileSize = Math.addExact(_fileSize, writeBlock(_out));
+            _rows.reset();
+            _cells.reset();
+            _rowCount = 0;
+        }
+    }
+
+    /**
+     * Writes the incomplete block
+     *
+     * @return the size of the block
+     */
+    private int writeBlock(OutputStream out) throws IOException {
+        _rows.writeTo(out);
+        _cells.writeTo(out);
+
+        // the first offset is relative to the second row record,
+        // the following ones to the first cell of the previous row
+        short[] cellOffsets = new short[_rowCount];
+        int cellOffsetCount = 0;
+        int cellRefOffset = _rows.size() - RowRecord.ENCODED_SIZE;
+        for (int i = 0; i < _rowCount; i++) {
+            if (_cellSizes[i] > 0) {
+                cellOffsets[cellOffsetCount++] = (short) cellRefOffset;
+                cellRefOffset = _cellSizes[i];
+            }
+        }
+        int dbcellOffset = _rows.size() + _cells.size();
+        byte[] dbcell = new DBCellRecord(dbcellOffset, Arrays.copyOf(cellOffsets, cellOffsetCount)).serialize();
+        out.write(dbcell);
+        return dbcellOffset + dbcell.length;
+    }
+
+    /**
+     * @return the index of the first written row, or -1 if no row was written yet
+     */
+    int getFirstRowNum() {
+        return _firstRowNum;
+    }
+
+    /**
+     * @return the index of the last written row, or -1 if no row was written yet
+     */
+    int getLastRowNum() {
+        return _lastRowNum;
+    }
+
+    /**
+     * @return the number of written rows
+     */
+    int getWrittenRowCount() {
+        return _writtenRowCount;
+    }
+
+    /**
+     * @return {@code true} if no row was written yet
+     */
+    boolean isEmpty() {
+        return _lastRowNum == -1;
+    }
+
+    /**
+     * Serializes the incomplete block, which is appended to the complete blocks,
+     * when the sheet is written.
+     *
+     * @return the incomplete block, which might be empty
+     */
+    byte[] getIncompleteBlock() throws IOException {
+        if (_rowCount == 0) {
+            return new byte[0];
+        }
+        try (UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get()) {
+            writeBlock(bos);
+            return bos.toByteArray();
+        }
+    }
+
+    /**
+     * Creates the INDEX record of the written rows
+     *
+     * @param rowsOffset the offset of the first row record in the workbook stream
+     * @param incompleteBlock the result of {@link #getIncompleteBlock()}
+     */
+    IndexRecord createIndexRecord(int rowsOffset, byte[] incompleteBlock) {
+        IndexRecord index = new IndexRecord();
+        index.setFirstRow(_firstRowNum);
+        index.setLastRowAdd1(_lastRowNum + 1);
+        for (int i = 0; i < _dbcellOffsets.size(); i++) {
+            index.addDbcell(rowsOffset + _dbcellOffsets.get(i));
+        }
+        if (incompleteBlock.length > 0) {
+            index.addDbcell(rowsOffset + _fileSize + _rows.size() + _cells.size());
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of complete blocks
+     */
+    int getBlockCount() {
+        return _dbcellOffsets.size();
+    }
+
+    /**
+     * @return the size of the complete blocks
+     */
+    int getSize() {
+        return _fileSize;
+    }
+
+    /**
+     * Copies the complete blocks
+     */
+    void writeTo(OutputStream out) throws IOException {
+        if (_out == null) {
+            return;
+        }
+        _out.flush();
+        Files.copy(_file.toPath(), out);
+    }
+
+    /**
+     * Closes and deletes the temporary file
+     *
+     * @return {@code true} if the file was deleted or never created
+     */
+    boolean dispose() throws IOException {
+        close();
+        return _file == null || !_file.exists() || _file.delete();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_out != null) {
+            _out.close();
+        }
+    }
+}
@@ -0,0 +1,636 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.usermodel;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.hssf.record.aggregates.RecordAggregate.RecordVisitor;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
+import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.DocumentInputStream;
+import org.apache.poi.poifs.filesystem.Entry;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.poifs.filesystem.POIFSStreamingWriter;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.CellReferenceType;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetVisibility;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.NotImplemented;
+
+/**
+ * Streaming version of {@link HSSFWorkbook}, which writes large .xls files with bounded memory.
+ * <p>
+ * Only a configurable number of rows is kept in memory for each sheet. When a new row is
+ * created via {@link HSSFSheet#createRow(int)} and the number of rows in memory would exceed
+ * the window size, the row with the lowest index is serialized to a temporary file and can't
+ * be accessed via {@link HSSFSheet#getRow(int)} anymore. The rows have to be created in
+ * ascending order, as far as they are flushed. The flushed row blocks are copied into the
+ * workbook stream when the workbook is written, and the INDEX records of the sheets are
+ * computed from the offsets of the flushed DBCELL records.
+ * <p>
+ * Please note that some things are still kept in memory:
+ * <ul>
+ *     <li>the shared strings table, i.e. every distinct string of the workbook</li>
+ *     <li>the cell styles, fonts, names, merged regions, comments and pictures</li>
+ *     <li>the records of the workbook globals and the sheets without their rows</li>
+ * </ul>
+ * Rows with cells of array formulas can't be flushed and rows can't be shifted.
+ * Encrypted workbooks are not supported.
+ * <p>
+ * To release resources used by this workbook (including disposing of the temporary files
+ * backing this workbook on disk) {@link #close} should be called directly or a
+ * try-with-resources statement should be used.
+ *
+ * @since POI 5.4.0
+ */
+public final class SHSSFWorkbook implements Workbook {
+    /**
+     * Specifies how many rows can be accessed at most via {@link HSSFSheet#getRow}.
+     * When a new row is created via {@link HSSFSheet#createRow} and the total number
+     * of unflushed rows would exceed the specified value, then the
+     * row with the lowest index value is flushed and cannot be accessed
+     * via {@link HSSFSheet#getRow} anymore.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+    private static final Logger LOG = PoiLogManager.getLogger(SHSSFWorkbook.class);
+
+    private final HSSFWorkbook _wb;
+    private final int _randomAccessWindowSize;
+
+    /**
+     * Construct an empty workbook and specify the default window size of {@value #DEFAULT_WINDOW_SIZE} rows.
+     */
+    public SHSSFWorkbook() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Construct an empty workbook and specify the window for row access.
+     * <p>
+     * A value of {@code -1} indicates unlimited access. In this case all
+     * records that have not been flushed by a call to {@link #flushRows(Sheet)} are available
+     * for random access.
+     * <p>
+     * A value of {@code 0} is not allowed because it would flush any newly created row
+     * without having a chance to specify any cells.
+     *
+     * @param rowAccessWindowSize the number of rows that are kept in memory until flushed out
+     */
+    public SHSSFWorkbook(int rowAccessWindowSize) {
+        if (rowAccessWindowSize == 0 || rowAccessWindowSize < -1) {
+            throw new IllegalArgumentException("rowAccessWindowSize must be greater than 0 or -1");
+        }
+        _wb = new HSSFWorkbook();
+        _randomAccessWindowSize = rowAccessWindowSize;
+    }
+
+    /**
+     * @return the underlying workbook, which holds everything except the flushed rows
+     */
+    public HSSFWorkbook getHSSFWorkbook() {
+        return _wb;
+    }
+
+    /**
+     * @return the number of rows that are kept in memory, or -1 for unlimited access
+     */
+    public int getRandomAccessWindowSize() {
+        return _randomAccessWindowSize;
+    }
+
+    /**
+     * Writes all rows of the sheet to the temporary file
+     *
+     * @param sheet a sheet of this workbook
+     * @throws IOException if the rows can't be written
+     */
+    public void flushRows(Sheet sheet) throws IOException {
+        getStreamingSheet(sheet).flushRows(0);
+    }
+
+    /**
+     * Writes the rows of the sheet to the temporary file, until only the given number of rows is left
+     *
+     * @param sheet a sheet of this workbook
+     * @param remaining the number of rows to keep in memory
+     * @throws IOException if the rows can't be written
+     */
+    public void flushRows(Sheet sheet, int remaining) throws IOException {
+        getStreamingSheet(sheet).flushRows(remaining);
+    }
+
+    private HSSFSheet getStreamingSheet(Sheet sheet) {
+        if (sheet.getWorkbook() != _wb) {
+            throw new IllegalArgumentException("Sheet does not belong to this workbook");
+        }
+        return (HSSFSheet) sheet;
+    }
+
+    @Override
+    public int getActiveSheetIndex() {
+        return _wb.getActiveSheetIndex();
+    }
+
+    @Override
+    public void setActiveSheet(int sheetIndex) {
+        _wb.setActiveSheet(sheetIndex);
+    }
+
+    @Override
+    public int getFirstVisibleTab() {
+        return _wb.getFirstVisibleTab();
+    }
+
+    @Override
+    public void setFirstVisibleTab(int sheetIndex) {
+        _wb.setFirstVisibleTab(sheetIndex);
+    }
+
+    @Override
+    public void setSheetOrder(String sheetname, int pos) {
+        _wb.setSheetOrder(sheetname, pos);
+    }
+
+    @Override
+    public void setSelectedTab(int index) {
+        _wb.setSelectedTab(index);
+    }
+
+    @Override
+    public void setSheetName(int sheet, String name) {
+        _wb.setSheetName(sheet, name);
+    }
+
+    @Override
+    public String getSheetName(int sheet) {
+        return _wb.getSheetName(sheet);
+    }
+
+    @Override
+    public int getSheetIndex(String name) {
+        return _wb.getSheetIndex(name);
+    }
+
+    @Override
+    public int getSheetIndex(Sheet sheet) {
+        return _wb.getSheetIndex(sheet);
+    }
+
+    /**
+     * Create a streaming sheet for this workbook, adds it to the sheets and returns it.
+     *
+     * @return the new sheet
+     */
+    @Override
+    public HSSFSheet createSheet() {
+        HSSFSheet sheet = _wb.createSheet();
+        sheet.setRowAccessWindowSize(_randomAccessWindowSize);
+        return sheet;
+    }
+
+    /**
+     * Create a streaming sheet for this workbook, adds it to the sheets and returns it.
+     *
+     * @param sheetname the name of the new sheet
+     * @return the new sheet
+     */
+    @Override
+    public HSSFSheet createSheet(String sheetname) {
+        HSSFSheet sheet = _wb.createSheet(sheetname);
+        sheet.setRowAccessWindowSize(_randomAccessWindowSize);
+        return sheet;
+    }
+
+    /**
+     * Not implemented for streaming workbooks, as the flushed rows can't be copied
+     */
+    @Override
+    @NotImplemented
+    public Sheet cloneSheet(int sheetNum) {
+        throw new IllegalStateException("Not Implemented");
+    }
+
+    @Override
+    public Iterator<Sheet> sheetIterator() {
+        return _wb.sheetIterator();
+    }
+
+    @Override
+    public int getNumberOfSheets() {
+        return _wb.getNumberOfSheets();
+    }
+
+    @Override
+    public HSSFSheet getSheetAt(int index) {
+        return _wb.getSheetAt(index);
+    }
+
+    @Override
+    public HSSFSheet getSheet(String name) {
+        return _wb.getSheet(name);
+    }
+
+    /**
+     * Removes the sheet at the given index and deletes its temporary file
+     *
+     * @param index the 0-based index of the sheet to remove
+     */
+    @Override
+    public void removeSheetAt(int index) {
+        RowBlockWriter writer = _wb.getSheetAt(index).getRowBlockWriter();
+        _wb.removeSheetAt(index);
+        dispose(writer);
+    }
+
+    @Override
+    public HSSFFont createFont() {
+        return _wb.createFont();
+    }
+
+    @Override
+    public HSSFFont findFont(boolean bold, short color, short fontHeight, String name, boolean italic,
+            boolean strikeout, short typeOffset, byte underline) {
+        return _wb.findFont(bold, color, fontHeight, name, italic, strikeout, typeOffset, underline);
+    }
+
+    @Override
+    public int getNumberOfFonts() {
+        return _wb.getNumberOfFonts();
+    }
+
+    @Override
+    public int getNumberOfFontsAsInt() {
+        return _wb.getNumberOfFontsAsInt();
+    }
+
+    @Override
+    public HSSFFont getFontAt(int idx) {
+        return _wb.getFontAt(idx);
+    }
+
+    @Override
+    public HSSFCellStyle createCellStyle() {
+        return _wb.createCellStyle();
+    }
+
+    @Override
+    public int getNumCellStyles() {
+        return _wb.getNumCellStyles();
+    }
+
+    @Override
+    public HSSFCellStyle getCellStyleAt(int idx) {
+        return _wb.getCellStyleAt(idx);
+    }
+
+    /**
+     * Write out this workbook to an OutputStream.
+     * <p>
+     * All rows are flushed before the workbook is written. The workbook stream is copied from
+     * the temporary files of the sheets, so only the workbook globals and the sheet records
+     * without their rows are serialized in memory.
+     *
+     * @param stream - the java OutputStream you wish to write to
+     * @throws IOException if any I/O error occurs
+     * @throws IllegalStateException if a workbook password is set,
+     *  see {@link Biff8EncryptionKey#setCurrentUserPassword(String)}
+     */
+    @Override
+    public void write(OutputStream stream) throws IOException {
+        if (Biff8EncryptionKey.getCurrentUserPassword() != null) {
+            throw new IllegalStateException("Encrypted workbooks can't be streamed");
+        }
+
+        HSSFSheet[] sheets = _wb.getSheets();
+        for (HSSFSheet sheet : sheets) {
+            if (sheet.getRowBlockWriter() != null) {
+                sheet.flushRows(0);
+            }
+        }
+
+        _wb.preSerialize();
+
+        InternalWorkbook workbook = _wb.getWorkbook();
+        int totalSize = workbook.getSize();
+        List<StreamedSheet> streamedSheets = new ArrayList<>(sheets.length);
+        for (int k = 0; k < sheets.length; k++) {
+            workbook.setSheetBof(k, totalSize);
+            StreamedSheet streamedSheet = new StreamedSheet(sheets[k], totalSize);
+            totalSize = Math.addExact(totalSize, streamedSheet.getSize());
+            streamedSheets.add(streamedSheet);
+        }
+
+        byte[] globals = new byte[workbook.getSize()];
+        workbook.serialize(0, globals);
+
+        POIFSStreamingWriter writer = new POIFSStreamingWriter();
+        writer.addDocument("Workbook", totalSize, out -> {
+            out.write(globals);
+            for (StreamedSheet streamedSheet : streamedSheets) {
+                streamedSheet.writeTo(out);
+            }
+        });
+
+        // the property streams are small, so they are created in memory
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            _wb.writeProperties(fs);
+            for (Entry entry : fs.getRoot()) {
+                if (entry instanceof DocumentEntry) {
+                    byte[] data = new byte[((DocumentEntry) entry).getSize()];
+                    try (DocumentInputStream dis = fs.createDocumentInputStream(entry.getName())) {
+                        dis.readFully(data);
+                    }
+                    writer.addDocument(entry.getName(), data);
+                }
+            }
+        }
+
+        writer.write(stream);
+    }
+
+    /**
+     * The serialized records of a sheet, which are written around its flushed rows
+     */
+    private static final class StreamedSheet {
+        private final RowBlockWriter _writer;
+        /** the records up to the DIMENSIONS record, including the INDEX record */
+        private final UnsynchronizedByteArrayOutputStream _head = UnsynchronizedByteArrayOutputStream.builder().get();
+        /** the records after the rows */
+        private final UnsynchronizedByteArrayOutputStream _tail = UnsynchronizedByteArrayOutputStream.builder().get();
+        private final byte[] _incompleteBlock;
+
+        StreamedSheet(HSSFSheet sheet, int sheetOffset) throws IOException {
+            RowBlockWriter writer = sheet.getRowBlockWriter();
+            if (writer == null || writer.isEmpty()) {
+                // nothing was flushed, the records of the sheet are complete
+                _writer = null;
+                _incompleteBlock = new byte[0];
+                sheet.getSheet().visitContainedRecords(r -> write(_head, r), sheetOffset);
+                return;
+            }
+            _writer = writer;
+            _incompleteBlock = writer.getIncompleteBlock();
+
+            // the INDEX record is replaced and the rows are inserted after the DIMENSIONS record
+            UnsynchronizedByteArrayOutputStream beforeIndex = UnsynchronizedByteArrayOutputStream.builder().get();
+            UnsynchronizedByteArrayOutputStream afterIndex = UnsynchronizedByteArrayOutputStream.builder().get();
+            RecordVisitor rv = new RecordVisitor() {
+                private UnsynchronizedByteArrayOutputStream _current = beforeIndex;
+
+                @Override
+                public void visitRecord(org.apache.poi.hssf.record.Record r) {
+                    if (r instanceof IndexRecord && _current == beforeIndex) {
+                        _current = afterIndex;
+                        return;
+                    }
+                    write(_current, r);
+                    if (r instanceof DimensionsRecord && _current == afterIndex) {
+                        _current = _tail;
+                    }
+                }
+            };
+            sheet.getSheet().visitContainedRecords(rv, sheetOffset);
+
+            int blockCount = writer.getBlockCount() + (_incompleteBlock.length > 0 ? 1 : 0);
+            int rowsOffset = sheetOffset + beforeIndex.size()
+                + IndexRecord.getRecordSizeForBlockCount(blockCount) + afterIndex.size();
+            IndexRecord index = writer.createIndexRecord(rowsOffset, _incompleteBlock);
+
+            beforeIndex.writeTo(_head);
+            write(_head, index);
+            afterIndex.writeTo(_head);
+        }
+
+        private static void write(UnsynchronizedByteArrayOutputStream out, org.apache.poi.hssf.record.Record r) {
+            byte[] data = r.serialize();
+            out.write(data, 0, data.length);
+        }
+
+        int getSize() {
+            int rowsSize = (_writer == null) ? 0 : _writer.getSize();
+            return Math.addExact(_head.size() + _tail.size() + _incompleteBlock.length, rowsSize);
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            _head.writeTo(out);
+            if (_writer != null) {
+                _writer.writeTo(out);
+            }
+            out.write(_incompleteBlock);
+            _tail.writeTo(out);
+        }
+    }
+
+    /**
+     * Closes this workbook and deletes the temporary files of its sheets
+     */
+    @Override
+    public void close() throws IOException {
+        for (HSSFSheet sheet : _wb.getSheets()) {
+            dispose(sheet.getRowBlockWriter());
+        }
+        _wb.close();
+    }
+
+    private static void dispose(RowBlockWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (!writer.dispose()) {
+                LOG.atWarn().log("Failed to delete the temporary file of a sheet");
+            }
+        } catch (IOException e) {
+            LOG.atWarn().withThrowable(e).log("Failed to delete the temporary file of a sheet");
+        }
+    }
+
+    @Override
+    public int getNumberOfNames() {
+        return _wb.getNumberOfNames();
+    }
+
+    @Override
+    public HSSFName getName(String name) {
+        return _wb.getName(name);
+    }
+
+    @Override
+    public List<HSSFName> getNames(String name) {
+        return _wb.getNames(name);
+    }
+
+    @Override
+    public List<HSSFName> getAllNames() {
+        return _wb.getAllNames();
+    }
+
+    @Override
+    public HSSFName createName() {
+        return _wb.createName();
+    }
+
+    @Override
+    public void removeName(Name name) {
+        _wb.removeName(name);
+    }
+
+    @Override
+    public int linkExternalWorkbook(String name, Workbook workbook) {
+        return _wb.linkExternalWorkbook(name, workbook);
+    }
+
+    @Override
+    public void setPrintArea(int sheetIndex, String reference) {
+        _wb.setPrintArea(sheetIndex, reference);
+    }
+
+    @Override
+    public void setPrintArea(int sheetIndex, int startColumn, int endColumn, int startRow, int endRow) {
+        _wb.setPrintArea(sheetIndex, startColumn, endColumn, startRow, endRow);
+    }
+
+    @Override
+    public String getPrintArea(int sheetIndex) {
+        return _wb.getPrintArea(sheetIndex);
+    }
+
+    @Override
+    public void removePrintArea(int sheetIndex) {
+        _wb.removePrintArea(sheetIndex);
+    }
+
+    @Override
+    public MissingCellPolicy getMissingCellPolicy() {
+        return _wb.getMissingCellPolicy();
+    }
+
+    @Override
+    public void setMissingCellPolicy(MissingCellPolicy missingCellPolicy) {
+        _wb.setMissingCellPolicy(missingCellPolicy);
+    }
+
+    @Override
+    public HSSFDataFormat createDataFormat() {
+        return _wb.createDataFormat();
+    }
+
+    @Override
+    public int addPicture(byte[] pictureData, int format) {
+        return _wb.addPicture(pictureData, format);
+    }
+
+    @Override
+    public List<HSSFPictureData> getAllPictures() {
+        return _wb.getAllPictures();
+    }
+
+    @Override
+    public HSSFCreationHelper getCreationHelper() {
+        return _wb.getCreationHelper();
+    }
+
+    @Override
+    public boolean isHidden() {
+        return _wb.isHidden();
+    }
+
+    @Override
+    public void setHidden(boolean hiddenFlag) {
+        _wb.setHidden(hiddenFlag);
+    }
+
+    @Override
+    public boolean isSheetHidden(int sheetIx) {
+        return _wb.isSheetHidden(sheetIx);
+    }
+
+    @Override
+    public boolean isSheetVeryHidden(int sheetIx) {
+        return _wb.isSheetVeryHidden(sheetIx);
+    }
+
+    @Override
+    public void setSheetHidden(int sheetIx, boolean hidden) {
+        _wb.setSheetHidden(sheetIx, hidden);
+    }
+
+    @Override
+    public SheetVisibility getSheetVisibility(int sheetIx) {
+        return _wb.getSheetVisibility(sheetIx);
+    }
+
+    @Override
+    public void setSheetVisibility(int sheetIx, SheetVisibility visibility) {
+        _wb.setSheetVisibility(sheetIx, visibility);
+    }
+
+    @Override
+    public void addToolPack(UDFFinder toolpack) {
+        _wb.addToolPack(toolpack);
+    }
+
+    @Override
+    public void setForceFormulaRecalculation(boolean value) {
+        _wb.setForceFormulaRecalculation(value);
+    }
+
+    @Override
+    public boolean getForceFormulaRecalculation() {
+        return _wb.getForceFormulaRecalculation();
+    }
+
+    @Override
+    public SpreadsheetVersion getSpreadsheetVersion() {
+        return _wb.getSpreadsheetVersion();
+    }
+
+    @Override
+    public int addOlePackage(byte[] oleData, String label, String fileName, String command) throws IOException {
+        return _wb.addOlePackage(oleData, label, fileName, command);
+    }
+
+    @Override
+    public HSSFEvaluationWorkbook createEvaluationWorkbook() {
+        return _wb.createEvaluationWorkbook();
+    }
+
+    @Override
+    public CellReferenceType getCellReferenceType() {
+        return _wb.getCellReferenceType();
+    }
+
+    @Override
+    public void setCellReferenceType(CellReferenceType cellReferenceType) {
+        _wb.setCellReferenceType(cellReferenceType);
+    }
+}
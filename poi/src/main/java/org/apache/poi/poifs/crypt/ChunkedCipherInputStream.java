@@ -20,6 +20,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
 
 import javax.crypto.Cipher;
 
@@ -41,6 +42,7 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
     private int lastIndex;
     private long pos;
     private boolean chunkIsValid;
+    private ParallelChunkCipher parallel;
 
     public ChunkedCipherInputStream(InputStream stream, long size, int chunkSize)
     throws GeneralSecurityException {
@@ -73,6 +75,27 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
     protected abstract Cipher initCipherForBlock(Cipher existing, int block)
     throws GeneralSecurityException;
 
+    /**
+     * Decrypts the following chunks concurrently with the given executor, while the
+     * calling thread reads ahead a bounded number of chunks.
+     * <p>
+     * This is only applicable for fixed size chunks, which are decrypted independently, i.e.
+     * {@link #initCipherForBlock(Cipher, int)} needs to be callable from multiple threads and
+     * {@link #invokeCipher(int, boolean)} must not be overridden. Plain stream parts
+     * (see {@link #readPlain(byte[], int, int)}) are not supported in this mode.
+     *
+     * @param executor the executor, {@code null} to decrypt on the reading thread
+     *
+     * @since POI 5.4.0
+     */
+    protected void setExecutor(Executor executor) {
+        if (parallel != null) {
+            parallel.clear();
+        }
+        parallel = (executor == null || chunkSize == -1) ? null : new ParallelChunkCipher(executor, this::initCipherForBlock);
+        chunkIsValid = false;
+    }
+
     @Override
     public int read() throws IOException {
         byte[] b = { 0 };
@@ -151,6 +174,14 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
         return (int)(size - pos);
     }
 
+    @Override
+    public void close() throws IOException {
+        if (parallel != null) {
+            parallel.clear();
+        }
+        super.close();
+    }
+
     @Override
     public boolean markSupported() {
         return false;
@@ -171,6 +202,11 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
     }
 
     private void nextChunk() throws GeneralSecurityException, IOException {
+        if (parallel != null) {
+            nextChunkParallel();
+            return;
+        }
+
         if (chunkSize != -1) {
             int index = (int) (pos >> chunkBits);
             initCipherForBlock(cipher, index);
@@ -185,14 +221,59 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
             lastIndex = index + 1;
         }
 
-        final int todo = (int)Math.min(size, chunk.length);
+        final int totalBytes = readChunk(plain, pos);
+
+        System.arraycopy(plain, 0, chunk, 0, totalBytes);
+
+        invokeCipher(totalBytes, totalBytes == chunkSize);
+    }
+
+    private void nextChunkParallel() throws IOException {
+        final int index = (int) (pos >> chunkBits);
+
+        if (index >= lastIndex) {
+            // the chunk wasn't read ahead, i.e. the read ahead chunks were skipped
+            parallel.clear();
+            if (lastIndex != index) {
+                long skipN = ((long) index - lastIndex) << chunkBits;
+                if (super.skip(skipN) < skipN) {
+                    throw new EOFException("buffer underrun");
+                }
+            }
+            lastIndex = index;
+        } else {
+            while (parallel.getHeadIndex() < index) {
+                parallel.take();
+            }
+        }
+
+        while (!parallel.isFull() && ((long)lastIndex << chunkBits) < size) {
+            final byte[] buf = new byte[chunk.length];
+            final int totalBytes = readChunk(buf, (long)lastIndex << chunkBits);
+            parallel.submit(lastIndex, buf, totalBytes, totalBytes == chunkSize);
+            lastIndex++;
+        }
+
+        final byte[] decrypted = parallel.take();
+        System.arraycopy(decrypted, 0, chunk, 0, decrypted.length);
+    }
+
+    /**
+     * Reads the encrypted bytes of a chunk
+     *
+     * @param buf the buffer for the encrypted bytes
+     * @param chunkPos the position used to detect a truncated stream
+     * @return the number of bytes read
+     */
+    private int readChunk(byte[] buf, long chunkPos) throws IOException {
+        final int todo = (int)Math.min(size, buf.length);
         int readBytes, totalBytes = 0;
         do {
-            readBytes = super.read(plain, totalBytes, todo-totalBytes);
+            readBytes = super.read(buf, totalBytes, todo-totalBytes);
             totalBytes += Math.max(0, readBytes);
         } while (readBytes != -1 && totalBytes < todo);
 
-        if (readBytes == -1 && pos+totalBytes < size && size < Integer.MAX_VALUE) {
+        if (readBytes == -1 && chunkPos+totalBytes < size && size < Integer.MAX_VALUE) {
             throw new EOFException("buffer underrun");
         }
 
@@ -201,15 +282,13 @@ public abstract class ChunkedCipherInputStream extends LittleEndianInputStream {
         // multiple of 16 bytes
         if (totalBytes % 16 != 0) {
             int toRead = 16 - totalBytes % 16;
-            int read = super.read(plain, totalBytes, toRead);
+            int read = super.read(buf, totalBytes, toRead);
             if (read > 0) {
                 totalBytes += read;
             }
         }
 
-        System.arraycopy(plain, 0, chunk, 0, totalBytes);
-
-        invokeCipher(totalBytes, totalBytes == chunkSize);
+        return totalBytes;
     }
 
     /**
@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
 
 import javax.crypto.Cipher;
 
@@ -62,6 +63,7 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
     // and therefore need to change the cipher too
     private Cipher cipher;
     private boolean isClosed;
+    private ParallelChunkCipher parallel;
 
     public ChunkedCipherOutputStream(DirectoryNode dir, int chunkSize) throws IOException, GeneralSecurityException {
         super(null);
@@ -102,6 +104,27 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
     protected abstract Cipher initCipherForBlock(Cipher existing, int block, boolean lastChunk)
     throws IOException, GeneralSecurityException;
 
+    /**
+     * Encrypts the following full chunks concurrently with the given executor.
+     * The encrypted chunks are written in order, so the output is the same as
+     * with the sequential encryption.
+     * <p>
+     * This is only applicable for fixed size chunks, which are encrypted independently, i.e.
+     * {@link #initCipherForBlock(Cipher, int, boolean)} needs to be callable from multiple threads
+     * and {@link #invokeCipher(int, boolean)} must not be overridden. Chunks containing plain
+     * stream parts (see {@link #writePlain(byte[], int, int)}) and the padded last chunk
+     * are encrypted on the writing thread.
+     *
+     * @param executor the executor, {@code null} to encrypt on the writing thread
+     *
+     * @since POI 5.4.0
+     */
+    protected void setExecutor(Executor executor) throws IOException {
+        flushPending();
+        parallel = (executor == null || chunkSize == STREAMING) ? null
+            : new ParallelChunkCipher(executor, (c, block) -> initCipherForBlock(c, block, false));
+    }
+
     protected abstract void calculateChecksum(File fileOut, int oleStreamSize)
     throws GeneralSecurityException, IOException;
 
@@ -178,6 +201,18 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
             lastChunk = true;
         }
 
+        if (parallel != null && !lastChunk && plainByteFlags.isEmpty()) {
+            // the chunk is handed over to the task, without padding the cipher text has the same length
+            parallel.submit(index, chunk.clone(), posInChunk, true);
+            written += posInChunk;
+            while (parallel.isFull()) {
+                writeHead();
+            }
+            return;
+        }
+
+        flushPending();
+
         int ciLen;
         try {
             boolean doFinal = true;
@@ -204,6 +239,24 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
         written += ciLen;
     }
 
+    private void writeHead() throws IOException {
+        out.write(parallel.take());
+    }
+
+    private void flushPending() throws IOException {
+        if (parallel != null) {
+            while (!parallel.isEmpty()) {
+                writeHead();
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushPending();
+        super.flush();
+    }
+
     /**
      * Helper function for overriding the cipher invocation, i.e. XOR doesn't use a cipher
      * and uses its own implementation
@@ -254,6 +307,7 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
 
         try {
             writeChunk(false);
+            flushPending();
 
             super.close();
 
@@ -266,6 +320,9 @@ public abstract class ChunkedCipherOutputStream extends FilterOutputStream {
         } catch (GeneralSecurityException e) {
             throw new IOException(e);
         } finally {
+            if (parallel != null) {
+                parallel.clear();
+            }
             if (fileOut != null) {
                 if (!fileOut.delete()) {
                     //ignore
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import javax.crypto.Cipher;
@@ -36,8 +37,12 @@ public abstract class Decryptor implements GenericRecord {
     public static final String DEFAULT_PASSWORD="VelvetSweatshop";
     public static final String DEFAULT_POIFS_ENTRY="EncryptedPackage";
 
+    private static volatile PasswordHashCache defaultPasswordHashCache;
+
     protected EncryptionInfo encryptionInfo;
     private SecretKey secretKey;
+    private Executor executor;
+    private PasswordHashCache passwordHashCache = defaultPasswordHashCache;
     private byte[] verifier, integrityHmacKey, integrityHmacValue;
 
     protected Decryptor() {}
@@ -46,6 +51,8 @@ public abstract class Decryptor implements GenericRecord {
         encryptionInfo = other.encryptionInfo;
         // secretKey is immutable
         secretKey = other.secretKey;
+        executor = other.executor;
+        passwordHashCache = other.passwordHashCache;
         verifier = (other.verifier == null) ? null : other.verifier.clone();
         integrityHmacKey = (other.integrityHmacKey == null) ? null : other.integrityHmacKey.clone();
         integrityHmacValue = (other.integrityHmacValue == null) ? null : other.integrityHmacValue.clone();
@@ -91,6 +98,85 @@ public abstract class Decryptor implements GenericRecord {
         throw new EncryptedDocumentException("this decryptor doesn't support changing the chunk size");
     }
 
+    /**
+     * Sets the executor, which decrypts the chunks of the data stream concurrently.
+     * Needs to be set before the data stream is requested.
+     * <p>
+     * Only implementations, which encrypt the chunks independently (i.e. agile encryption),
+     * make use of the executor - the others ignore it. The chunks are still read in order
+     * and only a bounded number of chunks is held in memory.
+     *
+     * @param executor the executor, {@code null} to decrypt on the calling thread (the default)
+     *
+     * @since POI 5.4.0
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the executor for the chunks of the data stream, or {@code null} if not set
+     *
+     * @since POI 5.4.0
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets the cache for password hashes, which is used by {@link #verifyPassword(String)}.
+     * Decryptors of documents, which are encrypted with the same passwords and salts,
+     * can share a cache to skip the expensive password hashing.
+     *
+     * @param passwordHashCache the cache, {@code null} to always hash the password
+     *
+     * @since POI 5.4.0
+     */
+    public void setPasswordHashCache(PasswordHashCache passwordHashCache) {
+        this.passwordHashCache = passwordHashCache;
+    }
+
+    /**
+     * @return the cache for password hashes, or {@code null} if not set
+     *
+     * @since POI 5.4.0
+     */
+    public PasswordHashCache getPasswordHashCache() {
+        return passwordHashCache;
+    }
+
+    /**
+     * Sets the cache for password hashes, which is used by decryptors created afterwards,
+     * e.g. when a document is opened with a password.
+     *
+     * @param passwordHashCache the cache, {@code null} to disable the caching (the default)
+     *
+     * @since POI 5.4.0
+     */
+    public static void setDefaultPasswordHashCache(PasswordHashCache passwordHashCache) {
+        defaultPasswordHashCache = passwordHashCache;
+    }
+
+    /**
+     * @return the cache for password hashes of new decryptors, or {@code null} if not set
+     *
+     * @since POI 5.4.0
+     */
+    public static PasswordHashCache getDefaultPasswordHashCache() {
+        return defaultPasswordHashCache;
+    }
+
+    /**
+     * Hashes the password for the read protection, with the password hash cache if set
+     *
+     * @see CryptoFunctions#hashPassword(String, HashAlgorithm, byte[], int)
+     */
+    protected byte[] hashPassword(String password, HashAlgorithm hashAlgorithm, byte[] salt, int spinCount) {
+        return (passwordHashCache == null)
+            ? CryptoFunctions.hashPassword(password, hashAlgorithm, salt, spinCount)
+            : passwordHashCache.hashPassword(password, hashAlgorithm, salt, spinCount, true);
+    }
+
     /**
      * Initializes a cipher object for a given block index for encryption
      *
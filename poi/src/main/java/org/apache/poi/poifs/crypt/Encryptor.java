@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 import javax.crypto.SecretKey;
@@ -35,6 +36,7 @@ public abstract class Encryptor implements GenericRecord {
     protected static final String DEFAULT_POIFS_ENTRY = Decryptor.DEFAULT_POIFS_ENTRY;
     private EncryptionInfo encryptionInfo;
     private SecretKey secretKey;
+    private Executor executor;
 
     protected Encryptor() {}
 
@@ -42,6 +44,7 @@ public abstract class Encryptor implements GenericRecord {
         encryptionInfo = other.encryptionInfo;
         // secretKey is immutable
         secretKey = other.secretKey;
+        executor = other.executor;
     }
 
     /**
@@ -98,6 +101,31 @@ public abstract class Encryptor implements GenericRecord {
         throw new EncryptedDocumentException("this decryptor doesn't support changing the chunk size");
     }
 
+    /**
+     * Sets the executor, which encrypts the chunks of the data stream concurrently.
+     * Needs to be set before the data stream is requested.
+     * <p>
+     * Only implementations, which encrypt the chunks independently (i.e. agile encryption),
+     * make use of the executor - the others ignore it. The chunks are still written in order
+     * and only a bounded number of chunks is held in memory.
+     *
+     * @param executor the executor, {@code null} to encrypt on the calling thread (the default)
+     *
+     * @since POI 5.4.0
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @return the executor for the chunks of the data stream, or {@code null} if not set
+     *
+     * @since POI 5.4.0
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
     public abstract Encryptor copy();
 
     @Override
@@ -0,0 +1,140 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.crypt;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import javax.crypto.Cipher;
+
+import org.apache.poi.EncryptedDocumentException;
+
+/**
+ * En-/decrypts the chunks of a chunked cipher stream concurrently.
+ * <p>
+ * This only works for encryption modes, where each chunk is en-/decrypted with its own
+ * initialization vector, i.e. agile encryption. Each task uses a cipher of a pool,
+ * which is reinitialized for the index of the chunk. The chunks are handed out in
+ * the order of their submission and only a bounded number of chunks is held in memory.
+ */
+class ParallelChunkCipher {
+    /**
+     * Initializes a cipher for a given chunk index, needs to be callable from multiple threads
+     */
+    @FunctionalInterface
+    interface CipherInitializer {
+        Cipher initCipherForBlock(Cipher existing, int block) throws GeneralSecurityException, IOException;
+    }
+
+    private final Executor executor;
+    private final CipherInitializer initializer;
+    private final int maxPendingChunks;
+    private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<Cipher> ciphers = new ConcurrentLinkedQueue<>();
+
+    /** the index of the head chunk */
+    private int headIndex;
+
+    ParallelChunkCipher(Executor executor, CipherInitializer initializer) {
+        this.executor = executor;
+        this.initializer = initializer;
+        this.maxPendingChunks = 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Submits a chunk for en-/decryption. The chunk is handed over to the task
+     * and must not be modified afterwards.
+     *
+     * @param index the chunk index, which needs to follow the previously submitted chunk
+     * @param chunk the chunk data, which is en-/decrypted in place
+     * @param len the number of bytes to process
+     * @param doFinal {@code true} to finish the cipher operation, otherwise the cipher is only updated
+     */
+    void submit(int index, byte[] chunk, int len, boolean doFinal) {
+        if (pending.isEmpty()) {
+            headIndex = index;
+        }
+        pending.add(CompletableFuture.supplyAsync(() -> process(index, chunk, len, doFinal), executor));
+    }
+
+    /**
+     * @return {@code true} if no further chunks should be submitted before the head was taken
+     */
+    boolean isFull() {
+        return pending.size() >= maxPendingChunks;
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * @return the index of the head chunk, only valid if chunks are pending
+     */
+    int getHeadIndex() {
+        return headIndex;
+    }
+
+    /**
+     * Waits for the head chunk and removes it
+     *
+     * @return the en-/decrypted chunk
+     */
+    byte[] take() throws IOException {
+        try {
+            byte[] chunk = pending.remove().join();
+            headIndex++;
+            return chunk;
+        } catch (CompletionException e) {
+            clear();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Discards the pending chunks
+     */
+    void clear() {
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+    }
+
+    private byte[] process(int index, byte[] chunk, int len, boolean doFinal) {
+        try {
+            Cipher cipher = initializer.initCipherForBlock(ciphers.poll(), index);
+            if (doFinal) {
+                cipher.doFinal(chunk, 0, len, chunk);
+            } else {
+                cipher.update(chunk, 0, len, chunk);
+            }
+            ciphers.add(cipher);
+            return chunk;
+        } catch (GeneralSecurityException | IOException e) {
+            throw new EncryptedDocumentException(e.getMessage(), e);
+        }
+    }
+}
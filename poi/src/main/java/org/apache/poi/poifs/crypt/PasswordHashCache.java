@@ -0,0 +1,173 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.crypt;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.LittleEndianConsts;
+import org.apache.poi.util.RandomSingleton;
+import org.apache.poi.util.StringUtil;
+
+/**
+ * A bounded cache of password hashes, as calculated by
+ * {@link CryptoFunctions#hashPassword(String, HashAlgorithm, byte[], int, boolean)}.
+ * <p>
+ * The password hashing iterates the hash function (typically 100,000 times), which dominates
+ * the time to open a document. When many documents are encrypted with the same passwords and
+ * salts, the cache avoids the repeated iterations.
+ * <p>
+ * The entries are keyed by a HMAC over the password, the salt, the spin count and the hash algorithm
+ * with a random key of this cache, so neither the password nor a cheap hash of it is held in memory.
+ * The least recently used entries are evicted, evicted hashes are overwritten with zeros.
+ * The cache is thread-safe.
+ *
+ * @see Decryptor#setPasswordHashCache(PasswordHashCache)
+ * @since POI 5.4.0
+ */
+public final class PasswordHashCache {
+    private static final HashAlgorithm KEY_ALGORITHM = HashAlgorithm.sha256;
+
+    private final int maxEntries;
+    private final byte[] keySecret;
+    private final Map<CacheKey, byte[]> hashes;
+
+    /**
+     * @param maxEntries the maximum number of cached password hashes
+     */
+    public PasswordHashCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries needs to be positive, but was " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.keySecret = new byte[KEY_ALGORITHM.hashSize];
+        RandomSingleton.getInstance().nextBytes(keySecret);
+        this.hashes = new LinkedHashMap<CacheKey, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, byte[]> eldest) {
+                if (size() <= PasswordHashCache.this.maxEntries) {
+                    return false;
+                }
+                Arrays.fill(eldest.getValue(), (byte)0);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached password hash or calculates and caches it
+     *
+     * @see CryptoFunctions#hashPassword(String, HashAlgorithm, byte[], int, boolean)
+     */
+    public byte[] hashPassword(String password, HashAlgorithm hashAlgorithm, byte[] salt, int spinCount, boolean iteratorFirst) {
+        // If no password was given, use the default
+        if (password == null) {
+            password = Decryptor.DEFAULT_PASSWORD;
+        }
+
+        CacheKey key = new CacheKey(password, hashAlgorithm, salt, spinCount, iteratorFirst);
+        synchronized (hashes) {
+            byte[] hash = hashes.get(key);
+            if (hash != null) {
+                return hash.clone();
+            }
+        }
+
+        // the hash is calculated outside the lock, concurrent misses for the same key calculate the same value
+        byte[] hash = CryptoFunctions.hashPassword(password, hashAlgorithm, salt, spinCount, iteratorFirst);
+        synchronized (hashes) {
+            byte[] old = hashes.put(key, hash.clone());
+            if (old != null) {
+                Arrays.fill(old, (byte)0);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @return the maximum number of cached password hashes
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return the number of cached password hashes
+     */
+    public int size() {
+        synchronized (hashes) {
+            return hashes.size();
+        }
+    }
+
+    /**
+     * Removes all entries and overwrites the cached password hashes with zeros
+     */
+    public void clear() {
+        synchronized (hashes) {
+            hashes.values().forEach(h -> Arrays.fill(h, (byte)0));
+            hashes.clear();
+        }
+    }
+
+    private final class CacheKey {
+        private final byte[] digest;
+        private final int hashCode;
+
+        CacheKey(String password, HashAlgorithm hashAlgorithm, byte[] salt, int spinCount, boolean iteratorFirst) {
+            Mac mac = CryptoFunctions.getMac(KEY_ALGORITHM);
+            try {
+                mac.init(new SecretKeySpec(keySecret, KEY_ALGORITHM.jceHmacId));
+            } catch (GeneralSecurityException e) {
+                throw new EncryptedDocumentException("can't initialize the password hash cache key", e);
+            }
+
+            byte[] buf = new byte[LittleEndianConsts.INT_SIZE];
+            LittleEndian.putInt(buf, 0, hashAlgorithm.ordinal());
+            mac.update(buf);
+            LittleEndian.putInt(buf, 0, spinCount);
+            mac.update(buf);
+            mac.update((byte)(iteratorFirst ? 1 : 0));
+            LittleEndian.putInt(buf, 0, salt.length);
+            mac.update(buf);
+            mac.update(salt);
+            mac.update(StringUtil.getToUnicodeLE(password));
+
+            digest = mac.doFinal();
+            hashCode = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof CacheKey) && MessageDigest.isEqual(digest, ((CacheKey)o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
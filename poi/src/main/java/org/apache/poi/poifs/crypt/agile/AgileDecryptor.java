@@ -21,7 +21,6 @@ import static org.apache.poi.poifs.crypt.CryptoFunctions.generateKey;
 import static org.apache.poi.poifs.crypt.CryptoFunctions.getBlock0;
 import static org.apache.poi.poifs.crypt.CryptoFunctions.getCipher;
 import static org.apache.poi.poifs.crypt.CryptoFunctions.getMessageDigest;
-import static org.apache.poi.poifs.crypt.CryptoFunctions.hashPassword;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -269,6 +268,7 @@ public class AgileDecryptor extends Decryptor {
         public AgileCipherInputStream(DocumentInputStream stream, long size)
         throws GeneralSecurityException {
             super(stream, size, 4096);
+            setExecutor(getExecutor());
         }
 
         // TODO: calculate integrity hmac while reading the stream
@@ -344,6 +344,7 @@ public class AgileEncryptor extends Encryptor {
     private class AgileCipherOutputStream extends ChunkedCipherOutputStream {
         public AgileCipherOutputStream(DirectoryNode dir) throws IOException, GeneralSecurityException {
             super(dir, 4096);
+            setExecutor(getExecutor());
         }
 
         @Override
@@ -16,8 +16,6 @@
 ==================================================================== */
 package org.apache.poi.poifs.crypt.standard;
 
-import static org.apache.poi.poifs.crypt.CryptoFunctions.hashPassword;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
@@ -56,7 +54,8 @@ public class StandardDecryptor extends Decryptor {
     @Override
     public boolean verifyPassword(String password) {
         EncryptionVerifier ver = getEncryptionInfo().getVerifier();
-        SecretKey skey = generateSecretKey(password, ver, getKeySizeInBytes());
+        byte[] pwHash = hashPassword(password, ver.getHashAlgorithm(), ver.getSalt(), ver.getSpinCount());
+        SecretKey skey = generateSecretKey(pwHash, ver, getKeySizeInBytes());
         Cipher cipher = getCipher(skey);
 
         try {
@@ -85,9 +84,12 @@ public class StandardDecryptor extends Decryptor {
     }
 
     protected static SecretKey generateSecretKey(String password, EncryptionVerifier ver, int keySize) {
-        HashAlgorithm hashAlgo = ver.getHashAlgorithm();
+        byte[] pwHash = CryptoFunctions.hashPassword(password, ver.getHashAlgorithm(), ver.getSalt(), ver.getSpinCount());
+        return generateSecretKey(pwHash, ver, keySize);
+    }
 
-        byte[] pwHash = hashPassword(password, hashAlgo, ver.getSalt(), ver.getSpinCount());
+    private static SecretKey generateSecretKey(byte[] pwHash, EncryptionVerifier ver, int keySize) {
+        HashAlgorithm hashAlgo = ver.getHashAlgorithm();
 
         byte[] blockKey = new byte[4];
         LittleEndian.putInt(blockKey, 0, 0);
@@ -0,0 +1,138 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.filesystem;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.poi.poifs.common.POIFSConstants;
+import org.apache.poi.poifs.filesystem.BlockStore.ChainLoopDetector;
+import org.apache.poi.util.IntList;
+
+/**
+ * The blocks of a chain, grouped into extents of consecutive blocks.
+ * <p>
+ * The chain is followed once through the allocation table of the {@link BlockStore},
+ * afterwards the blocks can be located without further lookups.
+ */
+final class BlockExtents {
+    private final int[] starts;
+    private final int[] lengths;
+    /** the index of the first block of each extent within the chain */
+    private final int[] firstIndexes;
+    private final int blockCount;
+
+    private BlockExtents(IntList starts, IntList lengths) {
+        this.starts = starts.toArray();
+        this.lengths = lengths.toArray();
+        this.firstIndexes = new int[this.starts.length];
+        int count = 0;
+        for (int i = 0; i < this.starts.length; i++) {
+            firstIndexes[i] = count;
+            count += this.lengths[i];
+        }
+        this.blockCount = count;
+    }
+
+    /**
+     * Follows the chain, which starts at the given block
+     *
+     * @throws IllegalStateException if the chain contains a loop
+     */
+    static BlockExtents of(BlockStore blockStore, int startBlock) throws IOException {
+        Builder builder = new Builder();
+        ChainLoopDetector loopDetector = blockStore.getChainLoopDetector();
+        int block = startBlock;
+        while (block != POIFSConstants.END_OF_CHAIN) {
+            loopDetector.claim(block);
+            builder.add(block);
+            block = blockStore.getNextBlock(block);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects the blocks of a chain, while it is followed
+     */
+    static final class Builder {
+        private final IntList starts = new IntList();
+        private final IntList lengths = new IntList();
+
+        /**
+         * Adds the next block of the chain
+         */
+        void add(int block) {
+            int last = starts.size() - 1;
+            if (last >= 0 && starts.get(last) + lengths.get(last) == block) {
+                lengths.set(last, lengths.get(last) + 1);
+            } else {
+                starts.add(block);
+                lengths.add(1);
+            }
+        }
+
+        BlockExtents build() {
+            return new BlockExtents(starts, lengths);
+        }
+    }
+
+    /**
+     * @return the number of extents
+     */
+    int getExtentCount() {
+        return starts.length;
+    }
+
+    /**
+     * @return the first block of the extent
+     */
+    int getStart(int extent) {
+        return starts[extent];
+    }
+
+    /**
+     * @return the number of blocks of the extent
+     */
+    int getLength(int extent) {
+        return lengths[extent];
+    }
+
+    /**
+     * @return the number of blocks of the chain
+     */
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @param index the index of a block within the chain
+     * @return the block at the given index of the chain
+     * @throws IndexOutOfBoundsException if the chain is shorter
+     */
+    int getBlock(int index) {
+        if (index < 0 || index >= blockCount) {
+            throw new IndexOutOfBoundsException("Block index " + index + " is outside of the chain with "
+                + blockCount + " blocks");
+        }
+        int extent = Arrays.binarySearch(firstIndexes, index);
+        if (extent < 0) {
+            extent = -extent - 2;
+        }
+        return starts[extent] + (index - firstIndexes[extent]);
+    }
+}
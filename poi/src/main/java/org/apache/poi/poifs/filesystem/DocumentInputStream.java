@@ -27,7 +27,6 @@ import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.property.DocumentProperty;
-import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LittleEndianInput;
 
@@ -243,12 +242,48 @@ public final class DocumentInputStream extends InputStream implements LittleEndi
 
         long rval = new_offset - _current_offset;
 
-        // TODO Do this better
-        byte[] skip = IOUtils.safelyAllocate(rval, Integer.MAX_VALUE);
-        readFully(skip);
+        // move through the buffers, without copying their content
+        int toSkip = (int)rval;
+        while (toSkip > 0) {
+            toSkip -= readByteBuffer(toSkip).remaining();
+        }
         return rval;
     }
 
+    /**
+     * Reads up to {@code len} bytes without copying them. The returned read-only buffer
+     * shares its content with the file system: if the file system is memory mapped,
+     * it's a slice of the mapped file, which can span several consecutive blocks,
+     * otherwise it's a slice of the current block.
+     * <p>
+     * The buffer must not be used after the file system was closed.
+     *
+     * @param len the maximum number of bytes to read
+     * @return the buffer, which has at least one byte remaining, unless {@code len} is 0
+     *  or the end of the document is reached
+     * @since POI 5.4.0
+     */
+    public ByteBuffer readByteBuffer(int len) {
+        if (len < 0) {
+            throw new IllegalArgumentException("Can't read negative number of bytes, but had: " + len);
+        }
+        int limit = Math.min(len, remainingBytes());
+        if (limit == 0) {
+            return ByteBuffer.allocate(0);
+        }
+        if (_buffer == null || _buffer.remaining() == 0) {
+            _current_block_count++;
+            _buffer = _data.next();
+        }
+        limit = Math.min(limit, _buffer.remaining());
+
+        ByteBuffer result = _buffer.slice();
+        result.limit(limit);
+        _buffer.position(_buffer.position() + limit);
+        _current_offset += limit;
+        return result.asReadOnlyBuffer();
+    }
+
     private void dieIfClosed() throws IOException {
         if (_closed) {
             throw new IOException("cannot perform requested operation on a closed stream");
@@ -25,7 +25,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.poi.poifs.common.POIFSConstants;
@@ -174,7 +173,14 @@ public final class POIFSDocument implements POIFSViewable, Iterable<ByteBuffer>
     }
 
     Iterator<ByteBuffer> getBlockIterator() {
-        return (getSize() > 0 ? _stream : Collections.<ByteBuffer>emptyList()).iterator();
+        if (getSize() == 0) {
+            return emptyIterator();
+        }
+        // a mapped file can supply consecutive big blocks without copying them
+        if (_filesystem.isMapped() && _block_size == _filesystem.getBlockStoreBlockSize()) {
+            return _stream.getExtentIterator();
+        }
+        return _stream.iterator();
     }
 
     /**
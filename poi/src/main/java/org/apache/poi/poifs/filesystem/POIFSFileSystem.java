@@ -180,7 +180,28 @@ public class POIFSFileSystem extends BlockStore
      */
     public POIFSFileSystem(File file, boolean readOnly)
             throws IOException {
-        this(null, file, readOnly, true, true);
+        this(null, file, readOnly, false, true, true);
+    }
+
+    /**
+     * <p>Creates a POIFSFileSystem from a {@code File}. In read-only mode, the file can be
+     * memory mapped as a whole. The streams of the documents are then backed by the mapped memory,
+     * instead of being read block by block into the heap, and the consecutive blocks of
+     * big documents are returned as one buffer by {@link DocumentInputStream#readByteBuffer(int)}.</p>
+     *
+     * <p>Note that with this constructor, you will need to call {@link #close()}
+     * when you're done to have the underlying file unmapped and closed.</p>
+     *
+     * @param file     the File from which to read or read/write the data
+     * @param readOnly whether the POIFileSystem will only be used in read-only mode
+     * @param mapped   whether a read-only file is memory mapped, otherwise this is the same as
+     *                 {@link #POIFSFileSystem(File, boolean)}
+     * @throws IOException on errors reading, or on invalid data
+     * @since POI 5.4.0
+     */
+    public POIFSFileSystem(File file, boolean readOnly, boolean mapped)
+            throws IOException {
+        this(null, file, readOnly, mapped, true, true);
     }
 
     /**
@@ -220,7 +241,7 @@ public class POIFSFileSystem extends BlockStore
      */
     public POIFSFileSystem(FileChannel channel, boolean readOnly)
             throws IOException {
-        this(channel, null, readOnly, false, true);
+        this(channel, null, readOnly, false, false, true);
     }
 
     /**
@@ -241,12 +262,12 @@ public class POIFSFileSystem extends BlockStore
      */
     public POIFSFileSystem(FileChannel channel, boolean readOnly, boolean closeChannel)
             throws IOException {
-        this(channel, null, readOnly, closeChannel, closeChannel);
+        this(channel, null, readOnly, false, closeChannel, closeChannel);
     }
 
     @SuppressWarnings("java:S2095")
-    private POIFSFileSystem(FileChannel channel, File srcFile, boolean readOnly, boolean closeChannelOnError,
-                            boolean closeChannelOnClose) throws IOException {
+    private POIFSFileSystem(FileChannel channel, File srcFile, boolean readOnly, boolean mapped,
+                            boolean closeChannelOnError, boolean closeChannelOnClose) throws IOException {
         this(false);
 
         try {
@@ -255,7 +276,7 @@ public class POIFSFileSystem extends BlockStore
                 if (srcFile.length() == 0)
                     throw new EmptyFileException(srcFile);
 
-                FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly);
+                FileBackedDataSource d = new FileBackedDataSource(srcFile, readOnly, mapped);
                 channel = d.getChannel();
                 _data = d;
             } else {
@@ -477,6 +498,34 @@ public class POIFSFileSystem extends BlockStore
         }
     }
 
+    /**
+     * Load up to the given number of consecutive blocks, starting at the given offset,
+     *  into a single buffer. Only the blocks which start within the data are loaded,
+     *  so the buffer of a truncated file can hold fewer blocks than requested.
+     */
+    ByteBuffer getBlocksAt(final int offset, final int count) throws IOException {
+        int blockSize = bigBlockSize.getBigBlockSize();
+        long startAt = (offset + 1L) * blockSize;
+        long existing = (_data.size() - startAt + blockSize - 1) / blockSize;
+        int length = Math.multiplyExact((int)Math.max(1, Math.min(count, existing)), blockSize);
+        try {
+            return _data.read(length, startAt);
+        } catch (IndexOutOfBoundsException e) {
+            IndexOutOfBoundsException wrapped = new IndexOutOfBoundsException("Block " + offset + " not found");
+            wrapped.initCause(e);
+            throw wrapped;
+        }
+    }
+
+    /**
+     * @return {@code true} if the file is read-only and memory mapped as a whole
+     * @see #POIFSFileSystem(File, boolean, boolean)
+     * @since POI 5.4.0
+     */
+    public boolean isMapped() {
+        return (_data instanceof FileBackedDataSource) && ((FileBackedDataSource) _data).isMapped();
+    }
+
     /**
      * Load the block at the given offset,
      * extending the file if needed
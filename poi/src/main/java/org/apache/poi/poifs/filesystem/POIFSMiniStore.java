@@ -20,7 +20,6 @@ package org.apache.poi.poifs.filesystem;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -64,13 +63,16 @@ public class POIFSMiniStore extends BlockStore {
         int bigBlockNumber = byteOffset / _filesystem.getBigBlockSize();
         int bigBlockOffset = byteOffset % _filesystem.getBigBlockSize();
 
-        // Now locate the data block for it
-        Iterator<Integer> it = _mini_stream.getBlockOffsetIterator();
-        for (int i = 0; i < bigBlockNumber; i++) {
-            it.next();
+        // Now locate the data block for it, the chain of the mini stream is only followed once
+        if (_mini_stream.getStartBlock() == POIFSConstants.END_OF_CHAIN) {
+            throw new IllegalStateException("Can't read from a new stream before it has been written to");
+        }
+        BlockExtents extents = _mini_stream.getExtents();
+        if (bigBlockNumber >= extents.getBlockCount()) {
+            throw new NoSuchElementException("Can't read past the end of the stream");
         }
 
-        ByteBuffer dataBlock = _filesystem.getBlockAt(it.next());
+        ByteBuffer dataBlock = _filesystem.getBlockAt(extents.getBlock(bigBlockNumber));
         assert(dataBlock != null);
 
         // Position ourselves, and take a slice
@@ -124,6 +126,9 @@ public class POIFSMiniStore extends BlockStore {
                 block = next;
             }
             _filesystem.setNextBlock(block, newBigBlock);
+
+            // the chain of the mini stream was changed behind its back
+            _mini_stream = new POIFSStream(_filesystem, _mini_stream.getStartBlock());
         }
 
         // This is now the new end
@@ -47,9 +47,36 @@ import org.apache.poi.poifs.storage.HeaderBlock;
 
 public class POIFSStream implements Iterable<ByteBuffer>
 {
+    /** the maximum size of the buffers supplied by {@link #getExtentIterator()} */
+    private static final int MAX_EXTENT_BUFFER_SIZE = 1 << 20;
+    private static final int DEFAULT_READ_AHEAD_SIZE = 64 * 1024;
+    private static int READ_AHEAD_SIZE = DEFAULT_READ_AHEAD_SIZE;
+
     private final BlockStore blockStore;
     private int startBlock;
     private OutputStream outStream;
+    /** the resolved chain, until the stream is changed */
+    private BlockExtents extents;
+    /** counts the changes of the chain, so iterators don't record outdated chains */
+    private int chainChanges;
+
+    /**
+     * @param size the number of bytes of consecutive blocks, which are read at once
+     *  while iterating over the blocks of a stream, at most one block is read for sizes
+     *  up to the block size
+     * @since POI 5.4.0
+     */
+    public static void setReadAheadSize(int size) {
+        READ_AHEAD_SIZE = size;
+    }
+
+    /**
+     * @return the number of bytes of consecutive blocks, which are read at once
+     * @since POI 5.4.0
+     */
+    public static int getReadAheadSize() {
+        return READ_AHEAD_SIZE;
+    }
 
     /**
      * Constructor for an existing stream. It's up to you
@@ -96,13 +123,42 @@ public class POIFSStream implements Iterable<ByteBuffer>
         return new StreamBlockByteBufferIterator(startBlock);
     }
 
-    Iterator<Integer> getBlockOffsetIterator() {
+    /**
+     * Returns an iterator that'll supply one {@link ByteBuffer}
+     *  per run of consecutive blocks in the stream, which is
+     *  split into buffers of at most 1 MiB.
+     * This only works on big block streams.
+     */
+    Iterator<ByteBuffer> getExtentIterator() {
         if(startBlock == POIFSConstants.END_OF_CHAIN) {
             throw new IllegalStateException(
                     "Can't read from a new stream before it has been written to"
             );
         }
-        return new StreamBlockOffsetIterator(startBlock);
+        if (!(blockStore instanceof POIFSFileSystem)) {
+            throw new IllegalStateException("Only big block streams can be read by extents");
+        }
+        try {
+            return new StreamExtentByteBufferIterator(getExtents());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the blocks of the stream, grouped into runs of consecutive blocks.
+     * The chain is followed once, until the stream is written to or freed.
+     */
+    BlockExtents getExtents() throws IOException {
+        if (extents == null) {
+            extents = BlockExtents.of(blockStore, startBlock);
+        }
+        return extents;
+    }
+
+    private void chainChanged() {
+        extents = null;
+        chainChanges++;
     }
 
     /**
@@ -136,6 +192,7 @@ public class POIFSStream implements Iterable<ByteBuffer>
         free(loopDetector);
     }
     private void free(ChainLoopDetector loopDetector) {
+        chainChanged();
         int nextBlock = startBlock;
         while(nextBlock != POIFSConstants.END_OF_CHAIN) {
             int thisBlock = nextBlock;
@@ -147,34 +204,129 @@ public class POIFSStream implements Iterable<ByteBuffer>
     }
 
     /**
-     * Class that handles a streaming read of one stream
+     * Class that handles a streaming read of one stream.
+     * Runs of consecutive blocks are read ahead with a single read of
+     *  the file system. The chain is followed lazily and recorded, so
+     *  later iterations can skip the allocation table lookups.
      */
-    private class StreamBlockOffsetIterator implements Iterator<Integer> {
+    private class StreamBlockByteBufferIterator implements Iterator<ByteBuffer> {
         private final ChainLoopDetector loopDetector;
+        /** the extents of a completed iteration, otherwise the chain is followed */
+        private final BlockExtents knownExtents;
+        /** the followed chain */
+        private final BlockExtents.Builder followedExtents;
+        private final int blockSize;
+        private final int maxReadAhead;
+        private final int expectedChainChanges;
         private int nextBlock;
+        private int nextIndex;
+
+        /** the blocks which were read ahead, starting at readAheadStart */
+        private ByteBuffer readAhead;
+        private int readAheadStart;
+        private int readAheadCount;
+        /** the block after the read ahead blocks */
+        private int afterReadAhead;
 
-        StreamBlockOffsetIterator(int firstBlock) {
+        StreamBlockByteBufferIterator(int firstBlock) {
             this.nextBlock = firstBlock;
+            this.knownExtents = extents;
+            this.expectedChainChanges = chainChanges;
+            this.blockSize = blockStore.getBlockStoreBlockSize();
+            this.maxReadAhead = (blockStore instanceof POIFSFileSystem) ? Math.max(1, READ_AHEAD_SIZE / blockSize) : 1;
+            if (knownExtents != null) {
+                this.loopDetector = null;
+                this.followedExtents = null;
+                return;
+            }
+            this.followedExtents = new BlockExtents.Builder();
             try {
                 this.loopDetector = blockStore.getChainLoopDetector();
-            } catch (IOException e) {
+            } catch(IOException e) {
                 throw new IllegalStateException(e);
             }
         }
 
         public boolean hasNext() {
+            if (knownExtents != null) {
+                return nextIndex < knownExtents.getBlockCount();
+            }
             return nextBlock != POIFSConstants.END_OF_CHAIN;
         }
 
-        public Integer next() {
+        public ByteBuffer next() {
             if (!hasNext()) {
                 throw new NoSuchElementException("Can't read past the end of the stream");
             }
 
-            loopDetector.claim(nextBlock);
-            int currentBlock = nextBlock;
-            nextBlock = blockStore.getNextBlock(nextBlock);
-            return currentBlock;
+            try {
+                if (knownExtents != null) {
+                    return getBlock(knownExtents.getBlock(nextIndex++));
+                }
+
+                loopDetector.claim(nextBlock);
+                ByteBuffer data = getBlock(nextBlock);
+                followedExtents.add(nextBlock);
+                int lastReadAhead = readAheadStart + readAheadCount - 1;
+                nextBlock = (nextBlock < lastReadAhead) ? nextBlock + 1 : afterReadAhead;
+                if (nextBlock == POIFSConstants.END_OF_CHAIN && chainChanges == expectedChainChanges) {
+                    extents = followedExtents.build();
+                }
+                return data;
+            } catch(IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Returns the block from the read ahead blocks. If it's not one of them,
+         *  the following run of consecutive blocks is read ahead first.
+         */
+        private ByteBuffer getBlock(int block) throws IOException {
+            if (readAhead == null || block < readAheadStart || block >= readAheadStart + readAheadCount) {
+                readAhead(block);
+            }
+
+            int start = readAhead.position() + (block - readAheadStart) * blockSize;
+            ByteBuffer data = readAhead.duplicate();
+            data.position(Math.min(start, readAhead.limit()));
+            data.limit(Math.min(start + blockSize, readAhead.limit()));
+            return data.slice();
+        }
+
+        private void readAhead(int block) throws IOException {
+            int count = 1;
+            int next;
+            if (knownExtents != null) {
+                // the remaining blocks of the extent
+                int index = nextIndex - 1;
+                while (count < maxReadAhead && index + count < knownExtents.getBlockCount()
+                        && knownExtents.getBlock(index + count) == block + count) {
+                    count++;
+                }
+                next = POIFSConstants.END_OF_CHAIN;
+            } else {
+                next = blockStore.getNextBlock(block);
+                while (count < maxReadAhead && next == block + count) {
+                    next = blockStore.getNextBlock(next);
+                    count++;
+                }
+            }
+
+            if (count == 1) {
+                readAhead = blockStore.getBlockAt(block);
+            } else {
+                readAhead = ((POIFSFileSystem)blockStore).getBlocksAt(block, count);
+                // blocks past the end of a truncated file aren't read ahead, but fail when they are reached
+                int loaded = (readAhead.remaining() + blockSize - 1) / blockSize;
+                if (loaded < count) {
+                    count = loaded;
+                    next = block + loaded;
+                }
+            }
+            readAheadStart = block;
+            readAheadCount = count;
+            afterReadAhead = next;
         }
 
         public void remove() {
@@ -183,23 +335,21 @@ public class POIFSStream implements Iterable<ByteBuffer>
     }
 
     /**
-     * Class that handles a streaming read of one stream
+     * Class that handles a streaming read of one stream by runs of consecutive blocks
      */
-    private class StreamBlockByteBufferIterator implements Iterator<ByteBuffer> {
-        private final ChainLoopDetector loopDetector;
-        private int nextBlock;
-
-        StreamBlockByteBufferIterator(int firstBlock) {
-            this.nextBlock = firstBlock;
-            try {
-                this.loopDetector = blockStore.getChainLoopDetector();
-            } catch(IOException e) {
-                throw new IllegalStateException(e);
-            }
+    private class StreamExtentByteBufferIterator implements Iterator<ByteBuffer> {
+        private final BlockExtents blockExtents;
+        private final int maxBlocks;
+        private int extent;
+        private int blockInExtent;
+
+        StreamExtentByteBufferIterator(BlockExtents blockExtents) {
+            this.blockExtents = blockExtents;
+            this.maxBlocks = Math.max(1, MAX_EXTENT_BUFFER_SIZE / blockStore.getBlockStoreBlockSize());
         }
 
         public boolean hasNext() {
-            return nextBlock != POIFSConstants.END_OF_CHAIN;
+            return extent < blockExtents.getExtentCount();
         }
 
         public ByteBuffer next() {
@@ -207,11 +357,17 @@ public class POIFSStream implements Iterable<ByteBuffer>
                 throw new NoSuchElementException("Can't read past the end of the stream");
             }
 
+            int length = blockExtents.getLength(extent);
+            int count = Math.min(maxBlocks, length - blockInExtent);
+            int block = blockExtents.getStart(extent) + blockInExtent;
+            blockInExtent += count;
+            if (blockInExtent == length) {
+                extent++;
+                blockInExtent = 0;
+            }
+
             try {
-                loopDetector.claim(nextBlock);
-                ByteBuffer data = blockStore.getBlockAt(nextBlock);
-                nextBlock = blockStore.getNextBlock(nextBlock);
-                return data;
+                return ((POIFSFileSystem)blockStore).getBlocksAt(block, count);
             } catch(IOException e) {
                 throw new IllegalStateException(e);
             }
@@ -239,6 +395,9 @@ public class POIFSStream implements Iterable<ByteBuffer>
         void createBlockIfNeeded() throws IOException {
             if (buffer != null && buffer.hasRemaining()) return;
 
+            // the chain might change
+            chainChanged();
+
             int thisBlock = nextBlock;
 
             // Allocate a block if needed, otherwise figure
@@ -300,6 +459,8 @@ public class POIFSStream implements Iterable<ByteBuffer>
         }
 
         public void close() throws IOException {
+            chainChanged();
+
             // If we're overwriting, free any remaining blocks
             POIFSStream toFree = new POIFSStream(blockStore, nextBlock);
             toFree.free(loopDetector);
@@ -0,0 +1,353 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.filesystem;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+import org.apache.poi.poifs.common.POIFSBigBlockSize;
+import org.apache.poi.poifs.common.POIFSConstants;
+import org.apache.poi.poifs.property.DocumentProperty;
+import org.apache.poi.poifs.property.PropertyTable;
+import org.apache.poi.poifs.property.RootProperty;
+import org.apache.poi.poifs.storage.BATBlock;
+import org.apache.poi.poifs.storage.HeaderBlock;
+import org.apache.poi.util.Internal;
+import org.apache.poi.util.LittleEndian;
+
+/**
+ * Writes an OLE2 file with documents in its root directory straight to an {@link OutputStream}.
+ * <p>
+ * Unlike {@link POIFSFileSystem}, which keeps the whole file in memory or maps it block by block,
+ * the content of the documents is only requested while the file is written, so documents can
+ * be copied from temporary files without holding them in memory. The sizes of the documents
+ * must be known in advance, as the allocation tables are computed before the content is written.
+ * <p>
+ * The file is written with 512 byte blocks in the order header, big documents, mini stream,
+ * mini stream allocation table, properties, allocation table and its extension blocks.
+ *
+ * @since POI 5.4.0
+ */
+@Internal
+public final class POIFSStreamingWriter {
+    private static final POIFSBigBlockSize BIG_BLOCK_SIZE = POIFSConstants.SMALLER_BIG_BLOCK_SIZE_DETAILS;
+    private static final int BLOCK_SIZE = BIG_BLOCK_SIZE.getBigBlockSize();
+    private static final int MINI_BLOCK_SIZE = POIFSConstants.SMALL_BLOCK_SIZE;
+    private static final int PROPERTIES_PER_BLOCK = BLOCK_SIZE / POIFSConstants.PROPERTY_SIZE;
+    private static final int BAT_ENTRIES_PER_BLOCK = BIG_BLOCK_SIZE.getBATEntriesPerBlock();
+    private static final int XBAT_ENTRIES_PER_BLOCK = BIG_BLOCK_SIZE.getXBATEntriesPerBlock();
+    private static final int MAX_BATS_IN_HEADER = 109;
+
+    /**
+     * Writes the content of a document
+     */
+    @FunctionalInterface
+    public interface DocumentWriter {
+        /**
+         * @param out the stream to write exactly the announced number of bytes to
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static final class Document {
+        private final String name;
+        private final int size;
+        private final DocumentWriter writer;
+        /** the first big or mini block */
+        private int startBlock = POIFSConstants.END_OF_CHAIN;
+
+        Document(String name, int size, DocumentWriter writer) {
+            this.name = name;
+            this.size = size;
+            this.writer = writer;
+        }
+
+        boolean isSmall() {
+            return size < POIFSConstants.BIG_BLOCK_MINIMUM_DOCUMENT_SIZE;
+        }
+    }
+
+    /**
+     * Passes the content of a document on and checks its size
+     */
+    private static final class SizeCheckingOutputStream extends FilterOutputStream {
+        private final Document document;
+        private long written;
+
+        SizeCheckingOutputStream(OutputStream out, Document document) {
+            super(out);
+            this.document = document;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkSize(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkSize(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            // the underlying stream stays open for the following documents
+        }
+
+        private void checkSize(int len) throws IOException {
+            written += len;
+            if (written > document.size) {
+                throw new IOException("Document '" + document.name + "' exceeds its size of " + document.size + " bytes");
+            }
+        }
+
+        void finish() throws IOException {
+            if (written != document.size) {
+                throw new IOException("Document '" + document.name + "' has " + written
+                    + " bytes instead of " + document.size + " bytes");
+            }
+        }
+    }
+
+    private final List<Document> documents = new ArrayList<>();
+
+    /**
+     * Adds a document with the given content
+     *
+     * @param name the name of the document
+     * @param data the content of the document
+     */
+    public void addDocument(String name, byte[] data) {
+        addDocument(name, data.length, out -> out.write(data));
+    }
+
+    /**
+     * Adds a document, whose content is written later on
+     *
+     * @param name the name of the document
+     * @param size the size of the document in bytes
+     * @param writer writes the content of the document, when the file is written
+     */
+    public void addDocument(String name, int size, DocumentWriter writer) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid size " + size + " of document '" + name + "'");
+        }
+        documents.add(new Document(name, size, writer));
+    }
+
+    /**
+     * Writes the file with all documents
+     *
+     * @param out the stream to write to, it's not closed
+     */
+    public void write(OutputStream out) throws IOException {
+        // layout of the big and mini blocks
+        int blockCount = 0;
+        int miniBlockCount = 0;
+        List<Integer> chainLengths = new ArrayList<>();
+        List<Integer> miniChainLengths = new ArrayList<>();
+        for (Document doc : documents) {
+            if (doc.size == 0) {
+                continue;
+            }
+            if (doc.isSmall()) {
+                int length = blocks(doc.size, MINI_BLOCK_SIZE);
+                doc.startBlock = miniBlockCount;
+                miniBlockCount += length;
+                miniChainLengths.add(length);
+            } else {
+                int length = blocks(doc.size, BLOCK_SIZE);
+                doc.startBlock = blockCount;
+                blockCount += length;
+                chainLengths.add(length);
+            }
+        }
+        final int miniStreamStart = blockCount;
+        final int miniStreamBlocks = blocks(miniBlockCount * (long)MINI_BLOCK_SIZE, BLOCK_SIZE);
+        final int miniFatStart = miniStreamStart + miniStreamBlocks;
+        final int miniFatBlocks = blocks(miniBlockCount, BAT_ENTRIES_PER_BLOCK);
+        final int propertyStart = miniFatStart + miniFatBlocks;
+        final int propertyBlocks = blocks(documents.size() + 1L, PROPERTIES_PER_BLOCK);
+        final int fatStart = propertyStart + propertyBlocks;
+        chainLengths.add(miniStreamBlocks);
+        chainLengths.add(miniFatBlocks);
+        chainLengths.add(propertyBlocks);
+
+        // the allocation table needs to address its own blocks and those of its extension
+        int fatBlocks = 1;
+        int xfatBlocks;
+        while (true) {
+            xfatBlocks = fatBlocks > MAX_BATS_IN_HEADER ? blocks(fatBlocks - MAX_BATS_IN_HEADER, XBAT_ENTRIES_PER_BLOCK) : 0;
+            if ((long)fatBlocks * BAT_ENTRIES_PER_BLOCK >= (long)fatStart + fatBlocks + xfatBlocks) {
+                break;
+            }
+            fatBlocks++;
+        }
+        final int xfatStart = fatStart + fatBlocks;
+        final int xfatEnd = xfatStart + xfatBlocks;
+
+        writeHeader(out, fatStart, fatBlocks, xfatStart, xfatBlocks, propertyStart, miniFatStart, miniFatBlocks);
+
+        // big documents
+        for (Document doc : documents) {
+            if (!doc.isSmall()) {
+                writeContent(out, doc, BLOCK_SIZE);
+            }
+        }
+
+        // mini stream
+        for (Document doc : documents) {
+            if (doc.isSmall()) {
+                writeContent(out, doc, MINI_BLOCK_SIZE);
+            }
+        }
+        pad(out, miniBlockCount * (long)MINI_BLOCK_SIZE, BLOCK_SIZE);
+
+        writeAllocationTable(out, miniChainLengths, miniFatBlocks, i -> POIFSConstants.UNUSED_BLOCK);
+
+        writeProperties(out, miniStreamBlocks > 0 ? miniStreamStart : POIFSConstants.END_OF_CHAIN,
+            miniBlockCount, propertyBlocks);
+
+        writeAllocationTable(out, chainLengths, fatBlocks, i ->
+            (i < xfatStart) ? POIFSConstants.FAT_SECTOR_BLOCK :
+            (i < xfatEnd) ? POIFSConstants.DIFAT_SECTOR_BLOCK : POIFSConstants.UNUSED_BLOCK);
+
+        // allocation table blocks which don't fit into the header
+        for (int x = 0; x < xfatBlocks; x++) {
+            BATBlock xfat = BATBlock.createEmptyBATBlock(BIG_BLOCK_SIZE, true);
+            for (int j = 0; j < XBAT_ENTRIES_PER_BLOCK; j++) {
+                int fatIndex = MAX_BATS_IN_HEADER + x * XBAT_ENTRIES_PER_BLOCK + j;
+                if (fatIndex < fatBlocks) {
+                    xfat.setValueAt(j, fatStart + fatIndex);
+                }
+            }
+            if (x < xfatBlocks - 1) {
+                xfat.setValueAt(XBAT_ENTRIES_PER_BLOCK, xfatStart + x + 1);
+            }
+            xfat.writeBlocks(out);
+        }
+    }
+
+    /**
+     * Writes an allocation table of consecutive chains, which start at block 0
+     *
+     * @param chainLengths the number of blocks of each chain
+     * @param tableBlocks the number of blocks of the table
+     * @param otherValues the values of the blocks after the chains
+     */
+    private static void writeAllocationTable(OutputStream out, List<Integer> chainLengths, int tableBlocks,
+            IntUnaryOperator otherValues) throws IOException {
+        int chain = -1;
+        int chainEnd = -1;
+        BATBlock bat = null;
+        for (int i = 0; i < tableBlocks * BAT_ENTRIES_PER_BLOCK; i++) {
+            int index = i % BAT_ENTRIES_PER_BLOCK;
+            if (index == 0) {
+                bat = BATBlock.createEmptyBATBlock(BIG_BLOCK_SIZE, false);
+            }
+            // skip the finished and empty chains
+            while (chainEnd < i && chain < chainLengths.size() - 1) {
+                chainEnd += chainLengths.get(++chain);
+            }
+            int value;
+            if (i <= chainEnd) {
+                value = (i == chainEnd) ? POIFSConstants.END_OF_CHAIN : i + 1;
+            } else {
+                value = otherValues.applyAsInt(i);
+            }
+            bat.setValueAt(index, value);
+            if (index == BAT_ENTRIES_PER_BLOCK - 1) {
+                bat.writeBlocks(out);
+            }
+        }
+    }
+
+    private static void writeHeader(OutputStream out, int fatStart, int fatBlocks, int xfatStart, int xfatBlocks,
+            int propertyStart, int miniFatStart, int miniFatBlocks) throws IOException {
+        HeaderBlock header = new HeaderBlock(BIG_BLOCK_SIZE);
+        int[] batArray = new int[Math.min(fatBlocks, MAX_BATS_IN_HEADER)];
+        for (int i = 0; i < batArray.length; i++) {
+            batArray[i] = fatStart + i;
+        }
+        header.setBATCount(fatBlocks);
+        header.setBATArray(batArray);
+        header.setXBATCount(xfatBlocks);
+        header.setXBATStart(xfatBlocks > 0 ? xfatStart : POIFSConstants.END_OF_CHAIN);
+        header.setPropertyStart(propertyStart);
+        header.setSBATStart(miniFatBlocks > 0 ? miniFatStart : POIFSConstants.END_OF_CHAIN);
+        header.setSBATBlockCount(miniFatBlocks);
+        header.writeData(out);
+    }
+
+    private static void writeContent(OutputStream out, Document doc, int blockSize) throws IOException {
+        if (doc.size == 0) {
+            return;
+        }
+        SizeCheckingOutputStream dos = new SizeCheckingOutputStream(out, doc);
+        doc.writer.write(dos);
+        dos.finish();
+        pad(out, doc.size, blockSize);
+    }
+
+    private void writeProperties(OutputStream out, int miniStreamStart, int miniBlockCount, int propertyBlocks)
+    throws IOException {
+        PropertyTable table = new PropertyTable(new HeaderBlock(BIG_BLOCK_SIZE));
+        RootProperty root = table.getRoot();
+        root.setStartBlock(miniStreamStart);
+        root.setSize(miniBlockCount);
+        List<DocumentProperty> properties = new ArrayList<>();
+        for (Document doc : documents) {
+            DocumentProperty property = new DocumentProperty(doc.name, doc.size);
+            property.setStartBlock(doc.startBlock);
+            table.addProperty(property);
+            root.addChild(property);
+            properties.add(property);
+        }
+        table.preWrite();
+
+        root.writeData(out);
+        for (DocumentProperty property : properties) {
+            property.writeData(out);
+        }
+        // unused properties have no siblings or children
+        byte[] unused = new byte[POIFSConstants.PROPERTY_SIZE];
+        LittleEndian.putInt(unused, 0x44, -1);
+        LittleEndian.putInt(unused, 0x48, -1);
+        LittleEndian.putInt(unused, 0x4C, -1);
+        for (int i = properties.size() + 1; i < propertyBlocks * PROPERTIES_PER_BLOCK; i++) {
+            out.write(unused);
+        }
+    }
+
+    private static void pad(OutputStream out, long size, int blockSize) throws IOException {
+        int remainder = (int)(size % blockSize);
+        if (remainder > 0) {
+            out.write(new byte[blockSize - remainder]);
+        }
+    }
+
+    private static int blocks(long size, int blockSize) {
+        return Math.toIntExact((size + blockSize - 1) / blockSize);
+    }
+}
@@ -35,14 +35,22 @@ import org.apache.poi.util.IOUtils;
 
 /**
  * A POIFS {@link DataSource} backed by a File
+ * <p>
+ * In the read-only mapped mode, the file is memory mapped in regions of 1 GiB, which are
+ * mapped once on first access. Reads are then answered with slices of the mapped regions,
+ * so no data is copied to the heap.
  */
 public class FileBackedDataSource extends DataSource implements Closeable {
     private static final Logger LOG = PoiLogManager.getLogger(FileBackedDataSource.class);
 
+    /** the size of the regions of the mapped mode, a multiple of all block sizes */
+    private static final int REGION_SIZE = 1 << 30;
+
     private final FileChannel channel;
     private Long channelSize;
 
     private final boolean writable;
+    private final boolean mapped;
     private final boolean closeChannelOnClose;
     // remember file base, which needs to be closed too
     private final RandomAccessFile srcFile;
@@ -53,6 +61,9 @@ public class FileBackedDataSource extends DataSource implements Closeable {
     // See https://bz.apache.org/bugzilla/show_bug.cgi?id=58480,
     private final IdentityHashMap<ByteBuffer,ByteBuffer> buffersToClean = new IdentityHashMap<>();
 
+    // the mapped regions of the read-only mapped mode, which are also part of buffersToClean
+    private ByteBuffer[] regions;
+
     public FileBackedDataSource(File file) throws FileNotFoundException {
         this(newSrcFile(file, "r"), true);
     }
@@ -61,8 +72,18 @@ public class FileBackedDataSource extends DataSource implements Closeable {
         this(newSrcFile(file, readOnly ? "r" : "rw"), readOnly);
     }
 
+    /**
+     * @param file the file to read or read/write
+     * @param readOnly whether the file is only read
+     * @param mapped whether a read-only file is memory mapped as a whole, instead of being read block by block
+     * @since POI 5.4.0
+     */
+    public FileBackedDataSource(File file, boolean readOnly, boolean mapped) throws FileNotFoundException {
+        this(newSrcFile(file, readOnly ? "r" : "rw"), null, readOnly, mapped, false);
+    }
+
     public FileBackedDataSource(RandomAccessFile srcFile, boolean readOnly) {
-        this(srcFile, srcFile.getChannel(), readOnly, false);
+        this(srcFile, srcFile.getChannel(), readOnly, false, false);
     }
 
     public FileBackedDataSource(FileChannel channel, boolean readOnly) {
@@ -73,13 +94,26 @@ public class FileBackedDataSource extends DataSource implements Closeable {
      * @since POI 5.1.0
      */
     public FileBackedDataSource(FileChannel channel, boolean readOnly, boolean closeChannelOnClose) {
-        this(null, channel, readOnly, closeChannelOnClose);
+        this(null, channel, readOnly, false, closeChannelOnClose);
     }
 
-    private FileBackedDataSource(RandomAccessFile srcFile, FileChannel channel, boolean readOnly, boolean closeChannelOnClose) {
+    /**
+     * @param channel the channel to read or read/write
+     * @param readOnly whether the channel is only read
+     * @param mapped whether a read-only channel is memory mapped as a whole, instead of being read block by block
+     * @param closeChannelOnClose whether the channel is closed, when this data source is closed
+     * @since POI 5.4.0
+     */
+    public FileBackedDataSource(FileChannel channel, boolean readOnly, boolean mapped, boolean closeChannelOnClose) {
+        this(null, channel, readOnly, mapped, closeChannelOnClose);
+    }
+
+    private FileBackedDataSource(RandomAccessFile srcFile, FileChannel channel, boolean readOnly, boolean mapped,
+                                 boolean closeChannelOnClose) {
         this.srcFile = srcFile;
-        this.channel = channel;
+        this.channel = (channel != null) ? channel : srcFile.getChannel();
         this.writable = !readOnly;
+        this.mapped = readOnly && mapped;
         this.closeChannelOnClose = closeChannelOnClose;
     }
 
@@ -92,6 +126,15 @@ public class FileBackedDataSource extends DataSource implements Closeable {
         return this.channel;
     }
 
+    /**
+     * @return {@code true} if the file is read-only and memory mapped as a whole,
+     *  so the buffers returned by {@link #read(int, long)} share the mapped memory
+     * @since POI 5.4.0
+     */
+    public boolean isMapped() {
+        return this.mapped;
+    }
+
     @Override
     public ByteBuffer read(int length, long position) throws IOException {
         if (position >= size()) {
@@ -105,7 +148,9 @@ public class FileBackedDataSource extends DataSource implements Closeable {
 
         // Do we read or map (for read/write)?
         ByteBuffer dst;
-        if (writable) {
+        if (mapped && (dst = readMapped(length, position)) != null) {
+            return dst;
+        } else if (writable) {
             dst = channel.map(FileChannel.MapMode.READ_WRITE, position, length);
 
             // remember this buffer for cleanup
@@ -130,6 +175,36 @@ public class FileBackedDataSource extends DataSource implements Closeable {
         return dst;
     }
 
+    /**
+     * Returns a slice of the mapped region, which contains the requested range
+     *
+     * @return the slice or {@code null}, if the range is not within a single region of the file
+     */
+    private ByteBuffer readMapped(int length, long position) throws IOException {
+        long fileSize = size();
+        int regionIndex = (int)(position / REGION_SIZE);
+        int regionOffset = (int)(position % REGION_SIZE);
+        if (position + length > fileSize || regionOffset + (long)length > REGION_SIZE) {
+            return null;
+        }
+
+        if (regions == null) {
+            regions = new ByteBuffer[(int)((fileSize + REGION_SIZE - 1) / REGION_SIZE)];
+        }
+        ByteBuffer region = regions[regionIndex];
+        if (region == null) {
+            long regionStart = (long)regionIndex * REGION_SIZE;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, Math.min(REGION_SIZE, fileSize - regionStart));
+            buffersToClean.put(region, region);
+            regions[regionIndex] = region;
+        }
+
+        ByteBuffer dst = region.duplicate();
+        dst.position(regionOffset);
+        dst.limit(regionOffset + length);
+        return dst.slice();
+    }
+
     @Override
     public void write(ByteBuffer src, long position) throws IOException {
         channel.write(src, position);
@@ -160,6 +235,10 @@ public class FileBackedDataSource extends DataSource implements Closeable {
         return channelSize;
     }
 
+    /**
+     * Unmaps a buffer, which was returned by {@link #read(int, long)} for a writable file.
+     * Slices of the mapped regions of a read-only file are not unmapped before {@link #close()}.
+     */
     public void releaseBuffer(ByteBuffer buffer) {
         ByteBuffer previous = buffersToClean.remove(buffer);
         if (previous != null) {
@@ -173,6 +252,7 @@ public class FileBackedDataSource extends DataSource implements Closeable {
         // We consider it a bug if a Buffer is still in use now!
         buffersToClean.forEach((k,v) -> unmap(v));
         buffersToClean.clear();
+        regions = null;
 
         if (srcFile != null) {
             // see http://bugs.java.com/bugdatabase/view_bug.do?bug_id=4796385
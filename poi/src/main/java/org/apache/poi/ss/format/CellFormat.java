@@ -21,8 +21,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.WeakHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,6 +28,7 @@ import javax.swing.JLabel;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
+import org.apache.poi.ss.format.CellFormatter.CacheKey;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.ConditionalFormatting;
@@ -37,6 +36,7 @@ import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.util.DateFormatConverter;
+import org.apache.poi.util.BoundedCache;
 import org.apache.poi.util.LocaleUtil;
 
 /**
@@ -123,17 +123,22 @@ public class CellFormat {
 
     private static CellFormat createGeneralFormat(final Locale locale) {
         return new CellFormat(locale, "General") {
+            private final CellGeneralFormatter formatter = new CellGeneralFormatter(locale);
+
             @Override
             public CellFormatResult apply(Object value) {
-                String text = (new CellGeneralFormatter(locale)).format(value);
+                String text = formatter.format(value);
                 return new CellFormatResult(true, text, null);
             }
         };
     }
 
+    /** The maximum number of cached formats, the least recently used ones are dropped. */
+    private static final int MAX_CACHED_FORMATS = 1000;
+
     /** Maps a format string to its parsed version for efficiencies sake. */
-    private static final Map<Locale, Map<String, CellFormat>> formatCache =
-            new WeakHashMap<>();
+    private static final BoundedCache<CacheKey, CellFormat> formatCache =
+            new BoundedCache<>(MAX_CACHED_FORMATS);
 
     /**
      * Returns a CellFormat that applies the given format.  Two calls
@@ -150,23 +155,36 @@ public class CellFormat {
     /**
      * Returns a CellFormat that applies the given format.  Two calls
      * with the same format may or may not return the same object.
+     * <p>
+     * The parsed formats are kept in a bounded cache, which can be used
+     * concurrently, see {@link #getFormatCache()}.
      *
      * @param locale The locale.
      * @param format The format.
      *
      * @return A CellFormat that applies the given format.
      */
-    public static synchronized CellFormat getInstance(Locale locale, String format) {
-        Map<String, CellFormat> formatMap = formatCache.computeIfAbsent(locale, k -> new WeakHashMap<>());
-        CellFormat fmt = formatMap.get(format);
-        if (fmt == null) {
+    public static CellFormat getInstance(Locale locale, String format) {
+        return formatCache.get(new CacheKey(null, locale, format), k -> {
             if (format.equals("General") || format.equals("@"))
-                fmt = createGeneralFormat(locale);
+                return createGeneralFormat(locale);
             else
-                fmt = new CellFormat(locale, format);
-            formatMap.put(format, fmt);
-        }
-        return fmt;
+                return new CellFormat(locale, format);
+        });
+    }
+
+    /**
+     * Returns the cache of the parsed formats, e.g. to monitor its hit rate.
+     * The parsed parts of the formats and their formatters are cached as well,
+     * see {@link CellFormatPart#getPartCache()} and
+     * {@link CellFormatter#getFormatterCache()}.
+     *
+     * @return The cache of the parsed formats.
+     *
+     * @since POI 5.4.0
+     */
+    public static BoundedCache<?, CellFormat> getFormatCache() {
+        return formatCache;
     }
 
     /**
@@ -177,7 +195,7 @@ public class CellFormat {
     private CellFormat(Locale locale, String format) {
         this.locale = locale;
         this.format = format;
-        CellFormatPart defaultTextFormat = new CellFormatPart(locale, "@");
+        CellFormatPart defaultTextFormat = CellFormatPart.getInstance(locale, "@");
         Matcher m = ONE_PART.matcher(format);
         List<CellFormatPart> parts = new ArrayList<>();
 
@@ -190,7 +208,7 @@ public class CellFormat {
                     if (valueDesc.endsWith(";"))
                         valueDesc = valueDesc.substring(0, valueDesc.length() - 1);
 
-                    parts.add(new CellFormatPart(locale, valueDesc));
+                    parts.add(CellFormatPart.getInstance(locale, valueDesc));
                 } catch (RuntimeException e) {
                     LOG.warn("Invalid format: {}", CellFormatter.quote(m.group()), e);
                     parts.add(null);
@@ -409,7 +427,7 @@ public class CellFormat {
                         || (posNumFmt.hasCondition() && posNumFmt.applies(val))) {
                     return posNumFmt;
                 } else {
-                    return new CellFormatPart(locale, "General");
+                    return CellFormatPart.getInstance(locale, "General");
                 }
             } else if (formatPartCount == 2) {
                 if ((!posNumFmt.hasCondition() && val >= 0)
@@ -420,7 +438,7 @@ public class CellFormat {
                     return negNumFmt;
                 } else {
                     // Return ###...### (255 #s) to match Excel 2007 behaviour
-                    return new CellFormatPart(QUOTE + INVALID_VALUE_FOR_FORMAT + QUOTE);
+                    return CellFormatPart.getInstance(locale, QUOTE + INVALID_VALUE_FOR_FORMAT + QUOTE);
                 }
             } else {
                 if ((!posNumFmt.hasCondition() && val > 0)
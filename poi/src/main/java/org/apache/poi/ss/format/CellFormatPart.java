@@ -19,6 +19,8 @@ package org.apache.poi.ss.format;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
 import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.ss.format.CellFormatter.CacheKey;
+import org.apache.poi.util.BoundedCache;
 import org.apache.poi.util.CodepointsUtil;
 import org.apache.poi.util.LocaleUtil;
 
@@ -51,6 +53,12 @@ public class CellFormatPart {
 
     static final Map<String, Color> NAMED_COLORS;
 
+    /** The maximum number of cached parts, the least recently used ones are dropped. */
+    private static final int MAX_CACHED_PARTS = 1000;
+
+    private static final BoundedCache<CacheKey, CellFormatPart> partCache =
+            new BoundedCache<>(MAX_CACHED_PARTS);
+
     private final Color color;
     private final CellFormatCondition condition;
     private final CellFormatter format;
@@ -193,6 +201,31 @@ public class CellFormatPart {
         format = getFormatter(locale, m);
     }
 
+    /**
+     * Returns a shared object to represent a format part. Parts are immutable,
+     * so they are cached and reused.
+     *
+     * @param locale The locale to use.
+     * @param desc The string to parse.
+     *
+     * @return The format part.
+     */
+    static CellFormatPart getInstance(Locale locale, String desc) {
+        return partCache.get(new CacheKey(null, locale, desc), k -> new CellFormatPart(locale, desc));
+    }
+
+    /**
+     * Returns the cache of the format parts which are shared by the
+     * {@link CellFormat}s, e.g. to monitor its hit rate.
+     *
+     * @return The cache of the format parts.
+     *
+     * @since POI 5.4.0
+     */
+    public static BoundedCache<?, CellFormatPart> getPartCache() {
+        return partCache;
+    }
+
     /**
      * Returns {@code true} if this format part applies to the given value. If
      * the value is a number and this is part has a condition, returns
@@ -317,8 +350,8 @@ public class CellFormatPart {
             fdesc = fdesc.replace(currencyPart, currencyRepl);
         }
 
-        // Build a formatter for this simplified string
-        return type.formatter(locale, fdesc);
+        // Get a formatter for this simplified string
+        return CellFormatter.getInstance(type, locale, fdesc);
     }
 
     /**
@@ -17,13 +17,50 @@
 package org.apache.poi.ss.format;
 
 import java.util.Locale;
+import java.util.Objects;
 
+import org.apache.poi.util.BoundedCache;
 import org.apache.poi.util.LocaleUtil;
 
 /**
  * This is the abstract supertype for the various cell formatters.
  */
 public abstract class CellFormatter {
+    /** The maximum number of cached formatters, the least recently used ones are dropped. */
+    private static final int MAX_CACHED_FORMATTERS = 1000;
+
+    private static final BoundedCache<CacheKey, CellFormatter> formatterCache =
+            new BoundedCache<>(MAX_CACHED_FORMATTERS);
+
+    /**
+     * The key of the format caches: the type of the cached object, the locale and the format.
+     */
+    static final class CacheKey {
+        private final CellFormatType type;
+        private final Locale locale;
+        private final String format;
+
+        CacheKey(CellFormatType type, Locale locale, String format) {
+            this.type = type;
+            this.locale = locale;
+            this.format = format;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, locale, format);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return type == other.type && locale.equals(other.locale) && format.equals(other.format);
+        }
+    }
+
     /** The original specified format. */
     protected final String format;
     protected final Locale locale;
@@ -100,6 +137,33 @@ public abstract class CellFormatter {
         return sb.toString();
     }
 
+    /**
+     * Returns a shared formatter of the given type for the format. Formatters
+     * are thread safe, so they are cached and reused.
+     *
+     * @param type   The type of the format.
+     * @param locale The locale.
+     * @param format The format.
+     *
+     * @return The formatter.
+     */
+    static CellFormatter getInstance(CellFormatType type, Locale locale, String format) {
+        return formatterCache.get(new CacheKey(type, locale, format),
+                k -> type.formatter(locale, format));
+    }
+
+    /**
+     * Returns the cache of the formatters which are shared by the
+     * {@link CellFormatPart}s, e.g. to monitor its hit rate.
+     *
+     * @return The cache of the formatters.
+     *
+     * @since POI 5.4.0
+     */
+    public static BoundedCache<?, CellFormatter> getFormatterCache() {
+        return formatterCache;
+    }
+
     /**
      * Returns the input string, surrounded by quotes.
      *
@@ -89,8 +89,8 @@ public class CellNumberFormatter extends CellFormatter {
             CellFormatter cf;
             if (value instanceof Number) {
                 Number num = (Number) value;
-                cf = (num.doubleValue() % 1.0 == 0) ? new CellNumberFormatter(locale, "#") :
-                    new CellNumberFormatter(locale, "#.#");
+                cf = (num.doubleValue() % 1.0 == 0) ? CellFormatter.getInstance(CellFormatType.NUMBER, locale, "#") :
+                    CellFormatter.getInstance(CellFormatType.NUMBER, locale, "#.#");
             } else {
                 cf = CellTextFormatter.SIMPLE_TEXT;
             }
@@ -563,7 +563,10 @@ public class CellNumberFormatter extends CellFormatter {
 
         StringBuffer result = new StringBuffer();
         FieldPosition fractionPos = new FieldPosition(NumberFormat.FRACTION_FIELD);
-        decimalFmt.format(value, result, fractionPos);
+        // DecimalFormat is not thread safe, but this formatter is shared
+        synchronized (decimalFmt) {
+            decimalFmt.format(value, result, fractionPos);
+        }
         writeInteger(result, output, integerSpecials, mods, showGroupingSeparator);
         writeFractional(result, output);
 
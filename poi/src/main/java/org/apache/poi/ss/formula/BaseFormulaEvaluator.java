@@ -17,7 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
@@ -27,6 +30,7 @@ import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.ConcurrentTasks;
 
 /**
  * Common functionality across file formats for evaluating formula cells.
@@ -187,6 +191,31 @@ public abstract class BaseFormulaEvaluator implements FormulaEvaluator, Workbook
         return cv.getCellType();
     }
 
+    /**
+     * Evaluates the formula cells which depend on cells changed since the last evaluation
+     * and saves the results in the cells, like {@link #evaluateFormulaCell(Cell)}.
+     * <p>
+     * The changes have to be announced with {@link #notifyUpdateCell(Cell)},
+     * {@link #notifySetFormula(Cell)} or {@link #notifyDeleteCell(Cell)}. Only the transitive
+     * dependents of the changed cells are evaluated, in contrast to {@link #evaluateAll()}
+     * which evaluates all formula cells.
+     *
+     * @return the number of evaluated formula cells
+     * @since POI 5.4.0
+     */
+    public int recalculateDirty() {
+        List<EvaluationCell> cells = _bookEvaluator.recalculateDirty();
+        for (EvaluationCell ec : cells) {
+            // the evaluation cells of all implementations use the cell as identity key
+            Object cell = ec.getIdentityKey();
+            if (cell instanceof Cell) {
+                // the result is taken from the evaluation cache
+                evaluateFormulaCell((Cell)cell);
+            }
+        }
+        return cells.size();
+    }
+
     /**
      * Set the cell type based on the computed cell type as
      * part of a formula evaluation.
@@ -281,6 +310,55 @@ public abstract class BaseFormulaEvaluator implements FormulaEvaluator, Workbook
         }
     }
 
+    /**
+     * Evaluates all formula cells like {@link #evaluateAllFormulaCells(Workbook)}, but concurrently.
+     * <p>
+     * The sheets are split into groups, whose formulas don't refer to the sheets of other groups.
+     * Each group is evaluated by its own formula evaluator on the executor, e.g. a
+     * {@link java.util.concurrent.ForkJoinPool}, so only workbooks with independent sheets benefit.
+     * The references are determined by parsing the formulas, which is done concurrently per sheet, too.
+     * <p>
+     * The workbook must not be modified during the evaluation. User defined functions must not
+     * access cells, which are not passed as arguments.
+     *
+     * @param wb the workbook
+     * @param executor runs the analysis and evaluation tasks
+     * @since POI 5.4.0
+     */
+    public static void evaluateAllFormulaCellsConcurrently(Workbook wb, Executor executor) {
+        int nSheets = wb.getNumberOfSheets();
+        // the evaluators and their caches are confined to one task each
+        List<BitSet> referencedSheets;
+        try (ConcurrentTasks<BitSet> analysisTasks = new ConcurrentTasks<>(executor)) {
+            for (int i = 0; i < nSheets; i++) {
+                BaseFormulaEvaluator evaluator = (BaseFormulaEvaluator)wb.getCreationHelper().createFormulaEvaluator();
+                SheetDependencies dependencies = new SheetDependencies(evaluator.getEvaluationWorkbook());
+                int sheetIndex = i;
+                Sheet sheet = wb.getSheetAt(i);
+                analysisTasks.submit(() -> dependencies.getReferencedSheets(sheetIndex, sheet));
+            }
+            referencedSheets = analysisTasks.joinAll();
+        }
+
+        try (ConcurrentTasks<Void> evaluationTasks = new ConcurrentTasks<>(executor)) {
+            for (int[] group : SheetDependencies.getIndependentGroups(referencedSheets)) {
+                FormulaEvaluator evaluator = wb.getCreationHelper().createFormulaEvaluator();
+                evaluationTasks.run(() -> {
+                    for (int sheetIndex : group) {
+                        for (Row r : wb.getSheetAt(sheetIndex)) {
+                            for (Cell c : r) {
+                                if (c.getCellType() == CellType.FORMULA) {
+                                    evaluator.evaluateFormulaCell(c);
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+            evaluationTasks.joinAll();
+        }
+    }
+
     @Override
     public void setIgnoreMissingWorkbooks(boolean ignore){
         _bookEvaluator.setIgnoreMissingWorkbooks(ignore);
@@ -0,0 +1,521 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.apache.poi.ss.formula.eval.AreaEval;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.EvaluationException;
+import org.apache.poi.ss.formula.eval.FunctionEval;
+import org.apache.poi.ss.formula.eval.MissingArgEval;
+import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.OperandResolver;
+import org.apache.poi.ss.formula.eval.RefListEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.TwoOperandNumericOperation;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.functions.ArrayMode;
+import org.apache.poi.ss.formula.functions.IfFunc;
+import org.apache.poi.ss.formula.ptg.AddPtg;
+import org.apache.poi.ss.formula.ptg.AttrPtg;
+import org.apache.poi.ss.formula.ptg.BoolPtg;
+import org.apache.poi.ss.formula.ptg.ControlPtg;
+import org.apache.poi.ss.formula.ptg.DividePtg;
+import org.apache.poi.ss.formula.ptg.ErrPtg;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.FuncVarPtg;
+import org.apache.poi.ss.formula.ptg.IntPtg;
+import org.apache.poi.ss.formula.ptg.MemAreaPtg;
+import org.apache.poi.ss.formula.ptg.MemErrPtg;
+import org.apache.poi.ss.formula.ptg.MemFuncPtg;
+import org.apache.poi.ss.formula.ptg.MissingArgPtg;
+import org.apache.poi.ss.formula.ptg.MultiplyPtg;
+import org.apache.poi.ss.formula.ptg.NumberPtg;
+import org.apache.poi.ss.formula.ptg.OperationPtg;
+import org.apache.poi.ss.formula.ptg.PowerPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Ref3DPtg;
+import org.apache.poi.ss.formula.ptg.Ref3DPxg;
+import org.apache.poi.ss.formula.ptg.RefPtg;
+import org.apache.poi.ss.formula.ptg.StringPtg;
+import org.apache.poi.ss.formula.ptg.SubtractPtg;
+import org.apache.poi.ss.formula.ptg.TblPtg;
+import org.apache.poi.ss.formula.ptg.UnaryMinusPtg;
+import org.apache.poi.ss.formula.ptg.UnionPtg;
+import org.apache.poi.ss.formula.ptg.UnknownPtg;
+
+/**
+ * A formula whose tokens were linked into a tree of nodes, which is evaluated without
+ * re-parsing the formula, without an operand stack and without the per-token dispatch of
+ * {@link WorkbookEvaluator#evaluateFormula(OperationEvaluationContext, Ptg[])}.
+ * <p>
+ * The tree yields the same results as the interpreter: functions and operators are invoked
+ * through {@link OperationEvaluatorFactory}, optimized {@code IF}s only evaluate the chosen branch
+ * and the array mode of an operation is determined in the same way, but once at compile time.
+ * Chains of arithmetic operators on numbers and single cell references are evaluated on
+ * unboxed doubles, only the outermost operator allocates a {@link NumberEval}.
+ * <p>
+ * Formulas with tokens that the tree doesn't support, e.g. optimized {@code CHOOSE}s,
+ * and the cells of array formulas are not compiled and left to the interpreter.
+ */
+final class CompiledFormula {
+
+    /** marks a formula which can't be compiled */
+    static final CompiledFormula NOT_COMPILABLE = new CompiledFormula(null);
+
+    private final Node _root;
+
+    private CompiledFormula(Node root) {
+        _root = root;
+    }
+
+    boolean isCompiled() {
+        return _root != null;
+    }
+
+    /**
+     * @return the result of the formula, dereferenced like
+     * {@link WorkbookEvaluator#evaluateFormula(OperationEvaluationContext, Ptg[])} does
+     */
+    ValueEval evaluate(OperationEvaluationContext ec) {
+        ValueEval value = _root.evaluate(ec);
+        return ec.isSingleValue() ? WorkbookEvaluator.dereferenceResult(value, ec) : value;
+    }
+
+    /**
+     * @param evaluator evaluates the operand tokens
+     * @param ptgs the tokens of the formula in RPN order
+     * @param cell the formula cell
+     * @return the compiled formula or {@link #NOT_COMPILABLE}
+     */
+    static CompiledFormula compile(WorkbookEvaluator evaluator, Ptg[] ptgs, EvaluationCell cell) {
+        if (cell.isPartOfArrayFormulaGroup()) {
+            // the interpreter evaluates both branches of IF and the array arguments relative to the group
+            return NOT_COMPILABLE;
+        }
+        Node root = new Compiler(evaluator, ptgs).compile();
+        return root == null ? NOT_COMPILABLE : new CompiledFormula(root);
+    }
+
+    private static final class Compiler {
+        private final WorkbookEvaluator _evaluator;
+        private final Ptg[] _ptgs;
+        private final Deque<Node> _stack = new ArrayDeque<>();
+        /** the condition nodes of optimized IFs */
+        private final Set<Node> _ifConditions = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int _optimizedIfs;
+        private int _compiledIfs;
+        private int _skips;
+        private int _expectedSkips;
+
+        Compiler(WorkbookEvaluator evaluator, Ptg[] ptgs) {
+            _evaluator = evaluator;
+            _ptgs = ptgs;
+        }
+
+        /**
+         * @return the root node, {@code null} if the formula can't be compiled
+         */
+        Node compile() {
+            for (int i = 0; i < _ptgs.length; i++) {
+                Ptg ptg = _ptgs[i];
+                if (ptg instanceof AttrPtg) {
+                    AttrPtg attrPtg = (AttrPtg) ptg;
+                    if (attrPtg.isOptimizedChoose()) {
+                        return null;
+                    }
+                    if (attrPtg.isOptimizedIf()) {
+                        if (_stack.isEmpty()) {
+                            return null;
+                        }
+                        _ifConditions.add(_stack.peek());
+                        _optimizedIfs++;
+                        continue;
+                    }
+                    if (attrPtg.isSkip()) {
+                        _skips++;
+                        continue;
+                    }
+                    if (attrPtg.isSum()) {
+                        // see WorkbookEvaluator.evaluateFormula
+                        ptg = FuncVarPtg.SUM;
+                    }
+                }
+                if (ptg instanceof ControlPtg || ptg instanceof MemFuncPtg
+                    || ptg instanceof MemAreaPtg || ptg instanceof MemErrPtg) {
+                    continue;
+                }
+                if (ptg instanceof ExpPtg || ptg instanceof TblPtg || ptg instanceof UnknownPtg) {
+                    return null;
+                }
+
+                Node node;
+                if (ptg instanceof UnionPtg) {
+                    if (_stack.size() < 2) {
+                        return null;
+                    }
+                    Node right = _stack.pop();
+                    node = new UnionNode(_stack.pop(), right);
+                } else if (ptg instanceof OperationPtg) {
+                    node = createOperation((OperationPtg) ptg, i);
+                    if (node == null) {
+                        return null;
+                    }
+                } else {
+                    node = createOperand(ptg);
+                }
+                _stack.push(node);
+            }
+            if (_stack.size() != 1 || _optimizedIfs != _compiledIfs || _skips != _expectedSkips) {
+                return null;
+            }
+            return _stack.pop();
+        }
+
+        private Node createOperation(OperationPtg ptg, int index) {
+            int numOps = ptg.getNumberOfOperands();
+            if (_stack.size() < numOps) {
+                return null;
+            }
+            Node[] ops = new Node[numOps];
+            for (int j = numOps - 1; j >= 0; j--) {
+                ops[j] = _stack.pop();
+            }
+
+            if (ptg instanceof FuncVarPtg && ((FuncVarPtg) ptg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_IF
+                && numOps >= 2 && _ifConditions.contains(ops[0])) {
+                _compiledIfs++;
+                _expectedSkips += numOps - 1;
+                return new IfNode(ops[0], ops[1], numOps > 2 ? ops[2] : null);
+            }
+
+            if (numOps == 2 && isNumeric(ops[0]) && isNumeric(ops[1])) {
+                TwoOperandNumericOperation func = getNumericOperation(ptg);
+                if (func != null) {
+                    return new NumericOperationNode(func, ops[0], ops[1]);
+                }
+            }
+            if (ptg == UnaryMinusPtg.instance && isNumeric(ops[0])) {
+                return new UnaryMinusNode(ops[0]);
+            }
+
+            return new OperationNode(ptg, ops, isArrayModeFunction(index));
+        }
+
+        private static TwoOperandNumericOperation getNumericOperation(OperationPtg ptg) {
+            // see OperationEvaluatorFactory
+            if (ptg == AddPtg.instance) {
+                return (TwoOperandNumericOperation) TwoOperandNumericOperation.AddEval;
+            }
+            if (ptg == SubtractPtg.instance) {
+                return (TwoOperandNumericOperation) TwoOperandNumericOperation.SubtractEval;
+            }
+            if (ptg == MultiplyPtg.instance) {
+                return (TwoOperandNumericOperation) TwoOperandNumericOperation.MultiplyEval;
+            }
+            if (ptg == DividePtg.instance) {
+                return (TwoOperandNumericOperation) TwoOperandNumericOperation.DivideEval;
+            }
+            if (ptg == PowerPtg.instance) {
+                return (TwoOperandNumericOperation) TwoOperandNumericOperation.PowerEval;
+            }
+            return null;
+        }
+
+        /**
+         * Operands which never evaluate to an area, so they can be resolved to a single value
+         */
+        private static boolean isNumeric(Node node) {
+            return node instanceof NumericNode || node instanceof ConstantNode
+                || (node instanceof OperandNode && ((OperandNode) node).isCellReference());
+        }
+
+        /**
+         * Determines the array mode like {@link WorkbookEvaluator#evaluateFormula(OperationEvaluationContext, Ptg[])}:
+         * by the next variable argument function of the formula
+         */
+        private boolean isArrayModeFunction(int index) {
+            for (int i = index; i < _ptgs.length; i++) {
+                if (_ptgs[i] instanceof FuncVarPtg) {
+                    try {
+                        return FunctionEval.getBasicFunction(((FuncVarPtg) _ptgs[i]).getFunctionIndex()) instanceof ArrayMode;
+                    } catch (NotImplementedException e) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private Node createOperand(Ptg ptg) {
+            if (ptg instanceof IntPtg) {
+                return new NumberNode(((IntPtg) ptg).getValue());
+            }
+            if (ptg instanceof NumberPtg) {
+                return new NumberNode(((NumberPtg) ptg).getValue());
+            }
+            if (ptg instanceof StringPtg) {
+                return new ConstantNode(new StringEval(((StringPtg) ptg).getValue()));
+            }
+            if (ptg instanceof BoolPtg) {
+                return new ConstantNode(BoolEval.valueOf(((BoolPtg) ptg).getValue()));
+            }
+            if (ptg instanceof ErrPtg) {
+                return new ConstantNode(ErrorEval.valueOf(((ErrPtg) ptg).getErrorCode()));
+            }
+            if (ptg instanceof MissingArgPtg) {
+                return new ConstantNode(MissingArgEval.instance);
+            }
+            return new OperandNode(_evaluator, ptg);
+        }
+    }
+
+    private abstract static class Node {
+        /**
+         * @return the value of the node, never {@code null}
+         */
+        abstract ValueEval evaluate(OperationEvaluationContext ec);
+    }
+
+    /**
+     * Nodes which evaluate to a number or an error
+     */
+    private abstract static class NumericNode extends Node {
+        /**
+         * @throws EvaluationException if the result is an error
+         */
+        abstract double evaluateDouble(OperationEvaluationContext ec) throws EvaluationException;
+
+        @Override
+        final ValueEval evaluate(OperationEvaluationContext ec) {
+            try {
+                return NumberEval.valueOf(evaluateDouble(ec));
+            } catch (EvaluationException e) {
+                return e.getErrorEval();
+            }
+        }
+
+        /**
+         * Resolves an operand to a double, like {@link TwoOperandNumericOperation} does
+         */
+        static double toDouble(ValueEval value, OperationEvaluationContext ec) throws EvaluationException {
+            if (value instanceof NumberEval) {
+                return ((NumberEval) value).getNumberValue();
+            }
+            ValueEval ve = OperandResolver.getSingleValue(value, ec.getRowIndex(), ec.getColumnIndex());
+            return OperandResolver.coerceValueToDouble(ve);
+        }
+    }
+
+    private static class ConstantNode extends Node {
+        private final ValueEval _value;
+
+        ConstantNode(ValueEval value) {
+            _value = value;
+        }
+
+        @Override
+        ValueEval evaluate(OperationEvaluationContext ec) {
+            return _value;
+        }
+    }
+
+    private static final class NumberNode extends ConstantNode {
+        NumberNode(double value) {
+            super(new NumberEval(value));
+        }
+    }
+
+    private static final class OperandNode extends Node {
+        private final WorkbookEvaluator _evaluator;
+        private final Ptg _ptg;
+
+        OperandNode(WorkbookEvaluator evaluator, Ptg ptg) {
+            _evaluator = evaluator;
+            _ptg = ptg;
+        }
+
+        boolean isCellReference() {
+            return _ptg instanceof RefPtg || _ptg instanceof Ref3DPtg || _ptg instanceof Ref3DPxg;
+        }
+
+        @Override
+        ValueEval evaluate(OperationEvaluationContext ec) {
+            return _evaluator.getEvalForPtg(_ptg, ec);
+        }
+    }
+
+    private static final class OperationNode extends Node {
+        private final OperationPtg _ptg;
+        private final Node[] _operands;
+        private final boolean _arrayModeFunction;
+
+        OperationNode(OperationPtg ptg, Node[] operands, boolean arrayModeFunction) {
+            _ptg = ptg;
+            _operands = operands;
+            _arrayModeFunction = arrayModeFunction;
+        }
+
+        @Override
+        ValueEval evaluate(OperationEvaluationContext ec) {
+            ValueEval[] ops = new ValueEval[_operands.length];
+            boolean areaArg = false;
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = _operands[i].evaluate(ec);
+                if (ops[i] instanceof AreaEval) {
+                    areaArg = true;
+                }
+            }
+            ec.setArrayMode(areaArg && _arrayModeFunction);
+            ValueEval result = OperationEvaluatorFactory.evaluate(_ptg, ops, ec);
+            ec.setArrayMode(false);
+            if (result == null) {
+                throw new IllegalStateException("Evaluation result must not be null");
+            }
+            return result;
+        }
+    }
+
+    private static final class NumericOperationNode extends NumericNode {
+        private final TwoOperandNumericOperation _func;
+        private final Node _left;
+        private final Node _right;
+
+        NumericOperationNode(TwoOperandNumericOperation func, Node left, Node right) {
+            _func = func;
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        double evaluateDouble(OperationEvaluationContext ec) throws EvaluationException {
+            // like the interpreter, both operands are evaluated before either of them is resolved
+            double d0 = 0;
+            double d1 = 0;
+            ValueEval v0 = null;
+            ValueEval v1 = null;
+            EvaluationException e0 = null;
+            EvaluationException e1 = null;
+            if (_left instanceof NumericNode) {
+                try {
+                    d0 = ((NumericNode) _left).evaluateDouble(ec);
+                } catch (EvaluationException e) {
+                    e0 = e;
+                }
+            } else {
+                v0 = _left.evaluate(ec);
+            }
+            if (_right instanceof NumericNode) {
+                try {
+                    d1 = ((NumericNode) _right).evaluateDouble(ec);
+                } catch (EvaluationException e) {
+                    e1 = e;
+                }
+            } else {
+                v1 = _right.evaluate(ec);
+            }
+
+            if (e0 != null) {
+                throw e0;
+            }
+            if (v0 != null) {
+                d0 = toDouble(v0, ec);
+            }
+            if (e1 != null) {
+                throw e1;
+            }
+            if (v1 != null) {
+                d1 = toDouble(v1, ec);
+            }
+            return _func.evaluateNumbers(d0, d1);
+        }
+    }
+
+    private static final class UnaryMinusNode extends NumericNode {
+        private final Node _operand;
+
+        UnaryMinusNode(Node operand) {
+            _operand = operand;
+        }
+
+        @Override
+        double evaluateDouble(OperationEvaluationContext ec) throws EvaluationException {
+            double d = _operand instanceof NumericNode
+                ? ((NumericNode) _operand).evaluateDouble(ec)
+                : toDouble(_operand.evaluate(ec), ec);
+            // see UnaryMinusEval
+            return d == 0.0 ? 0.0 : -d;
+        }
+    }
+
+    private static final class IfNode extends Node {
+        private final Node _condition;
+        private final Node _then;
+        private final Node _else;
+
+        IfNode(Node condition, Node then, Node otherwise) {
+            _condition = condition;
+            _then = then;
+            _else = otherwise;
+        }
+
+        @Override
+        ValueEval evaluate(OperationEvaluationContext ec) {
+            boolean predicate;
+            try {
+                predicate = IfFunc.evaluateFirstArg(_condition.evaluate(ec), ec.getRowIndex(), ec.getColumnIndex());
+            } catch (EvaluationException e) {
+                return e.getErrorEval();
+            }
+            ValueEval result;
+            if (predicate) {
+                result = _then.evaluate(ec);
+            } else if (_else == null) {
+                return BoolEval.FALSE;
+            } else {
+                result = _else.evaluate(ec);
+            }
+            return result == MissingArgEval.instance ? BlankEval.instance : result;
+        }
+    }
+
+    private static final class UnionNode extends Node {
+        private final Node _left;
+        private final Node _right;
+
+        UnionNode(Node left, Node right) {
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        ValueEval evaluate(OperationEvaluationContext ec) {
+            ValueEval v1 = _left.evaluate(ec);
+            return new RefListEval(v1, _right.evaluate(ec));
+        }
+    }
+}
@@ -17,6 +17,10 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
 import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
 import org.apache.poi.ss.formula.PlainCellCache.Loc;
 import org.apache.poi.ss.formula.eval.BlankEval;
@@ -36,6 +40,9 @@ final class EvaluationCache {
 
     private final PlainCellCache _plainCellCache;
     private final FormulaCellCache _formulaCellCache;
+    /** formula cells whose cached results were cleared since their last evaluation */
+    private final Set<FormulaCellCacheEntry> _dirtyFormulaCells;
+    private final LookupIndexCache _lookupIndexCache;
     /** only used for testing. <code>null</code> otherwise */
     final IEvaluationListener _evaluationListener;
 
@@ -43,6 +50,8 @@ final class EvaluationCache {
         _evaluationListener = evaluationListener;
         _plainCellCache = new PlainCellCache();
         _formulaCellCache = new FormulaCellCache();
+        _dirtyFormulaCells = new LinkedHashSet<>();
+        _lookupIndexCache = new LookupIndexCache();
     }
 
     public void notifyUpdateCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
@@ -55,7 +64,8 @@ final class EvaluationCache {
 
         if (cell.getCellType() == CellType.FORMULA) {
             if (fcce == null) {
-                fcce = new FormulaCellCacheEntry();
+                fcce = new FormulaCellCacheEntry(cell, _dirtyFormulaCells);
+                fcce.markDirty();
                 if (pcce == null) {
                     if (_evaluationListener != null) {
                         _evaluationListener.onChangeFromBlankValue(sheetIndex, rowIndex,
@@ -68,6 +78,8 @@ final class EvaluationCache {
             } else {
                 fcce.recurseClearCachedFormulaResults(_evaluationListener);
                 fcce.clearFormulaEntry();
+                fcce.clearCompiledFormula();
+                fcce.markDirty();
             }
             if (pcce == null) {
                 // was formula cell before - no change of type
@@ -108,6 +120,7 @@ final class EvaluationCache {
                 _formulaCellCache.remove(cell);
                 fcce.setSensitiveInputCells(null);
                 fcce.recurseClearCachedFormulaResults(_evaluationListener);
+                fcce.clearDirty();
             }
         }
     }
@@ -116,6 +129,15 @@ final class EvaluationCache {
             final int rowIndex, final int columnIndex) {
         final BookSheetKey bsk = new BookSheetKey(bookIndex, sheetIndex);
         _formulaCellCache.applyOperation(entry -> entry.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener));
+        _lookupIndexCache.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, _evaluationListener);
+    }
+
+    /**
+     * @return the cached index of a cell range, see {@link LookupIndexCache#getIndex}
+     */
+    public <T> T getIndex(Class<T> indexClass, int bookIndex, int sheetIndex, int firstRow, int firstColumn,
+            int lastRow, int lastColumn, Supplier<T> builder, EvaluationTracker tracker) {
+        return _lookupIndexCache.getIndex(indexClass, bookIndex, sheetIndex, firstRow, firstColumn, lastRow, lastColumn, builder, tracker);
     }
 
     public PlainValueCellCacheEntry getPlainValueEntry(int bookIndex, int sheetIndex,
@@ -171,7 +193,7 @@ final class EvaluationCache {
         FormulaCellCacheEntry result = _formulaCellCache.get(cell);
         if (result == null) {
 
-            result = new FormulaCellCacheEntry();
+            result = new FormulaCellCacheEntry(cell, _dirtyFormulaCells);
             _formulaCellCache.put(cell, result);
         }
         return result;
@@ -186,6 +208,16 @@ final class EvaluationCache {
         }
         _plainCellCache.clear();
         _formulaCellCache.clear();
+        _dirtyFormulaCells.clear();
+        _lookupIndexCache.clear();
+    }
+
+    /**
+     * @return the formula cells whose cached results were cleared by the notify~ methods
+     * since their last evaluation, in the order they were cleared
+     */
+    public FormulaCellCacheEntry[] getDirtyFormulaCells() {
+        return _dirtyFormulaCells.toArray(new FormulaCellCacheEntry[0]);
     }
     public void notifyDeleteCell(int bookIndex, int sheetIndex, EvaluationCell cell) {
 
@@ -196,6 +228,7 @@ final class EvaluationCache {
             } else {
                 fcce.setSensitiveInputCells(null);
                 fcce.recurseClearCachedFormulaResults(_evaluationListener);
+                fcce.clearDirty();
             }
         } else {
             Loc loc = new Loc(bookIndex, sheetIndex, cell.getRowIndex(), cell.getColumnIndex());
@@ -40,8 +40,82 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
 
     private FormulaUsedBlankCellSet _usedBlankCellGroup;
 
+    /** the formula cell of this entry, {@code null} if dirty cells are not tracked */
+    private final EvaluationCell _cell;
+
+    /**
+     * Entries whose cached result was cleared since their last evaluation,
+     * {@code null} if dirty cells are not tracked
+     */
+    private final Set<FormulaCellCacheEntry> _dirtyCells;
+
+    /** the compiled formula, {@code null} if it wasn't compiled yet */
+    private CompiledFormula _compiledFormula;
+
+    private int _evaluationCount;
+
     public FormulaCellCacheEntry() {
-        // leave fields un-set
+        this(null, null);
+    }
+
+    public FormulaCellCacheEntry(EvaluationCell cell, Set<FormulaCellCacheEntry> dirtyCells) {
+        _cell = cell;
+        _dirtyCells = dirtyCells;
+    }
+
+    /**
+     * @return the formula cell of this entry or {@code null} if dirty cells are not tracked
+     */
+    public EvaluationCell getCell() {
+        return _cell;
+    }
+
+    public CompiledFormula getCompiledFormula() {
+        return _compiledFormula;
+    }
+
+    public void setCompiledFormula(CompiledFormula compiledFormula) {
+        _compiledFormula = compiledFormula;
+    }
+
+    /**
+     * @return the number of evaluations of the current formula, including this one
+     */
+    public int incrementEvaluationCount() {
+        return ++_evaluationCount;
+    }
+
+    /**
+     * Forgets the compiled formula, because the formula of the cell was changed
+     */
+    public void clearCompiledFormula() {
+        _compiledFormula = null;
+        _evaluationCount = 0;
+    }
+
+    /**
+     * @return {@code true} if the cached result was cleared since the last evaluation
+     */
+    public boolean isDirty() {
+        return _dirtyCells != null && _dirtyCells.contains(this);
+    }
+
+    /**
+     * Tracks this entry as dirty, e.g. because the cell was changed to a formula cell
+     */
+    public void markDirty() {
+        if (_dirtyCells != null) {
+            _dirtyCells.add(this);
+        }
+    }
+
+    /**
+     * Stops tracking this entry as dirty, e.g. because the cell is no longer a formula cell
+     */
+    public void clearDirty() {
+        if (_dirtyCells != null) {
+            _dirtyCells.remove(this);
+        }
     }
     
     public boolean isInputSensitive() {
@@ -53,6 +127,21 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
         return _usedBlankCellGroup == null ? false : !_usedBlankCellGroup.isEmpty();
     }
 
+    /**
+     * @return {@code true} if a formula cell used by the last evaluation has no cached result,
+     *  i.e. it was still being evaluated because of a circular reference
+     */
+    public boolean hasUncachedInput() {
+        if (_sensitiveInputCells != null) {
+            for (CellCacheEntry input : _sensitiveInputCells) {
+                if (input.getValue() == null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public void setSensitiveInputCells(CellCacheEntry[] sensitiveInputCells) {
         // need to tell all cells that were previously used, but no longer are, 
         // that they are not consumed by this cell any more
@@ -73,6 +162,9 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
             }
         }
         _sensitiveInputCells = null;
+        if (getValue() != null) {
+            markDirty();
+        }
         clearValue();
     }
     
@@ -109,6 +201,7 @@ final class FormulaCellCacheEntry extends CellCacheEntry {
         updateValue(result);
         setSensitiveInputCells(sensitiveInputCells);
         _usedBlankCellGroup = usedBlankAreas;
+        clearDirty();
     }
 
     public void notifyUpdatedBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex, IEvaluationListener evaluationListener) {
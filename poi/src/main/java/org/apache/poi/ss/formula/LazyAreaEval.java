@@ -20,6 +20,9 @@ package org.apache.poi.ss.formula;
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.AreaEvalBase;
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CriteriaIndex;
+import org.apache.poi.ss.formula.functions.LookupIndex;
+import org.apache.poi.ss.formula.functions.LookupUtils;
 import org.apache.poi.ss.formula.ptg.AreaI;
 import org.apache.poi.ss.formula.ptg.AreaI.OffsetArea;
 import org.apache.poi.ss.util.CellReference;
@@ -82,6 +85,32 @@ final class LazyAreaEval extends AreaEvalBase {
         return new LazyAreaEval(getFirstRow(), absColIx, getLastRow(), absColIx, _evaluator);
     }
 
+    @Override
+    public LookupIndex getLookupIndex(int index, boolean isColumn) {
+        if (getFirstSheetIndex() != getLastSheetIndex()) {
+            return null;
+        }
+        SheetRefEvaluator _sre = _evaluator.getSheetEvaluator(getFirstSheetIndex());
+        if (isColumn) {
+            int colIx = getFirstColumn() + index;
+            return _sre.getIndex(LookupIndex.class, getFirstRow(), colIx, getLastRow(), colIx,
+                () -> new LookupIndex(LookupUtils.createColumnVector(this, index)));
+        }
+        int rowIx = getFirstRow() + index;
+        return _sre.getIndex(LookupIndex.class, rowIx, getFirstColumn(), rowIx, getLastColumn(),
+            () -> new LookupIndex(LookupUtils.createRowVector(this, index)));
+    }
+
+    @Override
+    public CriteriaIndex getCriteriaIndex() {
+        if (getFirstSheetIndex() != getLastSheetIndex()) {
+            return null;
+        }
+        SheetRefEvaluator _sre = _evaluator.getSheetEvaluator(getFirstSheetIndex());
+        return _sre.getIndex(CriteriaIndex.class, getFirstRow(), getFirstColumn(), getLastRow(), getLastColumn(),
+            () -> new CriteriaIndex(this));
+    }
+
     public String toString() {
         CellReference crA = new CellReference(getFirstRow(), getFirstColumn());
         CellReference crB = new CellReference(getLastRow(), getLastColumn());
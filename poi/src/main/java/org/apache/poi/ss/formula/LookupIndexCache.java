@@ -0,0 +1,144 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.poi.ss.formula.FormulaUsedBlankCellSet.BookSheetKey;
+import org.apache.poi.ss.formula.PlainCellCache.Loc;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.functions.LookupIndex;
+
+/**
+ * Caches indexes of the cell ranges used by lookup functions and conditional aggregations,
+ * e.g. the {@link LookupIndex}es of the rows and columns searched by exact match lookups.
+ * <p>
+ * Each index is tracked like a formula cell which depends on all cells of its range,
+ * and the formulas using the index depend on it. So a change of any of these cells
+ * clears the index, along with the cached results of the formulas.
+ */
+final class LookupIndexCache {
+    /** smaller ranges are scanned, as building the index would not pay off */
+    private static final int MIN_INDEX_SIZE = 16;
+
+    private static final class Key {
+        private final Class<?> _indexClass;
+        private final Loc _first;
+        private final int _lastRow;
+        private final int _lastColumn;
+
+        Key(Class<?> indexClass, int bookIndex, int sheetIndex, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+            _indexClass = indexClass;
+            _first = new Loc(bookIndex, sheetIndex, firstRow, firstColumn);
+            _lastRow = lastRow;
+            _lastColumn = lastColumn;
+        }
+
+        @Override
+        public int hashCode() {
+            return _first.hashCode() + 31 * _lastRow + 37 * _lastColumn + _indexClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return _indexClass == other._indexClass && _first.equals(other._first)
+                && _lastRow == other._lastRow && _lastColumn == other._lastColumn;
+        }
+    }
+
+    private static final class Entry {
+        /** holds the dependencies of the index, the index is valid as long as this has a value */
+        private final FormulaCellCacheEntry _cce = new FormulaCellCacheEntry();
+        private Object _index;
+    }
+
+    private final Map<Key, Entry> _entries = new HashMap<>();
+
+    /**
+     * Returns the index of a cell range and makes the currently evaluated formula depend on it.
+     * The index is built from the cell values, if it's not cached yet.
+     *
+     * @param indexClass the type of the index
+     * @param builder reads the cell values of the range and creates the index
+     * @return the index or {@code null} if the range needs to be scanned
+     */
+    public <T> T getIndex(Class<T> indexClass, int bookIndex, int sheetIndex, int firstRow, int firstColumn,
+            int lastRow, int lastColumn, Supplier<T> builder, EvaluationTracker tracker) {
+        long size = (lastRow - firstRow + 1L) * (lastColumn - firstColumn + 1L);
+        if (size < MIN_INDEX_SIZE || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        Key key = new Key(indexClass, bookIndex, sheetIndex, firstRow, firstColumn, lastRow, lastColumn);
+        Entry entry = _entries.get(key);
+        if (entry == null || entry._cce.getValue() == null) {
+            entry = createEntry(builder, tracker);
+            if (entry == null) {
+                _entries.remove(key);
+                return null;
+            }
+            _entries.put(key, entry);
+        }
+        tracker.acceptFormulaDependency(entry._cce);
+        return indexClass.cast(entry._index);
+    }
+
+    /**
+     * @return the new entry or {@code null} if the index can't be cached
+     */
+    private static Entry createEntry(Supplier<?> builder, EvaluationTracker tracker) {
+        Entry entry = new Entry();
+        // the values are read in a frame of their own, to collect the dependencies of the index
+        tracker.startEvaluate(entry._cce);
+        try {
+            entry._index = builder.get();
+            tracker.updateCacheResult(BoolEval.TRUE);
+        } finally {
+            tracker.endEvaluate(entry._cce);
+        }
+        if (entry._cce.hasUncachedInput()) {
+            // a circular reference - the value of a cell being evaluated isn't known yet
+            entry._cce.clearFormulaEntry();
+            return null;
+        }
+        return entry;
+    }
+
+    public void notifyUpdatedBlankCell(BookSheetKey bsk, int rowIndex, int columnIndex, IEvaluationListener evaluationListener) {
+        Iterator<Entry> iter = _entries.values().iterator();
+        while (iter.hasNext()) {
+            FormulaCellCacheEntry cce = iter.next()._cce;
+            if (cce.getValue() == null) {
+                // cleared by an earlier change
+                iter.remove();
+            } else {
+                cce.notifyUpdatedBlankCell(bsk, rowIndex, columnIndex, evaluationListener);
+            }
+        }
+    }
+
+    public void clear() {
+        _entries.clear();
+    }
+}
@@ -0,0 +1,197 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook.ExternalSheetRange;
+import org.apache.poi.ss.formula.function.FunctionMetadataRegistry;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Determines the sheets which the formulas of a sheet refer to, in order to split a workbook
+ * into groups of sheets whose formulas can be evaluated independently of each other.
+ * <p>
+ * The references are taken from the formula tokens, including the definitions of the used names.
+ * References which are only known at evaluation time, i.e. of {@code INDIRECT}, can't be resolved,
+ * so such a sheet depends on all other sheets. References to other workbooks are ignored,
+ * as they don't touch the sheets of this workbook.
+ */
+final class SheetDependencies {
+    /** limits the resolution of names referring to other names */
+    private static final int MAX_NAME_DEPTH = 16;
+
+    private final EvaluationWorkbook _workbook;
+
+    SheetDependencies(EvaluationWorkbook workbook) {
+        _workbook = workbook;
+    }
+
+    /**
+     * @param sheetIndex the index of the sheet
+     * @param sheet the sheet whose formula cells are analyzed
+     * @return the indexes of the sheets referenced by the formulas of the sheet, including the sheet itself,
+     *  or {@code null} if the referenced sheets can't be determined
+     */
+    BitSet getReferencedSheets(int sheetIndex, Sheet sheet) {
+        EvaluationSheet evalSheet = _workbook.getSheet(sheetIndex);
+        BitSet result = new BitSet();
+        result.set(sheetIndex);
+        for (Row r : sheet) {
+            for (Cell c : r) {
+                if (c.getCellType() == CellType.FORMULA) {
+                    EvaluationCell cell = evalSheet.getCell(c.getRowIndex(), c.getColumnIndex());
+                    if (!addReferencedSheets(_workbook.getFormulaTokens(cell), sheetIndex, result, 0)) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Joins the sheets which refer to each other, directly or transitively
+     *
+     * @param referencedSheets the result of {@link #getReferencedSheets(int, Sheet)} for each sheet
+     * @return the groups of sheet indexes, in the order of their first sheet
+     */
+    static List<int[]> getIndependentGroups(List<BitSet> referencedSheets) {
+        int nSheets = referencedSheets.size();
+        int[] parent = new int[nSheets];
+        for (int i = 0; i < nSheets; i++) {
+            parent[i] = i;
+        }
+        for (int i = 0; i < nSheets; i++) {
+            BitSet refs = referencedSheets.get(i);
+            if (refs == null) {
+                // unknown references - everything is evaluated together
+                refs = new BitSet();
+                refs.set(0, nSheets);
+            }
+            for (int j = refs.nextSetBit(0); j >= 0 && j < nSheets; j = refs.nextSetBit(j + 1)) {
+                int ri = findRoot(parent, i);
+                int rj = findRoot(parent, j);
+                // the smaller index becomes the root to keep the sheet order stable
+                parent[Math.max(ri, rj)] = Math.min(ri, rj);
+            }
+        }
+
+        List<int[]> result = new ArrayList<>();
+        int[] groupIndex = new int[nSheets];
+        int[] groupSize = new int[nSheets];
+        for (int i = 0; i < nSheets; i++) {
+            groupSize[findRoot(parent, i)]++;
+        }
+        for (int i = 0; i < nSheets; i++) {
+            int root = findRoot(parent, i);
+            if (root == i) {
+                groupIndex[i] = result.size();
+                result.add(new int[groupSize[i]]);
+                groupSize[i] = 0;
+            }
+            result.get(groupIndex[root])[groupSize[root]++] = i;
+        }
+        return result;
+    }
+
+    private static int findRoot(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * @return {@code false} if the references can't be determined
+     */
+    private boolean addReferencedSheets(Ptg[] ptgs, int sheetIndex, BitSet result, int depth) {
+        for (Ptg ptg : ptgs) {
+            if (ptg instanceof ExternSheetReferenceToken) {
+                ExternalSheet externalSheet = _workbook.getExternalSheet(((ExternSheetReferenceToken)ptg).getExternSheetIndex());
+                if (externalSheet == null) {
+                    return false;
+                }
+                if (externalSheet.getWorkbookName() == null) {
+                    String lastSheetName = externalSheet instanceof ExternalSheetRange
+                        ? ((ExternalSheetRange)externalSheet).getLastSheetName() : null;
+                    addSheetRange(externalSheet.getSheetName(), lastSheetName, result);
+                }
+            } else if (ptg instanceof NameXPxg) {
+                NameXPxg nameX = (NameXPxg)ptg;
+                if (nameX.getExternalWorkbookNumber() < 1) {
+                    int nameSheetIndex = nameX.getSheetName() == null ? sheetIndex : _workbook.getSheetIndex(nameX.getSheetName());
+                    // unknown names are e.g. add-in functions
+                    EvaluationName name = nameSheetIndex < 0 ? null : _workbook.getName(nameX.getNameName(), nameSheetIndex);
+                    if (!addNameReferences(name, sheetIndex, result, depth)) {
+                        return false;
+                    }
+                }
+            } else if (ptg instanceof Pxg) {
+                Pxg pxg = (Pxg)ptg;
+                if (pxg.getExternalWorkbookNumber() < 1) {
+                    if (pxg.getSheetName() == null) {
+                        return false;
+                    }
+                    addSheetRange(pxg.getSheetName(), ptg instanceof Pxg3D ? ((Pxg3D)ptg).getLastSheetName() : null, result);
+                }
+            } else if (ptg instanceof NamePtg) {
+                if (!addNameReferences(_workbook.getName((NamePtg)ptg), sheetIndex, result, depth)) {
+                    return false;
+                }
+            } else if (ptg instanceof AbstractFunctionPtg
+                && ((AbstractFunctionPtg)ptg).getFunctionIndex() == FunctionMetadataRegistry.FUNCTION_INDEX_INDIRECT) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean addNameReferences(EvaluationName name, int sheetIndex, BitSet result, int depth) {
+        if (name == null || name.isFunctionName() || !name.hasFormula()) {
+            return true;
+        }
+        if (depth >= MAX_NAME_DEPTH) {
+            return false;
+        }
+        // relative references of the name refer to the sheet of the formula
+        return addReferencedSheets(name.getNameDefinition(), sheetIndex, result, depth + 1);
+    }
+
+    private void addSheetRange(String firstSheetName, String lastSheetName, BitSet result) {
+        int first = _workbook.getSheetIndex(firstSheetName);
+        int last = lastSheetName == null ? first : _workbook.getSheetIndex(lastSheetName);
+        // references to unknown sheets evaluate to #REF!
+        if (first >= 0 && last >= 0) {
+            result.set(Math.min(first, last), Math.max(first, last) + 1);
+        }
+    }
+}
@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.function.Supplier;
+
 import org.apache.poi.ss.formula.eval.ValueEval;
 import org.apache.poi.ss.formula.ptg.FuncVarPtg;
 import org.apache.poi.ss.formula.ptg.Ptg;
@@ -48,6 +50,13 @@ final class SheetRefEvaluator {
         return _bookEvaluator.evaluateReference(getSheet(), _sheetIndex, rowIndex, columnIndex, _tracker);
     }
 
+    /**
+     * @return the cached index of a cell range of this sheet, or {@code null} if the cells need to be scanned
+     */
+    public <T> T getIndex(Class<T> indexClass, int firstRow, int firstColumn, int lastRow, int lastColumn, Supplier<T> builder) {
+        return _bookEvaluator.getIndex(indexClass, _sheetIndex, firstRow, firstColumn, lastRow, lastColumn, builder, _tracker);
+    }
+
     private EvaluationSheet getSheet() {
         if (_sheet == null) {
             _sheet = _bookEvaluator.getSheet(_sheetIndex);
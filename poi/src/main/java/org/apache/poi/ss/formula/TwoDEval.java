@@ -19,6 +19,8 @@ package org.apache.poi.ss.formula;
 
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CriteriaIndex;
+import org.apache.poi.ss.formula.functions.LookupIndex;
 import org.apache.poi.ss.formula.functions.Subtotal;
 
 /**
@@ -74,4 +76,24 @@ public interface TwoDEval extends ValueEval {
      */
     boolean isRowHidden(int rowIndex);
 
+    /**
+     * @param index relative row or column index (zero based)
+     * @param isColumn {@code true} for the column, {@code false} for the row at {@code index}
+     * @return the cached index of the values of the row or column for exact match lookups,
+     *  or {@code null} if the values need to be scanned
+     * @since POI 5.4.0
+     */
+    default LookupIndex getLookupIndex(int index, boolean isColumn) {
+        return null;
+    }
+
+    /**
+     * @return the cached index of the distinct values of this area for matching criteria,
+     *  or {@code null} if the values need to be scanned
+     * @since POI 5.4.0
+     */
+    default CriteriaIndex getCriteriaIndex() {
+        return null;
+    }
+
 }
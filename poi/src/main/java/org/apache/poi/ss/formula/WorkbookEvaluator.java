@@ -17,13 +17,16 @@
 
 package org.apache.poi.ss.formula;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.logging.PoiLogManager;
@@ -72,6 +75,19 @@ public final class WorkbookEvaluator {
 
     private boolean _ignoreMissingWorkbooks;
 
+    /**
+     * number of evaluations of a formula cell after which its formula is compiled
+     */
+    private static final int COMPILE_THRESHOLD = 2;
+
+    private boolean _compileFormulas = true;
+
+    /**
+     * collects the dirty formula cells in the order of their evaluation during {@link #recalculateDirty()},
+     * {@code null} otherwise
+     */
+    private List<EvaluationCell> _recalculatedCells;
+
     /**
      * whether print detailed messages about the next formula evaluation
      */
@@ -200,6 +216,39 @@ public final class WorkbookEvaluator {
         return result;
     }
 
+    /**
+     * Evaluates the formula cells whose cached results were cleared by {@link #notifyUpdateCell(EvaluationCell)}
+     * or {@link #notifyDeleteCell(EvaluationCell)} since their last evaluation.
+     * <p>
+     * The cache records which cells are used by each evaluated formula, so a change of a cell only clears the
+     * results of its direct and transitive dependents. The other formula results stay cached and are not
+     * evaluated again. Newly set formulas are evaluated as well.
+     * <p>
+     * Each formula is evaluated after the dirty formulas it depends on, i.e. the returned list is in
+     * topological order.
+     *
+     * @return the evaluated formula cells of this workbook, precedents before their dependents
+     * @since POI 5.4.0
+     */
+    public List<EvaluationCell> recalculateDirty() {
+        FormulaCellCacheEntry[] dirtyCells = _cache.getDirtyFormulaCells();
+        List<EvaluationCell> result = new ArrayList<>(dirtyCells.length);
+        _recalculatedCells = result;
+        try {
+            for (FormulaCellCacheEntry fcce : dirtyCells) {
+                EvaluationCell cell = fcce.getCell();
+                // the cache can be shared with other workbooks, which are recalculated by their own evaluator
+                if (fcce.isDirty() && _workbook.getSheetIndex(cell.getSheet()) >= 0) {
+                    // evaluating a formula evaluates its dirty precedents first
+                    evaluate(cell);
+                }
+            }
+        } finally {
+            _recalculatedCells = null;
+        }
+        return result;
+    }
+
     public ValueEval evaluate(EvaluationCell srcCell) {
         int sheetIndex = getSheetIndex(srcCell.getSheet());
         return evaluateAny(srcCell, sheetIndex, srcCell.getRowIndex(), srcCell.getColumnIndex(), new EvaluationTracker(_cache));
@@ -254,21 +303,24 @@ public final class WorkbookEvaluator {
             if (!tracker.startEvaluate(cce)) {
                 return ErrorEval.CIRCULAR_REF_ERROR;
             }
+            boolean recalculated = _recalculatedCells != null && cce.isDirty();
 
             try {
 
-                Ptg[] ptgs = _workbook.getFormulaTokens(srcCell);
                 OperationEvaluationContext ec = new OperationEvaluationContext
                         (this, _workbook, sheetIndex, rowIndex, columnIndex, tracker);
                 if (evalListener == null) {
-                    result = evaluateFormula(ec, ptgs);
+                    result = evaluateFormula(srcCell, cce, ec);
                 } else {
                     evalListener.onStartEvaluate(srcCell, cce);
-                    result = evaluateFormula(ec, ptgs);
+                    result = evaluateFormula(srcCell, cce, ec);
                     evalListener.onEndEvaluate(cce, result);
                 }
 
                 tracker.updateCacheResult(result);
+                if (recalculated) {
+                    _recalculatedCells.add(srcCell);
+                }
             } catch (NotImplementedException e) {
                 throw addExceptionInfo(e, sheetIndex, rowIndex, columnIndex);
             } catch (RuntimeException re) {
@@ -276,7 +328,7 @@ public final class WorkbookEvaluator {
                     LOG.atInfo().log("{} - Continuing with cached value!", re.getCause().getMessage());
                     switch (srcCell.getCachedFormulaResultType()) {
                         case NUMERIC:
-                            result = new NumberEval(srcCell.getNumericCellValue());
+                            result = NumberEval.valueOf(srcCell.getNumericCellValue());
                             break;
                         case STRING:
                             result = new StringEval(srcCell.getStringCellValue());
@@ -319,6 +371,27 @@ public final class WorkbookEvaluator {
         return result;
     }
 
+    /**
+     * Evaluates the formula of a cell with the compiled formula of the cache entry. The formula is
+     * interpreted on its first evaluations and compiled when it is evaluated again.
+     */
+    private ValueEval evaluateFormula(EvaluationCell srcCell, FormulaCellCacheEntry cce, OperationEvaluationContext ec) {
+        boolean debugOutput = dbgEvaluationOutputForNextEval || dbgEvaluationOutputIndent > 0;
+        CompiledFormula compiled = cce.getCompiledFormula();
+        if (compiled != null && compiled.isCompiled() && !debugOutput) {
+            return compiled.evaluate(ec);
+        }
+        Ptg[] ptgs = _workbook.getFormulaTokens(srcCell);
+        if (compiled == null && _compileFormulas && cce.incrementEvaluationCount() >= COMPILE_THRESHOLD) {
+            compiled = CompiledFormula.compile(this, ptgs, srcCell);
+            cce.setCompiledFormula(compiled);
+            if (compiled.isCompiled() && !debugOutput) {
+                return compiled.evaluate(ec);
+            }
+        }
+        return evaluateFormula(ec, ptgs);
+    }
+
     /**
      * Adds the current cell reference to the exception for easier debugging.
      * Would be nice to get the formula text as well, but that seems to require
@@ -352,7 +425,7 @@ public final class WorkbookEvaluator {
         CellType cellType = cell.getCellType();
         switch (cellType) {
             case NUMERIC:
-                return new NumberEval(cell.getNumericCellValue());
+                return NumberEval.valueOf(cell.getNumericCellValue());
             case STRING:
                 return new StringEval(cell.getStringCellValue());
             case BOOLEAN:
@@ -607,7 +680,7 @@ public final class WorkbookEvaluator {
      * {@link ErrorEval}. Never {@code null}. {@link BlankEval} is
      * converted to {@link NumberEval#ZERO}
      */
-    private static ValueEval dereferenceResult(ValueEval evaluationResult, OperationEvaluationContext ec) {
+    /* package */ static ValueEval dereferenceResult(ValueEval evaluationResult, OperationEvaluationContext ec) {
         ValueEval value;
 
         if (ec == null) {
@@ -668,7 +741,7 @@ public final class WorkbookEvaluator {
      * <p>
      * special Note: OperationPtg subtypes cannot be passed here!
      */
-    private ValueEval getEvalForPtg(Ptg ptg, OperationEvaluationContext ec) {
+    /* package */ ValueEval getEvalForPtg(Ptg ptg, OperationEvaluationContext ec) {
         //  consider converting all these (ptg instanceof XxxPtg) expressions to (ptg.getClass() == XxxPtg.class)
 
         if (ptg instanceof NamePtg) {
@@ -687,10 +760,10 @@ public final class WorkbookEvaluator {
         }
 
         if (ptg instanceof IntPtg) {
-            return new NumberEval(((IntPtg) ptg).getValue());
+            return NumberEval.valueOf(((IntPtg) ptg).getValue());
         }
         if (ptg instanceof NumberPtg) {
-            return new NumberEval(((NumberPtg) ptg).getValue());
+            return NumberEval.valueOf(((NumberPtg) ptg).getValue());
         }
         if (ptg instanceof StringPtg) {
             return new StringEval(((StringPtg) ptg).getValue());
@@ -791,6 +864,14 @@ public final class WorkbookEvaluator {
         return evaluateAny(cell, sheetIndex, rowIndex, columnIndex, tracker);
     }
 
+    /**
+     * @return the cached index of a cell range, or {@code null} if the cells need to be scanned
+     */
+    /* package */ <T> T getIndex(Class<T> indexClass, int sheetIndex, int firstRow, int firstColumn, int lastRow,
+            int lastColumn, Supplier<T> builder, EvaluationTracker tracker) {
+        return _cache.getIndex(indexClass, _workbookIx, sheetIndex, firstRow, firstColumn, lastRow, lastColumn, builder, tracker);
+    }
+
     public FreeRefFunction findUserDefinedFunction(String functionName) {
         return _udfFinder.findFunction(functionName);
     }
@@ -994,6 +1075,27 @@ public final class WorkbookEvaluator {
         FunctionEval.registerFunction(name, func);
     }
 
+    /**
+     * Whether formulas which are evaluated repeatedly, i.e. after their inputs were changed and announced via
+     * {@link #notifyUpdateCell(EvaluationCell)}, are compiled into a tree of linked operations instead of
+     * interpreting their tokens on each evaluation. The compiled formulas yield the same results.
+     * Defaults to {@code true}.
+     *
+     * @param compileFormulas {@code false} to always interpret the formula tokens
+     * @since POI 5.4.0
+     */
+    public void setCompileFormulas(boolean compileFormulas) {
+        _compileFormulas = compileFormulas;
+    }
+
+    /**
+     * @return whether repeatedly evaluated formulas are compiled
+     * @since POI 5.4.0
+     */
+    public boolean isCompileFormulas() {
+        return _compileFormulas;
+    }
+
     public void setDebugEvaluationOutputForNextEval(boolean value) {
         dbgEvaluationOutputForNextEval = value;
     }
@@ -29,6 +29,17 @@ public final class NumberEval implements NumericValueEval, StringValueEval {
 
     public static final NumberEval ZERO = new NumberEval(0);
 
+    /** lowest and highest integer of the shared instances returned by {@link #valueOf(double)} */
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final NumberEval[] CACHE = new NumberEval[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = CACHE_LOW; i <= CACHE_HIGH; i++) {
+            CACHE[i - CACHE_LOW] = i == 0 ? ZERO : new NumberEval(i);
+        }
+    }
+
     private final double _value;
     private String _stringValue;
 
@@ -49,6 +60,26 @@ public final class NumberEval implements NumericValueEval, StringValueEval {
         _value = value;
     }
 
+    /**
+     * Returns a {@code NumberEval} for the value. Small integers, which are very common as
+     * cell values and intermediate results, are served from shared instances instead of
+     * allocating a new one.
+     *
+     * @param value the number
+     * @return the {@code NumberEval} of the value
+     * @since POI 5.4.0
+     */
+    public static NumberEval valueOf(double value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            int i = (int) value;
+            // -0.0 is kept, as it is the result of a subtraction
+            if (i == value && (i != 0 || Double.doubleToRawLongBits(value) == 0L)) {
+                return CACHE[i - CACHE_LOW];
+            }
+        }
+        return new NumberEval(value);
+    }
+
     public double getNumberValue() {
         return _value;
     }
@@ -44,6 +44,6 @@ public final class PercentEval extends Fixed1ArgFunction {
         if (d == 0.0) { // this '==' matches +0.0 and -0.0
             return NumberEval.ZERO;
         }
-        return new NumberEval(d / 100);
+        return NumberEval.valueOf(d / 100);
     }
 }
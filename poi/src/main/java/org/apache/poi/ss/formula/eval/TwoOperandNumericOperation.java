@@ -21,6 +21,7 @@ import org.apache.poi.ss.formula.functions.ArrayFunction;
 import org.apache.poi.ss.formula.functions.Fixed2ArgFunction;
 import org.apache.poi.ss.formula.functions.Function;
 import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.Internal;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
@@ -45,7 +46,7 @@ public abstract class TwoOperandNumericOperation extends Fixed2ArgFunction imple
                         double d0 = OperandResolver.coerceValueToDouble(vA);
                         double d1 = OperandResolver.coerceValueToDouble(vB);
                         double result = evaluate(d0, d1);
-                        return new NumberEval(result);
+                        return NumberEval.valueOf(result);
                     } catch (EvaluationException e){
                         return e.getErrorEval();
                     }
@@ -59,24 +60,50 @@ public abstract class TwoOperandNumericOperation extends Fixed2ArgFunction imple
         try {
             double d0 = singleOperandEvaluate(arg0, srcRowIndex, srcColumnIndex);
             double d1 = singleOperandEvaluate(arg1, srcRowIndex, srcColumnIndex);
-            result = evaluate(d0, d1);
-            if (result == 0.0) { // this '==' matches +0.0 and -0.0
-                // Excel converts -0.0 to +0.0 for '*', '/', '%', '+' and '^'
-                if (!(this instanceof SubtractEvalClass)) {
-                    return NumberEval.ZERO;
-                }
-            }
-            if (Double.isNaN(result) || Double.isInfinite(result)) {
-                return ErrorEval.NUM_ERROR;
-            }
+            result = evaluateNumbers(d0, d1);
         } catch (EvaluationException e) {
             return e.getErrorEval();
         }
-        return new NumberEval(result);
+        return NumberEval.valueOf(result);
+    }
+
+    /**
+     * Applies the operator to already resolved operands, with the same result checks as
+     * {@link #evaluate(int, int, ValueEval, ValueEval)}, but without allocating a result.
+     *
+     * @throws EvaluationException if the result is an error
+     * @since POI 5.4.0
+     */
+    @Internal
+    public final double evaluateNumbers(double d0, double d1) throws EvaluationException {
+        double result = evaluate(d0, d1);
+        if (result == 0.0) { // this '==' matches +0.0 and -0.0
+            // Excel converts -0.0 to +0.0 for '*', '/', '%', '+' and '^'
+            if (!(this instanceof SubtractEvalClass)) {
+                return 0.0;
+            }
+        }
+        if (Double.isNaN(result) || Double.isInfinite(result)) {
+            throw new EvaluationException(ErrorEval.NUM_ERROR);
+        }
+        return result;
     }
 
     protected abstract double evaluate(double d0, double d1) throws EvaluationException;
 
+    /**
+     * Integers up to 2^53 are exact doubles, so their products and quotients don't need
+     * the decimal arithmetic of {@link BigDecimal}
+     */
+    private static final double MAX_EXACT_INTEGER = 0x1p53;
+
+    /**
+     * @return {@code true} if the value is an integer which is converted to text without rounding
+     */
+    private static boolean isExactInteger(double d) {
+        return Math.abs(d) < 1e15 && d == Math.rint(d);
+    }
+
     public static final Function AddEval = new TwoOperandNumericOperation() {
         @Override
         protected double evaluate(double d0, double d1) {
@@ -89,6 +116,10 @@ public abstract class TwoOperandNumericOperation extends Fixed2ArgFunction imple
             if (d1 == 0.0) {
                 throw new EvaluationException(ErrorEval.DIV_ZERO);
             }
+            if (isExactInteger(d0) && isExactInteger(d1) && d0 % d1 == 0.0) {
+                // the quotient is an integer as well
+                return d0 == 0.0 ? 0.0 : d0 / d1;
+            }
             BigDecimal bd0 = new BigDecimal(NumberToTextConverter.toText(d0));
             BigDecimal bd1 = new BigDecimal(NumberToTextConverter.toText(d1));
             return bd0.divide(bd1, MathContext.DECIMAL128).doubleValue();
@@ -97,6 +128,12 @@ public abstract class TwoOperandNumericOperation extends Fixed2ArgFunction imple
     public static final Function MultiplyEval = new TwoOperandNumericOperation() {
         @Override
         protected double evaluate(double d0, double d1) {
+            if (isExactInteger(d0) && isExactInteger(d1)) {
+                double result = d0 * d1;
+                if (Math.abs(result) < MAX_EXACT_INTEGER) {
+                    return result == 0.0 ? 0.0 : result;
+                }
+            }
             BigDecimal bd0 = new BigDecimal(NumberToTextConverter.toText(d0));
             BigDecimal bd1 = new BigDecimal(NumberToTextConverter.toText(d1));
             return bd0.multiply(bd1).doubleValue();
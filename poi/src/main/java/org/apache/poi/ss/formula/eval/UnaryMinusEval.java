@@ -40,7 +40,7 @@ public final class UnaryMinusEval extends Fixed1ArgFunction  implements ArrayFun
         if (d == 0.0) { // this '==' matches +0.0 and -0.0
             return NumberEval.ZERO;
         }
-        return new NumberEval(-d);
+        return NumberEval.valueOf(-d);
     }
 
     @Override
@@ -44,7 +44,7 @@ public final class UnaryPlusEval extends Fixed1ArgFunction  implements ArrayFunc
         } catch (EvaluationException e) {
             return e.getErrorEval();
         }
-        return new NumberEval(+d);
+        return NumberEval.valueOf(+d);
     }
 
     @Override
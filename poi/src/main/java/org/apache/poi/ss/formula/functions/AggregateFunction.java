@@ -62,7 +62,7 @@ public abstract class AggregateFunction extends MultiOperandNumericFunction {
                 return e.getErrorEval();
             }
 
-            return new NumberEval(result);
+            return NumberEval.valueOf(result);
         }
     }
 
@@ -127,7 +127,7 @@ public abstract class AggregateFunction extends MultiOperandNumericFunction {
                 return e.getErrorEval();
             }
 
-            return new NumberEval(result);
+            return NumberEval.valueOf(result);
         }
     }
 
@@ -19,6 +19,8 @@
 
 package org.apache.poi.ss.formula.functions;
 
+import java.util.BitSet;
+
 import org.apache.poi.ss.formula.OperationEvaluationContext;
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -136,37 +138,63 @@ import org.apache.poi.ss.formula.functions.Countif.ErrorMatcher;
         int height = ranges[0].getHeight();
         int width = ranges[0].getWidth();
 
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-
-                boolean matches = true;
-                for(int i = 0; i < ranges.length; i++){
-                    AreaEval aeRange = ranges[i];
-                    I_MatchPredicate mp = predicates[i];
-
-                    // Bugs 60858 and 56420 show predicate can be null
-                    if (mp == null || !mp.matches(aeRange.getRelativeValue(r, c))) {
-                        matches = false;
-                        break;
-                    }
+        // the cells matching the criteria of the indexed ranges, null if no range is indexed
+        BitSet candidates = null;
+        boolean[] isIndexed = new boolean[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            // Bugs 60858 and 56420 show predicate can be null
+            CriteriaIndex index = predicates[i] == null ? null : ranges[i].getCriteriaIndex();
+            if (index != null) {
+                BitSet matches = index.getMatches(predicates[i]);
+                if (candidates == null) {
+                    candidates = matches;
+                } else {
+                    candidates.and(matches);
                 }
+                isIndexed[i] = true;
+            }
+        }
 
-                if(matches) { // aggregate only if all of the corresponding criteria specified are true for that cell.
-                    if(sumRange != null) {
-                        ValueEval value = sumRange.getRelativeValue(r, c);
-                        if (value instanceof ErrorEval) {
-                            throw new EvaluationException((ErrorEval)value);
-                        }
-                        aggregator.addValue(value);
-                    } else {
-                        aggregator.addValue(null);
-                    }
+        if (candidates == null) {
+            for (int r = 0; r < height; r++) {
+                for (int c = 0; c < width; c++) {
+                    aggregateCell(aggregator, sumRange, ranges, predicates, isIndexed, r, c);
                 }
             }
+        } else {
+            for (int pos = candidates.nextSetBit(0); pos >= 0; pos = candidates.nextSetBit(pos + 1)) {
+                aggregateCell(aggregator, sumRange, ranges, predicates, isIndexed, pos / width, pos % width);
+            }
         }
         return aggregator.getResult();
     }
 
+    private static void aggregateCell(Aggregator aggregator, AreaEval sumRange, AreaEval[] ranges, I_MatchPredicate[] predicates,
+            boolean[] isIndexed, int r, int c) throws EvaluationException {
+        for(int i = 0; i < ranges.length; i++){
+            if (isIndexed[i]) {
+                continue;
+            }
+            I_MatchPredicate mp = predicates[i];
+
+            // Bugs 60858 and 56420 show predicate can be null
+            if (mp == null || !mp.matches(ranges[i].getRelativeValue(r, c))) {
+                return;
+            }
+        }
+
+        // aggregate only if all of the corresponding criteria specified are true for that cell.
+        if(sumRange != null) {
+            ValueEval value = sumRange.getRelativeValue(r, c);
+            if (value instanceof ErrorEval) {
+                throw new EvaluationException((ErrorEval)value);
+            }
+            aggregator.addValue(value);
+        } else {
+            aggregator.addValue(null);
+        }
+    }
+
     protected static AreaEval convertRangeArg(ValueEval eval) throws EvaluationException {
         if (eval instanceof AreaEval) {
             return (AreaEval) eval;
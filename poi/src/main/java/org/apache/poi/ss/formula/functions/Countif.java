@@ -20,6 +20,7 @@ package org.apache.poi.ss.formula.functions;
 import java.util.regex.Pattern;
 
 import org.apache.poi.ss.formula.ThreeDEval;
+import org.apache.poi.ss.formula.TwoDEval;
 import org.apache.poi.ss.formula.eval.BlankEval;
 import org.apache.poi.ss.formula.eval.BoolEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
@@ -437,7 +438,7 @@ public final class Countif extends Fixed2ArgFunction {
             return NumberEval.ZERO;
         }
         double result = countMatchingCellsInArea(arg0, mp);
-        return new NumberEval(result);
+        return NumberEval.valueOf(result);
     }
     /**
      * @return the number of evaluated cells in the range that match the specified criteria
@@ -447,6 +448,10 @@ public final class Countif extends Fixed2ArgFunction {
         if (rangeArg instanceof RefEval) {
             return CountUtils.countMatchingCellsInRef((RefEval) rangeArg, criteriaPredicate);
         } else if (rangeArg instanceof ThreeDEval) {
+            CriteriaIndex index = rangeArg instanceof TwoDEval ? ((TwoDEval) rangeArg).getCriteriaIndex() : null;
+            if (index != null) {
+                return index.countMatches(criteriaPredicate);
+            }
             return CountUtils.countMatchingCellsInArea((ThreeDEval) rangeArg, criteriaPredicate);
         } else {
             throw new IllegalArgumentException("Bad range arg type (" + rangeArg.getClass().getName() + ")");
@@ -57,7 +57,7 @@ public class Countifs extends Baseifs {
 
             @Override
             public ValueEval getResult() {
-                return new NumberEval(accumulator);
+                return NumberEval.valueOf(accumulator);
             }
         };
     }
@@ -0,0 +1,149 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.TwoDEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.CountUtils.I_MatchPredicate;
+import org.apache.poi.util.Internal;
+
+/**
+ * Index of the distinct values of an area, for the criteria of COUNTIF, SUMIF and the *IFS functions.
+ * <p>
+ * Criteria ranges usually contain few distinct values, e.g. categories or dates, so the criteria
+ * predicate is only applied once per distinct value instead of once per cell. The matching cells
+ * are then taken from the positions of the matching values.
+ * <p>
+ * Positions are relative to the area and in row-major order, i.e. {@code rowIndex * width + columnIndex}.
+ *
+ * @since POI 5.4.0
+ */
+@Internal
+public final class CriteriaIndex {
+    private final int _width;
+    private final int _size;
+    /** the distinct values, represented by their first occurrence */
+    private final ValueEval[] _values;
+    /** the ascending positions of each distinct value */
+    private final int[][] _positions;
+
+    /**
+     * Reads all values of the area and indexes them
+     */
+    public CriteriaIndex(TwoDEval area) {
+        int height = area.getHeight();
+        _width = area.getWidth();
+        _size = height * _width;
+
+        Map<Object, Integer> valueIndexes = new HashMap<>();
+        List<ValueEval> values = new ArrayList<>();
+        int[] valueIndexOfPosition = new int[_size];
+        int[] counts = new int[16];
+        for (int r = 0, pos = 0; r < height; r++) {
+            for (int c = 0; c < _width; c++, pos++) {
+                ValueEval value = area.getValue(r, c);
+                Object key = getKey(value);
+                Integer valueIndex = valueIndexes.get(key);
+                if (valueIndex == null) {
+                    valueIndex = values.size();
+                    valueIndexes.put(key, valueIndex);
+                    values.add(value);
+                    if (valueIndex == counts.length) {
+                        int[] newCounts = new int[counts.length * 2];
+                        System.arraycopy(counts, 0, newCounts, 0, counts.length);
+                        counts = newCounts;
+                    }
+                }
+                valueIndexOfPosition[pos] = valueIndex;
+                counts[valueIndex]++;
+            }
+        }
+
+        _values = values.toArray(new ValueEval[0]);
+        _positions = new int[_values.length][];
+        for (int i = 0; i < _values.length; i++) {
+            _positions[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int pos = 0; pos < _size; pos++) {
+            int valueIndex = valueIndexOfPosition[pos];
+            _positions[valueIndex][counts[valueIndex]++] = pos;
+        }
+    }
+
+    /**
+     * @return the number of columns of the indexed area
+     */
+    public int getWidth() {
+        return _width;
+    }
+
+    /**
+     * @return the positions of the cells whose value matches the predicate
+     */
+    public BitSet getMatches(I_MatchPredicate predicate) {
+        BitSet result = new BitSet(_size);
+        for (int i = 0; i < _values.length; i++) {
+            if (predicate.matches(_values[i])) {
+                for (int pos : _positions[i]) {
+                    result.set(pos);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of cells whose value matches the predicate
+     */
+    public int countMatches(I_MatchPredicate predicate) {
+        int result = 0;
+        for (int i = 0; i < _values.length; i++) {
+            if (predicate.matches(_values[i])) {
+                result += _positions[i].length;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a key which is equal for equal values of the same type
+     */
+    private static Object getKey(ValueEval value) {
+        if (value instanceof NumberEval) {
+            return ((NumberEval)value).getNumberValue();
+        }
+        if (value instanceof StringEval) {
+            return ((StringEval)value).getStringValue();
+        }
+        if (value instanceof BoolEval) {
+            return ((BoolEval)value).getBooleanValue();
+        }
+        // blank and error values are singletons
+        return value;
+    }
+}
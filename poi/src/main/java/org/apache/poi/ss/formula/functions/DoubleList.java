@@ -26,12 +26,23 @@ final class DoubleList {
     private int _count;
 
     public DoubleList() {
-        _array = new double[8];
+        this(8);
+    }
+
+    /**
+     * @param initialCapacity the expected number of values
+     */
+    public DoubleList(int initialCapacity) {
+        _array = new double[Math.max(initialCapacity, 1)];
         _count = 0;
     }
 
     public double[] toArray() {
-        return _count < 1 ? EMPTY_DOUBLE_ARRAY : Arrays.copyOf(_array, _count);
+        if (_count < 1) {
+            return EMPTY_DOUBLE_ARRAY;
+        }
+        // a full array isn't copied, a later add() replaces it anyway
+        return _count == _array.length ? _array : Arrays.copyOf(_array, _count);
     }
 
     private void ensureCapacity(int reqSize) {
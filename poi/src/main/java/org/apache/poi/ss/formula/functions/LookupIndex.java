@@ -0,0 +1,96 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula.functions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.functions.LookupUtils.ValueVector;
+import org.apache.poi.util.Internal;
+
+/**
+ * Hash index of the values of a single row or column, for exact match lookups.
+ * <p>
+ * The index gives the same result as a forward scan with an exact match comparer of
+ * {@link LookupUtils}: values only match values of the same type, and strings are
+ * compared case-insensitive. Lookup values with wildcards can't be looked up in the index.
+ *
+ * @since POI 5.4.0
+ */
+@Internal
+public final class LookupIndex {
+
+    /** the key of each value mapped to the first index with that key */
+    private final Map<Object, Integer> _firstIndexes;
+
+    /**
+     * Reads all values of the vector and indexes them
+     */
+    public LookupIndex(ValueVector vector) {
+        int size = vector.getSize();
+        _firstIndexes = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            Object key = getKey(vector.getItem(i));
+            if (key != null) {
+                _firstIndexes.putIfAbsent(key, i);
+            }
+        }
+    }
+
+    /**
+     * @param lookupValue the value which is looked up, see {@link #getKey(ValueEval)}
+     * @return the zero based index of the first value matching the lookup value, or -1 if there is none
+     */
+    public int getFirstIndex(Object lookupValue) {
+        Integer index = _firstIndexes.get(lookupValue);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the key of a number, string or boolean value,
+     *  or {@code null} if the value never matches in an exact lookup
+     */
+    public static Object getKey(ValueEval value) {
+        if (value instanceof NumberEval) {
+            return ((NumberEval)value).getNumberValue();
+        }
+        if (value instanceof StringEval) {
+            return foldCase(((StringEval)value).getStringValue());
+        }
+        if (value instanceof BoolEval) {
+            return ((BoolEval)value).getBooleanValue();
+        }
+        return null;
+    }
+
+    /**
+     * @return the string in the case which is used by {@link String#compareToIgnoreCase(String)}
+     */
+    private static String foldCase(String value) {
+        int len = value.length();
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return new String(chars);
+    }
+}
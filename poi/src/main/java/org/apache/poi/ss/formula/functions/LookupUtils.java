@@ -76,6 +76,9 @@ public final class LookupUtils {
         public int getIntValue() { return intValue; }
     }
 
+    /** result of {@link #lookupIndexedValue(ValueEval, ValueVector)} if the values need to be scanned */
+    static final int NOT_INDEXED = -2;
+
     private static final Map<Integer, MatchMode> matchModeMap;
     private static final Map<Integer, SearchMode> searchModeMap;
 
@@ -115,6 +118,15 @@ public final class LookupUtils {
         ValueEval getItem(int index);
         int getSize();
 
+        /**
+         * @return the cached index of the values for exact match lookups,
+         *  or {@code null} if the values need to be scanned
+         * @since POI 5.4.0
+         */
+        default LookupIndex getLookupIndex() {
+            return null;
+        }
+
         default Iterator<Integer> indexIterator() {
             return new Iterator<Integer>() {
                 private int pos = 0;
@@ -181,6 +193,11 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        @Override
+        public LookupIndex getLookupIndex() {
+            return _tableArray.getLookupIndex(_rowIndex, false);
+        }
     }
 
     private static final class ColumnVector implements ValueVector {
@@ -212,6 +229,11 @@ public final class LookupUtils {
         public int getSize() {
             return _size;
         }
+
+        @Override
+        public LookupIndex getLookupIndex() {
+            return _tableArray.getLookupIndex(_columnIndex, true);
+        }
     }
 
     private static final class SheetVector implements ValueVector {
@@ -625,7 +647,11 @@ public final class LookupUtils {
         if(isRangeLookup) {
             result = performBinarySearch(vector, lookupComparer);
         } else {
-            result = lookupFirstIndexOfValue(lookupComparer, vector, MatchMode.ExactMatch);
+            // a blank lookup value matches zero, just like in the comparer
+            result = lookupIndexedValue(lookupValue == BlankEval.instance ? NumberEval.ZERO : lookupValue, vector);
+            if (result == NOT_INDEXED) {
+                result = lookupFirstIndexOfValue(lookupComparer, vector, MatchMode.ExactMatch);
+            }
         }
         if(result < 0) {
             throw new EvaluationException(ErrorEval.NA);
@@ -666,7 +692,14 @@ public final class LookupUtils {
         } else if (searchMode == SearchMode.IterateBackward) {
             result = lookupLastIndexOfValue(lookupComparer, vector, matchMode);
         } else {
-            result = lookupFirstIndexOfValue(lookupComparer, vector, matchMode);
+            result = NOT_INDEXED;
+            if (matchMode == MatchMode.ExactMatch) {
+                // the tolerant comparer matches a blank lookup value with empty strings
+                result = lookupIndexedValue(lookupValue == BlankEval.instance ? StringEval.EMPTY_INSTANCE : lookupValue, vector);
+            }
+            if (result == NOT_INDEXED) {
+                result = lookupFirstIndexOfValue(lookupComparer, vector, matchMode);
+            }
         }
         if(result < 0) {
             throw new EvaluationException(ErrorEval.NA);
@@ -674,6 +707,23 @@ public final class LookupUtils {
         return result;
     }
 
+    /**
+     * Finds the first exact match of a number, string or boolean value with the
+     * {@link LookupIndex} of the vector, instead of comparing all values.
+     *
+     * @return zero based index into the vector, -1 if value cannot be found,
+     *  or {@link #NOT_INDEXED} if the vector has no index or the value can't be looked up in it
+     */
+    static int lookupIndexedValue(ValueEval lookupValue, ValueVector vector) {
+        Object key = LookupIndex.getKey(lookupValue);
+        if (key == null || (lookupValue instanceof StringEval
+                && Countif.StringMatcher.getWildCardPattern(((StringEval)lookupValue).getStringValue()) != null)) {
+            return NOT_INDEXED;
+        }
+        LookupIndex index = vector.getLookupIndex();
+        return index == null ? NOT_INDEXED : index.getFirstIndex(key);
+    }
+
     /**
      * Finds first (lowest index) matching occurrence of specified value.
      * @param lookupComparer the value to be found in column or row vector
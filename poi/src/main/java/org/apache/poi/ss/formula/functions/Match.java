@@ -204,6 +204,13 @@ public final class Match extends Var2or3ArgFunction {
 
         int size = lookupRange.getSize();
         if(matchExact) {
+            int index = LookupUtils.lookupIndexedValue(lookupValue == BlankEval.instance ? NumberEval.ZERO : lookupValue, lookupRange);
+            if (index >= 0) {
+                return index;
+            }
+            if (index != LookupUtils.NOT_INDEXED) {
+                throw new EvaluationException(ErrorEval.NA);
+            }
             for (int i = 0; i < size; i++) {
                 if(lookupComparer.compareTo(lookupRange.getItem(i)).isEqual()) {
                     return i;
@@ -57,6 +57,12 @@ public abstract class MultiOperandNumericFunction implements Function {
 
     private static final int DEFAULT_MAX_NUM_OPERANDS = SpreadsheetVersion.EXCEL2007.getMaxFunctionArgs();
 
+    /**
+     * the initial capacity for the values is limited, as large areas like whole columns
+     * are mostly blank - the values of larger operands are collected in a growing array
+     */
+    private static final int MAX_PRESIZED_VALUES = 256;
+
     public void setMissingArgPolicy(Policy policy) {
         missingArgConsumer = ConsumerFactory.createForMissingArg(policy);
     }
@@ -83,7 +89,7 @@ public abstract class MultiOperandNumericFunction implements Function {
             if (Double.isNaN(d) || Double.isInfinite(d)) {
                 return ErrorEval.NUM_ERROR;
             }
-            return new NumberEval(d);
+            return NumberEval.valueOf(d);
         } catch (EvaluationException e) {
             return e.getErrorEval();
         }
@@ -112,7 +118,7 @@ public abstract class MultiOperandNumericFunction implements Function {
         if (operands.length > getMaxNumOperands()) {
             throw EvaluationException.invalidValue();
         }
-        DoubleList retval = new DoubleList();
+        DoubleList retval = new DoubleList(getNumberOfValues(operands));
 
         for (ValueEval operand : operands) {
             collectValues(operand, retval);
@@ -120,6 +126,28 @@ public abstract class MultiOperandNumericFunction implements Function {
         return retval.toArray();
     }
 
+    /**
+     * @return the maximum number of values of the operands, limited to {@link #MAX_PRESIZED_VALUES}
+     */
+    private static int getNumberOfValues(ValueEval[] operands) {
+        long result = 0;
+        for (ValueEval operand : operands) {
+            if (operand instanceof ThreeDEval) {
+                ThreeDEval ae = (ThreeDEval) operand;
+                result += (ae.getLastSheetIndex() - ae.getFirstSheetIndex() + 1L) * ae.getWidth() * ae.getHeight();
+            } else if (operand instanceof TwoDEval) {
+                TwoDEval ae = (TwoDEval) operand;
+                result += (long) ae.getWidth() * ae.getHeight();
+            } else if (operand instanceof RefEval) {
+                RefEval re = (RefEval) operand;
+                result += re.getLastSheetIndex() - re.getFirstSheetIndex() + 1;
+            } else {
+                result++;
+            }
+        }
+        return (int) Math.min(result, MAX_PRESIZED_VALUES);
+    }
+
     /**
      * Whether to count nested subtotals.
      */
@@ -17,6 +17,8 @@
 
 package org.apache.poi.ss.formula.functions;
 
+import java.util.BitSet;
+
 import org.apache.poi.ss.formula.eval.AreaEval;
 import org.apache.poi.ss.formula.eval.ErrorEval;
 import org.apache.poi.ss.formula.eval.EvaluationException;
@@ -73,7 +75,7 @@ public final class Sumif extends Var2or3ArgFunction {
         } else {
             try {
                 double result = sumMatchingCells(aeRange, mp, aeSum);
-                return new NumberEval(result);
+                return NumberEval.valueOf(result);
             } catch (EvaluationException var) {
                 return var.getErrorEval();
             }
@@ -86,6 +88,15 @@ public final class Sumif extends Var2or3ArgFunction {
         int width = aeRange.getWidth();
         double result = 0.0D;
 
+        CriteriaIndex index = aeRange.getCriteriaIndex();
+        if (index != null) {
+            BitSet matches = index.getMatches(mp);
+            for (int pos = matches.nextSetBit(0); pos >= 0; pos = matches.nextSetBit(pos + 1)) {
+                result += getAddend(aeSum, pos / width, pos % width);
+            }
+            return result;
+        }
+
         for(int r = 0; r < height; ++r) {
             for(int c = 0; c < width; ++c) {
                 result += accumulate(aeRange, mp, aeSum, r, c);
@@ -99,15 +110,19 @@ public final class Sumif extends Var2or3ArgFunction {
         if (!mp.matches(aeRange.getRelativeValue(relRowIndex, relColIndex))) {
             return 0.0D;
         } else {
-            ValueEval addend = aeSum.getRelativeValue(relRowIndex, relColIndex);
-            if (addend instanceof NumberEval) {
-                return ((NumberEval) addend).getNumberValue();
-            } else if (addend instanceof ErrorEval) {
-                throw new EvaluationException((ErrorEval)addend);
-            } else {
-                // everything else (including string and boolean values) counts as zero
-                return 0.0;
-            }
+            return getAddend(aeSum, relRowIndex, relColIndex);
+        }
+    }
+
+    private static double getAddend(AreaEval aeSum, int relRowIndex, int relColIndex) throws EvaluationException {
+        ValueEval addend = aeSum.getRelativeValue(relRowIndex, relColIndex);
+        if (addend instanceof NumberEval) {
+            return ((NumberEval) addend).getNumberValue();
+        } else if (addend instanceof ErrorEval) {
+            throw new EvaluationException((ErrorEval)addend);
+        } else {
+            // everything else (including string and boolean values) counts as zero
+            return 0.0;
         }
     }
 
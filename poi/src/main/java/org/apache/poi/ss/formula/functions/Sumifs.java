@@ -68,7 +68,7 @@ public final class Sumifs extends Baseifs {
 
             @Override
             public ValueEval getResult() {
-                return new NumberEval(accumulator);
+                return NumberEval.valueOf(accumulator);
             }
         };
     }
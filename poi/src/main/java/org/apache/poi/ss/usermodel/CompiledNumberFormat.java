@@ -0,0 +1,379 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.usermodel;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.text.Format;
+import java.text.ParsePosition;
+import java.util.Optional;
+
+import org.apache.poi.util.BoundedCache;
+import org.apache.poi.util.Internal;
+
+/**
+ * A number format compiled from a simple {@link DecimalFormat} pattern, like {@code #,##0.00}
+ * or {@code 0.0%}, which renders numbers from their decimal digits without the {@code java.text}
+ * formatters.
+ * <p>
+ * The output is the same as the output of a {@link DecimalFormat} with the pattern and
+ * {@link java.math.RoundingMode#HALF_UP} applied to {@link BigDecimal#valueOf(double)},
+ * as used by {@link DataFormatter}. The pattern is parsed by {@link DecimalFormat} once, only patterns
+ * with a scientific notation, a per mille multiplier or scaling by trailing commas are not compiled.
+ * <p>
+ * Instances are immutable and thus thread-safe. They are shared by all {@link DataFormatter}s
+ * through a bounded cache.
+ */
+@Internal
+@SuppressWarnings("serial")
+final class CompiledNumberFormat extends Format {
+    /** the maximum number of cached formats, the least recently used ones are dropped */
+    private static final int MAX_CACHED_FORMATS = 1000;
+
+    /** integers below this limit are converted to digits without {@link Double#toString(double)} */
+    private static final double MAX_LONG_DIGITS = 1e15;
+
+    /** the patterns, which can't be compiled, are cached as empty optional */
+    private static final BoundedCache<Key, Optional<CompiledNumberFormat>> CACHE = new BoundedCache<>(MAX_CACHED_FORMATS);
+
+    private static final class Key {
+        private final String pattern;
+        private final DecimalFormatSymbols symbols;
+
+        Key(String pattern, DecimalFormatSymbols symbols) {
+            this.pattern = pattern;
+            this.symbols = symbols;
+        }
+
+        @Override
+        public int hashCode() {
+            return pattern.hashCode() * 31 + symbols.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return pattern.equals(other.pattern) && symbols.equals(other.symbols);
+        }
+    }
+
+    /**
+     * The decimal digits of an absolute value, like the digit list of {@link DecimalFormat}:
+     * the value is {@code 0.d[0]d[1]...d[count-1] * 10^decimalAt}
+     */
+    private static final class Digits {
+        private final char[] digits;
+        private int count;
+        private int decimalAt;
+        /** the double, whose shortest decimal digits these are, to round ties by its exact value, or NaN */
+        private double binary = Double.NaN;
+
+        Digits(int capacity) {
+            digits = new char[capacity];
+        }
+    }
+
+    private final String positivePrefix;
+    private final String positiveSuffix;
+    private final String negativePrefix;
+    private final String negativeSuffix;
+    private final int minIntDigits;
+    private final int minFracDigits;
+    private final int maxFracDigits;
+    /** the number of integer digits per group or 0 if the digits aren't grouped */
+    private final int groupingSize;
+    private final boolean decimalSeparatorAlwaysShown;
+    /** 2 if the value is shown as percentage, 0 otherwise */
+    private final int exponentShift;
+
+    private final char zeroDigit;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    private final String infinity;
+    private final String nan;
+
+    private CompiledNumberFormat(DecimalFormat df, DecimalFormatSymbols symbols, int exponentShift) {
+        positivePrefix = df.getPositivePrefix();
+        positiveSuffix = df.getPositiveSuffix();
+        negativePrefix = df.getNegativePrefix();
+        negativeSuffix = df.getNegativeSuffix();
+        minIntDigits = df.getMinimumIntegerDigits();
+        minFracDigits = df.getMinimumFractionDigits();
+        maxFracDigits = df.getMaximumFractionDigits();
+        groupingSize = df.isGroupingUsed() ? df.getGroupingSize() : 0;
+        decimalSeparatorAlwaysShown = df.isDecimalSeparatorAlwaysShown();
+        this.exponentShift = exponentShift;
+        zeroDigit = symbols.getZeroDigit();
+        groupingSeparator = symbols.getGroupingSeparator();
+        decimalSeparator = symbols.getDecimalSeparator();
+        infinity = symbols.getInfinity();
+        nan = symbols.getNaN();
+    }
+
+    /**
+     * Returns the compiled format of a {@link DecimalFormat} pattern.
+     *
+     * @param pattern the pattern, with the Excel specific parts already converted
+     * @param symbols the symbols of the locale, the instance must not be changed afterwards
+     * @return the compiled format or {@code null} if the pattern can't be compiled
+     */
+    static CompiledNumberFormat getInstance(String pattern, DecimalFormatSymbols symbols) {
+        return CACHE.get(new Key(pattern, symbols), k -> Optional.ofNullable(compile(pattern, symbols))).orElse(null);
+    }
+
+    /**
+     * Parses the pattern with {@link DecimalFormat} and takes over its settings
+     */
+    private static CompiledNumberFormat compile(String pattern, DecimalFormatSymbols symbols) {
+        if (pattern.indexOf('E') >= 0 || pattern.endsWith(",")) {
+            // scientific notation or scaled values
+            return null;
+        }
+        DecimalFormat df;
+        try {
+            df = new DecimalFormat(pattern, symbols);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        switch (df.getMultiplier()) {
+            case 1:
+                return new CompiledNumberFormat(df, symbols, 0);
+            case 100:
+                return new CompiledNumberFormat(df, symbols, 2);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Formats a value like {@link BigDecimal#valueOf(double)} is formatted by the {@link DecimalFormat}
+     */
+    public String format(double value) {
+        StringBuilder sb = new StringBuilder(32);
+        format(value, false, sb);
+        return sb.toString();
+    }
+
+    /**
+     * @param asDouble if the value is formatted like {@link DecimalFormat} formats doubles, i.e. -0.0 is shown
+     *  as negative value, percentages are multiplied as double and ties of the decimal digits are rounded
+     *  by the exact binary value
+     */
+    private void format(double value, boolean asDouble, StringBuilder sb) {
+        if (Double.isNaN(value)) {
+            sb.append(nan);
+            return;
+        }
+        // unlike the double value, the BigDecimal of -0.0 isn't negative
+        boolean negative = value < 0 || (asDouble && value == 0 && 1 / value < 0);
+        double abs = Math.abs(value);
+        int shift = 0;
+        if (asDouble && exponentShift > 0) {
+            abs *= 100;
+            shift = exponentShift;
+        }
+        if (Double.isInfinite(abs)) {
+            sb.append(negative ? negativePrefix : positivePrefix).append(infinity)
+                .append(negative ? negativeSuffix : positiveSuffix);
+            return;
+        }
+
+        Digits digits = new Digits(24);
+        if (abs < MAX_LONG_DIGITS && abs == Math.rint(abs)) {
+            setDigits(digits, (long) abs);
+        } else {
+            setDigits(digits, Double.toString(abs));
+            if (asDouble) {
+                digits.binary = abs;
+            }
+        }
+        if (digits.count > 0) {
+            digits.decimalAt -= shift;
+        }
+        format(digits, negative, sb);
+    }
+
+    @Override
+    public StringBuffer format(Object obj, StringBuffer toAppendTo, FieldPosition pos) {
+        StringBuilder sb = new StringBuilder();
+        if (obj instanceof BigDecimal) {
+            BigDecimal bd = (BigDecimal) obj;
+            String unscaled = bd.unscaledValue().abs().toString();
+            Digits digits = new Digits(unscaled.length());
+            setDigits(digits, unscaled);
+            if (digits.count > 0) {
+                digits.decimalAt -= bd.scale();
+            }
+            format(digits, bd.signum() < 0, sb);
+        } else if (obj instanceof Number) {
+            format(((Number) obj).doubleValue(), true, sb);
+        } else {
+            throw new IllegalArgumentException("Cannot format given Object as a Number");
+        }
+        return toAppendTo.append(sb);
+    }
+
+    private void format(Digits digits, boolean negative, StringBuilder sb) {
+        if (digits.count > 0) {
+            digits.decimalAt += exponentShift;
+        }
+        round(digits, digits.decimalAt + maxFracDigits);
+
+        sb.append(negative ? negativePrefix : positivePrefix);
+
+        // integer part
+        int intCount = Math.max(minIntDigits, digits.decimalAt);
+        int digitIndex = 0;
+        int intStart = sb.length();
+        for (int i = intCount - 1; i >= 0; i--) {
+            if (i < digits.decimalAt && digitIndex < digits.count) {
+                sb.append(toLocalDigit(digits.digits[digitIndex++]));
+            } else {
+                sb.append(zeroDigit);
+            }
+            if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+                sb.append(groupingSeparator);
+            }
+        }
+
+        // fraction part
+        boolean fractionPresent = minFracDigits > 0 || digitIndex < digits.count;
+        if (!fractionPresent && sb.length() == intStart) {
+            sb.append(zeroDigit);
+        }
+        if (decimalSeparatorAlwaysShown || fractionPresent) {
+            sb.append(decimalSeparator);
+        }
+        for (int i = 0; i < maxFracDigits; i++) {
+            if (i >= minFracDigits && digitIndex >= digits.count) {
+                break;
+            }
+            if (-1 - i > digits.decimalAt - 1 || digitIndex >= digits.count) {
+                sb.append(zeroDigit);
+            } else {
+                sb.append(toLocalDigit(digits.digits[digitIndex++]));
+            }
+        }
+
+        sb.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    private char toLocalDigit(char digit) {
+        return (char) (zeroDigit + (digit - '0'));
+    }
+
+    private static void setDigits(Digits digits, long value) {
+        char[] buf = digits.digits;
+        int pos = buf.length;
+        for (long v = value; v > 0; v /= 10) {
+            buf[--pos] = (char) ('0' + (v % 10));
+        }
+        int count = buf.length - pos;
+        System.arraycopy(buf, pos, buf, 0, count);
+        digits.count = count;
+        digits.decimalAt = count;
+        stripTrailingZeros(digits);
+    }
+
+    /**
+     * Sets the digits of a plain or scientific decimal number, e.g. {@code 12.5} or {@code 1.25E-7}
+     */
+    private static void setDigits(Digits digits, String number) {
+        int count = 0;
+        int decimalAt = -1;
+        int leadingZeros = 0;
+        int exponent = 0;
+        int len = number.length();
+        for (int i = 0; i < len; i++) {
+            char c = number.charAt(i);
+            if (c == '.') {
+                decimalAt = count;
+            } else if (c == 'E' || c == 'e') {
+                exponent = Integer.parseInt(number.substring(i + 1));
+                break;
+            } else if (count > 0 || c != '0') {
+                digits.digits[count++] = c;
+            } else if (decimalAt != -1) {
+                leadingZeros++;
+            }
+        }
+        if (decimalAt == -1) {
+            decimalAt = count;
+        }
+        digits.count = count;
+        digits.decimalAt = count == 0 ? 0 : decimalAt + exponent - leadingZeros;
+        stripTrailingZeros(digits);
+    }
+
+    private static void stripTrailingZeros(Digits digits) {
+        while (digits.count > 0 && digits.digits[digits.count - 1] == '0') {
+            digits.count--;
+        }
+    }
+
+    /**
+     * Rounds half up to the given number of digits. A tie of the digits of a double is
+     * rounded down, if the exact binary value is below it, e.g. 1.005 is 1.00499999999999989...
+     */
+    private static void round(Digits digits, int maxDigits) {
+        if (maxDigits >= digits.count) {
+            return;
+        }
+        if (maxDigits < 0) {
+            digits.count = 0;
+            return;
+        }
+        char[] d = digits.digits;
+        boolean tie = d[maxDigits] == '5' && maxDigits == digits.count - 1;
+        if (d[maxDigits] >= '5' && !(tie && isBelowDigits(digits))) {
+            int i = maxDigits - 1;
+            while (i >= 0 && d[i] == '9') {
+                i--;
+            }
+            if (i < 0) {
+                d[0] = '1';
+                digits.count = 1;
+                digits.decimalAt++;
+                return;
+            }
+            d[i]++;
+            digits.count = i + 1;
+        } else {
+            digits.count = maxDigits;
+            stripTrailingZeros(digits);
+        }
+    }
+
+    /**
+     * @return true, if the exact value of the double of the digits is below its shortest decimal digits
+     */
+    private static boolean isBelowDigits(Digits digits) {
+        return !Double.isNaN(digits.binary)
+            && new BigDecimal(digits.binary).compareTo(BigDecimal.valueOf(digits.binary)) < 0;
+    }
+
+    @Override
+    public Object parseObject(String source, ParsePosition pos) {
+        throw new UnsupportedOperationException();
+    }
+}
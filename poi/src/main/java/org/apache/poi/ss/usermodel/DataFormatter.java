@@ -29,10 +29,11 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -84,6 +85,10 @@ import org.apache.poi.util.StringUtil;
  * DataFormatter.setDefaultNumberFormat(Format)}. <b>Note:</b> the
  * default format will only be used when a Format cannot be created from the
  * cell's data format string.
+ * <p>
+ * Simple number patterns like {@code #,##0.00} or {@code 0.0%} are compiled into formats
+ * which render the digits without {@link DecimalFormat}. The compiled formats are immutable
+ * and shared by all DataFormatter instances.
  *
  * <p>
  * Note that by default formatted numeric values are trimmed.
@@ -198,7 +203,7 @@ public class DataFormatter {
      * A map to cache formats.
      *  Map<String,Format> formats
      */
-    private final Map<String,Format> formats = new HashMap<>();
+    private final Map<String,Format> formats = new ConcurrentHashMap<>();
 
     /** whether CSV friendly adjustments should be made to the formatted text **/
     private boolean emulateCSV = false;
@@ -425,7 +430,9 @@ public class DataFormatter {
 
         // Build a formatter, and cache it
         format = createFormat(cellValue, formatIndex, formatStr);
-        formats.put(formatStr, format);
+        if (format != null) {
+            formats.put(formatStr, format);
+        }
         return format;
     }
 
@@ -819,7 +826,9 @@ public class DataFormatter {
         @Override
         public StringBuffer format(Object obj, StringBuffer toAppendTo, FieldPosition pos) {
             obj = scaleInput(obj);
-            return df.format(obj, toAppendTo, pos);
+            synchronized (df) {
+                return df.format(obj, toAppendTo, pos);
+            }
         }
 
         @Override
@@ -850,6 +859,12 @@ public class DataFormatter {
             }
         }
 
+        // most number formats are rendered without DecimalFormat
+        Format compiled = CompiledNumberFormat.getInstance(format, symbols);
+        if (compiled != null) {
+            return compiled;
+        }
+
         try {
             return new InternalDecimalFormatWithScale(format, symbols);
         } catch(IllegalArgumentException iae) {
@@ -955,6 +970,10 @@ public class DataFormatter {
         if (numberFormat == null) {
             return Double.toString(d);
         }
+        if (numberFormat instanceof CompiledNumberFormat) {
+            // formats the digits of the double like those of BigDecimal.valueOf(d) and never uses E-notation
+            return ((CompiledNumberFormat) numberFormat).format(d);
+        }
         String formatted;
         try {
             //see https://github.com/apache/poi/pull/321 -- but this sometimes fails, thus the catch and retry
@@ -1165,9 +1184,15 @@ public class DataFormatter {
      * @see Format#format
      */
     public void setDefaultNumberFormat(Format format) {
-        for (Map.Entry<String, Format> entry : formats.entrySet()) {
+        Iterator<Map.Entry<String, Format>> iter = formats.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, Format> entry = iter.next();
             if (entry.getValue() == generalNumberFormat) {
-                entry.setValue(format);
+                if (format == null) {
+                    iter.remove();
+                } else {
+                    entry.setValue(format);
+                }
             }
         }
         defaultNumFormat = format;
@@ -1185,7 +1210,11 @@ public class DataFormatter {
      * @param format A Format instance
      */
     public void addFormat(String excelFormatStr, Format format) {
-        formats.put(excelFormatStr, format);
+        if (format == null) {
+            formats.remove(excelFormatStr);
+        } else {
+            formats.put(excelFormatStr, format);
+        }
     }
 
     // Some custom formats
@@ -29,6 +29,9 @@ import java.util.Locale;
 /**
  * A format that formats a double as Excel would, ignoring FieldPosition.
  * All other operations are unsupported.
+ * <p>
+ * Integers and decimals are rendered by compiled formats, the scientific notation
+ * and the remaining cases by synchronized {@link DecimalFormat}s.
  **/
 public class ExcelGeneralNumberFormat extends Format {
 
@@ -36,10 +39,15 @@ public class ExcelGeneralNumberFormat extends Format {
 
     private static final MathContext TO_10_SF = new MathContext(10, RoundingMode.HALF_UP);
 
+    /** the maximum fraction digits of the decimal format */
+    private static final int MAX_FRACTION_DIGITS = 10;
+
     private final DecimalFormatSymbols decimalSymbols;
     private final DecimalFormat integerFormat;
     private final DecimalFormat decimalFormat;
     private final DecimalFormat scientificFormat;
+    private final CompiledNumberFormat integerProgram;
+    private final CompiledNumberFormat decimalProgram;
 
     public ExcelGeneralNumberFormat(final Locale locale) {
         decimalSymbols = DecimalFormatSymbols.getInstance(locale);
@@ -49,6 +57,8 @@ public class ExcelGeneralNumberFormat extends Format {
         DataFormatter.setExcelStyleRoundingMode(integerFormat);
         decimalFormat = new DecimalFormat("#.##########", decimalSymbols);
         DataFormatter.setExcelStyleRoundingMode(decimalFormat);
+        integerProgram = CompiledNumberFormat.getInstance("#", decimalSymbols);
+        decimalProgram = CompiledNumberFormat.getInstance("#.##########", decimalSymbols);
     }
 
     @SuppressWarnings("squid:S2111")
@@ -57,26 +67,36 @@ public class ExcelGeneralNumberFormat extends Format {
         if (number instanceof Number) {
             value = ((Number)number).doubleValue();
             if (Double.isInfinite(value) || Double.isNaN(value)) {
-                return integerFormat.format(number, toAppendTo, pos);
+                return integerProgram.format(number, toAppendTo, pos);
             }
         } else {
             // testBug54786 gets here with a date, so retain previous behaviour
-            return integerFormat.format(number, toAppendTo, pos);
+            synchronized (integerFormat) {
+                return integerFormat.format(number, toAppendTo, pos);
+            }
         }
 
         final double abs = Math.abs(value);
         if (abs >= 1E11 || (abs <= 1E-10 && abs > 0)) {
-            return scientificFormat.format(number, toAppendTo, pos);
+            synchronized (scientificFormat) {
+                return scientificFormat.format(number, toAppendTo, pos);
+            }
         } else if (Math.floor(value) == value || abs >= 1E10) {
             // integer, or integer portion uses all 11 allowed digits
-            return integerFormat.format(number, toAppendTo, pos);
+            return integerProgram.format(number, toAppendTo, pos);
         }
         // Non-integers of non-scientific magnitude are formatted as "up to 11
         // numeric characters, with the decimal point counting as a numeric
         // character". We know there is a decimal point, so limit to 10 digits.
         // https://support.microsoft.com/en-us/kb/65903
-        final double rounded = BigDecimal.valueOf(value).round(TO_10_SF).doubleValue();
-        return decimalFormat.format(rounded, toAppendTo, pos);
+        final BigDecimal rounded = BigDecimal.valueOf(value).round(TO_10_SF);
+        if (rounded.stripTrailingZeros().scale() <= MAX_FRACTION_DIGITS) {
+            // the digits fit, so they aren't rounded again
+            return decimalProgram.format(rounded, toAppendTo, pos);
+        }
+        synchronized (decimalFormat) {
+            return decimalFormat.format(rounded.doubleValue(), toAppendTo, pos);
+        }
     }
 
     public Object parseObject(String source, ParsePosition pos) {
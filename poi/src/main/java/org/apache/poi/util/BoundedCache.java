@@ -0,0 +1,204 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache with a maximum size, which drops the least recently used entries.
+ * <p>
+ * The entries are spread over up to 16 segments by the hash of their key, and each segment
+ * is locked on its own, so concurrent lookups of different keys rarely wait for each other.
+ * The least recently used entry is dropped per segment, so the eviction order is only
+ * approximately LRU across the whole cache.
+ * <p>
+ * Values are computed outside the lock. If two threads miss the same key at the same time,
+ * both compute the value and the first one which is stored is returned to both.
+ * {@code null} values are not cached.
+ *
+ * @param <K> the type of the keys, which need proper {@link Object#hashCode()} and {@link Object#equals(Object)}
+ * @param <V> the type of the cached values
+ *
+ * @since POI 5.4.0
+ */
+public final class BoundedCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    @SuppressWarnings("serial")
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final int maxSize;
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize the maximum number of cached entries
+     * @throws IllegalArgumentException if the maximum size is less than 1
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive, but was " + maxSize);
+        }
+        this.maxSize = maxSize;
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxSize));
+        segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // the capacities add up to the maximum size
+            int capacity = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(capacity, evictions);
+        }
+    }
+
+    /**
+     * Returns the cached value of the key, or computes and caches it, if there is none.
+     *
+     * @param key the key
+     * @param loader computes the value of the key, exceptions are passed on to the caller
+     * @return the value, or {@code null} if the loader returned {@code null}
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+        synchronized (segment) {
+            V existing = segment.putIfAbsent(key, value);
+            return existing == null ? value : existing;
+        }
+    }
+
+    /**
+     * @return the cached value of the key, or {@code null} if there is none
+     */
+    public V getIfPresent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    /**
+     * Removes all entries. The statistics are kept.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the current number of cached entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the maximum number of cached entries
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of lookups which found a cached value
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups which didn't find a cached value
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries which were dropped to stay within the maximum size
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Resets the hit, miss and eviction counts to zero.
+     */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & (segments.length - 1)];
+    }
+}
@@ -0,0 +1,127 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A group of tasks, which run on an {@link Executor} and are awaited together.
+ * <p>
+ * The group is meant to be used in a try-with-resources block: if starting a task fails,
+ * e.g. because the executor rejects it, closing the group waits for the already started
+ * tasks, so none of them is still running when the exception is propagated.
+ *
+ * <pre>{@code
+ * try (ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(executor)) {
+ *     for (Item item : items) {
+ *         tasks.run(() -> process(item));
+ *     }
+ *     tasks.joinAll();
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of the task results
+ *
+ * @since POI 5.4.0
+ */
+@Internal
+public final class ConcurrentTasks<T> implements AutoCloseable {
+    private final Executor executor;
+    private final List<CompletableFuture<T>> tasks = new ArrayList<>();
+
+    /**
+     * @param executor the executor, which runs the tasks
+     */
+    public ConcurrentTasks(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a task on the executor
+     *
+     * @param task the task, which computes a result
+     * @throws RejectedExecutionException if the executor doesn't accept the task
+     */
+    public void submit(Supplier<T> task) {
+        tasks.add(CompletableFuture.supplyAsync(task, executor));
+    }
+
+    /**
+     * Starts a task without a result on the executor
+     *
+     * @param task the task
+     * @throws RejectedExecutionException if the executor doesn't accept the task
+     */
+    public void run(Runnable task) {
+        submit(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Waits until all started tasks are done
+     *
+     * @return the results of the tasks, in the order in which they were started
+     * @throws RuntimeException the exception of a failed task, if it's unchecked
+     * @throws Error the error of a failed task
+     * @throws CompletionException if a task failed with a checked exception, which is the cause
+     */
+    public List<T> joinAll() {
+        try {
+            // allOf only completes when every task is done, even if some of them failed
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw e;
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        for (CompletableFuture<T> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Waits until all started tasks are done and ignores their failures.
+     * This is a no-op after {@link #joinAll()}.
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<T> task : tasks) {
+            try {
+                task.join();
+            } catch (CompletionException | CancellationException e) {
+                // the failure is either reported by joinAll() or superseded by the exception, which closes the group
+            }
+        }
+    }
+}
@@ -0,0 +1,768 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * A sorted map of primitive {@code int} keys to objects, intended as a compact
+ * replacement for {@code TreeMap<Integer, V>} in the row and cell tables of the
+ * usermodel.
+ * <p>
+ * Keys and values are held in parallel arrays which are kept sorted by key,
+ * so every entry costs one {@code int} and one reference instead of a boxed
+ * {@link Integer} plus a tree node. Lookups use a binary search, unless the keys
+ * form a single dense run (e.g. rows 0..n without gaps), in which case the index
+ * is computed directly. Appending a key larger than all existing keys is
+ * amortized constant time.
+ * <p>
+ * Large maps are split into chunks of up to {@value #CHUNK_SIZE} entries, so inserting
+ * or removing in the middle only moves the entries of one chunk and updates the
+ * positions of the following chunks, instead of moving all following entries.
+ * Small maps consist of a single chunk.
+ * <p>
+ * The iterators are fail-fast like the ones of the {@code java.util} collections.
+ * <p>
+ * This class is only meant for internal use in Apache POI.
+ *
+ * @param <V> the type of the mapped values
+ */
+@Internal
+public class IntSortedMap<V> {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int CHUNK_SHIFT = 10;
+    /** the maximum number of entries of a chunk */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** the first chunk, which is the only one of a small map */
+    private Chunk _first;
+    /** the chunks in key order or {@code null}, if there's only one chunk */
+    private Chunk[] _chunks;
+    /** the position of the first entry of each chunk */
+    private int[] _offsets;
+    /** the lowest key of each chunk */
+    private int[] _firstKeys;
+    private int _chunkCount = 1;
+    private int _size;
+    private int _modCount;
+
+    public IntSortedMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntSortedMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        _first = new Chunk(Math.min(initialCapacity, CHUNK_SIZE));
+    }
+
+    /**
+     * @return the number of entries in this map
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @return true if this map contains no entries
+     */
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * Removes all entries, but keeps the allocated capacity of the first chunk
+     */
+    public void clear() {
+        Arrays.fill(_first.values, 0, _first.size, null);
+        _first.size = 0;
+        _chunks = null;
+        _offsets = null;
+        _firstKeys = null;
+        _chunkCount = 1;
+        _size = 0;
+        _modCount++;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the value mapped to the key or {@code null} if there's no mapping
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        final Chunk chunk = chunk(chunkOf(key));
+        final int idx = chunk.indexOf(key);
+        return idx >= 0 ? (V)chunk.values[idx] : null;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return true if a mapping for the key exists
+     */
+    public boolean containsKey(int key) {
+        return chunk(chunkOf(key)).indexOf(key) >= 0;
+    }
+
+    /**
+     * @param value the value to look for
+     * @return true if at least one key maps to the value
+     */
+    public boolean containsValue(Object value) {
+        for (int ci = 0; ci < _chunkCount; ci++) {
+            final Chunk chunk = chunk(ci);
+            for (int i = 0; i < chunk.size; i++) {
+                if (Objects.equals(value, chunk.values[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associates the value with the key, replacing a previous mapping of the same key
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int ci = _chunkCount - 1;
+        Chunk chunk = chunk(ci);
+        int idx;
+        if (_size == 0 || key > chunk.keys[chunk.size-1]) {
+            // fast path for appending, which is the common case when parsing or creating a sheet
+            idx = chunk.size;
+        } else {
+            ci = chunkOf(key);
+            chunk = chunk(ci);
+            idx = chunk.indexOf(key);
+            if (idx >= 0) {
+                V prev = (V)chunk.values[idx];
+                chunk.values[idx] = value;
+                return prev;
+            }
+            idx = -(idx+1);
+        }
+        insertAt(ci, idx, key, value);
+        return null;
+    }
+
+    /**
+     * Removes the mapping of the key
+     *
+     * @param key the key
+     * @return the removed value or {@code null} if there was no mapping
+     */
+    public V remove(int key) {
+        final int ci = chunkOf(key);
+        final int idx = chunk(ci).indexOf(key);
+        return idx >= 0 ? removeAt(ci, idx) : null;
+    }
+
+    /**
+     * @return the lowest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public int firstKey() {
+        if (_size == 0) {
+            throw new NoSuchElementException();
+        }
+        return _first.keys[0];
+    }
+
+    /**
+     * @return the highest key
+     * @throws NoSuchElementException if the map is empty
+     */
+    public int lastKey() {
+        if (_size == 0) {
+            throw new NoSuchElementException();
+        }
+        final Chunk last = chunk(_chunkCount - 1);
+        return last.keys[last.size-1];
+    }
+
+    /**
+     * Returns the number of keys strictly less than the given key, i.e. the position
+     * where the key is or would be inserted.
+     * This is the equivalent of {@code headMap(key).size()} of a {@code SortedMap}.
+     *
+     * @param key the key
+     * @return the number of keys lower than {@code key}
+     */
+    public int headSize(int key) {
+        final int ci = chunkOf(key);
+        final int idx = chunk(ci).indexOf(key);
+        return offset(ci) + (idx >= 0 ? idx : -(idx+1));
+    }
+
+    /**
+     * Returns the key at the given position, in ascending key order
+     *
+     * @param index the position, between 0 and {@code size()-1}
+     * @return the key
+     */
+    public int keyAt(int index) {
+        checkIndex(index);
+        final int ci = chunkAt(index);
+        return chunk(ci).keys[index - offset(ci)];
+    }
+
+    /**
+     * Returns the value at the given position, in ascending key order
+     *
+     * @param index the position, between 0 and {@code size()-1}
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int index) {
+        checkIndex(index);
+        final int ci = chunkAt(index);
+        return (V)chunk(ci).values[index - offset(ci)];
+    }
+
+    /**
+     * Returns the values of the keys in the range [fromKey, toKey) in ascending key order.
+     * This is the equivalent of {@code subMap(fromKey, toKey).values()} of a {@code SortedMap},
+     * but the returned list is a snapshot and not backed by the map.
+     *
+     * @param fromKey the lowest key, inclusive
+     * @param toKey the highest key, exclusive
+     * @return the values of the key range
+     */
+    public List<V> subValues(int fromKey, int toKey) {
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        final int from = headSize(fromKey);
+        final Object[] copy = new Object[headSize(toKey) - from];
+        for (int ci = copy.length > 0 ? chunkAt(from) : 0, copied = 0; copied < copy.length; ci++) {
+            final Chunk chunk = chunk(ci);
+            final int start = from + copied - offset(ci);
+            final int len = Math.min(chunk.size - start, copy.length - copied);
+            System.arraycopy(chunk.values, start, copy, copied, len);
+            copied += len;
+        }
+        return new AbstractList<V>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public V get(int index) {
+                return (V)copy[index];
+            }
+
+            @Override
+            public int size() {
+                return copy.length;
+            }
+        };
+    }
+
+    /**
+     * @return a collection view of the values in ascending key order.
+     *  Removing via the iterator removes the mapping from this map.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return Spliterators.spliterator(iterator(), _size,
+                    Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED);
+            }
+
+            @Override
+            public int size() {
+                return _size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsValue(o);
+            }
+
+            @Override
+            public void clear() {
+                IntSortedMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Returns an unmodifiable {@code SortedMap} view of this map, which reflects later changes of the map.
+     * The keys are boxed on access, so the view is meant for API compatibility and not for hot paths.
+     *
+     * @return the sorted map view
+     */
+    public SortedMap<Integer, V> asSortedMap() {
+        return new SortedMapView(null, null);
+    }
+
+    private Chunk chunk(int ci) {
+        return _chunks == null ? _first : _chunks[ci];
+    }
+
+    private int offset(int ci) {
+        return _chunks == null ? 0 : _offsets[ci];
+    }
+
+    /**
+     * @return the index of the chunk, which contains the key or where it would be inserted
+     */
+    private int chunkOf(int key) {
+        if (_chunks == null) {
+            return 0;
+        }
+        // the chunks of a dense run are usually full, so the chunk can be computed
+        final long guess = ((long)key - _firstKeys[0]) >>> CHUNK_SHIFT;
+        if (guess < _chunkCount) {
+            final int ci = (int)guess;
+            if (_firstKeys[ci] <= key && (ci+1 == _chunkCount || key < _firstKeys[ci+1])) {
+                return ci;
+            }
+        }
+        final int idx = Arrays.binarySearch(_firstKeys, 0, _chunkCount, key);
+        return idx >= 0 ? idx : Math.max(0, -(idx+1) - 1);
+    }
+
+    /**
+     * @return the index of the chunk, which contains the position
+     */
+    private int chunkAt(int index) {
+        if (_chunks == null) {
+            return 0;
+        }
+        final int ci = index >>> CHUNK_SHIFT;
+        if (ci < _chunkCount && _offsets[ci] <= index && (ci+1 == _chunkCount || index < _offsets[ci+1])) {
+            return ci;
+        }
+        final int idx = Arrays.binarySearch(_offsets, 0, _chunkCount, index);
+        return idx >= 0 ? idx : -(idx+1) - 1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + _size);
+        }
+    }
+
+    private void insertAt(int ci, int idx, int key, V value) {
+        if (chunk(ci).size == CHUNK_SIZE) {
+            if (ci == _chunkCount - 1 && idx == CHUNK_SIZE) {
+                // appending to a new chunk keeps the chunks full
+                addChunk(ci+1, new Chunk(CHUNK_SIZE));
+                ci++;
+                idx = 0;
+            } else {
+                final int half = splitChunk(ci);
+                if (idx > half) {
+                    ci++;
+                    idx -= half;
+                }
+            }
+        }
+        chunk(ci).insertAt(idx, key, value);
+        _size++;
+        _modCount++;
+        if (_chunks != null) {
+            if (idx == 0) {
+                _firstKeys[ci] = key;
+            }
+            for (int i = ci+1; i < _chunkCount; i++) {
+                _offsets[i]++;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int ci, int idx) {
+        final Chunk chunk = chunk(ci);
+        final V prev = (V)chunk.removeAt(idx);
+        _size--;
+        _modCount++;
+        if (_chunks != null) {
+            for (int i = ci+1; i < _chunkCount; i++) {
+                _offsets[i]--;
+            }
+            if (chunk.size == 0) {
+                removeChunk(ci);
+            } else {
+                if (idx == 0) {
+                    _firstKeys[ci] = chunk.keys[0];
+                }
+                mergeChunk(ci);
+            }
+        }
+        return prev;
+    }
+
+    /**
+     * Moves the upper half of a full chunk into a new chunk
+     *
+     * @return the number of entries left in the chunk
+     */
+    private int splitChunk(int ci) {
+        final Chunk chunk = chunk(ci);
+        final int half = chunk.size >>> 1;
+        final Chunk upper = new Chunk(CHUNK_SIZE);
+        upper.size = chunk.size - half;
+        System.arraycopy(chunk.keys, half, upper.keys, 0, upper.size);
+        System.arraycopy(chunk.values, half, upper.values, 0, upper.size);
+        Arrays.fill(chunk.values, half, chunk.size, null);
+        chunk.size = half;
+        addChunk(ci+1, upper);
+        return half;
+    }
+
+    /**
+     * Merges a chunk with a neighbour, if both are sparse, so the chunks don't degenerate
+     * when many entries are removed
+     */
+    private void mergeChunk(int ci) {
+        final int limit = CHUNK_SIZE / 2;
+        final int lower;
+        if (ci+1 < _chunkCount && _chunks[ci].size + _chunks[ci+1].size <= limit) {
+            lower = ci;
+        } else if (ci > 0 && _chunks[ci-1].size + _chunks[ci].size <= limit) {
+            lower = ci-1;
+        } else {
+            return;
+        }
+        _chunks[lower].addAll(_chunks[lower+1]);
+        removeChunk(lower+1);
+    }
+
+    private void addChunk(int ci, Chunk chunk) {
+        if (_chunks == null) {
+            _chunks = new Chunk[DEFAULT_CAPACITY];
+            _offsets = new int[DEFAULT_CAPACITY];
+            _firstKeys = new int[DEFAULT_CAPACITY];
+            _chunks[0] = _first;
+            _firstKeys[0] = _first.keys[0];
+        } else if (_chunkCount == _chunks.length) {
+            final int newCapacity = _chunkCount + (_chunkCount >> 1);
+            _chunks = Arrays.copyOf(_chunks, newCapacity);
+            _offsets = Arrays.copyOf(_offsets, newCapacity);
+            _firstKeys = Arrays.copyOf(_firstKeys, newCapacity);
+        }
+        final int moved = _chunkCount - ci;
+        System.arraycopy(_chunks, ci, _chunks, ci+1, moved);
+        System.arraycopy(_offsets, ci, _offsets, ci+1, moved);
+        System.arraycopy(_firstKeys, ci, _firstKeys, ci+1, moved);
+        _chunks[ci] = chunk;
+        _offsets[ci] = _offsets[ci-1] + _chunks[ci-1].size;
+        _firstKeys[ci] = chunk.size > 0 ? chunk.keys[0] : 0;
+        _chunkCount++;
+    }
+
+    private void removeChunk(int ci) {
+        final int moved = _chunkCount - ci - 1;
+        System.arraycopy(_chunks, ci+1, _chunks, ci, moved);
+        System.arraycopy(_offsets, ci+1, _offsets, ci, moved);
+        System.arraycopy(_firstKeys, ci+1, _firstKeys, ci, moved);
+        _chunks[--_chunkCount] = null;
+        _first = _chunks[0];
+        if (_chunkCount == 1) {
+            _chunks = null;
+            _offsets = null;
+            _firstKeys = null;
+        }
+    }
+
+    /**
+     * A part of the map with sorted keys
+     */
+    private static final class Chunk {
+        private int[] keys;
+        private Object[] values;
+        private int size;
+
+        Chunk(int capacity) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+        }
+
+        /**
+         * Searches the index of the key
+         *
+         * @return the index of the key, if contained, otherwise {@code (-(insertion point) - 1)}
+         */
+        int indexOf(int key) {
+            if (size == 0) {
+                return -1;
+            }
+            final int first = keys[0];
+            final int last = keys[size-1];
+            if (key < first) {
+                return -1;
+            }
+            if (key > last) {
+                return -(size+1);
+            }
+            // dense run - all keys between first and last are present, so no search is necessary
+            if (last - first == size - 1) {
+                return key - first;
+            }
+            return Arrays.binarySearch(keys, 0, size, key);
+        }
+
+        void insertAt(int idx, int key, Object value) {
+            if (size == keys.length) {
+                grow(size + 1);
+            }
+            if (idx < size) {
+                System.arraycopy(keys, idx, keys, idx+1, size-idx);
+                System.arraycopy(values, idx, values, idx+1, size-idx);
+            }
+            keys[idx] = key;
+            values[idx] = value;
+            size++;
+        }
+
+        Object removeAt(int idx) {
+            final Object prev = values[idx];
+            final int moved = size - idx - 1;
+            if (moved > 0) {
+                System.arraycopy(keys, idx+1, keys, idx, moved);
+                System.arraycopy(values, idx+1, values, idx, moved);
+            }
+            values[--size] = null;
+            return prev;
+        }
+
+        void addAll(Chunk other) {
+            if (size + other.size > keys.length) {
+                grow(size + other.size);
+            }
+            System.arraycopy(other.keys, 0, keys, size, other.size);
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        private void grow(int minCapacity) {
+            final int newCapacity = Math.min(CHUNK_SIZE, Math.max(minCapacity, Math.max(DEFAULT_CAPACITY, size + (size >> 1))));
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    /**
+     * An unmodifiable view of the keys in the range [fromKey, toKey), where a {@code null} bound is unbounded
+     */
+    private final class SortedMapView extends AbstractMap<Integer, V> implements SortedMap<Integer, V> {
+        private final Integer _fromKey;
+        private final Integer _toKey;
+
+        SortedMapView(Integer fromKey, Integer toKey) {
+            _fromKey = fromKey;
+            _toKey = toKey;
+        }
+
+        @Override
+        public int size() {
+            return toIndex() - fromIndex();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size() == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && inRange((Integer)key) && IntSortedMap.this.containsKey((Integer)key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return key instanceof Integer && inRange((Integer)key) ? IntSortedMap.this.get((Integer)key) : null;
+        }
+
+        @Override
+        public Comparator<? super Integer> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<Integer, V> subMap(Integer fromKey, Integer toKey) {
+            return view(Objects.requireNonNull(fromKey), Objects.requireNonNull(toKey));
+        }
+
+        @Override
+        public SortedMap<Integer, V> headMap(Integer toKey) {
+            return view(null, Objects.requireNonNull(toKey));
+        }
+
+        @Override
+        public SortedMap<Integer, V> tailMap(Integer fromKey) {
+            return view(Objects.requireNonNull(fromKey), null);
+        }
+
+        @Override
+        public Integer firstKey() {
+            final int index = fromIndex();
+            if (index >= toIndex()) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(index);
+        }
+
+        @Override
+        public Integer lastKey() {
+            final int index = toIndex() - 1;
+            if (index < fromIndex()) {
+                throw new NoSuchElementException();
+            }
+            return keyAt(index);
+        }
+
+        @Override
+        public Set<Map.Entry<Integer, V>> entrySet() {
+            return new AbstractSet<Map.Entry<Integer, V>>() {
+                @Override
+                public Iterator<Map.Entry<Integer, V>> iterator() {
+                    return new Iterator<Map.Entry<Integer, V>>() {
+                        private final int _end = toIndex();
+                        private final int _expectedModCount = _modCount;
+                        private int _next = fromIndex();
+
+                        @Override
+                        public boolean hasNext() {
+                            return _next < _end;
+                        }
+
+                        @Override
+                        public Map.Entry<Integer, V> next() {
+                            if (_modCount != _expectedModCount) {
+                                throw new ConcurrentModificationException();
+                            }
+                            if (_next >= _end) {
+                                throw new NoSuchElementException();
+                            }
+                            final int index = _next++;
+                            return new AbstractMap.SimpleImmutableEntry<>(keyAt(index), valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SortedMapView.this.size();
+                }
+            };
+        }
+
+        private int fromIndex() {
+            return _fromKey == null ? 0 : headSize(_fromKey);
+        }
+
+        private int toIndex() {
+            return _toKey == null ? _size : headSize(_toKey);
+        }
+
+        private boolean inRange(int key) {
+            return (_fromKey == null || key >= _fromKey) && (_toKey == null || key < _toKey);
+        }
+
+        private SortedMap<Integer, V> view(Integer fromKey, Integer toKey) {
+            if (fromKey != null && toKey != null && fromKey > toKey) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+            // like the TreeMap views, the bounds of a nested view must be within the outer range
+            if (!inBounds(fromKey) || !inBounds(toKey)) {
+                throw new IllegalArgumentException("key out of range");
+            }
+            return new SortedMapView(fromKey == null ? _fromKey : fromKey, toKey == null ? _toKey : toKey);
+        }
+
+        private boolean inBounds(Integer key) {
+            return key == null || ((_fromKey == null || key >= _fromKey) && (_toKey == null || key <= _toKey));
+        }
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+        private int _next;
+        private int _nextChunk;
+        private int _last = -1;
+        private int _expectedModCount = _modCount;
+
+        @Override
+        public boolean hasNext() {
+            return _next < _size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V next() {
+            checkForComodification();
+            if (_next >= _size) {
+                throw new NoSuchElementException();
+            }
+            Chunk chunk = chunk(_nextChunk);
+            int idx = _next - offset(_nextChunk);
+            if (idx >= chunk.size) {
+                chunk = chunk(++_nextChunk);
+                idx = 0;
+            }
+            _last = _next++;
+            return (V)chunk.values[idx];
+        }
+
+        @Override
+        public void remove() {
+            if (_last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            final int ci = chunkAt(_last);
+            removeAt(ci, _last - offset(ci));
+            _next = _last;
+            _nextChunk = _next < _size ? chunkAt(_next) : 0;
+            _last = -1;
+            _expectedModCount = _modCount;
+        }
+
+        private void checkForComodification() {
+            if (_modCount != _expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -26,7 +26,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.poi.EncryptedDocumentException;
 import org.apache.poi.hssf.HSSFTestDataSamples;
@@ -36,12 +38,17 @@ import org.apache.poi.hssf.record.DVALRecord;
 import org.apache.poi.hssf.record.DVRecord;
 import org.apache.poi.hssf.record.EOFRecord;
 import org.apache.poi.hssf.record.FeatHdrRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
 import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.SSTRecord;
 import org.apache.poi.hssf.record.SelectionRecord;
 import org.apache.poi.hssf.record.WindowTwoRecord;
 import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 /**
  * Testing for {@link HSSFEventFactory}
@@ -53,6 +60,10 @@ final class TestHSSFEventFactory {
         records.clear();
         HSSFRequest req = new HSSFRequest();
         req.addListenerForAllRecords(records::add);
+        processSample(sampleFileName, req);
+    }
+
+    private static void processSample(String sampleFileName, HSSFRequest req) throws IOException {
         try (InputStream is = HSSFTestDataSamples.openSampleFileStream(sampleFileName);
              POIFSFileSystem fs = new POIFSFileSystem(is)) {
             HSSFEventFactory factory = new HSSFEventFactory();
@@ -166,4 +177,36 @@ final class TestHSSFEventFactory {
             Biff8EncryptionKey.setCurrentUserPassword(null);
         }
     }
+
+    @ParameterizedTest
+    @CsvSource({"SimpleWithSkip.xls,", "ContinueRecordProblem.xls,", "42844.xls,",
+        "xor-encryption-abc.xls, abc", "password.xls, password"})
+    void testSkipUnregisteredRecords(String sampleFileName, String password) throws Exception {
+        List<Short> sids = Arrays.asList(BoundSheetRecord.sid, SSTRecord.sid, LabelSSTRecord.sid,
+            NumberRecord.sid, FormulaRecord.sid, EOFRecord.sid);
+
+        Biff8EncryptionKey.setCurrentUserPassword(password);
+        try {
+            openSample(sampleFileName);
+            List<org.apache.poi.hssf.record.Record> expected = records.stream()
+                .filter(r -> sids.contains(r.getSid())).collect(Collectors.toList());
+
+            List<org.apache.poi.hssf.record.Record> actual = new ArrayList<>();
+            HSSFRequest req = new HSSFRequest();
+            for (short sid : sids) {
+                req.addListener(actual::add, sid);
+            }
+            req.setSkipUnregisteredRecords(true);
+            processSample(sampleFileName, req);
+
+            assertFalse(expected.isEmpty());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+                assertArrayEquals(expected.get(i).serialize(), actual.get(i).serialize());
+            }
+        } finally {
+            Biff8EncryptionKey.setCurrentUserPassword(null);
+        }
+    }
 }
@@ -19,10 +19,15 @@ package org.apache.poi.hssf.record;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import org.apache.poi.util.HexRead;
+import org.apache.poi.util.RecordFormatException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -104,6 +109,43 @@ final class TestRecordInputStream {
         in.reset();
     }
 
+    @Test
+    void testSkipRemainder() {
+        byte[] data = HexRead.readFromString(""
+                + "AA AA "  // fake SID
+                + "06 00 "  // rec len 6
+                + "01 02 03 04 05 06 "
+                + "3C 00 "  // Continue sid
+                + "02 00 "  // rec len 2
+                + "07 08 "
+                );
+        RecordInputStream in = new RecordInputStream(new ByteArrayInputStream(data));
+        assertTrue(in.hasNextRecord());
+        in.nextRecord();
+        assertEquals(0x0201, in.readUShort());
+        in.skipRemainder();
+        assertEquals(0, in.remaining());
+
+        // continue records aren't skipped
+        assertTrue(in.hasNextRecord());
+        assertEquals(ContinueRecord.sid, in.getNextSid());
+        in.nextRecord();
+        in.skipRemainder();
+        assertFalse(in.hasNextRecord());
+    }
+
+    @Test
+    void testSkipRemainderTruncated() {
+        byte[] data = HexRead.readFromString(""
+                + "AA AA "  // fake SID
+                + "06 00 "  // rec len 6
+                + "01 02 03 "
+                );
+        RecordInputStream in = new RecordInputStream(new ByteArrayInputStream(data));
+        in.nextRecord();
+        assertThrows(RecordFormatException.class, in::skipRemainder);
+    }
+
     @ParameterizedTest
     @CsvSource({"1, 200", "0, 200", "999999999, 200", HeaderRecord.sid+", 200"})
     void testLeftoverDataException(int sid, int remainingByteCount) {
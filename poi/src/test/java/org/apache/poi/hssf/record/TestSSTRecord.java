@@ -20,6 +20,8 @@ package org.apache.poi.hssf.record;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.BufferedReader;
@@ -35,8 +37,10 @@ import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.record.common.UnicodeString;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.poifs.storage.RawDataUtil;
 import org.apache.poi.util.HexRead;
+import org.apache.poi.util.IOUtils;
 import org.apache.poi.util.LittleEndian;
 import org.apache.poi.util.LocaleUtil;
 import org.junit.jupiter.api.Test;
@@ -403,6 +407,74 @@ final class TestSSTRecord {
         assertRecordEquals(src, dst);
     }
 
+    @Test
+    void testLazyStringDecoding() throws IOException {
+        assertLazyStringDecoding(concatHexDumps("BigSSTRecord", "BigSSTRecordCR"));
+        assertLazyStringDecoding(concatHexDumps("BigSSTRecord2", "BigSSTRecord2CR1", "BigSSTRecord2CR2", "BigSSTRecord2CR3",
+            "BigSSTRecord2CR4", "BigSSTRecord2CR5", "BigSSTRecord2CR6", "BigSSTRecord2CR7"));
+        // the strings of these workbooks have extended (phonetic) data
+        assertLazyStringDecoding(readSSTData("50779_1.xls"));
+        assertLazyStringDecoding(readSSTData("50779_2.xls"));
+    }
+
+    /**
+     * @param sampleFileName the name of a sample workbook in the hssf test data directory
+     * @return the serialization of the {@link SSTRecord} and its {@link ContinueRecord}s
+     */
+    private static byte[] readSSTData(String sampleFileName) throws IOException {
+        byte[] data;
+        try (POIFSFileSystem fs = new POIFSFileSystem(HSSFTestDataSamples.openSampleFileStream(sampleFileName))) {
+            data = IOUtils.toByteArray(fs.createDocumentInputStream("Workbook"));
+        }
+        int start = -1;
+        int pos = 0;
+        while (pos + 4 <= data.length) {
+            int sid = LittleEndian.getUShort(data, pos);
+            if (start < 0 ? sid == SSTRecord.sid : sid != ContinueRecord.sid) {
+                if (start >= 0) {
+                    break;
+                }
+                start = pos;
+            }
+            pos += 4 + LittleEndian.getUShort(data, pos + 2);
+        }
+        assertTrue(start >= 0, "no SST record in " + sampleFileName);
+        return Arrays.copyOfRange(data, start, pos);
+    }
+
+    private static void assertLazyStringDecoding(byte[] data) {
+        SSTRecord eager = createSSTFromRawData(data);
+        SSTRecord lazy;
+        SSTRecord.setLazyStringDecoding(true);
+        try {
+            lazy = createSSTFromRawData(data);
+        } finally {
+            SSTRecord.setLazyStringDecoding(false);
+        }
+
+        assertEquals(eager.getNumStrings(), lazy.getNumStrings());
+        assertEquals(eager.getNumUniqueStrings(), lazy.getNumUniqueStrings());
+        assertEquals(eager.countStrings(), lazy.countStrings());
+
+        // access the strings out of order
+        int count = eager.countStrings();
+        UnicodeString[] accessed = new UnicodeString[count];
+        for (int i = count - 1; i >= 0; i -= 3) {
+            accessed[i] = lazy.getString(i);
+            assertEquals(eager.getString(i), accessed[i]);
+            assertSame(accessed[i], lazy.getString(i));
+        }
+
+        // the accessed instances are kept, when all strings are decoded
+        assertArrayEquals(eager.serialize(), lazy.serialize());
+        assertRecordEquals(eager, lazy);
+        for (int i = 0; i < count; i++) {
+            if (accessed[i] != null) {
+                assertSame(accessed[i], lazy.getString(i));
+            }
+        }
+    }
+
     @Test
     void test57456() {
         byte[] bytes = HexRead.readFromString("FC, 00, 08, 00, 00, 00, 00, 00, E1, 06, 00, 00");
@@ -0,0 +1,237 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.hssf.usermodel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.hssf.record.DBCellRecord;
+import org.apache.poi.hssf.record.IndexRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.util.HexDump;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.LittleEndian;
+import org.junit.jupiter.api.Test;
+
+final class TestSHSSFWorkbook {
+
+    private static void fillSheet(Workbook wb, Sheet sheet, int rows) {
+        CellStyle style = wb.createCellStyle();
+        style.setDataFormat(wb.createDataFormat().getFormat("0.00"));
+        for (int r = 0; r < rows; r++) {
+            // a few gaps and empty rows
+            if (r % 50 == 7) {
+                continue;
+            }
+            Row row = sheet.createRow(r);
+            if (r % 40 == 3) {
+                continue;
+            }
+            row.createCell(0).setCellValue("Row " + r);
+            row.createCell(1).setCellValue(r);
+            row.getCell(1).setCellStyle(style);
+            if (r % 3 == 0) {
+                row.createCell(2).setCellFormula("B" + (r + 1) + "*2");
+            }
+            if (r % 5 == 0) {
+                row.createCell(4).setCellValue(r % 2 == 0);
+            }
+            row.createCell(5).setCellValue("Shared " + (r % 10));
+        }
+    }
+
+    private static byte[] write(Workbook wb) throws IOException {
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        wb.write(bos);
+        return bos.toByteArray();
+    }
+
+    private static byte[] getWorkbookStream(byte[] file) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(file));
+             InputStream is = fs.createDocumentInputStream("Workbook")) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+
+    /**
+     * @return the records of the workbook stream as hex dumps, without the INDEX records
+     */
+    private static List<String> getRecordsWithoutIndex(byte[] stream) {
+        List<String> records = new ArrayList<>();
+        for (int pos = 0; pos < stream.length; ) {
+            int sid = LittleEndian.getUShort(stream, pos);
+            int len = LittleEndian.getUShort(stream, pos + 2);
+            if (sid != IndexRecord.sid) {
+                records.add(HexDump.toHex(Arrays.copyOfRange(stream, pos, pos + 4 + len)));
+            }
+            pos += 4 + len;
+        }
+        return records;
+    }
+
+    private static void assertIndexOffsets(byte[] stream) {
+        int dbcells = 0;
+        for (int pos = 0; pos < stream.length; ) {
+            int sid = LittleEndian.getUShort(stream, pos);
+            int len = LittleEndian.getUShort(stream, pos + 2);
+            if (sid == IndexRecord.sid) {
+                // the DBCELL offsets follow the reserved field, the row range and the DEFCOLWIDTH offset
+                for (int off = pos + 4 + 16; off < pos + 4 + len; off += 4) {
+                    assertEquals(DBCellRecord.sid, LittleEndian.getUShort(stream, LittleEndian.getInt(stream, off)));
+                    dbcells++;
+                }
+            }
+            pos += 4 + len;
+        }
+        assertTrue(dbcells > 0);
+    }
+
+    @Test
+    void sameRecordsAsHSSFWorkbook() throws IOException {
+        byte[] expected, actual;
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            fillSheet(wb, wb.createSheet("First"), 1000);
+            fillSheet(wb, wb.createSheet("Second"), 70);
+            wb.createSheet("Empty");
+            expected = write(wb);
+        }
+        try (SHSSFWorkbook wb = new SHSSFWorkbook(10)) {
+            fillSheet(wb, wb.createSheet("First"), 1000);
+            fillSheet(wb, wb.createSheet("Second"), 70);
+            wb.createSheet("Empty");
+            assertNull(wb.getSheetAt(0).getRow(0));
+            assertNotNull(wb.getSheetAt(0).getRow(999));
+            actual = write(wb);
+            // the rows can be written again
+            assertArrayEquals(actual, write(wb));
+        }
+        byte[] expectedStream = getWorkbookStream(expected), actualStream = getWorkbookStream(actual);
+        // the DBCELL offsets in the INDEX records of HSSFWorkbook are slightly off, so they are checked separately
+        assertEquals(getRecordsWithoutIndex(expectedStream), getRecordsWithoutIndex(actualStream));
+        assertIndexOffsets(actualStream);
+    }
+
+    @Test
+    void readBack() throws IOException {
+        byte[] data;
+        try (SHSSFWorkbook wb = new SHSSFWorkbook()) {
+            fillSheet(wb, wb.createSheet("Data"), 5000);
+            data = write(wb);
+        }
+        try (HSSFWorkbook wb = new HSSFWorkbook(new ByteArrayInputStream(data))) {
+            HSSFSheet sheet = wb.getSheet("Data");
+            assertEquals(0, sheet.getFirstRowNum());
+            assertEquals(4999, sheet.getLastRowNum());
+            assertEquals(4900, sheet.getPhysicalNumberOfRows());
+            HSSFRow row = sheet.getRow(4998);
+            assertEquals("Row 4998", row.getCell(0).getStringCellValue());
+            assertEquals(4998, row.getCell(1).getNumericCellValue(), 0);
+            assertEquals("0.00", row.getCell(1).getCellStyle().getDataFormatString());
+            assertEquals(CellType.FORMULA, row.getCell(2).getCellType());
+            assertEquals("B4999*2", row.getCell(2).getCellFormula());
+            assertEquals("Shared 8", row.getCell(5).getStringCellValue());
+            assertNull(sheet.getRow(7));
+            assertEquals(0, sheet.getRow(3).getPhysicalNumberOfCells());
+            assertEquals(3, sheet.getRow(4).getPhysicalNumberOfCells());
+        }
+    }
+
+    @Test
+    void rowsInFlushedRange() throws IOException {
+        try (SHSSFWorkbook wb = new SHSSFWorkbook(2)) {
+            HSSFSheet sheet = wb.createSheet();
+            for (int r = 0; r < 5; r++) {
+                sheet.createRow(r).createCell(0).setCellValue(r);
+            }
+            assertThrows(IllegalArgumentException.class, () -> sheet.createRow(2));
+            sheet.createRow(3);
+            wb.flushRows(sheet);
+            assertThrows(IllegalArgumentException.class, () -> sheet.createRow(4));
+            sheet.createRow(5);
+            assertThrows(IllegalStateException.class, () -> wb.cloneSheet(0));
+        }
+    }
+
+    @Test
+    void rowNumbersIncludeFlushedRows() throws IOException {
+        try (SHSSFWorkbook wb = new SHSSFWorkbook(2)) {
+            HSSFSheet sheet = wb.createSheet();
+            HSSFRow first = sheet.createRow(0);
+            for (int r = 1; r < 5; r++) {
+                sheet.createRow(sheet.getLastRowNum() + 1).createCell(0).setCellValue(r);
+            }
+            assertNull(sheet.getRow(0));
+            assertEquals(0, sheet.getFirstRowNum());
+            assertEquals(4, sheet.getLastRowNum());
+            assertEquals(5, sheet.getPhysicalNumberOfRows());
+
+            wb.flushRows(sheet);
+            assertEquals(0, sheet.getFirstRowNum());
+            assertEquals(4, sheet.getLastRowNum());
+            assertEquals(5, sheet.getPhysicalNumberOfRows());
+            sheet.createRow(sheet.getLastRowNum() + 1).createCell(0).setCellValue(5);
+            assertEquals(5, sheet.getLastRowNum());
+            assertEquals(6, sheet.getPhysicalNumberOfRows());
+
+            // the written rows can't be modified anymore
+            assertThrows(IllegalArgumentException.class, () -> sheet.removeRow(first));
+            assertThrows(IllegalArgumentException.class, () -> sheet.shiftRows(5, 5, -1));
+            assertThrows(IllegalArgumentException.class, () -> sheet.shiftRows(3, 5, 2));
+            sheet.shiftRows(5, 5, 1);
+            assertEquals(5, sheet.getRow(6).getCell(0).getNumericCellValue(), 0);
+            assertEquals(6, sheet.getLastRowNum());
+        }
+    }
+
+    @Test
+    void unlimitedWindow() throws IOException {
+        try (SHSSFWorkbook wb = new SHSSFWorkbook(-1)) {
+            HSSFSheet sheet = wb.createSheet();
+            for (int r = 0; r < 200; r++) {
+                sheet.createRow(r).createCell(0).setCellValue(r);
+            }
+            assertNotNull(sheet.getRow(0));
+            wb.flushRows(sheet, 50);
+            assertNull(sheet.getRow(149));
+            assertNotNull(sheet.getRow(150));
+            try (HSSFWorkbook wbBack = new HSSFWorkbook(new ByteArrayInputStream(write(wb)))) {
+                assertEquals(199, wbBack.getSheetAt(0).getRow(199).getCell(0).getNumericCellValue(), 0);
+                assertEquals(200, wbBack.getSheetAt(0).getPhysicalNumberOfRows());
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SHSSFWorkbook(0));
+    }
+}
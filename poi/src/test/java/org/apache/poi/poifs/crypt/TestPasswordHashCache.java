@@ -0,0 +1,127 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.crypt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
+
+class TestPasswordHashCache {
+    private static final byte[] SALT1 = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 };
+    private static final byte[] SALT2 = { 16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1 };
+
+    @Test
+    void sameHashAsCryptoFunctions() {
+        PasswordHashCache cache = new PasswordHashCache(4);
+        byte[] expected = CryptoFunctions.hashPassword("pass", HashAlgorithm.sha512, SALT1, 1000, true);
+
+        byte[] hash1 = cache.hashPassword("pass", HashAlgorithm.sha512, SALT1, 1000, true);
+        byte[] hash2 = cache.hashPassword("pass", HashAlgorithm.sha512, SALT1, 1000, true);
+        assertArrayEquals(expected, hash1);
+        assertArrayEquals(expected, hash2);
+        assertNotSame(hash1, hash2);
+        assertEquals(1, cache.size());
+
+        // every part of the key results in a new entry
+        assertFalse(Arrays.equals(expected, cache.hashPassword("pass2", HashAlgorithm.sha512, SALT1, 1000, true)));
+        cache.hashPassword("pass", HashAlgorithm.sha512, SALT2, 1000, true);
+        cache.hashPassword("pass", HashAlgorithm.sha512, SALT1, 1001, true);
+        assertEquals(4, cache.size());
+        assertArrayEquals(CryptoFunctions.hashPassword("pass", HashAlgorithm.sha1, SALT1, 1000, false),
+            cache.hashPassword("pass", HashAlgorithm.sha1, SALT1, 1000, false));
+
+        // bounded
+        assertEquals(4, cache.size());
+
+        // a modified result doesn't change the cached hash
+        byte[] hash3 = cache.hashPassword("pass", HashAlgorithm.sha1, SALT1, 1000, false);
+        hash3[0]++;
+        assertArrayEquals(CryptoFunctions.hashPassword("pass", HashAlgorithm.sha1, SALT1, 1000, false),
+            cache.hashPassword("pass", HashAlgorithm.sha1, SALT1, 1000, false));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHashCache(0));
+    }
+
+    @Test
+    void decryptorUsesCache() throws Exception {
+        byte[] testData = new byte[5000];
+        for (int i = 0; i < testData.length; i++) {
+            testData[i] = (byte)i;
+        }
+
+        for (EncryptionMode mode : new EncryptionMode[]{ EncryptionMode.agile, EncryptionMode.standard }) {
+            EncryptionInfo infoEnc = new EncryptionInfo(mode);
+            Encryptor enc = infoEnc.getEncryptor();
+            enc.confirmPassword("pass");
+
+            byte[] encData;
+            try (POIFSFileSystem fsEnc = new POIFSFileSystem()) {
+                try (OutputStream os = enc.getDataStream(fsEnc)) {
+                    os.write(testData);
+                }
+                UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+                fsEnc.writeFilesystem(bos);
+                encData = bos.toByteArray();
+            }
+
+            PasswordHashCache cache = new PasswordHashCache(2);
+            for (int i = 0; i < 2; i++) {
+                try (POIFSFileSystem fsDec = new POIFSFileSystem(new ByteArrayInputStream(encData))) {
+                    Decryptor dec = new EncryptionInfo(fsDec).getDecryptor();
+                    dec.setPasswordHashCache(cache);
+                    assertFalse(dec.verifyPassword("wrong"));
+                    assertTrue(dec.verifyPassword("pass"));
+                    try (InputStream is = dec.getDataStream(fsDec)) {
+                        assertArrayEquals(testData, IOUtils.toByteArray(is));
+                    }
+                }
+                assertEquals(2, cache.size(), mode.name());
+            }
+        }
+    }
+
+    @Test
+    void defaultCache() throws Exception {
+        PasswordHashCache cache = new PasswordHashCache(2);
+        try {
+            Decryptor.setDefaultPasswordHashCache(cache);
+            Decryptor dec = new EncryptionInfo(EncryptionMode.agile).getDecryptor();
+            assertEquals(cache, dec.getPasswordHashCache());
+            assertEquals(cache, dec.copy().getPasswordHashCache());
+        } finally {
+            Decryptor.setDefaultPasswordHashCache(null);
+        }
+        assertNull(new EncryptionInfo(EncryptionMode.agile).getDecryptor().getPasswordHashCache());
+    }
+}
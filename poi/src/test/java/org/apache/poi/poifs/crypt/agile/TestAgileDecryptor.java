@@ -19,13 +19,17 @@ package org.apache.poi.poifs.crypt.agile;
 
 import static org.apache.poi.poifs.crypt.Decryptor.DEFAULT_POIFS_ENTRY;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
@@ -37,6 +41,7 @@ import org.apache.poi.poifs.filesystem.DocumentInputStream;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.util.HexDump;
 import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -99,4 +104,71 @@ class TestAgileDecryptor {
                 HexDump.dump(encDocument, 0, 0) + " full encrypted \n" +
                 HexDump.dump(encData, 0, 0));
     }
+
+    @Test
+    void testParallelChunks() throws Exception {
+        // enough chunks to exceed the number of pending chunks, and a partial last chunk
+        byte[] testData = new byte[4096 * (4 * Runtime.getRuntime().availableProcessors() + 3) + 1234];
+        for (int i = 0; i < testData.length; i++) {
+            testData[i] = (byte)(i * 31 + (i >> 12));
+        }
+
+        EncryptionInfo infoEnc = new EncryptionInfo(EncryptionMode.agile);
+        Encryptor enc = infoEnc.getEncryptor();
+        enc.confirmPassword("f");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            byte[] encSequential = encryptDocument(enc, testData);
+            enc.setExecutor(executor);
+            byte[] encParallel = encryptDocument(enc, testData);
+            // the chunks are encrypted with the same key and IVs, so the output needs to be identical
+            assertArrayEquals(getEncryptedPackage(encSequential), getEncryptedPackage(encParallel));
+
+            try (POIFSFileSystem fsDec = new POIFSFileSystem(new ByteArrayInputStream(encParallel))) {
+                EncryptionInfo infoDec = new EncryptionInfo(fsDec);
+                Decryptor dec = infoDec.getDecryptor();
+                assertTrue(dec.verifyPassword("f"));
+                dec.setExecutor(executor);
+
+                try (InputStream is = dec.getDataStream(fsDec)) {
+                    assertArrayEquals(testData, IOUtils.toByteArray(is));
+                }
+
+                // skip within the read ahead chunks and beyond them
+                try (InputStream is = dec.getDataStream(fsDec)) {
+                    byte[] buf = new byte[100];
+                    assertEquals(100, is.read(buf));
+                    assertEquals(5000, is.skip(5000));
+                    assertEquals(100, is.read(buf));
+                    assertArrayEquals(Arrays.copyOfRange(testData, 5100, 5200), buf);
+                    long skip = 4096L * 3 * Runtime.getRuntime().availableProcessors();
+                    assertEquals(skip, is.skip(skip));
+                    assertEquals(100, is.read(buf));
+                    int off = (int)(5300 + skip);
+                    assertArrayEquals(Arrays.copyOfRange(testData, off - 100, off), buf);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] encryptDocument(Encryptor enc, byte[] testData) throws Exception {
+        try (POIFSFileSystem fsEnc = new POIFSFileSystem()) {
+            try (OutputStream os = enc.getDataStream(fsEnc)) {
+                os.write(testData);
+            }
+            UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+            fsEnc.writeFilesystem(bos);
+            return bos.toByteArray();
+        }
+    }
+
+    private static byte[] getEncryptedPackage(byte[] encData) throws Exception {
+        try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(encData));
+             DocumentInputStream dis = fs.getRoot().createDocumentInputStream(DEFAULT_POIFS_ENTRY)) {
+            return IOUtils.toByteArray(dis);
+        }
+    }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.poi.poifs.filesystem;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -24,12 +25,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.apache.poi.POIDataSamples;
 import org.apache.poi.util.SuppressForbidden;
+import org.apache.poi.util.TempFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -364,6 +369,71 @@ final class TestDocumentInputStream {
         assertEquals(0, available(stream));
     }
 
+    /**
+     * Tests the zero-copy reads of a memory mapped file, whose document
+     * is split into two runs of consecutive blocks
+     */
+    @Test
+    void testReadByteBufferMapped() throws IOException {
+        byte[] first = new byte[20000];
+        byte[] second = new byte[10000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte) (i * 7);
+        }
+        Arrays.fill(second, (byte) 3);
+        byte[] extended = Arrays.copyOf(first, 30000);
+        Arrays.fill(extended, first.length, extended.length, (byte) 5);
+
+        File file = TempFile.createTempFile("TestDocumentInputStream", ".ole2");
+        try {
+            try (POIFSFileSystem fs = new POIFSFileSystem();
+                 OutputStream os = new FileOutputStream(file)) {
+                fs.createDocument(new ByteArrayInputStream(first), "First");
+                fs.createDocument(new ByteArrayInputStream(second), "Second");
+                // the additional blocks come after the second document
+                fs.createOrUpdateDocument(new ByteArrayInputStream(extended), "First");
+                fs.writeFilesystem(os);
+            }
+
+            try (POIFSFileSystem fs = new POIFSFileSystem(file, true, true)) {
+                assertTrue(fs.isMapped());
+                try (DocumentInputStream stream = fs.createDocumentInputStream("First")) {
+                    // the first run of blocks is returned as a whole
+                    ByteBuffer bb = stream.readByteBuffer(extended.length);
+                    assertTrue(bb.isReadOnly());
+                    assertTrue(bb.remaining() > 512, "Had: " + bb.remaining());
+
+                    byte[] data = new byte[extended.length];
+                    int offset = bb.remaining();
+                    bb.get(data, 0, offset);
+                    while (offset < data.length) {
+                        bb = stream.readByteBuffer(data.length - offset);
+                        int length = bb.remaining();
+                        bb.get(data, offset, length);
+                        offset += length;
+                    }
+                    assertArrayEquals(extended, data);
+                    assertEquals(0, stream.readByteBuffer(10).remaining());
+
+                    stream.reset();
+                    assertEquals(25000, stream.skip(25000));
+                    assertEquals(5, stream.readByte());
+                    stream.mark(0);
+                    assertEquals(5, stream.readByte());
+                    stream.reset();
+                    assertEquals(25001, extended.length - available(stream));
+                }
+                try (DocumentInputStream stream = fs.createDocumentInputStream("Second")) {
+                    byte[] data = new byte[second.length];
+                    stream.readFully(data);
+                    assertArrayEquals(second, data);
+                }
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
     /**
      * Test that we can read files at multiple levels down the tree
      */
@@ -21,6 +21,7 @@ import static org.apache.poi.POIDataSamples.writeOutAndReadBack;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -37,6 +38,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -279,6 +281,94 @@ final class TestPOIFSStream {
         }
     }
 
+    /**
+     * Consecutive blocks are read ahead at once, and the
+     * chain is recorded for later iterations
+     */
+    @Test
+    void testReadAheadAndExtents() throws Exception {
+        int readAheadSize = POIFSStream.getReadAheadSize();
+        try (POIFSFileSystem fs = new POIFSFileSystem(_inst.getFile("BlockSize512.zvi"))) {
+            POIFSStream.setReadAheadSize(0);
+            List<byte[]> expected = readBlocks(new POIFSStream(fs, 0));
+            assertEquals(23, expected.size());
+
+            POIFSStream.setReadAheadSize(4 * 512);
+            POIFSStream stream = new POIFSStream(fs, 0);
+            for (int i = 0; i < 2; i++) {
+                List<byte[]> actual = readBlocks(stream);
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertArrayEquals(expected.get(j), actual.get(j), "block " + j);
+                }
+
+                BlockExtents extents = stream.getExtents();
+                assertEquals(23, extents.getBlockCount());
+                assertTrue(extents.getExtentCount() < 23);
+                assertEquals(0, extents.getBlock(0));
+            }
+        } finally {
+            POIFSStream.setReadAheadSize(readAheadSize);
+        }
+    }
+
+    /**
+     * Blocks past the end of a truncated file aren't read ahead,
+     * but fail like without read ahead
+     */
+    @Test
+    void testReadAheadTruncated() throws Exception {
+        byte[] data = new byte[20 * 512];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte)i;
+        }
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        try (POIFSFileSystem fs = new POIFSFileSystem()) {
+            fs.createDocument(new ByteArrayInputStream(data), "big");
+            fs.writeFilesystem(bos);
+        }
+        // keep the header and the first 12 blocks, the document starts at block 2
+        byte[] truncated = Arrays.copyOf(bos.toByteArray(), 13 * 512);
+
+        File file = TempFile.createTempFile("TestPOIFS", ".ole2");
+        int readAheadSize = POIFSStream.getReadAheadSize();
+        try {
+            try (OutputStream fout = new FileOutputStream(file)) {
+                fout.write(truncated);
+            }
+            POIFSStream.setReadAheadSize(16 * 512);
+            try (POIFSFileSystem fs = new POIFSFileSystem(new ByteArrayInputStream(truncated));
+                 POIFSFileSystem fileFs = new POIFSFileSystem(file, true)) {
+                for (POIFSFileSystem truncatedFs : Arrays.asList(fs, fileFs)) {
+                    DocumentNode doc = (DocumentNode)truncatedFs.getRoot().getEntry("big");
+                    assertEquals(2, doc.getProperty().getStartBlock());
+                    Iterator<ByteBuffer> it = new POIFSStream(truncatedFs, 2).iterator();
+                    for (int i = 0; i < 10; i++) {
+                        ByteBuffer bb = it.next();
+                        assertEquals(512, bb.remaining());
+                        assertEquals((byte)(i * 512 + 1), bb.get(1));
+                    }
+                    IndexOutOfBoundsException ex = assertThrows(IndexOutOfBoundsException.class, it::next);
+                    assertEquals("Block 12 not found", ex.getMessage());
+                }
+            }
+        } finally {
+            POIFSStream.setReadAheadSize(readAheadSize);
+            assertTrue(file.delete());
+        }
+    }
+
+    private static List<byte[]> readBlocks(POIFSStream stream) {
+        List<byte[]> blocks = new ArrayList<>();
+        for (ByteBuffer bb : stream) {
+            assertEquals(512, bb.remaining());
+            byte[] block = new byte[512];
+            bb.get(block);
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
     /**
      * Tests that we can load some streams that are
      * stored in the mini stream.
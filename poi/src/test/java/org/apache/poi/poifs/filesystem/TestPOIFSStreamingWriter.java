@@ -0,0 +1,106 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.poifs.filesystem;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.apache.commons.io.output.UnsynchronizedByteArrayOutputStream;
+import org.apache.poi.util.IOUtils;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link POIFSStreamingWriter} by reading the written files with {@link POIFSFileSystem}
+ */
+final class TestPOIFSStreamingWriter {
+
+    private static byte[] createData(int size, long seed) {
+        byte[] data = new byte[size];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+    private static POIFSFileSystem writeAndRead(POIFSStreamingWriter writer) throws IOException {
+        UnsynchronizedByteArrayOutputStream bos = UnsynchronizedByteArrayOutputStream.builder().get();
+        writer.write(bos);
+        assertEquals(0, bos.size() % 512);
+        return new POIFSFileSystem(bos.toInputStream());
+    }
+
+    private static void assertDocument(POIFSFileSystem fs, String name, byte[] expected) throws IOException {
+        DocumentEntry entry = (DocumentEntry) fs.getRoot().getEntry(name);
+        assertEquals(expected.length, entry.getSize(), name);
+        try (InputStream is = fs.createDocumentInputStream(name)) {
+            assertArrayEquals(expected, IOUtils.toByteArray(is), name);
+        }
+    }
+
+    @Test
+    void smallAndBigDocuments() throws IOException {
+        int[] sizes = { 0, 1, 63, 64, 100, 4095, 4096, 4097, 20000, 512 * 300 };
+        POIFSStreamingWriter writer = new POIFSStreamingWriter();
+        for (int i = 0; i < sizes.length; i++) {
+            byte[] data = createData(sizes[i], i);
+            if (i % 2 == 0) {
+                writer.addDocument("Doc" + i, data);
+            } else {
+                writer.addDocument("Doc" + i, data.length, out -> {
+                    // written in pieces
+                    for (int off = 0; off < data.length; off += 1000) {
+                        out.write(data, off, Math.min(1000, data.length - off));
+                    }
+                });
+            }
+        }
+        try (POIFSFileSystem fs = writeAndRead(writer)) {
+            assertEquals(sizes.length, fs.getRoot().getEntryCount());
+            for (int i = 0; i < sizes.length; i++) {
+                assertDocument(fs, "Doc" + i, createData(sizes[i], i));
+            }
+        }
+    }
+
+    @Test
+    void allocationTableExtension() throws IOException {
+        // more than 109 allocation table blocks, which don't fit into the header
+        byte[] data = createData(128 * 512 * 120, 42);
+        POIFSStreamingWriter writer = new POIFSStreamingWriter();
+        writer.addDocument("Big", data);
+        writer.addDocument("Small", createData(10, 43));
+        try (POIFSFileSystem fs = writeAndRead(writer)) {
+            assertDocument(fs, "Big", data);
+            assertDocument(fs, "Small", createData(10, 43));
+        }
+    }
+
+    @Test
+    void wrongSize() {
+        POIFSStreamingWriter writer = new POIFSStreamingWriter();
+        writer.addDocument("Doc", 5000, out -> out.write(new byte[4999]));
+        assertThrows(IOException.class, () -> writer.write(UnsynchronizedByteArrayOutputStream.builder().get()));
+
+        POIFSStreamingWriter writer2 = new POIFSStreamingWriter();
+        writer2.addDocument("Doc", 10, out -> out.write(new byte[11]));
+        assertThrows(IOException.class, () -> writer2.write(UnsynchronizedByteArrayOutputStream.builder().get()));
+    }
+}
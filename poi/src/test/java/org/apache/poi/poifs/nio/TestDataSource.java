@@ -20,6 +20,7 @@
 package org.apache.poi.poifs.nio;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -57,6 +58,33 @@ class TestDataSource {
         }
     }
 
+    @Test
+    void testFileMapped() throws Exception {
+        File f = data.getFile("Notes.ole2");
+
+        try (FileBackedDataSource ds = new FileBackedDataSource(f, true, true)) {
+            assertTrue(ds.isMapped());
+            checkDataSource(ds, false);
+
+            // the buffers share the mapped memory
+            ByteBuffer bs = ds.read(512, 512);
+            assertTrue(bs.isDirect());
+            assertEquals(512, bs.remaining());
+        }
+
+        // writable files are mapped per read
+        File temp = TempFile.createTempFile("TestDataSource", ".test");
+        try {
+            writeDataToFile(temp);
+            try (FileBackedDataSource ds = new FileBackedDataSource(temp, false, true)) {
+                assertFalse(ds.isMapped());
+                checkDataSource(ds, true);
+            }
+        } finally {
+            assertTrue(temp.delete());
+        }
+    }
+
     @Test
     void testFileWritable() throws Exception {
         File temp = TempFile.createTempFile("TestDataSource", ".test");
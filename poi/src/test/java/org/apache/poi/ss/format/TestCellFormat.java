@@ -18,14 +18,20 @@ package org.apache.poi.ss.format;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import javax.swing.JLabel;
@@ -1053,4 +1059,56 @@ class TestCellFormat {
         assertNotNull(part);
         assertEquals("0h 0m 9s", part.apply(0.0001).text);
     }
+
+    @Test
+    void testCachedFormats() {
+        String format = "[Blue]0.00E+00;[Red]-0.00E+00";
+        CellFormat cf = CellFormat.getInstance(Locale.GERMANY, format);
+        long hits = CellFormat.getFormatCache().getHitCount();
+        assertSame(cf, CellFormat.getInstance(Locale.GERMANY, format));
+        assertEquals(hits + 1, CellFormat.getFormatCache().getHitCount());
+
+        // the same part in another format is shared
+        CellFormat other = CellFormat.getInstance(Locale.GERMANY, "[Blue]0.00E+00;[Green]0");
+        assertSame(cf.apply(1.0).textColor, other.apply(1.0).textColor);
+        assertTrue(CellFormatPart.getPartCache().getHitCount() > 0);
+        assertTrue(CellFormat.getFormatCache().size() <= CellFormat.getFormatCache().getMaxSize());
+        assertTrue(CellFormatter.getFormatterCache().size() > 0);
+    }
+
+    @Test
+    void testConcurrentFormatting() throws Exception {
+        String[] formats = {
+            "0.00E+00", "#,##0.00;[Red]-#,##0.00", "yyyy-mm-dd hh:mm:ss", "[h]:mm:ss", "0 ?/?", "\"ca. \"0", "General"
+        };
+        double[] values = { 0, 1.5, -1234.5678, 45678.123, 0.001, 98765432.1 };
+        String[][] expected = new String[formats.length][values.length];
+        for (int f = 0; f < formats.length; f++) {
+            for (int v = 0; v < values.length; v++) {
+                expected[f][v] = CellFormat.getInstance(Locale.US, formats[f]).apply(values[v]).text;
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        for (int f = 0; f < formats.length; f++) {
+                            CellFormat cf = CellFormat.getInstance(Locale.US, formats[f]);
+                            for (int v = 0; v < values.length; v++) {
+                                assertEquals(expected[f][v], cf.apply(values[v]).text, formats[f]);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
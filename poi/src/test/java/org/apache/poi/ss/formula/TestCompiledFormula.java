@@ -0,0 +1,163 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.HSSFTestDataSamples;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests {@link CompiledFormula}
+ */
+final class TestCompiledFormula {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "FormulaEvalTestData.xls", "IfFormulaTest.xls", "3dFormulas.xls", "shared_formulas.xls",
+        "FormulaSheetRange.xls", "StringFormulas.xls", "SharedFormulaTest.xls", "named-cell-in-formula-test.xls"
+    })
+    void sameResultsAsInterpreter(String file) throws IOException {
+        try (HSSFWorkbook wb = HSSFTestDataSamples.openSampleWorkbook(file)) {
+            EvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+            WorkbookEvaluator interpreter = new WorkbookEvaluator(ewb, null, null);
+            interpreter.setCompileFormulas(false);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(ewb, null, null);
+
+            int compiled = 0;
+            for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+                EvaluationSheet evalSheet = ewb.getSheet(i);
+                for (Row row : wb.getSheetAt(i)) {
+                    for (Cell c : row) {
+                        if (c.getCellType() != CellType.FORMULA) {
+                            continue;
+                        }
+                        EvaluationCell cell = evalSheet.getCell(c.getRowIndex(), c.getColumnIndex());
+                        CompiledFormula formula = CompiledFormula.compile(evaluator, ewb.getFormulaTokens(cell), cell);
+                        if (!formula.isCompiled()) {
+                            continue;
+                        }
+                        compiled++;
+                        OperationEvaluationContext ec = new OperationEvaluationContext(evaluator, ewb, i,
+                            c.getRowIndex(), c.getColumnIndex(), new EvaluationTracker(new EvaluationCache(null)));
+                        String msg = file + " " + c.getAddress() + " " + c.getCellFormula();
+                        ValueEval expected;
+                        try {
+                            expected = interpreter.evaluate(cell);
+                        } catch (RuntimeException e) {
+                            assertThrows(RuntimeException.class, () -> formula.evaluate(ec), msg);
+                            continue;
+                        }
+                        assertSameValue(expected, formula.evaluate(ec), msg);
+                    }
+                }
+            }
+            assertTrue(compiled > 0, file);
+        }
+    }
+
+    private static void assertSameValue(ValueEval expected, ValueEval actual, String msg) {
+        assertEquals(expected.getClass(), actual.getClass(), msg);
+        if (expected instanceof NumberEval) {
+            assertEquals(((NumberEval) expected).getNumberValue(), ((NumberEval) actual).getNumberValue(), 0, msg);
+        } else if (expected instanceof StringEval) {
+            assertEquals(((StringEval) expected).getStringValue(), ((StringEval) actual).getStringValue(), msg);
+        } else if (expected instanceof BoolEval) {
+            assertEquals(((BoolEval) expected).getBooleanValue(), ((BoolEval) actual).getBooleanValue(), msg);
+        } else if (expected instanceof ErrorEval) {
+            assertEquals(((ErrorEval) expected).getErrorCode(), ((ErrorEval) actual).getErrorCode(), msg);
+        }
+    }
+
+    @Test
+    void notCompilable() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFSheet sheet = wb.createSheet();
+            HSSFRow row = sheet.createRow(0);
+            HSSFCell cell = row.createCell(0);
+            cell.setCellFormula("IF(B1>1,-B1*3+1,\"small\")");
+            sheet.setArrayFormula("C1:D1*2", CellRangeAddress.valueOf("E1:F1"));
+            EvaluationWorkbook ewb = HSSFEvaluationWorkbook.create(wb);
+            WorkbookEvaluator evaluator = new WorkbookEvaluator(ewb, null, null);
+            EvaluationCell ec = ewb.getSheet(0).getCell(0, 0);
+            assertTrue(CompiledFormula.compile(evaluator, ewb.getFormulaTokens(ec), ec).isCompiled());
+
+            // array formulas are left to the interpreter
+            ec = ewb.getSheet(0).getCell(0, 4);
+            assertFalse(CompiledFormula.compile(evaluator, ewb.getFormulaTokens(ec), ec).isCompiled());
+        }
+    }
+
+    @Test
+    void reevaluation() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            Row row = sheet.createRow(0);
+            Cell a1 = row.createCell(0);
+            Cell b1 = row.createCell(1);
+            Cell c1 = row.createCell(2);
+            a1.setCellValue(2);
+            b1.setCellFormula("IF(A1>1,A1*3+1,-A1)");
+            c1.setCellFormula("B1/(A1-2)");
+
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            assertTrue(fe._getWorkbookEvaluator().isCompileFormulas());
+            double[] inputs = {2, 3, 0.5, -4, 2.5};
+            for (double input : inputs) {
+                a1.setCellValue(input);
+                fe.notifyUpdateCell(a1);
+                double b = input > 1 ? input * 3 + 1 : -input;
+                assertEquals(b, fe.evaluate(b1).getNumberValue(), 1e-9);
+                if (input == 2) {
+                    assertEquals(ErrorEval.DIV_ZERO.getErrorCode(), fe.evaluate(c1).getErrorValue());
+                } else {
+                    assertEquals(b / (input - 2), fe.evaluate(c1).getNumberValue(), 1e-9);
+                }
+            }
+
+            // a changed formula must not be evaluated with the previously compiled one
+            b1.setCellFormula("A1+100");
+            fe.notifySetFormula(b1);
+            assertEquals(102.5, fe.evaluate(b1).getNumberValue(), 0);
+            assertEquals(205, fe.evaluate(c1).getNumberValue(), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link LookupIndexCache} with exact match lookups and conditional aggregations
+ */
+final class TestLookupIndexCache {
+
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        wb.createSheet("Calc").createRow(0);
+        Sheet data = wb.createSheet("Data");
+        for (int i = 0; i < 100; i++) {
+            data.createRow(i).createCell(1).setCellValue(i);
+            if (i % 10 != 9) {
+                Cell cell = data.getRow(i).createCell(0);
+                if (i % 3 == 0) {
+                    cell.setCellValue(i);
+                } else {
+                    cell.setCellValue("Key" + i);
+                }
+            }
+        }
+        data.getRow(4).getCell(0).setCellFormula("C5&\"\"");
+        data.getRow(4).createCell(2).setCellValue("Key4");
+        // duplicate key
+        data.getRow(50).getCell(0).setCellValue("KEY1");
+        return wb;
+    }
+
+    private static CellValue evaluate(HSSFFormulaEvaluator fe, Cell cell, String formula) {
+        cell.setCellFormula(formula);
+        fe.notifySetFormula(cell);
+        return fe.evaluate(cell);
+    }
+
+    @Test
+    void lookups() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            Cell cell = wb.getSheet("Calc").getRow(0).createCell(0);
+            String[] formulas = {
+                "VLOOKUP(%s,Data!A1:B200,2,FALSE)",
+                "INDEX(Data!B1:B200,MATCH(%s,Data!A1:A200,0))",
+                "XLOOKUP(%s,Data!A1:A200,Data!B1:B200)",
+            };
+            for (String formula : formulas) {
+                assertEquals(1, evaluate(fe, cell, String.format(formula, "\"key1\"")).getNumberValue(), 0, formula);
+                assertEquals(4, evaluate(fe, cell, String.format(formula, "\"Key4\"")).getNumberValue(), 0, formula);
+                assertEquals(3, evaluate(fe, cell, String.format(formula, "3")).getNumberValue(), 0, formula);
+                assertEquals(10, evaluate(fe, cell, String.format(formula, "\"Key1?\"")).getNumberValue(), 0, formula);
+                assertEquals(FormulaError.NA.getCode(), evaluate(fe, cell, String.format(formula, "\"3\"")).getErrorValue(), formula);
+                assertEquals(FormulaError.NA.getCode(), evaluate(fe, cell, String.format(formula, "9")).getErrorValue(), formula);
+            }
+        }
+    }
+
+    @Test
+    void changedCells() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            Sheet calc = wb.getSheet("Calc");
+            Cell vlookup = calc.getRow(0).createCell(0);
+            vlookup.setCellFormula("VLOOKUP(\"New\",Data!A1:B200,2,FALSE)");
+            Cell match = calc.getRow(0).createCell(1);
+            match.setCellFormula("MATCH(\"Key4\",Data!A1:A200,0)");
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(vlookup).getErrorValue());
+            assertEquals(5, fe.evaluate(match).getNumberValue(), 0);
+
+            // plain value
+            Sheet data = wb.getSheet("Data");
+            Cell a2 = data.getRow(1).getCell(0);
+            a2.setCellValue("new");
+            fe.notifyUpdateCell(a2);
+            assertEquals(1, fe.evaluate(vlookup).getNumberValue(), 0);
+
+            // precedent of a formula cell in the lookup column
+            Cell c5 = data.getRow(4).getCell(2);
+            c5.setCellValue("Key5");
+            fe.notifyUpdateCell(c5);
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(match).getErrorValue());
+
+            // blank cell within the lookup column
+            Cell a150 = data.createRow(149).createCell(0);
+            a150.setCellValue("Key4");
+            fe.notifyUpdateCell(a150);
+            assertEquals(150, fe.evaluate(match).getNumberValue(), 0);
+
+            a2.setCellValue("old");
+            fe.notifyUpdateCell(a2);
+            data.getRow(1).removeCell(a2);
+            fe.notifyDeleteCell(a2);
+            assertEquals(FormulaError.NA.getCode(), fe.evaluate(vlookup).getErrorValue());
+            assertEquals(150, fe.evaluate(match).getNumberValue(), 0);
+        }
+    }
+
+    @Test
+    void criteria() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            Sheet data = wb.createSheet("Data");
+            for (int i = 0; i < 100; i++) {
+                Row row = data.createRow(i);
+                row.createCell(0).setCellValue("Cat" + (i % 4));
+                row.createCell(1).setCellValue(i);
+                if (i % 10 != 0) {
+                    row.createCell(2).setCellValue(i % 7);
+                }
+            }
+            Row calc = wb.createSheet("Calc").createRow(0);
+            Cell sumifs = calc.createCell(0);
+            sumifs.setCellFormula("SUMIFS(Data!B1:B100,Data!A1:A100,\"cat1\",Data!C1:C100,\">3\")");
+            Cell countifs = calc.createCell(1);
+            countifs.setCellFormula("COUNTIFS(Data!A1:A100,\"Cat1\",Data!C1:C100,\">3\")");
+            Cell averageifs = calc.createCell(2);
+            averageifs.setCellFormula("AVERAGEIFS(Data!B1:B100,Data!A1:A100,\"Cat1\",Data!C1:C100,\">3\")");
+            Cell countif = calc.createCell(3);
+            countif.setCellFormula("COUNTIF(Data!C1:C100,\">=0\")");
+            Cell sumif = calc.createCell(4);
+            sumif.setCellFormula("SUMIF(Data!A1:A100,\"Cat?\",Data!B1:B100)");
+
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            for (int pass = 0; pass < 2; pass++) {
+                double sum = 0;
+                int count = 0;
+                for (int i = 0; i < 100; i++) {
+                    Row row = data.getRow(i);
+                    Cell c = row.getCell(2);
+                    if (row.getCell(0).getStringCellValue().equals("Cat1") && c != null && c.getNumericCellValue() > 3) {
+                        sum += row.getCell(1).getNumericCellValue();
+                        count++;
+                    }
+                }
+                assertEquals(sum, fe.evaluate(sumifs).getNumberValue(), 0);
+                assertEquals(count, fe.evaluate(countifs).getNumberValue(), 0);
+                assertEquals(sum / count, fe.evaluate(averageifs).getNumberValue(), 1e-9);
+                assertEquals(pass == 0 ? 90 : 91, fe.evaluate(countif).getNumberValue(), 0);
+                assertEquals(pass == 0 ? 4950 : 5049, fe.evaluate(sumif).getNumberValue(), 0);
+
+                // the changes must clear the cached indexes
+                Cell c11 = data.getRow(10).createCell(2);
+                c11.setCellValue(6);
+                fe.notifyUpdateCell(c11);
+                Cell b2 = data.getRow(1).getCell(1);
+                b2.setCellValue(100);
+                fe.notifyUpdateCell(b2);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.formula;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link SheetDependencies} and {@link BaseFormulaEvaluator#evaluateAllFormulaCellsConcurrently}
+ */
+final class TestSheetDependencies {
+
+    private static HSSFWorkbook createWorkbook() {
+        HSSFWorkbook wb = new HSSFWorkbook();
+        for (int i = 0; i < 4; i++) {
+            wb.createSheet("S" + i).createRow(0);
+        }
+        Row row = wb.getSheetAt(0).getRow(0);
+        row.createCell(0).setCellValue(1);
+        row.createCell(1).setCellFormula("A1+1");
+        wb.getSheetAt(1).getRow(0).createCell(0).setCellFormula("S2!A1*2");
+        wb.getSheetAt(2).getRow(0).createCell(0).setCellValue(5);
+        Name name = wb.createName();
+        name.setNameName("myName");
+        name.setRefersToFormula("S0!$A$1:$B$1");
+        wb.getSheetAt(3).getRow(0).createCell(0).setCellFormula("SUM(myName)");
+        return wb;
+    }
+
+    private static List<int[]> getGroups(Workbook wb, EvaluationWorkbook ewb) {
+        SheetDependencies dependencies = new SheetDependencies(ewb);
+        List<BitSet> refs = new ArrayList<>();
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+            refs.add(dependencies.getReferencedSheets(i, wb.getSheetAt(i)));
+        }
+        return SheetDependencies.getIndependentGroups(refs);
+    }
+
+    @Test
+    void testIndependentGroups() throws IOException {
+        try (HSSFWorkbook wb = createWorkbook()) {
+            List<int[]> groups = getGroups(wb, HSSFEvaluationWorkbook.create(wb));
+            assertEquals(2, groups.size());
+            assertArrayEquals(new int[]{0, 3}, groups.get(0));
+            assertArrayEquals(new int[]{1, 2}, groups.get(1));
+
+            // INDIRECT may refer to any sheet
+            wb.getSheetAt(2).getRow(0).createCell(1).setCellFormula("INDIRECT(\"S0!A1\")");
+            SheetDependencies dependencies = new SheetDependencies(HSSFEvaluationWorkbook.create(wb));
+            assertNull(dependencies.getReferencedSheets(2, wb.getSheetAt(2)));
+            groups = getGroups(wb, HSSFEvaluationWorkbook.create(wb));
+            assertEquals(1, groups.size());
+            assertArrayEquals(new int[]{0, 1, 2, 3}, groups.get(0));
+        }
+    }
+
+    @Test
+    void testGroupsAreTransitive() {
+        BitSet s0 = new BitSet();
+        s0.set(0);
+        s0.set(3);
+        BitSet s1 = new BitSet();
+        s1.set(1);
+        BitSet s2 = new BitSet();
+        s2.set(1, 3);
+        BitSet s3 = new BitSet();
+        s3.set(2, 4);
+        List<BitSet> refs = new ArrayList<>();
+        refs.add(s0);
+        refs.add(s1);
+        refs.add(s2);
+        refs.add(s3);
+        refs.add(null);
+        List<int[]> groups = SheetDependencies.getIndependentGroups(refs);
+        assertEquals(1, groups.size());
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, groups.get(0));
+
+        refs.remove(4);
+        refs.set(3, s1);
+        groups = SheetDependencies.getIndependentGroups(refs);
+        assertEquals(1, groups.size());
+
+        BitSet s4 = new BitSet();
+        s4.set(4);
+        refs.set(0, s4);
+        refs.add(s4);
+        groups = SheetDependencies.getIndependentGroups(refs);
+        assertEquals(2, groups.size());
+        assertArrayEquals(new int[]{0, 4}, groups.get(0));
+        assertArrayEquals(new int[]{1, 2, 3}, groups.get(1));
+    }
+
+    @Test
+    void testEvaluateAllConcurrently() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (HSSFWorkbook wb = createWorkbook()) {
+            BaseFormulaEvaluator.evaluateAllFormulaCellsConcurrently(wb, executor);
+            Sheet s0 = wb.getSheetAt(0);
+            assertEquals(2, s0.getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(10, wb.getSheetAt(1).getRow(0).getCell(0).getNumericCellValue(), 0);
+            assertEquals(3, wb.getSheetAt(3).getRow(0).getCell(0).getNumericCellValue(), 0);
+
+            s0.getRow(0).getCell(0).setCellValue(4);
+            BaseFormulaEvaluator.evaluateAllFormulaCellsConcurrently(wb, executor);
+            assertEquals(5, s0.getRow(0).getCell(1).getNumericCellValue(), 0);
+            assertEquals(9, wb.getSheetAt(3).getRow(0).getCell(0).getNumericCellValue(), 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
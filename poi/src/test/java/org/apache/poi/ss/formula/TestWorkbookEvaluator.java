@@ -26,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.poi.hssf.HSSFTestDataSamples;
 import org.apache.poi.hssf.usermodel.HSSFCell;
@@ -644,4 +645,55 @@ class TestWorkbookEvaluator {
             assertEquals("3", cellC3.getStringCellValue());
         }
     }
+
+    @Test
+    void testRecalculateDirty() throws IOException {
+        try (HSSFWorkbook wb = new HSSFWorkbook()) {
+            HSSFRow row = wb.createSheet().createRow(0);
+            HSSFCell a1 = row.createCell(0);
+            HSSFCell b1 = row.createCell(1);
+            HSSFCell c1 = row.createCell(2);
+            HSSFCell d1 = row.createCell(3);
+            HSSFCell e1 = row.createCell(4);
+            a1.setCellValue(1);
+            b1.setCellFormula("A1*2");
+            c1.setCellFormula("B1+1");
+            d1.setCellFormula("5*2");
+
+            HSSFFormulaEvaluator fe = wb.getCreationHelper().createFormulaEvaluator();
+            fe.evaluateAll();
+            assertEquals(3, c1.getNumericCellValue(), EPSILON);
+            // nothing changed yet
+            assertEquals(0, fe.recalculateDirty());
+
+            a1.setCellValue(4);
+            fe.notifyUpdateCell(a1);
+            // only the dependents of A1 are evaluated
+            assertEquals(2, fe.recalculateDirty());
+            assertEquals(8, b1.getNumericCellValue(), EPSILON);
+            assertEquals(9, c1.getNumericCellValue(), EPSILON);
+            assertEquals(0, fe.recalculateDirty());
+
+            // the new formula is marked dirty before its precedents, but evaluated after them
+            e1.setCellFormula("C1*10");
+            fe.notifySetFormula(e1);
+            a1.setCellValue(5);
+            fe.notifyUpdateCell(a1);
+            List<EvaluationCell> cells = fe._getWorkbookEvaluator().recalculateDirty();
+            assertEquals(3, cells.size());
+            assertSame(b1, cells.get(0).getIdentityKey());
+            assertSame(c1, cells.get(1).getIdentityKey());
+            assertSame(e1, cells.get(2).getIdentityKey());
+            assertEquals(110, fe.evaluate(e1).getNumberValue(), EPSILON);
+
+            // a formula changed to a plain value is no longer dirty
+            b1.setCellFormula("A1*3");
+            fe.notifySetFormula(b1);
+            b1.removeFormula();
+            b1.setCellValue(7);
+            fe.notifyUpdateCell(b1);
+            assertEquals(2, fe.recalculateDirty());
+            assertEquals(80, e1.getNumericCellValue(), EPSILON);
+        }
+    }
 }
@@ -58,6 +58,19 @@ final class TestMinusZeroResult {
         checkEval(0.0, EvalInstances.Add, MINUS_ZERO, 0.0);
     }
 
+    /**
+     * The shared instances of {@link NumberEval#valueOf(double)} must not turn '-0.0' into '0.0'
+     */
+    @Test
+    void testInternedValues() {
+        assertDouble(MINUS_ZERO, NumberEval.valueOf(MINUS_ZERO).getNumberValue());
+        assertDouble(0.0, NumberEval.valueOf(0.0).getNumberValue());
+        assertEquals(NumberEval.ZERO, NumberEval.valueOf(0.0));
+        checkEval(MINUS_ZERO, EvalInstances.Subtract, MINUS_ZERO, 0.0);
+        checkEval(0.0, EvalInstances.Multiply, 0.0, -5.0);
+        checkEval(0.0, EvalInstances.Divide, 0.0, -5.0);
+    }
+
     /**
      * These results are hard to see in Excel (since -0.0 is usually converted to +0.0 before it
      * gets to the comparison operator)
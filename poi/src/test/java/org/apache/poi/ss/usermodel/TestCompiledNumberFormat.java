@@ -0,0 +1,171 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.ss.usermodel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests {@link CompiledNumberFormat} against {@link DecimalFormat}
+ */
+final class TestCompiledNumberFormat {
+    private static final String[] PATTERNS = {
+        "0", "0.00", "#,##0", "#,##0.00", "0%", "0.00%", "#", "#.##", "$#,##0.00", "#,##0.00 €",
+        "00000", "0.", "#,#0.0#", "#,##0.00;(#,##0.00)", "¤#,##0.00", "0.000000000000000000000"
+    };
+
+    private static List<Double> values() {
+        List<Double> values = new ArrayList<>();
+        double[] special = {
+            0.0, -0.0, 0.5, 1.005, -1.005, 0.125, 2.5, -2.5, 0.001, -0.001, 0.005, -0.005, 9.995, 999999.995,
+            1e15, 1.5e15, 1e20, 1.23e-7, 0.1 + 0.2, Double.MAX_VALUE, Double.MIN_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+        };
+        for (double d : special) {
+            values.add(d);
+        }
+        Random rnd = new Random(1234);
+        for (int i = 0; i < 2000; i++) {
+            values.add((rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(30) - 12));
+            values.add(rnd.nextInt(200000) / 200.0 - 500);
+        }
+        return values;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"en-US", "de-DE", "fr-FR", "de-CH", "ar-EG", "th-TH-u-nu-thai"})
+    void sameAsDecimalFormat(String languageTag) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.forLanguageTag(languageTag));
+        List<Double> values = values();
+        for (String pattern : PATTERNS) {
+            CompiledNumberFormat compiled = CompiledNumberFormat.getInstance(pattern, symbols);
+            assertNotNull(compiled, pattern);
+            DecimalFormat df = new DecimalFormat(pattern, symbols);
+            df.setRoundingMode(RoundingMode.HALF_UP);
+            for (double value : values) {
+                String msg = pattern + " " + value;
+                if (Double.isNaN(value) || Double.isInfinite(value)) {
+                    assertEquals(df.format(value), compiled.format(value), msg);
+                    continue;
+                }
+                assertEquals(df.format(BigDecimal.valueOf(value)), compiled.format(value), msg);
+                BigDecimal text = new BigDecimal(NumberToTextConverter.toText(value));
+                assertEquals(df.format(text), compiled.format(text), msg);
+            }
+            // unlike BigDecimal, a Double keeps the sign of zero
+            assertEquals(df.format(-0.0), compiled.format((Object) (-0.0)), pattern);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"en-US", "de-DE"})
+    void doubleObjectSameAsDecimalFormat(String languageTag) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.forLanguageTag(languageTag));
+        List<Double> values = values();
+        for (String pattern : PATTERNS) {
+            CompiledNumberFormat compiled = CompiledNumberFormat.getInstance(pattern, symbols);
+            DecimalFormat df = new DecimalFormat(pattern, symbols);
+            df.setRoundingMode(RoundingMode.HALF_UP);
+            for (double value : values) {
+                // the ties of a Double are rounded by its exact binary value like DecimalFormat.format(double) does
+                assertEquals(df.format(value), compiled.format((Object) value), pattern + " " + value);
+            }
+        }
+    }
+
+    @Test
+    void doubleObjectRoundsExactValue() {
+        CompiledNumberFormat compiled = CompiledNumberFormat.getInstance("0.00", DecimalFormatSymbols.getInstance(Locale.US));
+        assertEquals("1.00", compiled.format((Object) 1.005));
+        assertEquals("0.04", compiled.format((Object) 0.045));
+        assertEquals("-1.00", compiled.format((Object) (-1.005)));
+        assertEquals("0.13", compiled.format((Object) 0.125));
+        // the double path of DataFormatter formats the shortest decimal digits
+        assertEquals("1.01", compiled.format(1.005));
+        assertEquals("0.05", compiled.format(0.045));
+    }
+
+    @Test
+    void notCompiled() {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
+        assertNull(CompiledNumberFormat.getInstance("0.00E00", symbols));
+        assertNull(CompiledNumberFormat.getInstance("#,##0,", symbols));
+        assertNull(CompiledNumberFormat.getInstance("0.0‰", symbols));
+        assertNull(CompiledNumberFormat.getInstance("0.0'", symbols));
+
+        // the formats are shared
+        assertSame(CompiledNumberFormat.getInstance("#,##0.00", symbols),
+            CompiledNumberFormat.getInstance("#,##0.00", DecimalFormatSymbols.getInstance(Locale.US)));
+    }
+
+    @Test
+    void concurrentFormatting() throws Exception {
+        DataFormatter formatter = new DataFormatter(Locale.US);
+        String[] formats = {"#,##0.00", "0.0%", "General", "0.00E+00", "$#,##0_);($#,##0)", "# ?/?"};
+        double[] values = new double[1000];
+        Random rnd = new Random(42);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (rnd.nextDouble() - 0.3) * Math.pow(10, rnd.nextInt(12) - 4);
+        }
+        String[][] expected = new String[formats.length][values.length];
+        DataFormatter single = new DataFormatter(Locale.US);
+        for (int f = 0; f < formats.length; f++) {
+            for (int i = 0; i < values.length; i++) {
+                expected[f][i] = single.formatRawCellContents(values[i], -1, formats[f]);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int f = 0; f < formats.length; f++) {
+                        for (int i = 0; i < values.length; i++) {
+                            assertEquals(expected[f][i], formatter.formatRawCellContents(values[i], -1, formats[f]));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+final class TestBoundedCache {
+
+    @Test
+    void hitsAndMisses() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        String a = cache.get("a", k -> k + loads.incrementAndGet());
+        assertEquals("a1", a);
+        assertSame(a, cache.get("a", k -> k + loads.incrementAndGet()));
+        assertNull(cache.get("b", k -> null));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals("a2", cache.get("a", k -> k + loads.incrementAndGet()));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("c", k -> {
+            throw new IllegalArgumentException();
+        }));
+        assertNull(cache.getIfPresent("c"));
+
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+
+    @Test
+    void leastRecentlyUsedEviction() {
+        // a single segment, so the eviction order is exact
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(1);
+        cache.get(1, k -> k);
+        cache.get(2, k -> k);
+        assertNull(cache.getIfPresent(1));
+        assertEquals(1, cache.getEvictionCount());
+
+        // the keys are spread over 16 segments with a capacity of 4 each
+        cache = new BoundedCache<>(64);
+        for (int i = 0; i < 64; i++) {
+            cache.get(i, k -> k);
+        }
+        assertEquals(64, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+        cache.get(0, k -> k);
+        for (int i = 64; i < 80; i++) {
+            cache.get(i, k -> k);
+        }
+        assertEquals(64, cache.size());
+        assertEquals(16, cache.getEvictionCount());
+        // the recently used key was kept, the oldest one of its segment was dropped
+        assertEquals(0, cache.getIfPresent(0));
+        assertNull(cache.getIfPresent(16));
+
+        BoundedCache<Integer, Integer> odd = new BoundedCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            odd.get(i, k -> k);
+        }
+        assertEquals(100, odd.size());
+        assertEquals(900, odd.getEvictionCount());
+    }
+
+    @Test
+    void concurrentAccess() throws Exception {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(50);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        int key = (i * 31 + seed) % 100;
+                        assertEquals(String.valueOf(key), cache.get(key, String::valueOf));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(cache.size() <= 50);
+        assertEquals(80_000, cache.getHitCount() + cache.getMissCount());
+    }
+}
@@ -0,0 +1,108 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+final class TestConcurrentTasks {
+
+    @Test
+    void resultsInOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (ConcurrentTasks<Integer> tasks = new ConcurrentTasks<>(executor)) {
+            for (int i = 0; i < 10; i++) {
+                int value = i;
+                tasks.submit(() -> value * value);
+            }
+            assertEquals(Arrays.asList(0, 1, 4, 9, 16, 25, 36, 49, 64, 81), tasks.joinAll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failures() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            IllegalStateException ise = new IllegalStateException();
+            try (ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(executor)) {
+                tasks.run(() -> {});
+                tasks.run(() -> { throw ise; });
+                assertSame(ise, assertThrows(IllegalStateException.class, tasks::joinAll));
+            }
+
+            IOException ioe = new IOException();
+            try (ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(executor)) {
+                tasks.run(() -> { throw new CompletionException(ioe); });
+                assertSame(ioe, assertThrows(CompletionException.class, tasks::joinAll).getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitForStartedTasksOnRejection() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger started = new AtomicInteger();
+            AtomicInteger finished = new AtomicInteger();
+            // accepts two tasks and rejects the third
+            ConcurrentTasks<Void> tasks = new ConcurrentTasks<>(r -> {
+                if (started.incrementAndGet() > 2) {
+                    release.countDown();
+                    throw new RejectedExecutionException();
+                }
+                executor.execute(r);
+            });
+            assertThrows(RejectedExecutionException.class, () -> {
+                try (ConcurrentTasks<Void> t = tasks) {
+                    for (int i = 0; i < 3; i++) {
+                        t.run(() -> {
+                            try {
+                                release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            finished.incrementAndGet();
+                        });
+                    }
+                    t.joinAll();
+                }
+            });
+            assertEquals(2, finished.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
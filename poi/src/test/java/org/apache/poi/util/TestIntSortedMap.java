@@ -0,0 +1,280 @@
+/* ====================================================================
+   Licensed to the Apache Software Foundation (ASF) under one or more
+   contributor license agreements.  See the NOTICE file distributed with
+   this work for additional information regarding copyright ownership.
+   The ASF licenses this file to You under the Apache License, Version 2.0
+   (the "License"); you may not use this file except in compliance with
+   the License.  You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+==================================================================== */
+
+package org.apache.poi.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class to test IntSortedMap
+ */
+final class TestIntSortedMap {
+    @Test
+    void testEmpty() {
+        IntSortedMap<String> map = new IntSortedMap<>();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+        assertNull(map.remove(0));
+        assertEquals(0, map.headSize(5));
+        assertThrows(NoSuchElementException.class, map::firstKey);
+        assertThrows(NoSuchElementException.class, map::lastKey);
+        assertFalse(map.values().iterator().hasNext());
+    }
+
+    @Test
+    void testDenseRun() {
+        IntSortedMap<String> map = new IntSortedMap<>(2);
+        for (int i = 10; i < 20; i++) {
+            assertNull(map.put(i, "v" + i));
+        }
+        assertEquals(10, map.size());
+        assertEquals(10, map.firstKey());
+        assertEquals(19, map.lastKey());
+        for (int i = 10; i < 20; i++) {
+            assertEquals("v" + i, map.get(i));
+            assertEquals(i - 10, map.headSize(i));
+        }
+        assertNull(map.get(9));
+        assertNull(map.get(20));
+        assertEquals(0, map.headSize(-1));
+        assertEquals(10, map.headSize(100));
+
+        assertEquals("v15", map.put(15, "x"));
+        assertEquals("x", map.get(15));
+        assertEquals(10, map.size());
+    }
+
+    @Test
+    void testSparseKeys() {
+        IntSortedMap<String> map = new IntSortedMap<>();
+        map.put(30, "c");
+        map.put(10, "a");
+        map.put(20, "b");
+        map.put(5, "z");
+
+        assertEquals("[z, a, b, c]", map.values().toString());
+        assertEquals(5, map.firstKey());
+        assertEquals(30, map.lastKey());
+        assertNull(map.get(15));
+        assertEquals(2, map.headSize(15));
+        assertEquals(2, map.headSize(20));
+        assertEquals(20, map.keyAt(2));
+        assertEquals("b", map.valueAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.keyAt(4));
+
+        assertEquals("a", map.remove(10));
+        assertNull(map.remove(10));
+        assertEquals("[z, b, c]", map.values().toString());
+        assertTrue(map.containsKey(20));
+        assertFalse(map.containsKey(10));
+        assertTrue(map.containsValue("c"));
+        assertFalse(map.containsValue("a"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(20));
+    }
+
+    @Test
+    void testSubValues() {
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        for (int i = 0; i < 20; i += 2) {
+            map.put(i, i);
+        }
+        assertIterableEquals(Arrays.asList(4, 6, 8), map.subValues(3, 10));
+        assertIterableEquals(Arrays.asList(4, 6, 8, 10), map.subValues(4, 11));
+        assertTrue(map.subValues(5, 6).isEmpty());
+        assertTrue(map.subValues(100, 200).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> map.subValues(2, 1));
+    }
+
+    @Test
+    void testIterator() {
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+
+        // remove all odd values via the iterator
+        for (Iterator<Integer> it = map.values().iterator(); it.hasNext(); ) {
+            if (it.next() % 2 == 1) {
+                it.remove();
+            }
+        }
+        assertEquals("[0, 2, 4, 6, 8]", map.values().toString());
+        assertNull(map.get(3));
+        assertEquals(6, map.get(6));
+
+        Iterator<Integer> it = map.values().iterator();
+        assertThrows(IllegalStateException.class, it::remove);
+        it.next();
+        map.put(100, 100);
+        assertThrows(ConcurrentModificationException.class, it::next);
+
+        String joined = StreamSupport.stream(map.values().spliterator(), false)
+            .map(String::valueOf).collect(Collectors.joining(","));
+        assertEquals("0,2,4,6,8,100", joined);
+    }
+
+    @Test
+    void testAgainstTreeMap() {
+        Random rnd = new Random(4711);
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            int key = rnd.nextInt(2_000);
+            if (rnd.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            int probe = rnd.nextInt(2_100) - 50;
+            assertEquals(expected.get(probe), map.get(probe));
+            assertEquals(expected.headMap(probe).size(), map.headSize(probe));
+        }
+        assertEquals(expected.size(), map.size());
+        assertIterableEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    void testLargeMapAgainstTreeMap() {
+        // large enough to be split into many chunks and to merge them again
+        Random rnd = new Random(815);
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(expected.put(i, i), map.put(i, i));
+        }
+        for (int i = 0; i < 60_000; i++) {
+            int key = rnd.nextInt(40_000) - 10_000;
+            // first grow by inserting in between, then shrink
+            if (rnd.nextInt(4) < (i < 30_000 ? 1 : 3)) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            if (i % 100 == 0) {
+                int probe = rnd.nextInt(42_000) - 11_000;
+                assertEquals(expected.get(probe), map.get(probe));
+                assertEquals(expected.headMap(probe).size(), map.headSize(probe));
+                assertIterableEquals(new ArrayList<>(expected.subMap(probe, probe + 2_000).values()), map.subValues(probe, probe + 2_000));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.firstKey(), map.firstKey());
+        assertEquals(expected.lastKey(), map.lastKey());
+        int index = 0;
+        for (Integer key : expected.keySet()) {
+            assertEquals(key, map.keyAt(index));
+            assertEquals(expected.get(key), map.valueAt(index));
+            index++;
+        }
+        assertIterableEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+
+        // remove all but every 1000th entry via the iterator
+        int pos = 0;
+        for (Iterator<Integer> it = map.values().iterator(); it.hasNext(); pos++) {
+            it.next();
+            if (pos % 1000 != 0) {
+                it.remove();
+            }
+        }
+        pos = 0;
+        for (Iterator<Integer> it = expected.values().iterator(); it.hasNext(); pos++) {
+            it.next();
+            if (pos % 1000 != 0) {
+                it.remove();
+            }
+        }
+        assertIterableEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        for (Integer key : expected.keySet()) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.headMap(key).size(), map.headSize(key));
+        }
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(5, 5));
+        assertEquals(5, map.lastKey());
+    }
+
+    @Test
+    void testSortedMapView() {
+        IntSortedMap<String> map = new IntSortedMap<>();
+        SortedMap<Integer, String> view = map.asSortedMap();
+        assertTrue(view.isEmpty());
+        assertThrows(NoSuchElementException.class, view::firstKey);
+
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        for (int i = 0; i < 3_000; i += 3) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        // the view reflects later changes
+        assertEquals(expected, view);
+        assertEquals(expected.hashCode(), view.hashCode());
+        assertEquals(expected.firstKey(), view.firstKey());
+        assertEquals(expected.lastKey(), view.lastKey());
+        assertEquals("v3", view.get(3));
+        assertNull(view.get(4));
+        assertNull(view.get("3"));
+
+        SortedMap<Integer, String> sub = view.subMap(100, 2_000);
+        assertEquals(expected.subMap(100, 2_000), sub);
+        assertEquals(expected.headMap(1_000), view.headMap(1_000));
+        assertEquals(expected.tailMap(1_000), view.tailMap(1_000));
+        assertEquals(expected.subMap(100, 2_000).headMap(500), sub.headMap(500));
+        assertEquals(102, sub.firstKey());
+        assertEquals(1_998, sub.lastKey());
+        assertFalse(sub.containsKey(2_001));
+        assertNull(sub.get(0));
+        assertThrows(IllegalArgumentException.class, () -> sub.tailMap(50));
+        assertThrows(IllegalArgumentException.class, () -> view.subMap(10, 5));
+
+        map.remove(102);
+        map.put(101, "v101");
+        assertEquals(101, sub.firstKey());
+        assertEquals(633, sub.size());
+
+        assertThrows(UnsupportedOperationException.class, () -> view.put(1, "v1"));
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(3));
+
+        Iterator<Integer> it = view.keySet().iterator();
+        it.next();
+        map.put(-1, "v-1");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}